@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.JBBPNamedNumericFieldMap;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPExpressionEvaluator;
+import com.igormaznitsa.jbbp.model.JBBPFieldInt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of array size expressions by {@link JBBPExpressionEvaluator}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionEvaluatorBenchmark {
+
+    private JBBPExpressionEvaluator constantExpression;
+    private JBBPExpressionEvaluator fieldExpression;
+    private JBBPCompiledBlock block;
+    private JBBPNamedNumericFieldMap fieldMap;
+
+    @Setup
+    public void setup() throws IOException {
+        this.block = JBBPCompiler.compile("int length; int depth; int flags;");
+        final JBBPNamedFieldInfo[] names = this.block.getNamedFields();
+        final List<JBBPNamedFieldInfo> fields = Arrays.asList(names);
+        final byte[] compiled = this.block.getCompiledData();
+
+        // the parser keeps fields of the parsed block in slots of the map
+        this.fieldMap = new JBBPNamedNumericFieldMap(null, this.block);
+        this.fieldMap.putField(new JBBPFieldInt(names[0], 1024));
+        this.fieldMap.putField(new JBBPFieldInt(names[1], 24));
+        this.fieldMap.putField(new JBBPFieldInt(names[2], 0x35));
+
+        this.constantExpression = new JBBPExpressionEvaluator("(2*8*6/4+3*2-11%3)*(1<<4)", fields, compiled);
+        this.fieldExpression = new JBBPExpressionEvaluator("(flags & 1) * length * (depth >>> 3) + (length - 8) % 4", fields, compiled);
+    }
+
+    @Benchmark
+    public int evalConstant() {
+        return this.constantExpression.eval(null, this.block.getCompiledData().length, this.block, this.fieldMap);
+    }
+
+    @Benchmark
+    public int evalWithFields() {
+        return this.fieldExpression.eval(null, this.block.getCompiledData().length, this.block, this.fieldMap);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Auxiliary class to load test data files packed into the benchmark jar.
+ */
+final class Fixtures {
+
+    static final String PNG = "picture.png";
+    static final String WAV = "truspech.wav";
+    static final String Z80 = "test.z80";
+    static final String NET_PACKET = "tcppacket.bin";
+    static final String TGA = "logo.tga";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Load whole resource into byte array.
+     *
+     * @param name name of the resource, must not be null
+     * @return loaded data
+     * @throws IOException if the resource is not found or can't be read
+     */
+    static byte[] load(final String name) throws IOException {
+        final InputStream in = Fixtures.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("Can't find resource : " + name);
+        }
+        try {
+            final ByteArrayOutputStream result = new ByteArrayOutputStream(16384);
+            final byte[] buffer = new byte[16384];
+            while (true) {
+                final int read = in.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                result.write(buffer, 0, read);
+            }
+            return result.toByteArray();
+        } finally {
+            JBBPUtils.closeQuietly(in);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.benchmarks.generated.PngFile;
+import com.igormaznitsa.jbbp.benchmarks.generated.TgaFile;
+import com.igormaznitsa.jbbp.compiler.conversion.JBBPToJava6Converter;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing of test files through classes generated by {@link JBBPToJava6Converter}
+ * from scripts placed in src/jbbp, results can be compared with {@link ParserBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneratedClassBenchmark {
+
+    private byte[] png;
+    private byte[] tga;
+    private PngFile parsedPng;
+    private ByteArrayOutputStream outBuffer;
+
+    @Setup
+    public void setup() throws IOException {
+        this.png = Fixtures.load(Fixtures.PNG);
+        this.tga = Fixtures.load(Fixtures.TGA);
+        this.parsedPng = new PngFile().read(new JBBPBitInputStream(new ByteArrayInputStream(this.png)));
+        this.outBuffer = new ByteArrayOutputStream(this.png.length);
+    }
+
+    @Benchmark
+    public PngFile readPng() throws IOException {
+        return new PngFile().read(new JBBPBitInputStream(new ByteArrayInputStream(this.png)));
+    }
+
+    @Benchmark
+    public TgaFile readTga() throws IOException {
+        return new TgaFile().read(new JBBPBitInputStream(new ByteArrayInputStream(this.tga)));
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream writePng() throws IOException {
+        this.outBuffer.reset();
+        final JBBPBitOutputStream out = new JBBPBitOutputStream(this.outBuffer);
+        this.parsedPng.write(out);
+        out.flush();
+        return this.outBuffer;
+    }
+}
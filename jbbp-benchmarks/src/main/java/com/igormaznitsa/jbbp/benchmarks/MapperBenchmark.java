@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.mapper.Bin;
+import com.igormaznitsa.jbbp.mapper.JBBPMapper;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of already parsed field trees to class instances by {@link JBBPMapper}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private JBBPFieldStruct parsedPng;
+    private JBBPFieldStruct parsedWav;
+
+    @Setup
+    public void setup() throws IOException {
+        this.parsedPng = JBBPParser.prepare(ParserBenchmark.PNG_SCRIPT).parse(Fixtures.load(Fixtures.PNG));
+        this.parsedWav = JBBPParser.prepare(ParserBenchmark.WAV_SCRIPT).parse(Fixtures.load(Fixtures.WAV));
+    }
+
+    @Benchmark
+    public Png mapPng() {
+        return JBBPMapper.map(this.parsedPng, Png.class);
+    }
+
+    @Benchmark
+    public Wav mapWav() {
+        return JBBPMapper.map(this.parsedWav, Wav.class);
+    }
+
+    @Bin
+    public static class Chunk {
+        @Bin(outOrder = 1)
+        public int length;
+        @Bin(outOrder = 2)
+        public int type;
+        @Bin(outOrder = 3)
+        public byte[] data;
+        @Bin(outOrder = 4)
+        public int crc;
+    }
+
+    @Bin
+    public static class Png {
+        @Bin(outOrder = 1)
+        public long header;
+        @Bin(outOrder = 2)
+        public Chunk[] chunk;
+    }
+
+    @Bin
+    public static class SubChunk {
+        public int subChunkId;
+        public int subChunkSize;
+        public byte[] data;
+    }
+
+    @Bin
+    public static class Wav {
+        public int chunkId;
+        public int chunkSize;
+        public int format;
+        public SubChunk[] subChunks;
+    }
+}
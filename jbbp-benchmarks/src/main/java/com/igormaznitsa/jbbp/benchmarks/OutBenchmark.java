@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.io.JBBPOut;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing of data through {@link JBBPOut} command chains and {@link JBBPOut#Bin(Object)}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OutBenchmark {
+
+    private static final byte[] MAC = new byte[]{0x60, 0x67, 0x20, (byte) 0xE1, (byte) 0xF9, (byte) 0xF8};
+
+    private MapperBenchmark.Png png;
+    private byte[] target;
+    private JBBPOut reusableSession;
+
+    private static JBBPOut writeHeaders(final JBBPOut out) throws IOException {
+        return out
+                .Byte(MAC).Byte(MAC).Short(0x0800)
+                .Bits(JBBPBitNumber.BITS_4, 5).Bits(JBBPBitNumber.BITS_4, 4).Byte(0)
+                .Short(159, 30810, 0x4000).Byte(64, 6).Short(0x1234)
+                .Int(0xC0A80001, 0xC0A80002)
+                .ByteOrder(JBBPByteOrder.LITTLE_ENDIAN)
+                .Short(80, 8080).Int(0x12345678).Long(0x0102030405060708L)
+                .Bool(true, false, true).Align(4)
+                .Utf8("JBBP");
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        final byte[] pngData = Fixtures.load(Fixtures.PNG);
+        this.png = JBBPParser.prepare(ParserBenchmark.PNG_SCRIPT).parse(pngData).mapTo(MapperBenchmark.Png.class);
+        this.target = new byte[pngData.length];
+        this.reusableSession = JBBPOut.BeginBin(this.target);
+    }
+
+    @Benchmark
+    public byte[] chainToByteArray() throws IOException {
+        return writeHeaders(JBBPOut.BeginBin()).End().toByteArray();
+    }
+
+    @Benchmark
+    public JBBPOut chainReusedSession() throws IOException {
+        final JBBPOut out = writeHeaders(this.reusableSession.Reset());
+        out.End();
+        return out;
+    }
+
+    @Benchmark
+    public byte[] binToByteArray() throws IOException {
+        return JBBPOut.BeginBin().Bin(this.png).End().toByteArray();
+    }
+
+    @Benchmark
+    public JBBPOut binReusedSession() throws IOException {
+        final JBBPOut out = this.reusableSession.Reset().Bin(this.png);
+        out.End();
+        return out;
+    }
+}
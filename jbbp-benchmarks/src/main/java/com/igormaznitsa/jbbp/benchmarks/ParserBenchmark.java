@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.benchmarks;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of test files by {@link JBBPParser} into field trees.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    static final String PNG_SCRIPT = "long header;"
+            + "chunk [_]{"
+            + "   int length;"
+            + "   int type;"
+            + "   byte[length] data;"
+            + "   int crc;"
+            + "}";
+
+    static final String WAV_SCRIPT = "<int ChunkID;"
+            + "<int ChunkSize;"
+            + "<int Format;"
+            + "SubChunks [_]{"
+            + "  <int SubChunkID;"
+            + "  <int SubChunkSize;"
+            + "  byte [SubChunkSize] data;"
+            + "  align:2;"
+            + "}";
+
+    static final String Z80_SCRIPT = "byte reg_a; byte reg_f; <short reg_bc; <short reg_hl; <short reg_pc; <short reg_sp; byte reg_ir; byte reg_r; "
+            + "flags{ bit:1 reg_r_bit7; bit:3 bordercolor; bit:1 basic_samrom; bit:1 compressed; bit:2 nomeaning;}"
+            + "<short reg_de; <short reg_bc_alt; <short reg_de_alt; <short reg_hl_alt; byte reg_a_alt; byte reg_f_alt; <short reg_iy; <short reg_ix; byte iff; byte iff2;"
+            + "emulFlags{bit:2 interruptmode; bit:1 issue2emulation; bit:1 doubleintfreq; bit:2 videosync; bit:2 inputdevice;}"
+            + "byte [_] data;";
+
+    static final String NET_PACKET_SCRIPT = "ethernet {"
+            + "  byte[6] MacDestination;"
+            + "  byte[6] MacSource;"
+            + "  ushort EtherTypeOrLength;"
+            + "}"
+            + "ip {"
+            + "  bit:4 InternetHeaderLength;"
+            + "  bit:4 Version;"
+            + "  bit:2 ECN;"
+            + "  bit:6 DSCP;"
+            + "  ushort TotalPacketLength;"
+            + "  ushort Identification;"
+            + "  ushort IPFlagsAndFragmentOffset;"
+            + "  ubyte TTL;"
+            + "  ubyte Protocol;"
+            + "  ushort HeaderChecksum;"
+            + "  int SourceAddress;"
+            + "  int DestinationAddress;"
+            + "  byte [(InternetHeaderLength-5)*4] Options;"
+            + "}"
+            + "tcp {"
+            + "  ushort SourcePort;"
+            + "  ushort DestinationPort;"
+            + "  int SequenceNumber;"
+            + "  int AcknowledgementNumber;"
+            + "  bit:1 NONCE;"
+            + "  bit:3 RESERVED;"
+            + "  bit:4 HLEN;"
+            + "  bit:1 FIN;"
+            + "  bit:1 SYN;"
+            + "  bit:1 RST;"
+            + "  bit:1 PSH;"
+            + "  bit:1 ACK;"
+            + "  bit:1 URG;"
+            + "  bit:1 ECNECHO;"
+            + "  bit:1 CWR;"
+            + "  ushort WindowSize;"
+            + "  ushort TCPCheckSum;"
+            + "  ushort UrgentPointer;"
+            + "  byte [(HLEN-5)*4] Option;"
+            + "}"
+            + "byte [_] payload;";
+
+    static final String TGA_SCRIPT = "Header {"
+            + "  ubyte IDLength;"
+            + "  ubyte ColorMapType;"
+            + "  ubyte ImageType;"
+            + "  <ushort CMapStart;"
+            + "  <ushort CMapLength;"
+            + "  ubyte CMapDepth;"
+            + "  <short XOffset;"
+            + "  <short YOffset;"
+            + "  <ushort Width;"
+            + "  <ushort Height;"
+            + "  ubyte PixelDepth;"
+            + "  ImageDesc {"
+            + "    bit:4 PixelAttrNumber;"
+            + "    bit:2 Pos;"
+            + "    bit:2 Reserved;"
+            + "  }"
+            + "}"
+            + "byte [Header.IDLength] ImageID;"
+            + "ColorMap [ (Header.ColorMapType & 1) * Header.CMapLength ] {"
+            + "  byte [Header.CMapDepth >>> 3] ColorMapItem;"
+            + "}"
+            + "byte [_] ImageData;";
+
+    private JBBPParser pngParser;
+    private JBBPParser wavParser;
+    private JBBPParser z80Parser;
+    private JBBPParser netPacketParser;
+    private JBBPParser tgaParser;
+
+    private byte[] png;
+    private byte[] wav;
+    private byte[] z80;
+    private byte[] netPacket;
+    private byte[] tga;
+
+    @Setup
+    public void setup() throws IOException {
+        this.pngParser = JBBPParser.prepare(PNG_SCRIPT);
+        this.wavParser = JBBPParser.prepare(WAV_SCRIPT);
+        this.z80Parser = JBBPParser.prepare(Z80_SCRIPT);
+        this.netPacketParser = JBBPParser.prepare(NET_PACKET_SCRIPT);
+        this.tgaParser = JBBPParser.prepare(TGA_SCRIPT);
+
+        this.png = Fixtures.load(Fixtures.PNG);
+        this.wav = Fixtures.load(Fixtures.WAV);
+        this.z80 = Fixtures.load(Fixtures.Z80);
+        this.netPacket = Fixtures.load(Fixtures.NET_PACKET);
+        this.tga = Fixtures.load(Fixtures.TGA);
+    }
+
+    @Benchmark
+    public JBBPFieldStruct parsePng() throws IOException {
+        return this.pngParser.parse(this.png);
+    }
+
+    @Benchmark
+    public JBBPFieldStruct parseWav() throws IOException {
+        return this.wavParser.parse(this.wav);
+    }
+
+    @Benchmark
+    public JBBPFieldStruct parseZ80() throws IOException {
+        return this.z80Parser.parse(this.z80);
+    }
+
+    @Benchmark
+    public JBBPFieldStruct parseNetPacket() throws IOException {
+        return this.netPacketParser.parse(this.netPacket);
+    }
+
+    @Benchmark
+    public JBBPFieldStruct parseTga() throws IOException {
+        return this.tgaParser.parse(this.tga);
+    }
+}
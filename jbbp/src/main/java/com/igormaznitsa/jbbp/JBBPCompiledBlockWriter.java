@@ -0,0 +1,509 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPBitOutputStream;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.mapper.JBBPMapper;
+import com.igormaznitsa.jbbp.model.*;
+import com.igormaznitsa.jbbp.utils.JBBPIntCounter;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Inside auxiliary class to write values into a stream in the binary layout
+ * described by a compiled block. It walks the compiled block in the same order
+ * as the parser does, values are taken from a field tree or from a mapping
+ * class instance, expressions are calculated for already written values.
+ *
+ * @since 1.3.1
+ */
+final class JBBPCompiledBlockWriter {
+
+    private final JBBPCompiledBlock compiledBlock;
+
+    /**
+     * Constructor.
+     *
+     * @param compiledBlock a compiled block, must not be null
+     */
+    JBBPCompiledBlockWriter(final JBBPCompiledBlock compiledBlock) {
+        this.compiledBlock = compiledBlock;
+    }
+
+    private static String describe(final JBBPNamedFieldInfo name) {
+        return name == null ? "<NO NAME>" : name.getFieldPath();
+    }
+
+    /**
+     * Get number of array items to be written and check that it is compatible
+     * with the array length defined by the script.
+     *
+     * @param valueLength     length of the value array, -1 if there is no value
+     * @param arrayLength     array length defined by the script
+     * @param wholeStreamArray flag shows that the script defines whole stream array
+     * @param name            the field name info, can be null
+     * @return number of items to be written
+     */
+    private static int itemsToWrite(final int valueLength, final int arrayLength, final boolean wholeStreamArray, final JBBPNamedFieldInfo name) {
+        if (wholeStreamArray) {
+            return Math.max(0, valueLength);
+        }
+        if (valueLength >= 0 && valueLength != arrayLength) {
+            throw new JBBPIllegalArgumentException("Array length of field '" + describe(name) + "' must be " + arrayLength + " but detected " + valueLength);
+        }
+        return arrayLength;
+    }
+
+    /**
+     * Write values in the binary layout described by the compiled block.
+     *
+     * @param out                   a bit output stream, must not be null
+     * @param root                  source of values for the root structure, must not be null
+     * @param externalValueProvider an external value provider, it can be null
+     * @throws IOException it will be thrown for transport errors
+     */
+    void write(final JBBPBitOutputStream out, final Source root, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        final JBBPNamedNumericFieldMap fieldMap = this.compiledBlock.hasEvaluatedSizeArrays() ? new JBBPNamedNumericFieldMap(externalValueProvider, this.compiledBlock) : null;
+        writeStruct(new State(out, fieldMap), root, false);
+    }
+
+    private int evaluate(final State state, final boolean skip) {
+        final JBBPIntegerValueEvaluator evaluator = this.compiledBlock.getArraySizeEvaluators()[state.positionAtVarLengthProcessors.getAndIncrement()];
+        return skip ? 0 : evaluator.eval(state.counterStream, state.positionAtCompiledBlock.get(), this.compiledBlock, state.fieldMap);
+    }
+
+    private void writeStruct(final State state, final Source source, final boolean skip) throws IOException {
+        final byte[] compiled = this.compiledBlock.getCompiledData();
+        final JBBPBitOutputStream out = state.out;
+        final JBBPIntCounter positionAtCompiledBlock = state.positionAtCompiledBlock;
+
+        while (positionAtCompiledBlock.get() < compiled.length) {
+            final int c = compiled[positionAtCompiledBlock.getAndIncrement()] & 0xFF;
+            final boolean wideCode = (c & JBBPCompiler.FLAG_WIDE) != 0;
+            final int ec = wideCode ? compiled[positionAtCompiledBlock.getAndIncrement()] & 0xFF : 0;
+            final boolean extraFieldNumAsExpr = (ec & JBBPCompiler.EXT_FLAG_EXTRA_AS_EXPRESSION) != 0;
+            final int code = (ec << 8) | c;
+
+            final JBBPNamedFieldInfo name = (code & JBBPCompiler.FLAG_NAMED) == 0 ? null : this.compiledBlock.getNamedFields()[state.positionAtNamedFieldList.getAndIncrement()];
+            final JBBPByteOrder byteOrder = (code & JBBPCompiler.FLAG_LITTLE_ENDIAN) == 0 ? JBBPByteOrder.BIG_ENDIAN : JBBPByteOrder.LITTLE_ENDIAN;
+
+            final int extraFieldNumExprResult = extraFieldNumAsExpr ? evaluate(state, skip) : 0;
+
+            final boolean wholeStreamArray;
+            final int arrayLength;
+            final int packedArraySizeOffset;
+            switch (code & (JBBPCompiler.FLAG_ARRAY | (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8))) {
+                case JBBPCompiler.FLAG_ARRAY: {
+                    final int pos = positionAtCompiledBlock.get();
+                    arrayLength = JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                    packedArraySizeOffset = positionAtCompiledBlock.get() - pos;
+                    wholeStreamArray = false;
+                }
+                break;
+                case (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8): {
+                    wholeStreamArray = true;
+                    packedArraySizeOffset = 0;
+                    arrayLength = 0;
+                }
+                break;
+                case JBBPCompiler.FLAG_ARRAY | (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8): {
+                    arrayLength = evaluate(state, skip);
+                    if (arrayLength < 0) {
+                        throw new JBBPIllegalArgumentException("Detected negative calculated array length for field '" + describe(name) + "' [" + JBBPUtils.int2msg(arrayLength) + ']');
+                    }
+                    packedArraySizeOffset = 0;
+                    wholeStreamArray = false;
+                }
+                break;
+                default: {
+                    packedArraySizeOffset = 0;
+                    wholeStreamArray = false;
+                    arrayLength = -1;
+                }
+                break;
+            }
+
+            switch (code & 0xF) {
+                case JBBPCompiler.CODE_RESET_COUNTER: {
+                    if (!skip) {
+                        // the parser drops not completely read byte so that it must be written
+                        if (out.getBufferedBitsNumber() > 0) {
+                            out.writeBits(0, JBBPBitNumber.decode(8 - out.getBufferedBitsNumber()));
+                        }
+                        out.resetCounter();
+                    }
+                }
+                break;
+                case JBBPCompiler.CODE_ALIGN: {
+                    final int alignValue = extraFieldNumAsExpr ? extraFieldNumExprResult : JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                    if (!skip) {
+                        out.align(alignValue);
+                    }
+                }
+                break;
+                case JBBPCompiler.CODE_SKIP: {
+                    final int skipByteNumber = extraFieldNumAsExpr ? extraFieldNumExprResult : JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                    if (!skip) {
+                        for (int i = 0; i < skipByteNumber; i++) {
+                            out.write(0);
+                        }
+                    }
+                }
+                break;
+                case JBBPCompiler.CODE_BIT: {
+                    final int numberOfBits = extraFieldNumAsExpr ? extraFieldNumExprResult : JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                    if (!skip) {
+                        final JBBPBitNumber bitNumber = JBBPBitNumber.decode(numberOfBits);
+                        if (arrayLength < 0) {
+                            final JBBPAbstractField field = source.nextField(name, JBBPFieldBit.class, bitNumber);
+                            out.writeBits(field == null ? 0 : ((JBBPNumericField) field).getAsInt(), bitNumber);
+                            state.putNumeric(name, field);
+                        } else {
+                            final JBBPAbstractField field = source.nextField(name, JBBPFieldArrayBit.class, bitNumber);
+                            final byte[] array = field == null ? null : ((JBBPFieldArrayBit) field).getArray();
+                            final int items = itemsToWrite(array == null ? -1 : array.length, arrayLength, wholeStreamArray, name);
+                            for (int i = 0; i < items; i++) {
+                                out.writeBits(array == null ? 0 : array[i], bitNumber);
+                            }
+                        }
+                    }
+                }
+                break;
+                case JBBPCompiler.CODE_BOOL: {
+                    if (!skip) {
+                        if (arrayLength < 0) {
+                            final JBBPAbstractField field = source.nextField(name, JBBPFieldBoolean.class, null);
+                            out.write(field != null && ((JBBPNumericField) field).getAsBool() ? 1 : 0);
+                            state.putNumeric(name, field);
+                        } else {
+                            final JBBPAbstractField field = source.nextField(name, JBBPFieldArrayBoolean.class, null);
+                            final boolean[] array = field == null ? null : ((JBBPFieldArrayBoolean) field).getArray();
+                            final int items = itemsToWrite(array == null ? -1 : array.length, arrayLength, wholeStreamArray, name);
+                            for (int i = 0; i < items; i++) {
+                                out.write(array != null && array[i] ? 1 : 0);
+                            }
+                        }
+                    }
+                }
+                break;
+                case JBBPCompiler.CODE_BYTE:
+                case JBBPCompiler.CODE_UBYTE: {
+                    if (!skip) {
+                        final boolean signed = (code & 0xF) == JBBPCompiler.CODE_BYTE;
+                        if (arrayLength < 0) {
+                            final JBBPAbstractField field = source.nextField(name, signed ? JBBPFieldByte.class : JBBPFieldUByte.class, null);
+                            out.write(field == null ? 0 : ((JBBPNumericField) field).getAsInt());
+                            state.putNumeric(name, field);
+                        } else {
+                            final JBBPAbstractField field = source.nextField(name, signed ? JBBPFieldArrayByte.class : JBBPFieldArrayUByte.class, null);
+                            final byte[] array = field == null ? null : signed ? ((JBBPFieldArrayByte) field).getArray() : ((JBBPFieldArrayUByte) field).getArray();
+                            final int items = itemsToWrite(array == null ? -1 : array.length, arrayLength, wholeStreamArray, name);
+                            if (array == null) {
+                                for (int i = 0; i < items; i++) {
+                                    out.write(0);
+                                }
+                            } else {
+                                out.writeBytes(array, items, byteOrder);
+                            }
+                        }
+                    }
+                }
+                break;
+                case JBBPCompiler.CODE_SHORT:
+                case JBBPCompiler.CODE_USHORT: {
+                    if (!skip) {
+                        final boolean signed = (code & 0xF) == JBBPCompiler.CODE_SHORT;
+                        if (arrayLength < 0) {
+                            final JBBPAbstractField field = source.nextField(name, signed ? JBBPFieldShort.class : JBBPFieldUShort.class, null);
+                            out.writeShort(field == null ? 0 : ((JBBPNumericField) field).getAsInt(), byteOrder);
+                            state.putNumeric(name, field);
+                        } else {
+                            final JBBPAbstractField field = source.nextField(name, signed ? JBBPFieldArrayShort.class : JBBPFieldArrayUShort.class, null);
+                            final short[] array = field == null ? null : signed ? ((JBBPFieldArrayShort) field).getArray() : ((JBBPFieldArrayUShort) field).getArray();
+                            final int items = itemsToWrite(array == null ? -1 : array.length, arrayLength, wholeStreamArray, name);
+                            for (int i = 0; i < items; i++) {
+                                out.writeShort(array == null ? 0 : array[i], byteOrder);
+                            }
+                        }
+                    }
+                }
+                break;
+                case JBBPCompiler.CODE_INT: {
+                    if (!skip) {
+                        if (arrayLength < 0) {
+                            final JBBPAbstractField field = source.nextField(name, JBBPFieldInt.class, null);
+                            out.writeInt(field == null ? 0 : ((JBBPNumericField) field).getAsInt(), byteOrder);
+                            state.putNumeric(name, field);
+                        } else {
+                            final JBBPAbstractField field = source.nextField(name, JBBPFieldArrayInt.class, null);
+                            final int[] array = field == null ? null : ((JBBPFieldArrayInt) field).getArray();
+                            final int items = itemsToWrite(array == null ? -1 : array.length, arrayLength, wholeStreamArray, name);
+                            for (int i = 0; i < items; i++) {
+                                out.writeInt(array == null ? 0 : array[i], byteOrder);
+                            }
+                        }
+                    }
+                }
+                break;
+                case JBBPCompiler.CODE_LONG: {
+                    if (!skip) {
+                        if (arrayLength < 0) {
+                            final JBBPAbstractField field = source.nextField(name, JBBPFieldLong.class, null);
+                            out.writeLong(field == null ? 0L : ((JBBPNumericField) field).getAsLong(), byteOrder);
+                            state.putNumeric(name, field);
+                        } else {
+                            final JBBPAbstractField field = source.nextField(name, JBBPFieldArrayLong.class, null);
+                            final long[] array = field == null ? null : ((JBBPFieldArrayLong) field).getArray();
+                            final int items = itemsToWrite(array == null ? -1 : array.length, arrayLength, wholeStreamArray, name);
+                            for (int i = 0; i < items; i++) {
+                                out.writeLong(array == null ? 0L : array[i], byteOrder);
+                            }
+                        }
+                    }
+                }
+                break;
+                case JBBPCompiler.CODE_STRUCT_START: {
+                    if (arrayLength < 0) {
+                        writeStruct(state, skip ? null : source.nextStruct(name), skip);
+                        // skip offset
+                        JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                    } else {
+                        final Source[] items = skip ? null : source.nextStructArray(name);
+                        final int itemNumber = skip ? 0 : itemsToWrite(items == null ? -1 : items.length, arrayLength, wholeStreamArray, name);
+                        if (itemNumber == 0) {
+                            writeStruct(state, null, true);
+                            JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                        } else {
+                            final int nameFieldCurrent = state.positionAtNamedFieldList.get();
+                            final int varLenProcCurrent = state.positionAtVarLengthProcessors.get();
+                            for (int i = 0; i < itemNumber; i++) {
+                                writeStruct(state, items == null ? Source.ZERO : items[i], false);
+                                final int structBodyStart = JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                                if (i < itemNumber - 1) {
+                                    state.positionAtNamedFieldList.set(nameFieldCurrent);
+                                    state.positionAtVarLengthProcessors.set(varLenProcCurrent);
+                                    positionAtCompiledBlock.set(structBodyStart + packedArraySizeOffset + (wideCode ? 2 : 1));
+                                }
+                            }
+                        }
+                    }
+                }
+                break;
+                case JBBPCompiler.CODE_STRUCT_END: {
+                    // the caller must process the structure offset
+                    return;
+                }
+                default:
+                    throw new Error("Detected unexpected field type! Contact developer! [" + code + ']');
+            }
+        }
+    }
+
+    /**
+     * Source of values to be written for a structure.
+     */
+    abstract static class Source {
+        /**
+         * Source which doesn't have any value so that all fields are written
+         * with zero values.
+         */
+        static final Source ZERO = new ObjectSource(null, true);
+
+        /**
+         * Get value of the next field.
+         *
+         * @param name      the field name info, can be null
+         * @param fieldType expected type of the field
+         * @param bitNumber number of bits for bit fields, null for other types
+         * @return the field or null if zero value must be written
+         */
+        abstract JBBPAbstractField nextField(JBBPNamedFieldInfo name, Class<? extends JBBPAbstractField> fieldType, JBBPBitNumber bitNumber);
+
+        /**
+         * Get source of values for the next structure.
+         *
+         * @param name the structure name info, can be null
+         * @return source of structure values, must not be null
+         */
+        abstract Source nextStruct(JBBPNamedFieldInfo name);
+
+        /**
+         * Get sources of values for the next structure array.
+         *
+         * @param name the structure array name info, can be null
+         * @return sources for array items or null if zero values must be written
+         */
+        abstract Source[] nextStructArray(JBBPNamedFieldInfo name);
+    }
+
+    /**
+     * Source of values taken from fields of a structure in their order.
+     */
+    static final class StructSource extends Source {
+        private final JBBPAbstractField[] fields;
+        private int index;
+
+        StructSource(final JBBPFieldStruct struct) {
+            this.fields = struct.getArray();
+        }
+
+        private <T extends JBBPAbstractField> T next(final JBBPNamedFieldInfo name, final Class<T> fieldType) {
+            if (this.index >= this.fields.length) {
+                throw new JBBPIllegalArgumentException("Structure doesn't contain value for field '" + describe(name) + '\'');
+            }
+            final JBBPAbstractField result = this.fields[this.index++];
+            if (!fieldType.isInstance(result)) {
+                throw new JBBPIllegalArgumentException("Expected " + fieldType.getSimpleName() + " for field '" + describe(name) + "' but detected " + result.getClass().getSimpleName());
+            }
+            return fieldType.cast(result);
+        }
+
+        @Override
+        JBBPAbstractField nextField(final JBBPNamedFieldInfo name, final Class<? extends JBBPAbstractField> fieldType, final JBBPBitNumber bitNumber) {
+            return next(name, fieldType);
+        }
+
+        @Override
+        Source nextStruct(final JBBPNamedFieldInfo name) {
+            return new StructSource(next(name, JBBPFieldStruct.class));
+        }
+
+        @Override
+        Source[] nextStructArray(final JBBPNamedFieldInfo name) {
+            final JBBPFieldStruct[] array = next(name, JBBPFieldArrayStruct.class).getArray();
+            final Source[] result = new Source[array.length];
+            for (int i = 0; i < array.length; i++) {
+                result[i] = new StructSource(array[i]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Source of values taken from fields of a mapping class instance by the
+     * mapping rules. Anonymous binary fields are written with zero values,
+     * named binary fields which don't have mapping values are written with zero
+     * values only if it is allowed, otherwise error is thrown.
+     */
+    static final class ObjectSource extends Source {
+        private final Object instance;
+        private final boolean ignoreMissingValues;
+
+        /**
+         * Constructor.
+         *
+         * @param instance            a mapping class instance, null if all fields must be written with zero values
+         * @param ignoreMissingValues flag to write zero values for named binary fields without mapping values
+         */
+        ObjectSource(final Object instance, final boolean ignoreMissingValues) {
+            this.instance = instance;
+            this.ignoreMissingValues = ignoreMissingValues;
+        }
+
+        private JBBPIllegalArgumentException makeMissingValueError(final JBBPNamedFieldInfo name) {
+            return new JBBPIllegalArgumentException("Mapping class instance doesn't contain value for field '" + describe(name) + "' [" + this.instance.getClass().getName() + ']');
+        }
+
+        @Override
+        JBBPAbstractField nextField(final JBBPNamedFieldInfo name, final Class<? extends JBBPAbstractField> fieldType, final JBBPBitNumber bitNumber) {
+            if (this.instance == null || name == null) {
+                return null;
+            }
+            final JBBPAbstractField result = JBBPMapper.makeBinField(this.instance, name, fieldType, bitNumber);
+            if (result == null && !this.ignoreMissingValues) {
+                throw makeMissingValueError(name);
+            }
+            return result;
+        }
+
+        @Override
+        Source nextStruct(final JBBPNamedFieldInfo name) {
+            if (this.instance == null || name == null) {
+                return ZERO;
+            }
+            final Object value = JBBPMapper.findMappedValue(this.instance, name);
+            if (value == null) {
+                if (this.ignoreMissingValues) {
+                    return ZERO;
+                }
+                throw makeMissingValueError(name);
+            }
+            return new ObjectSource(value, this.ignoreMissingValues);
+        }
+
+        @Override
+        Source[] nextStructArray(final JBBPNamedFieldInfo name) {
+            final Object value = this.instance == null || name == null ? null : JBBPMapper.findMappedValue(this.instance, name);
+            if (value == null) {
+                if (this.instance == null || name == null || this.ignoreMissingValues) {
+                    return null;
+                }
+                throw makeMissingValueError(name);
+            }
+            if (!(value instanceof Object[])) {
+                throw new JBBPIllegalArgumentException("Expected object array for structure array '" + describe(name) + "' but detected " + value.getClass().getSimpleName());
+            }
+            final Object[] array = (Object[]) value;
+            final Source[] result = new Source[array.length];
+            for (int i = 0; i < array.length; i++) {
+                result[i] = new ObjectSource(array[i], this.ignoreMissingValues);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * State of a writing call.
+     */
+    private static final class State {
+        final JBBPBitOutputStream out;
+        final JBBPNamedNumericFieldMap fieldMap;
+        /**
+         * Stream provides counter of the output stream to expressions.
+         */
+        final JBBPBitInputStream counterStream;
+        final JBBPIntCounter positionAtCompiledBlock = new JBBPIntCounter();
+        final JBBPIntCounter positionAtNamedFieldList = new JBBPIntCounter();
+        final JBBPIntCounter positionAtVarLengthProcessors = new JBBPIntCounter();
+
+        State(final JBBPBitOutputStream out, final JBBPNamedNumericFieldMap fieldMap) {
+            this.out = out;
+            this.fieldMap = fieldMap;
+            this.counterStream = fieldMap == null ? null : new JBBPBitInputStream(new ByteArrayInputStream(new byte[0])) {
+                @Override
+                public long getCounter() {
+                    return out.getCounter();
+                }
+            };
+        }
+
+        void putNumeric(final JBBPNamedFieldInfo name, final JBBPAbstractField field) {
+            if (this.fieldMap != null && name != null) {
+                this.fieldMap.putField(field == null ? new JBBPFieldInt(name, 0) : (JBBPNumericField) field);
+            }
+        }
+    }
+}
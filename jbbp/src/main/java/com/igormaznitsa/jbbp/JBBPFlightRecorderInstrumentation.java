@@ -0,0 +1,227 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Instrumentation which sends statistics of parsing calls as JDK Flight Recorder events
+ * with name {@value #EVENT_NAME}. The Library is compatible with Java 1.6 so that the event type is
+ * made in runtime through jdk.jfr.EventFactory found by reflection, the instrumentation is
+ * not provided on platforms without the Flight Recorder API (Java 8u262+, Java 11+).
+ * <pre>
+ * JBBPParser parser = JBBPParser.prepare("int length; byte [length] data;")
+ *     .instrument(JBBPFlightRecorderInstrumentation.getInstance());
+ * </pre>
+ * An Event is made only if its type is enabled in an active recording, it is started
+ * at the beginning of the parsing call and ended just before commit, so that the event
+ * start time and duration are the parsing ones. If a call of the Flight Recorder API
+ * fails then the instrumentation is disabled and doesn't send events anymore.
+ *
+ * @since 1.3.1
+ */
+public final class JBBPFlightRecorderInstrumentation implements JBBPParseInstrumentation {
+
+    /**
+     * Name of Flight Recorder events.
+     */
+    public static final String EVENT_NAME = "com.igormaznitsa.jbbp.Parse";
+
+    private static final int FIELD_CONSUMED_BYTES = 0;
+    private static final int FIELD_PARSE_DURATION = 1;
+    private static final int FIELD_FIELDS = 2;
+    private static final int FIELD_ARRAYS = 3;
+    private static final int FIELD_VAR_PROCESSOR_DURATION = 4;
+    private static final int FIELD_CUSTOM_PROCESSOR_DURATION = 5;
+    private static final int FIELD_SKIPS = 6;
+    private static final int FIELD_SKIPPED_BYTES = 7;
+    private static final int FIELD_STOPPED_BY_EOF = 8;
+    private static final int FIELD_LISTENER_MODE = 9;
+    private static final int FIELD_PROJECTION = 10;
+    private static final int FIELD_ERROR = 11;
+
+    /**
+     * The Instance, null if the Flight Recorder API is not presented.
+     */
+    private static final JBBPFlightRecorderInstrumentation INSTANCE = makeInstance();
+
+    private final Object eventFactory;
+    private final Object eventType;
+    private final Method newEvent;
+    private final Method isEnabled;
+    private final Method begin;
+    private final Method end;
+    private final Method shouldCommit;
+    private final Method set;
+    private final Method commit;
+
+    /**
+     * Flag shows that a call of the Flight Recorder API has failed and events must not be sent anymore.
+     */
+    private volatile boolean disabled;
+
+    private JBBPFlightRecorderInstrumentation(final Object eventFactory, final Object eventType, final Method newEvent, final Method isEnabled, final Method begin, final Method end, final Method shouldCommit, final Method set, final Method commit) {
+        this.eventFactory = eventFactory;
+        this.eventType = eventType;
+        this.newEvent = newEvent;
+        this.isEnabled = isEnabled;
+        this.begin = begin;
+        this.end = end;
+        this.shouldCommit = shouldCommit;
+        this.set = set;
+        this.commit = commit;
+    }
+
+    /**
+     * Get the instrumentation instance.
+     *
+     * @return the instrumentation or null if the platform doesn't provide the Flight Recorder API,
+     * so that the result can be directly provided into {@link JBBPParser#instrument(JBBPParseInstrumentation)}
+     */
+    public static JBBPParseInstrumentation getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Check that the platform provides the Flight Recorder API.
+     *
+     * @return true if events can be sent to the Flight Recorder, false otherwise
+     */
+    public static boolean isSupported() {
+        return INSTANCE != null;
+    }
+
+    private static JBBPFlightRecorderInstrumentation makeInstance() {
+        try {
+            final ClassLoader loader = JBBPFlightRecorderInstrumentation.class.getClassLoader();
+            final Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement", true, loader);
+            final Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor", true, loader);
+            final Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory", true, loader);
+            final Class<?> eventClass = Class.forName("jdk.jfr.Event", true, loader);
+            final Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType", true, loader);
+
+            final Constructor<?> annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+            final Constructor<?> valueDescriptor = valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+
+            final Class<?> nameClass = Class.forName("jdk.jfr.Name", true, loader);
+            final Class<?> labelClass = Class.forName("jdk.jfr.Label", true, loader);
+            final Class<?> categoryClass = Class.forName("jdk.jfr.Category", true, loader);
+            final Class<?> descriptionClass = Class.forName("jdk.jfr.Description", true, loader);
+            final Class<?> timespanClass = Class.forName("jdk.jfr.Timespan", true, loader);
+            final Class<?> dataAmountClass = Class.forName("jdk.jfr.DataAmount", true, loader);
+
+            final Object timespan = annotationElement.newInstance(timespanClass, "NANOSECONDS");
+            final Object bytes = annotationElement.newInstance(dataAmountClass, "BYTES");
+
+            final List<Object> fields = new ArrayList<Object>();
+            fields.add(valueDescriptor.newInstance(long.class, "consumedBytes", Arrays.asList(annotationElement.newInstance(labelClass, "Consumed Bytes"), bytes)));
+            fields.add(valueDescriptor.newInstance(long.class, "parseDuration", Arrays.asList(annotationElement.newInstance(labelClass, "Parse Duration"), timespan)));
+            fields.add(valueDescriptor.newInstance(long.class, "fields", Collections.singletonList(annotationElement.newInstance(labelClass, "Fields"))));
+            fields.add(valueDescriptor.newInstance(long.class, "arrays", Collections.singletonList(annotationElement.newInstance(labelClass, "Arrays"))));
+            fields.add(valueDescriptor.newInstance(long.class, "varFieldProcessorDuration", Arrays.asList(annotationElement.newInstance(labelClass, "Var Field Processor Duration"), timespan)));
+            fields.add(valueDescriptor.newInstance(long.class, "customFieldProcessorDuration", Arrays.asList(annotationElement.newInstance(labelClass, "Custom Field Processor Duration"), timespan)));
+            fields.add(valueDescriptor.newInstance(long.class, "skips", Collections.singletonList(annotationElement.newInstance(labelClass, "Skips"))));
+            fields.add(valueDescriptor.newInstance(long.class, "skippedBytes", Arrays.asList(annotationElement.newInstance(labelClass, "Skipped Bytes"), bytes)));
+            fields.add(valueDescriptor.newInstance(boolean.class, "stoppedByEof", Collections.singletonList(annotationElement.newInstance(labelClass, "Stopped By EOF"))));
+            fields.add(valueDescriptor.newInstance(boolean.class, "listenerMode", Collections.singletonList(annotationElement.newInstance(labelClass, "Listener Mode"))));
+            fields.add(valueDescriptor.newInstance(boolean.class, "projection", Collections.singletonList(annotationElement.newInstance(labelClass, "Projection"))));
+            fields.add(valueDescriptor.newInstance(String.class, "error", Collections.singletonList(annotationElement.newInstance(labelClass, "Error"))));
+
+            final List<Object> eventAnnotations = Arrays.asList(
+                    annotationElement.newInstance(nameClass, EVENT_NAME),
+                    annotationElement.newInstance(labelClass, "JBBP Parse"),
+                    annotationElement.newInstance(categoryClass, new String[] {"JBBP"}),
+                    annotationElement.newInstance(descriptionClass, "Parsing call made by JBBPParser")
+            );
+
+            final Object eventFactory = eventFactoryClass.getMethod("create", List.class, List.class).invoke(null, eventAnnotations, fields);
+
+            return new JBBPFlightRecorderInstrumentation(
+                    eventFactory,
+                    eventFactoryClass.getMethod("getEventType").invoke(eventFactory),
+                    eventFactoryClass.getMethod("newEvent"),
+                    eventTypeClass.getMethod("isEnabled"),
+                    eventClass.getMethod("begin"),
+                    eventClass.getMethod("end"),
+                    eventClass.getMethod("shouldCommit"),
+                    eventClass.getMethod("set", int.class, Object.class),
+                    eventClass.getMethod("commit")
+            );
+        } catch (Throwable ex) {
+            // the Flight Recorder API is not presented or not accessible
+            return null;
+        }
+    }
+
+    /**
+     * Check that the instrumentation is disabled because of failed call of the Flight Recorder API.
+     *
+     * @return true if events are not sent anymore, false otherwise
+     */
+    public boolean isDisabled() {
+        return this.disabled;
+    }
+
+    @Override
+    public void onParseStart(final JBBPParser parser, final JBBPParseStatistics statistics) {
+        if (this.disabled) {
+            return;
+        }
+        try {
+            if ((Boolean) this.isEnabled.invoke(this.eventType)) {
+                final Object event = this.newEvent.invoke(this.eventFactory);
+                this.begin.invoke(event);
+                statistics.setAttachment(event);
+            }
+        } catch (Exception ex) {
+            this.disabled = true;
+        }
+    }
+
+    @Override
+    public void onParseEnd(final JBBPParser parser, final JBBPParseStatistics statistics) {
+        final Object event = statistics.getAttachment();
+        if (event == null || this.disabled) {
+            return;
+        }
+        try {
+            this.end.invoke(event);
+            if (!(Boolean) this.shouldCommit.invoke(event)) {
+                return;
+            }
+            this.set.invoke(event, FIELD_CONSUMED_BYTES, statistics.getConsumedBytes());
+            this.set.invoke(event, FIELD_PARSE_DURATION, statistics.getDurationNanos());
+            this.set.invoke(event, FIELD_FIELDS, statistics.getFieldCount());
+            this.set.invoke(event, FIELD_ARRAYS, statistics.getArrayCount());
+            this.set.invoke(event, FIELD_VAR_PROCESSOR_DURATION, statistics.getVarFieldProcessorNanos());
+            this.set.invoke(event, FIELD_CUSTOM_PROCESSOR_DURATION, statistics.getCustomFieldProcessorNanos());
+            this.set.invoke(event, FIELD_SKIPS, statistics.getSkipCount());
+            this.set.invoke(event, FIELD_SKIPPED_BYTES, statistics.getSkippedBytes());
+            this.set.invoke(event, FIELD_STOPPED_BY_EOF, statistics.isStoppedByEof());
+            this.set.invoke(event, FIELD_LISTENER_MODE, statistics.isListenerMode());
+            this.set.invoke(event, FIELD_PROJECTION, parser.isProjection());
+            this.set.invoke(event, FIELD_ERROR, statistics.getError() == null ? null : statistics.getError().toString());
+            this.commit.invoke(event);
+        } catch (Exception ex) {
+            this.disabled = true;
+        }
+    }
+}
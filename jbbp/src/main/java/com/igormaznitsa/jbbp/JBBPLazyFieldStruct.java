@@ -0,0 +1,547 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.exceptions.JBBPTooManyFieldsFoundException;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.model.*;
+import com.igormaznitsa.jbbp.model.finder.JBBPFieldFinder;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Structure parsed in lazy mode from a byte array or a byte buffer. Parsing makes only fast pass through data which
+ * records bit positions of fields, data of fields with known size is skipped without reading. Fields are decoded on
+ * the first access through {@link JBBPFieldFinder} methods and decoded fields are cached. Var and custom type fields
+ * and fields which values are needed to calculate expressions are decoded during the pass.
+ * <p>
+ * The Object can be used from several threads, a field can be decoded more than once in the case.
+ *
+ * @see JBBPParser#parseLazy(byte[])
+ * @see JBBPParser#parseLazy(ByteBuffer)
+ * @since 1.3.1
+ */
+public final class JBBPLazyFieldStruct implements JBBPFieldFinder {
+
+    /**
+     * The Parser made the structure.
+     */
+    private final JBBPParser parser;
+    /**
+     * Source data, its position is the start of parsed data.
+     */
+    private final ByteBuffer source;
+    /**
+     * Name info of the structure.
+     */
+    private final JBBPNamedFieldInfo nameInfo;
+    /**
+     * Fields of the structure.
+     */
+    private final Entry[] entries;
+
+    private JBBPLazyFieldStruct(final JBBPParser parser, final ByteBuffer source, final JBBPNamedFieldInfo nameInfo, final Entry[] entries) {
+        this.parser = parser;
+        this.source = source;
+        this.nameInfo = nameInfo;
+        this.entries = entries;
+    }
+
+    /**
+     * Make fast pass through data and make lazy structure.
+     *
+     * @param parser                the parser, must not be null
+     * @param buffer                buffer which data between position and limit should be parsed, must not be null
+     * @param varFieldProcessor     a var field processor, can be null if the script doesn't have var fields
+     * @param externalValueProvider an external value provider, can be null
+     * @return lazy root structure, must not be null
+     * @throws IOException it will be thrown for transport errors
+     */
+    static JBBPLazyFieldStruct parse(final JBBPParser parser, final ByteBuffer buffer, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        final ByteBuffer source = buffer.duplicate();
+        final Scanner scanner = new Scanner(parser, source, varFieldProcessor, parser.makeNamedNumericFieldMap(varFieldProcessor, externalValueProvider));
+        return new JBBPLazyFieldStruct(parser, source, JBBPParser.ROOT_STRUCT_NAME, scanner.scanStruct(parser.getOperations()));
+    }
+
+    /**
+     * Get the name info of the structure.
+     *
+     * @return the name info, can be null for anonymous structures
+     */
+    public JBBPNamedFieldInfo getNameInfo() {
+        return this.nameInfo;
+    }
+
+    /**
+     * Get the field name of the structure.
+     *
+     * @return the field name or null if the structure doesn't have name info
+     */
+    public String getFieldName() {
+        return this.nameInfo == null ? null : this.nameInfo.getFieldName();
+    }
+
+    /**
+     * Get the field path of the structure.
+     *
+     * @return the field path or null if the structure doesn't have name info
+     */
+    public String getFieldPath() {
+        return this.nameInfo == null ? null : this.nameInfo.getFieldPath();
+    }
+
+    /**
+     * Get number of fields in the structure.
+     *
+     * @return number of fields
+     */
+    public int size() {
+        return this.entries.length;
+    }
+
+    /**
+     * Get a field for its index, the field is decoded if it is not decoded yet.
+     *
+     * @param index index of the field
+     * @return the field, must not be null
+     */
+    public JBBPAbstractField getField(final int index) {
+        return this.decode(this.entries[index]);
+    }
+
+    /**
+     * Find a non-array inside structure for its name, the structure is not decoded.
+     *
+     * @param name the name of the structure, must not be null
+     * @return found lazy structure or null if there is not any non-array structure with the name
+     */
+    public JBBPLazyFieldStruct findLazyStructForName(final String name) {
+        final Entry entry = this.findEntry(JBBPUtils.normalizeFieldNameOrPath(name));
+        return entry == null || entry.structs == null || entry.operation.arrayMode != JBBPParserOperation.ARRAY_NONE ? null : entry.structs[0];
+    }
+
+    /**
+     * Decode all fields of the structure.
+     *
+     * @return decoded structure, must not be null
+     */
+    public JBBPFieldStruct toStruct() {
+        final JBBPAbstractField[] fields = new JBBPAbstractField[this.entries.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = this.decode(this.entries[i]);
+        }
+        return new JBBPFieldStruct(this.nameInfo, fields);
+    }
+
+    private Entry findEntry(final String normalizedName) {
+        for (final Entry entry : this.entries) {
+            final JBBPNamedFieldInfo name = entry.operation.name;
+            if (name != null && normalizedName.equals(name.getFieldName())) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private JBBPAbstractField decode(final Entry entry) {
+        JBBPAbstractField result = entry.field;
+        if (result == null) {
+            if (entry.structs == null) {
+                final ByteBuffer data = this.source.duplicate();
+                data.position(data.position() + (int) (entry.bitPosition >>> 3));
+                final JBBPBitInputStream inStream = JBBPBitInputStream.fromBuffer(data, this.parser.getBitOrder());
+                try {
+                    final int bitOffset = (int) (entry.bitPosition & 7);
+                    if (bitOffset != 0) {
+                        inStream.readBitsLong(bitOffset);
+                    }
+                    result = this.parser.parseOperation(inStream, entry.operation, null, null);
+                } catch (IOException ex) {
+                    throw new JBBPParsingException("Can't decode field '" + (entry.operation.name == null ? "<NO NAME>" : entry.operation.name.getFieldPath()) + '\'', ex);
+                }
+            } else if (entry.operation.arrayMode == JBBPParserOperation.ARRAY_NONE) {
+                result = entry.structs[0].toStruct();
+            } else {
+                final JBBPFieldStruct[] structs = new JBBPFieldStruct[entry.structs.length];
+                for (int i = 0; i < structs.length; i++) {
+                    structs[i] = entry.structs[i].toStruct();
+                }
+                result = new JBBPFieldArrayStruct(entry.operation.name, structs);
+            }
+            entry.field = result;
+        }
+        return result;
+    }
+
+    @Override
+    public <T extends JBBPAbstractField> T findFirstFieldForType(final Class<T> fieldType) {
+        for (final Entry entry : this.entries) {
+            if (fieldType.isAssignableFrom(entry.getFieldClass())) {
+                return fieldType.cast(this.decode(entry));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public <T extends JBBPAbstractField> T findLastFieldForType(final Class<T> fieldType) {
+        for (int i = this.entries.length - 1; i >= 0; i--) {
+            final Entry entry = this.entries[i];
+            if (fieldType.isAssignableFrom(entry.getFieldClass())) {
+                return fieldType.cast(this.decode(entry));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public <T extends JBBPAbstractField> T findFieldForType(final Class<T> fieldType) {
+        Entry found = null;
+        int counter = 0;
+        for (final Entry entry : this.entries) {
+            if (fieldType.isAssignableFrom(entry.getFieldClass())) {
+                if (found == null) {
+                    found = entry;
+                }
+                counter++;
+            }
+        }
+        if (counter > 1) {
+            throw new JBBPTooManyFieldsFoundException(counter, "Detected more than one field", null, fieldType);
+        }
+        return found == null ? null : fieldType.cast(this.decode(found));
+    }
+
+    @Override
+    public <T extends JBBPAbstractField> T findFieldForNameAndType(final String fieldName, final Class<T> fieldType) {
+        final String normalizedName = JBBPUtils.normalizeFieldNameOrPath(fieldName);
+        for (final Entry entry : this.entries) {
+            final JBBPNamedFieldInfo name = entry.operation.name;
+            if (name != null && normalizedName.equals(name.getFieldName()) && fieldType.isAssignableFrom(entry.getFieldClass())) {
+                return fieldType.cast(this.decode(entry));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public <T extends JBBPAbstractField> T findFieldForPathAndType(final String fieldPath, final Class<T> fieldType) {
+        final JBBPAbstractField field = this.findFieldForPath(fieldPath);
+
+        T result = null;
+
+        if (field != null && fieldType.isAssignableFrom(field.getClass())) {
+            result = fieldType.cast(field);
+        }
+        return result;
+    }
+
+    @Override
+    public JBBPAbstractField findFieldForName(final String fieldName) {
+        final Entry entry = this.findEntry(JBBPUtils.normalizeFieldNameOrPath(fieldName));
+        return entry == null ? null : this.decode(entry);
+    }
+
+    @Override
+    public JBBPAbstractField findFieldForPath(final String fieldPath) {
+        final String[] parsedName = JBBPUtils.splitString(JBBPUtils.normalizeFieldNameOrPath(fieldPath), '.');
+
+        final int firstIndex;
+        if ("".equals(this.getFieldName())) {
+            firstIndex = 0;
+        } else if (parsedName[0].equals(this.getFieldName())) {
+            firstIndex = 1;
+        } else {
+            return null;
+        }
+
+        if (firstIndex == parsedName.length) {
+            return this.toStruct();
+        }
+
+        JBBPLazyFieldStruct current = this;
+        for (int i = firstIndex; i < parsedName.length; i++) {
+            final Entry entry = current.findEntry(parsedName[i]);
+            if (entry == null) {
+                return null;
+            }
+            if (i == parsedName.length - 1) {
+                return current.decode(entry);
+            }
+            if (entry.structs == null || entry.operation.arrayMode != JBBPParserOperation.ARRAY_NONE) {
+                throw new JBBPFinderException("Detected a field instead of a structure as one of nodes in the path '" + fieldPath + '\'', fieldPath, null);
+            }
+            current = entry.structs[0];
+        }
+        return null;
+    }
+
+    @Override
+    public boolean nameExists(final String fieldName) {
+        return this.findEntry(JBBPUtils.normalizeFieldNameOrPath(fieldName)) != null;
+    }
+
+    @Override
+    public boolean pathExists(final String fieldPath) {
+        final String normalizedPath = JBBPUtils.normalizeFieldNameOrPath(fieldPath);
+        for (final Entry entry : this.entries) {
+            final JBBPNamedFieldInfo name = entry.operation.name;
+            if (name != null && normalizedPath.equals(name.getFieldPath())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "JBBPLazyFieldStruct[" + (this.nameInfo == null ? "<NO NAME>" : this.nameInfo.getFieldPath()) + ", fields=" + this.entries.length + ']';
+    }
+
+    /**
+     * Field of lazy structure.
+     */
+    private static final class Entry {
+        /**
+         * Operation to decode the field, expressions are already calculated.
+         */
+        private final JBBPParserOperation operation;
+        /**
+         * Bit position of the field data from the start of parsed data.
+         */
+        private final long bitPosition;
+        /**
+         * Lazy structures for structure fields, null for other fields.
+         */
+        private final JBBPLazyFieldStruct[] structs;
+        /**
+         * Decoded field, null if not decoded yet.
+         */
+        private volatile JBBPAbstractField field;
+
+        private Entry(final JBBPParserOperation operation, final long bitPosition, final JBBPLazyFieldStruct[] structs, final JBBPAbstractField field) {
+            this.operation = operation;
+            this.bitPosition = bitPosition;
+            this.structs = structs;
+            this.field = field;
+        }
+
+        /**
+         * Get class of the field without decoding.
+         *
+         * @return class of the field, must not be null
+         */
+        private Class<?> getFieldClass() {
+            final JBBPAbstractField decoded = this.field;
+            if (decoded != null) {
+                return decoded.getClass();
+            }
+            final boolean array = this.operation.arrayMode != JBBPParserOperation.ARRAY_NONE;
+            switch (this.operation.type) {
+                case JBBPCompiler.CODE_BIT:
+                    return array ? JBBPFieldArrayBit.class : JBBPFieldBit.class;
+                case JBBPCompiler.CODE_BOOL:
+                    return array ? JBBPFieldArrayBoolean.class : JBBPFieldBoolean.class;
+                case JBBPCompiler.CODE_BYTE:
+                    return array ? JBBPFieldArrayByte.class : JBBPFieldByte.class;
+                case JBBPCompiler.CODE_UBYTE:
+                    return array ? JBBPFieldArrayUByte.class : JBBPFieldUByte.class;
+                case JBBPCompiler.CODE_SHORT:
+                    return array ? JBBPFieldArrayShort.class : JBBPFieldShort.class;
+                case JBBPCompiler.CODE_USHORT:
+                    return array ? JBBPFieldArrayUShort.class : JBBPFieldUShort.class;
+                case JBBPCompiler.CODE_INT:
+                    return array ? JBBPFieldArrayInt.class : JBBPFieldInt.class;
+                case JBBPCompiler.CODE_LONG:
+                    return array ? JBBPFieldArrayLong.class : JBBPFieldLong.class;
+                case JBBPCompiler.CODE_STRUCT_START:
+                    return array ? JBBPFieldArrayStruct.class : JBBPFieldStruct.class;
+                default:
+                    throw new Error("Unexpected not decoded field type [" + this.operation.type + ']');
+            }
+        }
+    }
+
+    /**
+     * Fast pass through data which finds positions of fields.
+     */
+    private static final class Scanner {
+        private final JBBPParser parser;
+        private final ByteBuffer source;
+        private final JBBPBitInputStream inStream;
+        private final JBBPVarFieldProcessor varFieldProcessor;
+        private final JBBPNamedNumericFieldMap fieldMap;
+        private final Set<JBBPNamedFieldInfo> dependencies;
+        private final boolean skipRemainingFieldsIfEof;
+        /**
+         * Number of bytes read before the last reset of the stream counter.
+         */
+        private long counterBase;
+
+        private Scanner(final JBBPParser parser, final ByteBuffer source, final JBBPVarFieldProcessor varFieldProcessor, final JBBPNamedNumericFieldMap fieldMap) {
+            this.parser = parser;
+            this.source = source;
+            this.inStream = JBBPBitInputStream.fromBuffer(source, parser.getBitOrder());
+            this.varFieldProcessor = varFieldProcessor;
+            this.fieldMap = fieldMap;
+            this.dependencies = parser.getValueDependencies();
+            this.skipRemainingFieldsIfEof = (parser.getFlags() & JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF) != 0;
+        }
+
+        private long getBitPosition() {
+            final int bufferedBits = this.inStream.getBufferedBitsNumber();
+            return ((this.counterBase + this.inStream.getCounter()) << 3) + (bufferedBits == 0 ? 0 : 8 - bufferedBits);
+        }
+
+        private void skipBits(final long bits) throws IOException {
+            final long bytes = bits >>> 3;
+            if (bytes > 0L) {
+                final long skippedBytes = this.inStream.skip(bytes);
+                if (skippedBytes != bytes) {
+                    throw new EOFException("Can't skip " + bytes + " byte(s), skipped only " + skippedBytes + " byte(s)");
+                }
+            }
+            final int restBits = (int) (bits & 7L);
+            if (restBits != 0) {
+                this.inStream.readBitsLong(restBits);
+            }
+        }
+
+        private JBBPLazyFieldStruct scanStructure(final JBBPNamedFieldInfo name, final JBBPParserOperation[] body) throws IOException {
+            return new JBBPLazyFieldStruct(this.parser, this.source, name, this.scanStruct(body));
+        }
+
+        private Entry[] scanStruct(final JBBPParserOperation[] operations) throws IOException {
+            final List<Entry> result = new ArrayList<Entry>(operations.length);
+
+            for (final JBBPParserOperation operation : operations) {
+                if (this.skipRemainingFieldsIfEof && !this.inStream.hasAvailableData()) {
+                    break;
+                }
+
+                final JBBPNamedFieldInfo name = operation.name;
+                final int extraValue = operation.extraValueEvaluator == null ? operation.extraValue : operation.extraValueEvaluator.eval(this.inStream, operation.offset, this.parser.getCompiledBlock(), this.fieldMap);
+
+                final int arrayLength;
+                switch (operation.arrayMode) {
+                    case JBBPParserOperation.ARRAY_NONE:
+                    case JBBPParserOperation.ARRAY_WHOLE_STREAM: {
+                        arrayLength = -1;
+                    }
+                    break;
+                    case JBBPParserOperation.ARRAY_FIXED: {
+                        arrayLength = operation.arrayLength;
+                    }
+                    break;
+                    default: {
+                        arrayLength = operation.arrayLengthEvaluator.eval(this.inStream, operation.offset, this.parser.getCompiledBlock(), this.fieldMap);
+                        JBBPParser.assertArrayLength(arrayLength, name);
+                    }
+                    break;
+                }
+
+                final long position = this.getBitPosition();
+                try {
+                    switch (operation.type) {
+                        case JBBPCompiler.CODE_RESET_COUNTER: {
+                            this.counterBase += this.inStream.getCounter();
+                            this.inStream.resetCounter();
+                        }
+                        break;
+                        case JBBPCompiler.CODE_ALIGN: {
+                            this.inStream.align(extraValue);
+                        }
+                        break;
+                        case JBBPCompiler.CODE_SKIP: {
+                            if (extraValue > 0) {
+                                this.skipBits((long) extraValue << 3);
+                            }
+                        }
+                        break;
+                        case JBBPParserOperation.CODE_SKIP_ARRAY: {
+                            this.skipBits(((long) arrayLength * extraValue) << 3);
+                        }
+                        break;
+                        case JBBPCompiler.CODE_STRUCT_START: {
+                            final JBBPLazyFieldStruct[] structs;
+                            if (operation.arrayMode == JBBPParserOperation.ARRAY_NONE) {
+                                structs = new JBBPLazyFieldStruct[] {this.scanStructure(name, operation.body)};
+                            } else if (operation.arrayMode == JBBPParserOperation.ARRAY_WHOLE_STREAM) {
+                                final List<JBBPLazyFieldStruct> list = new ArrayList<JBBPLazyFieldStruct>();
+                                while (this.inStream.hasAvailableData()) {
+                                    list.add(this.scanStructure(name, operation.body));
+                                }
+                                structs = list.toArray(new JBBPLazyFieldStruct[list.size()]);
+                            } else {
+                                structs = new JBBPLazyFieldStruct[arrayLength];
+                                for (int i = 0; i < arrayLength; i++) {
+                                    structs[i] = this.scanStructure(name, operation.body);
+                                }
+                            }
+                            if (!operation.discardResult) {
+                                result.add(new Entry(operation.resolve(arrayLength, extraValue), position, structs, null));
+                            }
+                        }
+                        break;
+                        case JBBPCompiler.CODE_VAR:
+                        case JBBPCompiler.CODE_CUSTOMTYPE: {
+                            final JBBPAbstractField field = this.parser.parseOperation(this.inStream, operation, this.varFieldProcessor, this.fieldMap);
+                            if (field != null && !operation.discardResult) {
+                                result.add(new Entry(operation, position, null, field));
+                            }
+                        }
+                        break;
+                        default: {
+                            final JBBPParserOperation resolved = operation.resolve(arrayLength, extraValue);
+                            JBBPAbstractField field = null;
+                            if (operation.arrayMode == JBBPParserOperation.ARRAY_NONE && name != null && this.dependencies.contains(name)) {
+                                field = this.parser.parseOperation(this.inStream, resolved, null, this.fieldMap);
+                            } else if (operation.arrayMode == JBBPParserOperation.ARRAY_WHOLE_STREAM) {
+                                this.inStream.skip(Long.MAX_VALUE);
+                            } else {
+                                final long elementBits = operation.type == JBBPCompiler.CODE_BIT ? JBBPBitNumber.decode(extraValue).getBitNumber() : (long) operation.getElementSizeInBytes() << 3;
+                                this.skipBits(arrayLength < 0 ? elementBits : elementBits * arrayLength);
+                            }
+                            if (!operation.discardResult) {
+                                result.add(new Entry(resolved, position, null, field));
+                            }
+                        }
+                        break;
+                    }
+                } catch (IOException ex) {
+                    if (name == null) {
+                        throw ex;
+                    } else {
+                        throw new JBBPParsingException("Can't parse field '" + name.getFieldPath() + "' for IOException", ex);
+                    }
+                }
+            }
+
+            return result.toArray(new Entry[result.size()]);
+        }
+    }
+}
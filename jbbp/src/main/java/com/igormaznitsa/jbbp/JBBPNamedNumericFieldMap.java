@@ -26,24 +26,51 @@ import com.igormaznitsa.jbbp.model.JBBPNumericField;
 import com.igormaznitsa.jbbp.model.finder.JBBPFieldFinder;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
 
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
- * Implements a storage to keep named fields. it is not a thread-safe one
+ * Implements a storage to keep named fields. it is not a thread-safe one.
+ * If the map is made for a compiled block then fields of the block are kept in
+ * slots addressed by their indexes in the named field list of the block and
+ * their integer values are read by expressions directly, in the case the finder
+ * methods check fields of slots in their order and then other fields in order
+ * of addition.
  *
  * @since 1.0
  */
 public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
 
     /**
-     * Inside map to get numeric fields for their name field descriptors.
+     * Inside map to get numeric fields for their name field descriptors, it
+     * keeps fields which don't have slots.
      */
     private final Map<JBBPNamedFieldInfo, JBBPNumericField> fieldMap;
     /**
      * Defined external value provider, it can be null.
      */
     private final JBBPExternalValueProvider externalValueProvider;
+    /**
+     * The Compiled block which named fields are kept in slots, it can be null.
+     */
+    private final JBBPCompiledBlock compiledBlock;
+    /**
+     * Named fields of the compiled block, null if there is no compiled block.
+     */
+    private final JBBPNamedFieldInfo[] slotNames;
+    /**
+     * Fields placed into slots, null if there is no compiled block.
+     */
+    private final JBBPNumericField[] slotFields;
+    /**
+     * Integer values of fields placed into slots, null if there is no compiled block.
+     */
+    private final int[] slotValues;
+    /**
+     * Number of occupied slots.
+     */
+    private int slotCounter;
 
     /**
      * Empty constructor which makes a map with null provider.
@@ -58,8 +85,143 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
      * @param externalValueProvider an external value provider, it can be null
      */
     public JBBPNamedNumericFieldMap(final JBBPExternalValueProvider externalValueProvider) {
+        this(externalValueProvider, null);
+    }
+
+    /**
+     * A Constructor of a map which keeps fields of a compiled block in slots.
+     * Fields which are not presented in the compiled block are kept in the inside
+     * map, finder methods return fields of slots before them.
+     *
+     * @param externalValueProvider an external value provider, it can be null
+     * @param compiledBlock         a compiled block which named fields should be kept in slots, it can be null
+     * @since 1.3.1
+     */
+    public JBBPNamedNumericFieldMap(final JBBPExternalValueProvider externalValueProvider, final JBBPCompiledBlock compiledBlock) {
         this.fieldMap = new LinkedHashMap<JBBPNamedFieldInfo, JBBPNumericField>();
         this.externalValueProvider = externalValueProvider;
+        this.compiledBlock = compiledBlock;
+        if (compiledBlock == null) {
+            this.slotNames = null;
+            this.slotFields = null;
+            this.slotValues = null;
+        } else {
+            this.slotNames = compiledBlock.getNamedFields();
+            this.slotFields = new JBBPNumericField[this.slotNames.length];
+            this.slotValues = new int[this.slotNames.length];
+        }
+    }
+
+    /**
+     * Find slot for a field name info. Named fields of a compiled block are
+     * ordered by their offsets so that binary search is used.
+     *
+     * @param nameInfo the field name info, must not be null
+     * @return index of the slot or -1 if there is no slot for the field
+     */
+    private int findSlot(final JBBPNamedFieldInfo nameInfo) {
+        if (this.slotNames == null) {
+            return -1;
+        }
+        final int offset = nameInfo.getFieldOffsetInCompiledBlock();
+        int low = 0;
+        int high = this.slotNames.length - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int middleOffset = this.slotNames[middle].getFieldOffsetInCompiledBlock();
+            if (middleOffset < offset) {
+                low = middle + 1;
+            } else if (middleOffset > offset) {
+                high = middle - 1;
+            } else {
+                return this.slotNames[middle].equals(nameInfo) ? middle : -1;
+            }
+        }
+        return -1;
+    }
+
+    private void putToSlot(final int slot, final JBBPNumericField field) {
+        if (this.slotFields[slot] == null) {
+            this.slotCounter++;
+        }
+        this.slotFields[slot] = field;
+        this.slotValues[slot] = field.getAsInt();
+    }
+
+    /**
+     * Put a numeric field into slot for its index in the named field list of the
+     * compiled block. If the field has another name info then it is placed as
+     * usual.
+     *
+     * @param namedFieldIndex index of the field name in the compiled block
+     * @param field           a field to be added, must not be null and must have name
+     * @see #putField(JBBPNumericField)
+     * @since 1.3.1
+     */
+    void putField(final int namedFieldIndex, final JBBPNumericField field) {
+        if (this.slotNames != null && namedFieldIndex >= 0 && this.slotNames[namedFieldIndex] == field.getNameInfo()) {
+            putToSlot(namedFieldIndex, field);
+        } else {
+            putField(field);
+        }
+    }
+
+    /**
+     * Get integer value of a named field of a compiled block. If the map is made
+     * for the compiled block then the value is read directly from the slot.
+     *
+     * @param block           the compiled block, must not be null
+     * @param namedFieldIndex index of the field in the named field list of the block
+     * @return the integer value of the field
+     * @throws NullPointerException if there is no such field in the map
+     * @since 1.3.1
+     */
+    public int getNamedFieldValue(final JBBPCompiledBlock block, final int namedFieldIndex) {
+        if (block == this.compiledBlock && this.slotFields[namedFieldIndex] != null) {
+            return this.slotValues[namedFieldIndex];
+        }
+        return this.get(block.getNamedFields()[namedFieldIndex]).getAsInt();
+    }
+
+    /**
+     * Check that a registered field has the name or the path and the type.
+     *
+     * @param nameInfo   the field name info, must not be null
+     * @param field      the field, must not be null
+     * @param nameOrPath normalized name or path, must not be null
+     * @param path       true if path is provided, false if name is provided
+     * @param fieldType  type of the field, it can be null for any type
+     * @return true if the field is matched, false otherwise
+     */
+    private static boolean isMatched(final JBBPNamedFieldInfo nameInfo, final JBBPNumericField field, final String nameOrPath, final boolean path, final Class<?> fieldType) {
+        return nameOrPath.equals(path ? nameInfo.getFieldPath() : nameInfo.getFieldName())
+                && (fieldType == null || fieldType.isAssignableFrom(field.getClass()));
+    }
+
+    /**
+     * Find the first registered field for its name or path. Fields of slots are
+     * checked before fields of the inside map.
+     *
+     * @param nameOrPath normalized name or path of the field, must not be null
+     * @param path       true if path is provided, false if name is provided
+     * @param fieldType  type of the field, it can be null for any type
+     * @return found field or null if there is not any found
+     */
+    private JBBPNumericField findFirst(final String nameOrPath, final boolean path, final Class<?> fieldType) {
+        if (this.slotFields != null) {
+            for (int i = 0; i < this.slotFields.length; i++) {
+                final JBBPNumericField field = this.slotFields[i];
+                if (field != null && isMatched(this.slotNames[i], field, nameOrPath, path, fieldType)) {
+                    return field;
+                }
+            }
+        }
+        for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : this.fieldMap.entrySet()) {
+            if (isMatched(f.getKey(), f.getValue(), nameOrPath, path, fieldType)) {
+                return f.getValue();
+            }
+        }
+        return null;
     }
 
     /**
@@ -78,7 +240,8 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
      * @return the found field or null if it is not found
      */
     public JBBPNumericField get(final JBBPNamedFieldInfo namedField) {
-        return this.fieldMap.get(namedField);
+        final int slot = findSlot(namedField);
+        return slot < 0 ? this.fieldMap.get(namedField) : this.slotFields[slot];
     }
 
     /**
@@ -93,7 +256,12 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
         JBBPUtils.assertNotNull(field, "Field must not be null");
         final JBBPNamedFieldInfo fieldName = field.getNameInfo();
         JBBPUtils.assertNotNull(fieldName, "Field name info must not be null");
-        this.fieldMap.put(fieldName, field);
+        final int slot = findSlot(fieldName);
+        if (slot < 0) {
+            this.fieldMap.put(fieldName, field);
+        } else {
+            putToSlot(slot, field);
+        }
     }
 
     /**
@@ -104,7 +272,17 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
      */
     public JBBPNumericField remove(final JBBPNamedFieldInfo nameInfo) {
         JBBPUtils.assertNotNull(nameInfo, "Name info must not be null");
-        return this.fieldMap.remove(nameInfo);
+        final int slot = findSlot(nameInfo);
+        if (slot < 0) {
+            return this.fieldMap.remove(nameInfo);
+        } else {
+            final JBBPNumericField result = this.slotFields[slot];
+            if (result != null) {
+                this.slotFields[slot] = null;
+                this.slotCounter--;
+            }
+            return result;
+        }
     }
 
     /**
@@ -114,34 +292,51 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
      * @return found field or null if there is not any found for the offset
      */
     public JBBPNumericField findForFieldOffset(final int offset) {
-        JBBPNumericField result = null;
-        for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : fieldMap.entrySet()) {
+        if (this.slotFields != null) {
+            for (int i = 0; i < this.slotFields.length; i++) {
+                if (this.slotFields[i] != null && this.slotNames[i].getFieldOffsetInCompiledBlock() == offset) {
+                    return this.slotFields[i];
+                }
+            }
+        }
+        for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : this.fieldMap.entrySet()) {
             if (f.getKey().getFieldOffsetInCompiledBlock() == offset) {
-                result = f.getValue();
-                break;
+                return f.getValue();
             }
         }
-        return result;
+        return null;
     }
 
     @Override
     public <T extends JBBPAbstractField> T findFirstFieldForType(final Class<T> fieldType) {
         JBBPUtils.assertNotNull(fieldType, "Type must not be null");
-        T result = null;
-        for (final JBBPNumericField f : fieldMap.values()) {
+        if (this.slotFields != null) {
+            for (final JBBPNumericField f : this.slotFields) {
+                if (f != null && fieldType.isAssignableFrom(f.getClass())) {
+                    return fieldType.cast(f);
+                }
+            }
+        }
+        for (final JBBPNumericField f : this.fieldMap.values()) {
             if (fieldType.isAssignableFrom(f.getClass())) {
-                result = fieldType.cast(f);
-                break;
+                return fieldType.cast(f);
             }
         }
-        return result;
+        return null;
     }
 
     @Override
     public <T extends JBBPAbstractField> T findLastFieldForType(final Class<T> fieldType) {
         JBBPUtils.assertNotNull(fieldType, "Type must not be null");
         T result = null;
-        for (final JBBPNumericField f : fieldMap.values()) {
+        if (this.slotFields != null) {
+            for (final JBBPNumericField f : this.slotFields) {
+                if (f != null && fieldType == f.getClass()) {
+                    result = fieldType.cast(f);
+                }
+            }
+        }
+        for (final JBBPNumericField f : this.fieldMap.values()) {
             if (fieldType == f.getClass()) {
                 result = fieldType.cast(f);
             }
@@ -154,7 +349,15 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
         JBBPUtils.assertNotNull(fieldType, "Type must not be null");
         int count = 0;
         T result = null;
-        for (final JBBPNumericField f : fieldMap.values()) {
+        if (this.slotFields != null) {
+            for (final JBBPNumericField f : this.slotFields) {
+                if (f != null && fieldType == f.getClass()) {
+                    result = fieldType.cast(f);
+                    count++;
+                }
+            }
+        }
+        for (final JBBPNumericField f : this.fieldMap.values()) {
             if (fieldType == f.getClass()) {
                 result = fieldType.cast(f);
                 count++;
@@ -170,92 +373,34 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
     public <T extends JBBPAbstractField> T findFieldForNameAndType(final String fieldName, final Class<T> fieldType) {
         final String normalizedName = JBBPUtils.normalizeFieldNameOrPath(fieldName);
         JBBPUtils.assertNotNull(fieldType, "Field type must not be null");
-
-        T result = null;
-
-        for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : fieldMap.entrySet()) {
-            if (normalizedName.equals(f.getKey().getFieldName()) && fieldType.isAssignableFrom(f.getValue().getClass())) {
-                result = fieldType.cast(f.getValue());
-                break;
-            }
-        }
-        return result;
+        return fieldType.cast(findFirst(normalizedName, false, fieldType));
     }
 
     @Override
     public <T extends JBBPAbstractField> T findFieldForPathAndType(final String fieldPath, final Class<T> fieldType) {
         final String normalizedPath = JBBPUtils.normalizeFieldNameOrPath(fieldPath);
         JBBPUtils.assertNotNull(fieldType, "Field type must not be null");
-
-        T result = null;
-
-        for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : fieldMap.entrySet()) {
-            if (normalizedPath.equals(f.getKey().getFieldPath()) && fieldType.isAssignableFrom(f.getValue().getClass())) {
-                result = fieldType.cast(f.getValue());
-                break;
-            }
-        }
-        return result;
+        return fieldType.cast(findFirst(normalizedPath, true, fieldType));
     }
 
     @Override
     public JBBPAbstractField findFieldForName(final String fieldName) {
-        final String normalizedName = JBBPUtils.normalizeFieldNameOrPath(fieldName);
-
-        JBBPAbstractField result = null;
-
-        for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : fieldMap.entrySet()) {
-            if (normalizedName.equals(f.getKey().getFieldName())) {
-                result = (JBBPAbstractField) f.getValue();
-                break;
-            }
-        }
-        return result;
+        return (JBBPAbstractField) findFirst(JBBPUtils.normalizeFieldNameOrPath(fieldName), false, null);
     }
 
     @Override
     public JBBPAbstractField findFieldForPath(final String fieldPath) {
-        final String normalizedPath = JBBPUtils.normalizeFieldNameOrPath(fieldPath);
-
-        JBBPAbstractField result = null;
-
-        for (final Map.Entry<JBBPNamedFieldInfo, JBBPNumericField> f : fieldMap.entrySet()) {
-            if (normalizedPath.equals(f.getKey().getFieldPath())) {
-                result = (JBBPAbstractField) f.getValue();
-                break;
-            }
-        }
-        return result;
+        return (JBBPAbstractField) findFirst(JBBPUtils.normalizeFieldNameOrPath(fieldPath), true, null);
     }
 
     @Override
     public boolean nameExists(final String fieldName) {
-        final String normalizedName = JBBPUtils.normalizeFieldNameOrPath(fieldName);
-
-        boolean result = false;
-
-        for (final JBBPNamedFieldInfo f : fieldMap.keySet()) {
-            if (normalizedName.equals(f.getFieldName())) {
-                result = true;
-                break;
-            }
-        }
-        return result;
+        return findFirst(JBBPUtils.normalizeFieldNameOrPath(fieldName), false, null) != null;
     }
 
     @Override
     public boolean pathExists(final String fieldPath) {
-        final String normalizedPath = JBBPUtils.normalizeFieldNameOrPath(fieldPath);
-
-        boolean result = false;
-
-        for (final JBBPNamedFieldInfo f : fieldMap.keySet()) {
-            if (normalizedPath.equals(f.getFieldPath())) {
-                result = true;
-                break;
-            }
-        }
-        return result;
+        return findFirst(JBBPUtils.normalizeFieldNameOrPath(fieldPath), true, null) != null;
     }
 
     /**
@@ -263,6 +408,10 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
      */
     public void clear() {
         this.fieldMap.clear();
+        if (this.slotFields != null) {
+            Arrays.fill(this.slotFields, null);
+            this.slotCounter = 0;
+        }
     }
 
     /**
@@ -271,7 +420,7 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
      * @return true if the map is empty, false otherwise
      */
     public boolean isEmpty() {
-        return this.fieldMap.isEmpty();
+        return this.slotCounter == 0 && this.fieldMap.isEmpty();
     }
 
     /**
@@ -280,7 +429,7 @@ public final class JBBPNamedNumericFieldMap implements JBBPFieldFinder {
      * @return number of registered fields as integer
      */
     public int size() {
-        return this.fieldMap.size();
+        return this.slotCounter + this.fieldMap.size();
     }
 
     /**
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+/**
+ * The Interface describes an instrumentation which gets statistics of parsing calls
+ * made by a parser, it can be used to send parsing metrics into a registry or a tracing system.
+ * The Instrumentation is set by {@link JBBPParser#instrument(JBBPParseInstrumentation)},
+ * statistics are not collected for parsers without instrumentation.
+ * <p>
+ * The Instrumentation is called in the parsing thread, so that it must be thread safe
+ * if the parser is shared between threads. It must not throw exceptions because
+ * it is called also for failed parsing.
+ *
+ * @see JBBPFlightRecorderInstrumentation
+ * @since 1.3.1
+ */
+public interface JBBPParseInstrumentation {
+    /**
+     * Notification about start of a parsing call. The Statistics object is the same one
+     * which will be provided into {@link #onParseEnd(JBBPParser, JBBPParseStatistics)},
+     * the instrumentation can keep its own data for the call through
+     * {@link JBBPParseStatistics#setAttachment(Object)}.
+     *
+     * @param parser     the parser which starts the parsing, must not be null
+     * @param statistics statistics of the parsing call, must not be null
+     */
+    void onParseStart(JBBPParser parser, JBBPParseStatistics statistics);
+
+    /**
+     * Notification about end of a parsing call, it is made both for successfully
+     * completed and failed parsing.
+     *
+     * @param parser     the parser which has made the parsing, must not be null
+     * @param statistics statistics of the parsing call, must not be null
+     */
+    void onParseEnd(JBBPParser parser, JBBPParseStatistics statistics);
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.model.JBBPAbstractField;
+
+/**
+ * The Interface describes a listener which gets parsed values directly from a
+ * parser as primitives and arrays, so that the parser doesn't build any field
+ * tree. Events are sent in the order of fields in the stream. Name info
+ * arguments are null for anonymous fields.
+ *
+ * @since 1.3.1
+ */
+public interface JBBPParseListener {
+    /**
+     * Notification about start of a structure. The Root structure is notified
+     * with the name info which has empty name and path. Every element of a
+     * structure array is notified as a structure with the name of the array.
+     *
+     * @param name the name info of the structure, can be null
+     */
+    void onStructStart(JBBPNamedFieldInfo name);
+
+    /**
+     * Notification about end of a structure.
+     *
+     * @param name the name info of the structure, can be null
+     */
+    void onStructEnd(JBBPNamedFieldInfo name);
+
+    /**
+     * Notification about start of a structure array, its elements will be
+     * notified as structures.
+     *
+     * @param name   the name info of the array, can be null
+     * @param length the number of elements, -1 if the array is read till the end of stream
+     */
+    void onStructArrayStart(JBBPNamedFieldInfo name, int length);
+
+    /**
+     * Notification about end of a structure array.
+     *
+     * @param name the name info of the array, can be null
+     */
+    void onStructArrayEnd(JBBPNamedFieldInfo name);
+
+    /**
+     * Notification about a read bit field.
+     *
+     * @param name      the name info of the field, can be null
+     * @param value     the read value
+     * @param bitNumber the number of bits in the field, must not be null
+     */
+    void onBit(JBBPNamedFieldInfo name, int value, JBBPBitNumber bitNumber);
+
+    /**
+     * Notification about a read boolean field.
+     *
+     * @param name  the name info of the field, can be null
+     * @param value the read value
+     */
+    void onBool(JBBPNamedFieldInfo name, boolean value);
+
+    /**
+     * Notification about a read signed byte field.
+     *
+     * @param name  the name info of the field, can be null
+     * @param value the read value
+     */
+    void onByte(JBBPNamedFieldInfo name, byte value);
+
+    /**
+     * Notification about a read unsigned byte field.
+     *
+     * @param name  the name info of the field, can be null
+     * @param value the read value in 0..255
+     */
+    void onUByte(JBBPNamedFieldInfo name, int value);
+
+    /**
+     * Notification about a read signed short field.
+     *
+     * @param name  the name info of the field, can be null
+     * @param value the read value
+     */
+    void onShort(JBBPNamedFieldInfo name, short value);
+
+    /**
+     * Notification about a read unsigned short field.
+     *
+     * @param name  the name info of the field, can be null
+     * @param value the read value in 0..65535
+     */
+    void onUShort(JBBPNamedFieldInfo name, int value);
+
+    /**
+     * Notification about a read integer field.
+     *
+     * @param name  the name info of the field, can be null
+     * @param value the read value
+     */
+    void onInt(JBBPNamedFieldInfo name, int value);
+
+    /**
+     * Notification about a read long field.
+     *
+     * @param name  the name info of the field, can be null
+     * @param value the read value
+     */
+    void onLong(JBBPNamedFieldInfo name, long value);
+
+    /**
+     * Notification about a read bit field array.
+     *
+     * @param name      the name info of the array, can be null
+     * @param array     the read values, must not be null
+     * @param bitNumber the number of bits in every element, must not be null
+     */
+    void onBitArray(JBBPNamedFieldInfo name, byte[] array, JBBPBitNumber bitNumber);
+
+    /**
+     * Notification about a read boolean array.
+     *
+     * @param name  the name info of the array, can be null
+     * @param array the read values, must not be null
+     */
+    void onBoolArray(JBBPNamedFieldInfo name, boolean[] array);
+
+    /**
+     * Notification about a read signed byte array.
+     *
+     * @param name  the name info of the array, can be null
+     * @param array the read values, must not be null
+     */
+    void onByteArray(JBBPNamedFieldInfo name, byte[] array);
+
+    /**
+     * Notification about a read unsigned byte array.
+     *
+     * @param name  the name info of the array, can be null
+     * @param array the read values, must not be null
+     */
+    void onUByteArray(JBBPNamedFieldInfo name, byte[] array);
+
+    /**
+     * Notification about a read signed short array.
+     *
+     * @param name  the name info of the array, can be null
+     * @param array the read values, must not be null
+     */
+    void onShortArray(JBBPNamedFieldInfo name, short[] array);
+
+    /**
+     * Notification about a read unsigned short array.
+     *
+     * @param name  the name info of the array, can be null
+     * @param array the read values, must not be null
+     */
+    void onUShortArray(JBBPNamedFieldInfo name, short[] array);
+
+    /**
+     * Notification about a read integer array.
+     *
+     * @param name  the name info of the array, can be null
+     * @param array the read values, must not be null
+     */
+    void onIntArray(JBBPNamedFieldInfo name, int[] array);
+
+    /**
+     * Notification about a read long array.
+     *
+     * @param name  the name info of the array, can be null
+     * @param array the read values, must not be null
+     */
+    void onLongArray(JBBPNamedFieldInfo name, long[] array);
+
+    /**
+     * Notification about a field or an array read by a var field processor or
+     * a custom field type processor.
+     *
+     * @param field the read field, must not be null
+     */
+    void onField(JBBPAbstractField field);
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.model.JBBPAbstractField;
+
+/**
+ * Auxiliary adapter for interface JBBPParseListener, all its methods do nothing.
+ *
+ * @see JBBPParseListener
+ * @since 1.3.1
+ */
+public abstract class JBBPParseListenerAdapter implements JBBPParseListener {
+
+    @Override
+    public void onStructStart(final JBBPNamedFieldInfo name) {
+    }
+
+    @Override
+    public void onStructEnd(final JBBPNamedFieldInfo name) {
+    }
+
+    @Override
+    public void onStructArrayStart(final JBBPNamedFieldInfo name, final int length) {
+    }
+
+    @Override
+    public void onStructArrayEnd(final JBBPNamedFieldInfo name) {
+    }
+
+    @Override
+    public void onBit(final JBBPNamedFieldInfo name, final int value, final JBBPBitNumber bitNumber) {
+    }
+
+    @Override
+    public void onBool(final JBBPNamedFieldInfo name, final boolean value) {
+    }
+
+    @Override
+    public void onByte(final JBBPNamedFieldInfo name, final byte value) {
+    }
+
+    @Override
+    public void onUByte(final JBBPNamedFieldInfo name, final int value) {
+    }
+
+    @Override
+    public void onShort(final JBBPNamedFieldInfo name, final short value) {
+    }
+
+    @Override
+    public void onUShort(final JBBPNamedFieldInfo name, final int value) {
+    }
+
+    @Override
+    public void onInt(final JBBPNamedFieldInfo name, final int value) {
+    }
+
+    @Override
+    public void onLong(final JBBPNamedFieldInfo name, final long value) {
+    }
+
+    @Override
+    public void onBitArray(final JBBPNamedFieldInfo name, final byte[] array, final JBBPBitNumber bitNumber) {
+    }
+
+    @Override
+    public void onBoolArray(final JBBPNamedFieldInfo name, final boolean[] array) {
+    }
+
+    @Override
+    public void onByteArray(final JBBPNamedFieldInfo name, final byte[] array) {
+    }
+
+    @Override
+    public void onUByteArray(final JBBPNamedFieldInfo name, final byte[] array) {
+    }
+
+    @Override
+    public void onShortArray(final JBBPNamedFieldInfo name, final short[] array) {
+    }
+
+    @Override
+    public void onUShortArray(final JBBPNamedFieldInfo name, final short[] array) {
+    }
+
+    @Override
+    public void onIntArray(final JBBPNamedFieldInfo name, final int[] array) {
+    }
+
+    @Override
+    public void onLongArray(final JBBPNamedFieldInfo name, final long[] array) {
+    }
+
+    @Override
+    public void onField(final JBBPAbstractField field) {
+    }
+}
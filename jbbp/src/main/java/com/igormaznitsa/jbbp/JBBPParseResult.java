@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+
+/**
+ * Immutable result of a parsing operation, it contains the root structure and
+ * stream counter values of the parsing call so that one parser instance can be
+ * used by several threads without any shared state.
+ *
+ * @since 1.3.1
+ */
+public final class JBBPParseResult {
+
+    /**
+     * The Root structure of parsed data.
+     */
+    private final JBBPFieldStruct root;
+    /**
+     * Stream byte counter value before parsing.
+     */
+    private final long startStreamByteCounter;
+    /**
+     * Stream byte counter value after parsing.
+     */
+    private final long finalStreamByteCounter;
+
+    /**
+     * Constructor.
+     *
+     * @param root                   the root structure, must not be null
+     * @param startStreamByteCounter the stream byte counter before parsing
+     * @param finalStreamByteCounter the stream byte counter after parsing
+     */
+    JBBPParseResult(final JBBPFieldStruct root, final long startStreamByteCounter, final long finalStreamByteCounter) {
+        this.root = root;
+        this.startStreamByteCounter = startStreamByteCounter;
+        this.finalStreamByteCounter = finalStreamByteCounter;
+    }
+
+    /**
+     * Get the root structure of parsed data.
+     *
+     * @return the root structure, must not be null
+     */
+    public JBBPFieldStruct getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Get the stream byte counter value before parsing.
+     *
+     * @return the counter value, it is not zero if a bit stream with already read data was provided
+     */
+    public long getStartStreamByteCounter() {
+        return this.startStreamByteCounter;
+    }
+
+    /**
+     * Get the stream byte counter value after parsing. NB: It is appropriate one
+     * only if the parsing didn't make any counter reset operation.
+     *
+     * @return the final counter value
+     */
+    public long getFinalStreamByteCounter() {
+        return this.finalStreamByteCounter;
+    }
+
+    /**
+     * Get number of bytes consumed by the parsing. NB: It is appropriate one only
+     * if the parsing didn't make any counter reset operation.
+     *
+     * @return number of consumed bytes
+     */
+    public long getConsumedBytes() {
+        return this.finalStreamByteCounter - this.startStreamByteCounter;
+    }
+
+    @Override
+    public String toString() {
+        return "JBBPParseResult[consumed=" + getConsumedBytes() + ']';
+    }
+}
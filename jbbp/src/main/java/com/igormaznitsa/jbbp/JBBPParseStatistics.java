@@ -0,0 +1,254 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+/**
+ * Statistics of a parsing call collected for {@link JBBPParseInstrumentation}.
+ * Every parsing call gets its own instance, it is not changed after the
+ * instrumentation notification.
+ *
+ * @since 1.3.1
+ */
+public final class JBBPParseStatistics {
+
+    /**
+     * Value of {@link System#nanoTime()} at the parsing start.
+     */
+    private final long startNanoTime;
+    /**
+     * Stream byte counter value before parsing.
+     */
+    private final long startStreamByteCounter;
+    /**
+     * Flag shows that values were sent to a listener without making field tree.
+     */
+    private final boolean listenerMode;
+    /**
+     * Number of made field objects.
+     */
+    long fields;
+    /**
+     * Number of read arrays.
+     */
+    long arrays;
+    /**
+     * Time spent by var field processor.
+     */
+    long varFieldProcessorNanos;
+    /**
+     * Time spent by custom field type processor.
+     */
+    long customFieldProcessorNanos;
+    /**
+     * Number of executed skip operations.
+     */
+    long skips;
+    /**
+     * Number of skipped bytes.
+     */
+    long skippedBytes;
+    /**
+     * Flag shows that remaining fields were skipped because the end of stream has been reached.
+     */
+    boolean stoppedByEof;
+    /**
+     * Parsing duration in nanoseconds.
+     */
+    private long durationNanos;
+    /**
+     * Stream byte counter value after parsing.
+     */
+    private long finalStreamByteCounter;
+    /**
+     * Error thrown by the parsing, null if parsing has been completed successfully.
+     */
+    private Throwable error;
+    /**
+     * Object attached by instrumentation, can be null.
+     */
+    private Object attachment;
+
+    /**
+     * Constructor.
+     *
+     * @param startStreamByteCounter the stream byte counter before parsing
+     * @param listenerMode           true if values are sent to a listener
+     */
+    JBBPParseStatistics(final long startStreamByteCounter, final boolean listenerMode) {
+        this.startNanoTime = System.nanoTime();
+        this.startStreamByteCounter = startStreamByteCounter;
+        this.finalStreamByteCounter = startStreamByteCounter;
+        this.listenerMode = listenerMode;
+    }
+
+    /**
+     * Register end of parsing.
+     *
+     * @param finalStreamByteCounter the stream byte counter after parsing
+     * @param error                  error thrown by the parsing, it can be null
+     * @return the statistics
+     */
+    JBBPParseStatistics finish(final long finalStreamByteCounter, final Throwable error) {
+        this.durationNanos = System.nanoTime() - this.startNanoTime;
+        this.finalStreamByteCounter = finalStreamByteCounter;
+        this.error = error;
+        return this;
+    }
+
+    /**
+     * Register executed skip operation.
+     *
+     * @param bytes number of skipped bytes
+     */
+    void onSkip(final long bytes) {
+        this.skips++;
+        this.skippedBytes += bytes;
+    }
+
+    /**
+     * Get duration of the parsing call.
+     *
+     * @return duration in nanoseconds
+     */
+    public long getDurationNanos() {
+        return this.durationNanos;
+    }
+
+    /**
+     * Get number of bytes consumed by the parsing. NB: It is appropriate one only
+     * if the parsing didn't make any counter reset operation.
+     *
+     * @return number of consumed bytes
+     * @see JBBPParseResult#getConsumedBytes()
+     */
+    public long getConsumedBytes() {
+        return this.finalStreamByteCounter - this.startStreamByteCounter;
+    }
+
+    /**
+     * Get number of field objects made by the parsing, structures are counted too but
+     * arrays are not. In listener mode only fields needed for expressions are made.
+     *
+     * @return number of made fields
+     */
+    public long getFieldCount() {
+        return this.fields;
+    }
+
+    /**
+     * Get number of arrays read by the parsing, arrays of structures are counted too.
+     *
+     * @return number of read arrays
+     */
+    public long getArrayCount() {
+        return this.arrays;
+    }
+
+    /**
+     * Get time spent by var field processor.
+     *
+     * @return time in nanoseconds, 0 if there were no var fields
+     */
+    public long getVarFieldProcessorNanos() {
+        return this.varFieldProcessorNanos;
+    }
+
+    /**
+     * Get time spent by custom field type processor.
+     *
+     * @return time in nanoseconds, 0 if there were no custom type fields
+     */
+    public long getCustomFieldProcessorNanos() {
+        return this.customFieldProcessorNanos;
+    }
+
+    /**
+     * Get number of executed skip operations, skips made by projections are counted too.
+     *
+     * @return number of skip operations
+     * @see JBBPParser#project(String...)
+     */
+    public long getSkipCount() {
+        return this.skips;
+    }
+
+    /**
+     * Get number of bytes skipped by skip operations.
+     *
+     * @return number of skipped bytes
+     */
+    public long getSkippedBytes() {
+        return this.skippedBytes;
+    }
+
+    /**
+     * Check that remaining fields were not read because the end of stream has been
+     * reached, it is possible only for parsers with {@link JBBPParser#FLAG_SKIP_REMAINING_FIELDS_IF_EOF}.
+     *
+     * @return true if the parsing has been stopped by the end of stream, false otherwise
+     */
+    public boolean isStoppedByEof() {
+        return this.stoppedByEof;
+    }
+
+    /**
+     * Check that values were sent to a listener without making field tree.
+     *
+     * @return true if it was listener parsing, false otherwise
+     * @see JBBPParseListener
+     */
+    public boolean isListenerMode() {
+        return this.listenerMode;
+    }
+
+    /**
+     * Get error thrown by the parsing.
+     *
+     * @return the error or null if the parsing has been completed successfully
+     */
+    public Throwable getError() {
+        return this.error;
+    }
+
+    /**
+     * Get object attached to the statistics by instrumentation.
+     *
+     * @return the attached object, can be null
+     */
+    public Object getAttachment() {
+        return this.attachment;
+    }
+
+    /**
+     * Attach an object to the statistics, it allows instrumentation to keep its own
+     * data between start and end notifications of a parsing call.
+     *
+     * @param attachment an object to be attached, can be null
+     * @see JBBPParseInstrumentation#onParseStart(JBBPParser, JBBPParseStatistics)
+     */
+    public void setAttachment(final Object attachment) {
+        this.attachment = attachment;
+    }
+
+    @Override
+    public String toString() {
+        return "JBBPParseStatistics[duration=" + this.durationNanos + "ns, consumed=" + getConsumedBytes()
+                + ", fields=" + this.fields + ", arrays=" + this.arrays
+                + ", varTime=" + this.varFieldProcessorNanos + "ns, customTime=" + this.customFieldProcessorNanos + "ns"
+                + ", skips=" + this.skips + ", skippedBytes=" + this.skippedBytes
+                + ", stoppedByEof=" + this.stoppedByEof + ", error=" + this.error + ']';
+    }
+}
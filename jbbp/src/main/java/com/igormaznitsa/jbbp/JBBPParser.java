@@ -16,30 +16,46 @@
 package com.igormaznitsa.jbbp;
 
 import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlockCache;
 import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
 import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
 import com.igormaznitsa.jbbp.compiler.conversion.JBBPToJava6Converter;
+import com.igormaznitsa.jbbp.compiler.conversion.JBBPToJava8BufferConverter;
 import com.igormaznitsa.jbbp.compiler.tokenizer.JBBPFieldTypeParameterContainer;
 import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
 import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
 import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
 import com.igormaznitsa.jbbp.io.JBBPBitNumber;
 import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.io.JBBPBitOutputStream;
 import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.mapper.JBBPDirectMapper;
+import com.igormaznitsa.jbbp.mapper.JBBPMapper;
+import com.igormaznitsa.jbbp.mapper.JBBPMapperCustomFieldProcessor;
 import com.igormaznitsa.jbbp.model.*;
-import com.igormaznitsa.jbbp.utils.JBBPIntCounter;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
 import com.igormaznitsa.jbbp.utils.TargetSources;
 
-import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * the Main class allows a user to parse a binary stream or block for predefined
- * and precompiled script.
+ * and precompiled script. A Prepared parser doesn't keep any state of parsing
+ * so that it can be shared between threads, use parseWithResult methods to get
+ * per call information.
  *
  * @since 1.0
  */
@@ -50,14 +66,34 @@ public final class JBBPParser {
      * Flag shows that if EOF and not whole packet has been read then remaining fields will be just ignored without exception.
      */
     public static final int FLAG_SKIP_REMAINING_FIELDS_IF_EOF = 1;
+    /**
+     * Flag shows that the script must be compiled without the global compiled block cache.
+     *
+     * @see JBBPCompiledBlockCache
+     * @since 1.3.1
+     */
+    public static final int FLAG_DO_NOT_USE_COMPILED_BLOCK_CACHE = 2;
     /**
      * Empty structure array
      */
     private static final JBBPFieldStruct[] EMPTY_STRUCT_ARRAY = new JBBPFieldStruct[0];
+    /**
+     * Name info of the root structure.
+     */
+    static final JBBPNamedFieldInfo ROOT_STRUCT_NAME = new JBBPNamedFieldInfo("", "", -1);
+    /**
+     * Listener to execute operations which results must be discarded.
+     */
+    private static final JBBPParseListener DISCARDING_LISTENER = new JBBPParseListenerAdapter() {
+    };
     /**
      * the Compiled block contains compiled script and extra information.
      */
     private final JBBPCompiledBlock compiledBlock;
+    /**
+     * Operations of the root structure decoded from the compiled block.
+     */
+    private final JBBPParserOperation[] operations;
     /**
      * The Bit order for stream operations.
      */
@@ -71,9 +107,22 @@ public final class JBBPParser {
      */
     private final JBBPCustomFieldTypeProcessor customFieldTypeProcessor;
     /**
-     * The Variable contains the last parsing counter value.
+     * Paths of fields requested by projection, null if the parser is not a projection.
+     */
+    private final String[] projectedPaths;
+    /**
+     * Instrumentation to get statistics of parsing calls, null if statistics must not be collected.
+     */
+    private final JBBPParseInstrumentation instrumentation;
+    /**
+     * Lazily found named fields which values are needed to calculate expressions.
+     */
+    private Set<JBBPNamedFieldInfo> valueDependencies;
+    /**
+     * The Variable contains the last parsing counter value, it is kept only for
+     * compatibility with {@link #getFinalStreamByteCounter()}.
      */
-    private long finalStreamByteCounter;
+    private volatile long finalStreamByteCounter;
 
     /**
      * Constructor.
@@ -84,6 +133,7 @@ public final class JBBPParser {
      * @param customFieldTypeProcessor custom field type processor for the parser instance, it can be null
      * @param flags                    special flags for parsing process
      * @see #FLAG_SKIP_REMAINING_FIELDS_IF_EOF
+     * @see #FLAG_DO_NOT_USE_COMPILED_BLOCK_CACHE
      */
     private JBBPParser(final String source, final JBBPBitOrder bitOrder, final JBBPCustomFieldTypeProcessor customFieldTypeProcessor, final int flags) {
         JBBPUtils.assertNotNull(source, "Script is null");
@@ -92,10 +142,35 @@ public final class JBBPParser {
         this.bitOrder = bitOrder;
         this.flags = flags;
         try {
-            this.compiledBlock = JBBPCompiler.compile(source, customFieldTypeProcessor);
+            if ((flags & FLAG_DO_NOT_USE_COMPILED_BLOCK_CACHE) == 0) {
+                this.compiledBlock = JBBPCompiledBlockCache.getInstance().compile(source, customFieldTypeProcessor);
+            } else {
+                this.compiledBlock = JBBPCompiler.compile(source, customFieldTypeProcessor);
+            }
         } catch (IOException ex) {
             throw new RuntimeException("Can't compile script for unexpected IOException", ex);
         }
+        this.operations = JBBPParserOperation.decode(this.compiledBlock);
+        this.projectedPaths = null;
+        this.instrumentation = null;
+    }
+
+    /**
+     * Constructor of a parser based on another one.
+     *
+     * @param base            the parser to make new one, must not be null
+     * @param projectedPaths  paths of requested fields, null if the parser is not a projection
+     * @param operations      operations of the root structure, must not be null
+     * @param instrumentation instrumentation of parsing calls, it can be null
+     */
+    private JBBPParser(final JBBPParser base, final String[] projectedPaths, final JBBPParserOperation[] operations, final JBBPParseInstrumentation instrumentation) {
+        this.customFieldTypeProcessor = base.customFieldTypeProcessor;
+        this.bitOrder = base.bitOrder;
+        this.flags = base.flags;
+        this.compiledBlock = base.compiledBlock;
+        this.operations = operations;
+        this.projectedPaths = projectedPaths;
+        this.instrumentation = instrumentation;
     }
 
     /**
@@ -104,7 +179,7 @@ public final class JBBPParser {
      * @param length the array length to be checked
      * @param name   the name information of a field, it can be null
      */
-    private static void assertArrayLength(final int length, final JBBPNamedFieldInfo name) {
+    static void assertArrayLength(final int length, final JBBPNamedFieldInfo name) {
         if (length < 0) {
             throw new JBBPParsingException("Detected negative calculated array length for field '" + (name == null ? "<NO NAME>" : name.getFieldPath()) + "\' [" + JBBPUtils.int2msg(length) + ']');
         }
@@ -198,316 +273,547 @@ public final class JBBPParser {
         return JBBPParser.prepare(script, JBBPBitOrder.LSB0, flags);
     }
 
+    /**
+     * Make projection of the parser which parses only requested fields. Result structures contain only requested
+     * fields and structures containing them, requested structures are parsed completely. Data of other fields is
+     * skipped without decoding if their sizes can be calculated from the script, arrays with calculated length are
+     * skipped through calculated size, and only fields which values are needed to calculate sizes and fields with
+     * unknown size (var, custom type fields and whole stream arrays) are still read but not placed into result.
+     * <p>
+     * Result structures of a projection can't be written back by {@link #write(JBBPFieldStruct, OutputStream)}
+     * because they don't contain all fields of the script.
+     *
+     * @param paths paths of fields to be parsed, must not be null and must not be empty
+     * @return new parser which parses only requested fields, must not be null
+     * @throws JBBPFinderException if the script doesn't have a field for a path
+     * @since 1.3.1
+     */
+    public JBBPParser project(final String... paths) {
+        JBBPUtils.assertNotNull(paths, "Paths must not be null");
+        if (paths.length == 0) {
+            throw new IllegalArgumentException("Paths must not be empty");
+        }
+
+        final Set<JBBPNamedFieldInfo> requested = new HashSet<JBBPNamedFieldInfo>();
+        for (final String path : paths) {
+            JBBPUtils.assertNotNull(path, "Path must not be null");
+            final JBBPNamedFieldInfo field = this.compiledBlock.findFieldForPath(JBBPUtils.normalizeFieldNameOrPath(path));
+            if (field == null) {
+                throw new JBBPFinderException("Can't find field for path '" + path + '\'', path, null);
+            }
+            requested.add(field);
+        }
+
+        final boolean mergeSkips = (this.flags & FLAG_SKIP_REMAINING_FIELDS_IF_EOF) == 0;
+        return new JBBPParser(this, paths.clone(), JBBPParserOperation.project(this.compiledBlock, JBBPParserOperation.decode(this.compiledBlock), requested, mergeSkips), this.instrumentation);
+    }
+
+    /**
+     * Make parser which notifies an instrumentation about every parsing call made through
+     * parse, parseWithResult, parseInto, iterate and parseParallel methods. The Parser
+     * shares the compiled script with the original one, projection and flags are kept.
+     * Parsers without instrumentation don't collect any statistics.
+     *
+     * @param instrumentation the instrumentation to get statistics, null to make parser without instrumentation
+     * @return new parser with the instrumentation, must not be null
+     * @see JBBPFlightRecorderInstrumentation
+     * @since 1.3.1
+     */
+    public JBBPParser instrument(final JBBPParseInstrumentation instrumentation) {
+        return new JBBPParser(this, this.projectedPaths, this.operations, instrumentation);
+    }
+
+    /**
+     * Get the instrumentation of the parser.
+     *
+     * @return the instrumentation or null if the parser doesn't have instrumentation
+     * @since 1.3.1
+     */
+    public JBBPParseInstrumentation getInstrumentation() {
+        return this.instrumentation;
+    }
+
+    /**
+     * Check that the parser is a projection of a script made by {@link #project(String...)}.
+     *
+     * @return true if the parser parses only some fields of the script, false otherwise
+     * @since 1.3.1
+     */
+    public boolean isProjection() {
+        return this.projectedPaths != null;
+    }
+
+    /**
+     * Get paths of fields requested for the projection.
+     *
+     * @return copy of requested paths or null if the parser is not a projection
+     * @since 1.3.1
+     */
+    public String[] getProjectedPaths() {
+        return this.projectedPaths == null ? null : this.projectedPaths.clone();
+    }
+
+    /**
+     * Get pre-decoded operations of the root structure.
+     *
+     * @return operations of the root structure, must not be null
+     */
+    JBBPParserOperation[] getOperations() {
+        return this.operations;
+    }
+
+    /**
+     * Get named fields which values are needed to calculate expressions of the script.
+     *
+     * @return unmodifiable set of name info, must not be null
+     */
+    Set<JBBPNamedFieldInfo> getValueDependencies() {
+        Set<JBBPNamedFieldInfo> result = this.valueDependencies;
+        if (result == null) {
+            result = Collections.unmodifiableSet(JBBPParserOperation.findDependencies(this.compiledBlock, this.operations));
+            this.valueDependencies = result;
+        }
+        return result;
+    }
+
+    /**
+     * Parse single operation.
+     *
+     * @param inStream             the input stream, must not be null
+     * @param operation            the operation to be executed, must not be null
+     * @param varFieldProcessor    a processor to process var fields, it can be null
+     * @param namedNumericFieldMap the named numeric field map, it can be null if the operation doesn't need it
+     * @return read field or null if the operation doesn't make field
+     * @throws IOException it will be thrown for transport errors
+     */
+    JBBPAbstractField parseOperation(final JBBPBitInputStream inStream, final JBBPParserOperation operation, final JBBPVarFieldProcessor varFieldProcessor, final JBBPNamedNumericFieldMap namedNumericFieldMap) throws IOException {
+        final List<JBBPAbstractField> result = parseStruct(inStream, new JBBPParserOperation[] {operation}, varFieldProcessor, namedNumericFieldMap, null, null);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * Parse the root structure and notify the instrumentation if it is presented.
+     *
+     * @param inStream             the input stream, must not be null
+     * @param varFieldProcessor    a processor to process var fields, it can be null
+     * @param namedNumericFieldMap the named numeric field map, it can be null
+     * @param listener             a listener to get read values instead of
+     *                             making fields, null if fields must be made
+     * @return list of read fields for the root structure, it is null if a listener is provided
+     * @throws IOException it will be thrown for transport errors
+     */
+    private List<JBBPAbstractField> parseRoot(final JBBPBitInputStream inStream, final JBBPVarFieldProcessor varFieldProcessor, final JBBPNamedNumericFieldMap namedNumericFieldMap, final JBBPParseListener listener) throws IOException {
+        this.finalStreamByteCounter = inStream.getCounter();
+
+        final JBBPParseInstrumentation instrumentation = this.instrumentation;
+        if (instrumentation == null) {
+            try {
+                return parseStruct(inStream, this.operations, varFieldProcessor, namedNumericFieldMap, listener, null);
+            } finally {
+                this.finalStreamByteCounter = inStream.getCounter();
+            }
+        }
+
+        final JBBPParseStatistics statistics = new JBBPParseStatistics(inStream.getCounter(), listener != null);
+        instrumentation.onParseStart(this, statistics);
+        Throwable error = null;
+        try {
+            return parseStruct(inStream, this.operations, varFieldProcessor, namedNumericFieldMap, listener, statistics);
+        } catch (IOException ex) {
+            error = ex;
+            throw ex;
+        } catch (RuntimeException ex) {
+            error = ex;
+            throw ex;
+        } catch (Error ex) {
+            error = ex;
+            throw ex;
+        } finally {
+            this.finalStreamByteCounter = inStream.getCounter();
+            instrumentation.onParseEnd(this, statistics.finish(inStream.getCounter(), error));
+        }
+    }
+
     /**
      * Inside method to parse a structure.
      *
-     * @param inStream                      the input stream, must not be null
-     * @param positionAtCompiledBlock       the current position in the compiled script
-     *                                      block
-     * @param varFieldProcessor             a processor to process var fields, it can be null
-     *                                      but it will thrown NPE if a var field is met
-     * @param namedNumericFieldMap          the named numeric field map
-     * @param positionAtNamedFieldList      the current position at the named field
-     *                                      list
-     * @param positionAtVarLengthProcessors the current position at the variable
-     *                                      array length processor list
-     * @param skipStructureFields           the flag shows that content of fields must be
-     *                                      skipped because the structure is skipped
-     * @return list of read fields for the structure
+     * @param inStream             the input stream, must not be null
+     * @param operations           pre-decoded operations of the structure, must not be null
+     * @param varFieldProcessor    a processor to process var fields, it can be null
+     *                             but it will thrown NPE if a var field is met
+     * @param namedNumericFieldMap the named numeric field map
+     * @param structListener       a listener to get read values instead of
+     *                             making fields, null if fields must be made
+     * @param statistics           statistics of the parsing call, null if statistics must not be collected
+     * @return list of read fields for the structure, it is null if a listener is provided
      * @throws IOException it will be thrown for transport errors
      */
     @SuppressWarnings("ConstantConditions")
-    private List<JBBPAbstractField> parseStruct(final JBBPBitInputStream inStream, final JBBPIntCounter positionAtCompiledBlock, final JBBPVarFieldProcessor varFieldProcessor, final JBBPNamedNumericFieldMap namedNumericFieldMap, final JBBPIntCounter positionAtNamedFieldList, final JBBPIntCounter positionAtVarLengthProcessors, final boolean skipStructureFields) throws IOException {
-        final List<JBBPAbstractField> structureFields = skipStructureFields ? null : new ArrayList<JBBPAbstractField>();
-        final byte[] compiled = this.compiledBlock.getCompiledData();
+    private List<JBBPAbstractField> parseStruct(final JBBPBitInputStream inStream, final JBBPParserOperation[] operations, final JBBPVarFieldProcessor varFieldProcessor, final JBBPNamedNumericFieldMap namedNumericFieldMap, final JBBPParseListener structListener, final JBBPParseStatistics statistics) throws IOException {
+        final List<JBBPAbstractField> structureFields = structListener == null ? new ArrayList<JBBPAbstractField>(operations.length) : null;
+        final boolean skipRemainingFieldsIfEof = (this.flags & FLAG_SKIP_REMAINING_FIELDS_IF_EOF) != 0;
 
-        boolean endStructureNotMet = true;
-
-        while (endStructureNotMet && positionAtCompiledBlock.get() < compiled.length) {
-            if (!inStream.hasAvailableData() && (flags & FLAG_SKIP_REMAINING_FIELDS_IF_EOF) != 0) {
+        for (final JBBPParserOperation operation : operations) {
+            if (skipRemainingFieldsIfEof && !inStream.hasAvailableData()) {
                 // Break reading because the ignore flag for EOF has been set
+                if (statistics != null) {
+                    statistics.stoppedByEof = true;
+                }
                 break;
             }
 
-            final int c = compiled[positionAtCompiledBlock.getAndIncrement()] & 0xFF;
-            final boolean wideCode = (c & JBBPCompiler.FLAG_WIDE) != 0;
-            final int ec = wideCode ? compiled[positionAtCompiledBlock.getAndIncrement()] & 0xFF : 0;
-            final boolean extraFieldNumAsExpr = (ec & JBBPCompiler.EXT_FLAG_EXTRA_AS_EXPRESSION) != 0;
-            final int code = (ec << 8) | c;
+            final JBBPNamedFieldInfo name = operation.name;
+            final JBBPByteOrder byteOrder = operation.byteOrder;
+            // results of operations discarded by projection are provided to the listener which ignores them
+            final JBBPParseListener listener = operation.discardResult ? DISCARDING_LISTENER : structListener;
 
-            final JBBPNamedFieldInfo name = (code & JBBPCompiler.FLAG_NAMED) == 0 ? null : compiledBlock.getNamedFields()[positionAtNamedFieldList.getAndIncrement()];
-            final JBBPByteOrder byteOrder = (code & JBBPCompiler.FLAG_LITTLE_ENDIAN) == 0 ? JBBPByteOrder.BIG_ENDIAN : JBBPByteOrder.LITTLE_ENDIAN;
+            // in listener mode single fields are made only to be placed into the named numeric field map
+            final boolean makeSingleField = listener == null || (namedNumericFieldMap != null && name != null);
 
-            final boolean resultNotIgnored = !skipStructureFields;
-
-            final int extraFieldNumExprResult;
-            if (extraFieldNumAsExpr) {
-                final JBBPIntegerValueEvaluator evaluator = this.compiledBlock.getArraySizeEvaluators()[positionAtVarLengthProcessors.getAndIncrement()];
-                extraFieldNumExprResult = resultNotIgnored ? evaluator.eval(inStream, positionAtCompiledBlock.get(), this.compiledBlock, namedNumericFieldMap) : 0;
-            } else {
-                extraFieldNumExprResult = 0;
-            }
+            final int extraValue = operation.extraValueEvaluator == null ? operation.extraValue : operation.extraValueEvaluator.eval(inStream, operation.offset, this.compiledBlock, namedNumericFieldMap);
 
             final boolean wholeStreamArray;
             final int arrayLength;
-            final int packedArraySizeOffset;
-            switch (code & (JBBPCompiler.FLAG_ARRAY | (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8))) {
-                case JBBPCompiler.FLAG_ARRAY: {
-                    final int pos = positionAtCompiledBlock.get();
-                    arrayLength = JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
-                    packedArraySizeOffset = positionAtCompiledBlock.get() - pos;
+            switch (operation.arrayMode) {
+                case JBBPParserOperation.ARRAY_FIXED: {
+                    arrayLength = operation.arrayLength;
                     wholeStreamArray = false;
                 }
                 break;
-                case (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8): {
-                    wholeStreamArray = resultNotIgnored;
-                    packedArraySizeOffset = 0;
+                case JBBPParserOperation.ARRAY_WHOLE_STREAM: {
                     arrayLength = 0;
+                    wholeStreamArray = true;
                 }
                 break;
-                case JBBPCompiler.FLAG_ARRAY | (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8): {
-                    final JBBPIntegerValueEvaluator evaluator = this.compiledBlock.getArraySizeEvaluators()[positionAtVarLengthProcessors.getAndIncrement()];
-                    arrayLength = resultNotIgnored ? evaluator.eval(inStream, positionAtCompiledBlock.get(), this.compiledBlock, namedNumericFieldMap) : 0;
-                    packedArraySizeOffset = 0;
+                case JBBPParserOperation.ARRAY_EXPRESSION: {
+                    arrayLength = operation.arrayLengthEvaluator.eval(inStream, operation.offset, this.compiledBlock, namedNumericFieldMap);
                     assertArrayLength(arrayLength, name);
                     wholeStreamArray = false;
                 }
                 break;
                 default: {
                     // it is not an array, just a single field
-                    packedArraySizeOffset = 0;
-                    wholeStreamArray = false;
                     arrayLength = -1;
+                    wholeStreamArray = false;
                 }
                 break;
             }
 
             JBBPAbstractField singleAtomicField = null;
             try {
-                switch (code & 0xF) {
+                switch (operation.type) {
                     case JBBPCompiler.CODE_RESET_COUNTER: {
-                        if (resultNotIgnored) {
-                            inStream.resetCounter();
-                        }
+                        inStream.resetCounter();
                     }
                     break;
                     case JBBPCompiler.CODE_ALIGN: {
-                        final int alignValue = extraFieldNumAsExpr ? extraFieldNumExprResult : JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
-                        if (resultNotIgnored) {
-                            inStream.align(alignValue);
-                        }
+                        inStream.align(extraValue);
                     }
                     break;
                     case JBBPCompiler.CODE_SKIP: {
-                        final int skipByteNumber = extraFieldNumAsExpr ? extraFieldNumExprResult : JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
-                        if (resultNotIgnored && skipByteNumber > 0) {
-                            final long skippedBytes = inStream.skip(skipByteNumber);
-                            if (skippedBytes != skipByteNumber) {
-                                throw new EOFException("Can't skip " + skipByteNumber + " byte(s), skipped only " + skippedBytes + " byte(s)");
+                        if (extraValue > 0) {
+                            final long skippedBytes = inStream.skip(extraValue);
+                            if (skippedBytes != extraValue) {
+                                throw new EOFException("Can't skip " + extraValue + " byte(s), skipped only " + skippedBytes + " byte(s)");
+                            }
+                            if (statistics != null) {
+                                statistics.onSkip(skippedBytes);
+                            }
+                        }
+                    }
+                    break;
+                    case JBBPParserOperation.CODE_SKIP_ARRAY: {
+                        final long bytesToSkip = (long) arrayLength * extraValue;
+                        if (bytesToSkip > 0L) {
+                            final long skippedBytes = inStream.skip(bytesToSkip);
+                            if (skippedBytes != bytesToSkip) {
+                                throw new EOFException("Can't skip " + bytesToSkip + " byte(s), skipped only " + skippedBytes + " byte(s)");
+                            }
+                            if (statistics != null) {
+                                statistics.onSkip(skippedBytes);
                             }
                         }
                     }
                     break;
                     case JBBPCompiler.CODE_BIT: {
-                        final int numberOfBits = extraFieldNumAsExpr ? extraFieldNumExprResult : JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
-                        if (resultNotIgnored) {
-                            final JBBPBitNumber bitNumber = JBBPBitNumber.decode(numberOfBits);
-                            if (arrayLength < 0) {
-                                final int read = inStream.readBitField(bitNumber);
-                                singleAtomicField = new JBBPFieldBit(name, read & 0xFF, bitNumber);
+                        final JBBPBitNumber bitNumber = operation.bitNumber == null ? JBBPBitNumber.decode(extraValue) : operation.bitNumber;
+                        if (arrayLength < 0) {
+                            final int read = (int) inStream.readBitsLong(bitNumber.getBitNumber());
+                            if (listener != null) {
+                                listener.onBit(name, read, bitNumber);
+                            }
+                            if (makeSingleField) {
+                                singleAtomicField = new JBBPFieldBit(name, read, bitNumber);
+                            }
+                        } else {
+                            final byte[] array = inStream.readBitsArray(wholeStreamArray ? -1 : arrayLength, bitNumber);
+                            if (listener == null) {
+                                structureFields.add(new JBBPFieldArrayBit(name, array, bitNumber));
                             } else {
-                                structureFields.add(new JBBPFieldArrayBit(name, inStream.readBitsArray(wholeStreamArray ? -1 : arrayLength, bitNumber), bitNumber));
+                                listener.onBitArray(name, array, bitNumber);
                             }
                         }
                     }
                     break;
                     case JBBPCompiler.CODE_VAR: {
-                        final int extraField = extraFieldNumAsExpr ? extraFieldNumExprResult : JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
-                        if (resultNotIgnored) {
-                            if (arrayLength < 0) {
-                                singleAtomicField = varFieldProcessor.readVarField(inStream, name, extraField, byteOrder, namedNumericFieldMap);
-                                JBBPUtils.assertNotNull(singleAtomicField, "A Var processor must not return null as a result of a field reading");
-                                if (singleAtomicField instanceof JBBPAbstractArrayField) {
-                                    throw new JBBPParsingException("A Var field processor has returned an array value instead of a field value [" + name + ':' + extraField + ']');
-                                }
-                                if (singleAtomicField.getNameInfo() != name) {
-                                    throw new JBBPParsingException("Detected wrong name for a read field , must be " + name + " but detected " + singleAtomicField.getNameInfo() + ']');
-                                }
-                            } else {
-                                final JBBPAbstractArrayField<? extends JBBPAbstractField> array = varFieldProcessor.readVarArray(inStream, wholeStreamArray ? -1 : arrayLength, name, extraField, byteOrder, namedNumericFieldMap);
-                                JBBPUtils.assertNotNull(array, "A Var processor must not return null as a result of an array field reading [" + name + ':' + extraField + ']');
-                                if (array.getNameInfo() != name) {
-                                    throw new JBBPParsingException("Detected wrong name for a read field array, must be " + name + " but detected " + array.getNameInfo() + ']');
-                                }
+                        if (arrayLength < 0) {
+                            final long startTime = statistics == null ? 0L : System.nanoTime();
+                            singleAtomicField = varFieldProcessor.readVarField(inStream, name, extraValue, byteOrder, namedNumericFieldMap);
+                            if (statistics != null) {
+                                statistics.varFieldProcessorNanos += System.nanoTime() - startTime;
+                            }
+                            JBBPUtils.assertNotNull(singleAtomicField, "A Var processor must not return null as a result of a field reading");
+                            if (singleAtomicField instanceof JBBPAbstractArrayField) {
+                                throw new JBBPParsingException("A Var field processor has returned an array value instead of a field value [" + name + ':' + extraValue + ']');
+                            }
+                            if (singleAtomicField.getNameInfo() != name) {
+                                throw new JBBPParsingException("Detected wrong name for a read field , must be " + name + " but detected " + singleAtomicField.getNameInfo() + ']');
+                            }
+                            if (listener != null) {
+                                listener.onField(singleAtomicField);
+                            }
+                        } else {
+                            final long startTime = statistics == null ? 0L : System.nanoTime();
+                            final JBBPAbstractArrayField<? extends JBBPAbstractField> array = varFieldProcessor.readVarArray(inStream, wholeStreamArray ? -1 : arrayLength, name, extraValue, byteOrder, namedNumericFieldMap);
+                            if (statistics != null) {
+                                statistics.varFieldProcessorNanos += System.nanoTime() - startTime;
+                            }
+                            JBBPUtils.assertNotNull(array, "A Var processor must not return null as a result of an array field reading [" + name + ':' + extraValue + ']');
+                            if (array.getNameInfo() != name) {
+                                throw new JBBPParsingException("Detected wrong name for a read field array, must be " + name + " but detected " + array.getNameInfo() + ']');
+                            }
+                            if (listener == null) {
                                 structureFields.add(array);
+                            } else {
+                                listener.onField(array);
                             }
                         }
                     }
                     break;
                     case JBBPCompiler.CODE_CUSTOMTYPE: {
-                        final int extraData = extraFieldNumAsExpr ? extraFieldNumExprResult : JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
-                        if (resultNotIgnored) {
-                            final JBBPFieldTypeParameterContainer fieldTypeInfo = this.compiledBlock.getCustomTypeFields()[JBBPUtils.unpackInt(compiled, positionAtCompiledBlock)];
-                            final JBBPAbstractField field = this.customFieldTypeProcessor.readCustomFieldType(inStream, this.bitOrder, this.flags, fieldTypeInfo, name, extraData, wholeStreamArray, arrayLength);
-                            JBBPUtils.assertNotNull(field, "Must not return null as read result");
-
-                            if (arrayLength < 0) {
-                                singleAtomicField = field;
-                            } else {
-                                structureFields.add(field);
-                            }
+                        final long startTime = statistics == null ? 0L : System.nanoTime();
+                        final JBBPAbstractField field = this.customFieldTypeProcessor.readCustomFieldType(inStream, this.bitOrder, this.flags, operation.customType, name, extraValue, wholeStreamArray, arrayLength);
+                        if (statistics != null) {
+                            statistics.customFieldProcessorNanos += System.nanoTime() - startTime;
+                        }
+                        JBBPUtils.assertNotNull(field, "Must not return null as read result");
+
+                        if (listener != null) {
+                            listener.onField(field);
+                        }
+                        if (arrayLength < 0) {
+                            singleAtomicField = field;
+                        } else if (listener == null) {
+                            structureFields.add(field);
                         }
                     }
                     break;
                     case JBBPCompiler.CODE_BOOL: {
-                        if (resultNotIgnored) {
-                            if (arrayLength < 0) {
-                                singleAtomicField = new JBBPFieldBoolean(name, inStream.readBoolean());
+                        if (arrayLength < 0) {
+                            final boolean value = inStream.readBoolean();
+                            if (listener != null) {
+                                listener.onBool(name, value);
+                            }
+                            if (makeSingleField) {
+                                singleAtomicField = new JBBPFieldBoolean(name, value);
+                            }
+                        } else {
+                            final boolean[] array = inStream.readBoolArray(wholeStreamArray ? -1 : arrayLength);
+                            if (listener == null) {
+                                structureFields.add(new JBBPFieldArrayBoolean(name, array));
                             } else {
-                                structureFields.add(new JBBPFieldArrayBoolean(name, inStream.readBoolArray(wholeStreamArray ? -1 : arrayLength)));
+                                listener.onBoolArray(name, array);
                             }
                         }
                     }
                     break;
                     case JBBPCompiler.CODE_BYTE: {
-                        if (resultNotIgnored) {
-                            if (arrayLength < 0) {
-                                singleAtomicField = new JBBPFieldByte(name, (byte) inStream.readByte());
+                        if (arrayLength < 0) {
+                            final byte value = (byte) inStream.readByte();
+                            if (listener != null) {
+                                listener.onByte(name, value);
+                            }
+                            if (makeSingleField) {
+                                singleAtomicField = new JBBPFieldByte(name, value);
+                            }
+                        } else {
+                            final byte[] array = inStream.readByteArray(wholeStreamArray ? -1 : arrayLength, byteOrder);
+                            if (listener == null) {
+                                structureFields.add(new JBBPFieldArrayByte(name, array));
                             } else {
-                                structureFields.add(new JBBPFieldArrayByte(name, inStream.readByteArray(wholeStreamArray ? -1 : arrayLength, byteOrder)));
+                                listener.onByteArray(name, array);
                             }
                         }
                     }
                     break;
                     case JBBPCompiler.CODE_UBYTE: {
-                        if (resultNotIgnored) {
-                            if (arrayLength < 0) {
-                                singleAtomicField = new JBBPFieldUByte(name, (byte) inStream.readByte());
+                        if (arrayLength < 0) {
+                            final int value = inStream.readByte();
+                            if (listener != null) {
+                                listener.onUByte(name, value);
+                            }
+                            if (makeSingleField) {
+                                singleAtomicField = new JBBPFieldUByte(name, (byte) value);
+                            }
+                        } else {
+                            final byte[] array = inStream.readByteArray(wholeStreamArray ? -1 : arrayLength, byteOrder);
+                            if (listener == null) {
+                                structureFields.add(new JBBPFieldArrayUByte(name, array));
                             } else {
-                                structureFields.add(new JBBPFieldArrayUByte(name, inStream.readByteArray(wholeStreamArray ? -1 : arrayLength, byteOrder)));
+                                listener.onUByteArray(name, array);
                             }
                         }
                     }
                     break;
                     case JBBPCompiler.CODE_INT: {
-                        if (resultNotIgnored) {
-                            if (arrayLength < 0) {
-                                final int value = inStream.readInt(byteOrder);
+                        if (arrayLength < 0) {
+                            final int value = inStream.readInt(byteOrder);
+                            if (listener != null) {
+                                listener.onInt(name, value);
+                            }
+                            if (makeSingleField) {
                                 singleAtomicField = new JBBPFieldInt(name, value);
+                            }
+                        } else {
+                            final int[] array = inStream.readIntArray(wholeStreamArray ? -1 : arrayLength, byteOrder);
+                            if (listener == null) {
+                                structureFields.add(new JBBPFieldArrayInt(name, array));
                             } else {
-                                structureFields.add(new JBBPFieldArrayInt(name, inStream.readIntArray(wholeStreamArray ? -1 : arrayLength, byteOrder)));
+                                listener.onIntArray(name, array);
                             }
                         }
                     }
                     break;
                     case JBBPCompiler.CODE_LONG: {
-                        if (resultNotIgnored) {
-                            if (arrayLength < 0) {
-                                final long value = inStream.readLong(byteOrder);
+                        if (arrayLength < 0) {
+                            final long value = inStream.readLong(byteOrder);
+                            if (listener != null) {
+                                listener.onLong(name, value);
+                            }
+                            if (makeSingleField) {
                                 singleAtomicField = new JBBPFieldLong(name, value);
+                            }
+                        } else {
+                            final long[] array = inStream.readLongArray(wholeStreamArray ? -1 : arrayLength, byteOrder);
+                            if (listener == null) {
+                                structureFields.add(new JBBPFieldArrayLong(name, array));
                             } else {
-                                structureFields.add(new JBBPFieldArrayLong(name, inStream.readLongArray(wholeStreamArray ? -1 : arrayLength, byteOrder)));
+                                listener.onLongArray(name, array);
                             }
                         }
                     }
                     break;
                     case JBBPCompiler.CODE_SHORT: {
-                        if (resultNotIgnored) {
-                            if (arrayLength < 0) {
-                                final int value = inStream.readUnsignedShort(byteOrder);
-                                singleAtomicField = new JBBPFieldShort(name, (short) value);
+                        if (arrayLength < 0) {
+                            final short value = (short) inStream.readUnsignedShort(byteOrder);
+                            if (listener != null) {
+                                listener.onShort(name, value);
+                            }
+                            if (makeSingleField) {
+                                singleAtomicField = new JBBPFieldShort(name, value);
+                            }
+                        } else {
+                            final short[] array = inStream.readShortArray(wholeStreamArray ? -1 : arrayLength, byteOrder);
+                            if (listener == null) {
+                                structureFields.add(new JBBPFieldArrayShort(name, array));
                             } else {
-                                structureFields.add(new JBBPFieldArrayShort(name, inStream.readShortArray(wholeStreamArray ? -1 : arrayLength, byteOrder)));
+                                listener.onShortArray(name, array);
                             }
                         }
                     }
                     break;
                     case JBBPCompiler.CODE_USHORT: {
-                        if (resultNotIgnored) {
-                            if (arrayLength < 0) {
-                                final int value = inStream.readUnsignedShort(byteOrder);
+                        if (arrayLength < 0) {
+                            final int value = inStream.readUnsignedShort(byteOrder);
+                            if (listener != null) {
+                                listener.onUShort(name, value);
+                            }
+                            if (makeSingleField) {
                                 singleAtomicField = new JBBPFieldUShort(name, (short) value);
+                            }
+                        } else {
+                            final short[] array = inStream.readShortArray(wholeStreamArray ? -1 : arrayLength, byteOrder);
+                            if (listener == null) {
+                                structureFields.add(new JBBPFieldArrayUShort(name, array));
                             } else {
-                                structureFields.add(new JBBPFieldArrayUShort(name, inStream.readShortArray(wholeStreamArray ? -1 : arrayLength, byteOrder)));
+                                listener.onUShortArray(name, array);
                             }
                         }
                     }
                     break;
                     case JBBPCompiler.CODE_STRUCT_START: {
                         if (arrayLength < 0) {
-                            final List<JBBPAbstractField> structFields = parseStruct(inStream, positionAtCompiledBlock, varFieldProcessor, namedNumericFieldMap, positionAtNamedFieldList, positionAtVarLengthProcessors, skipStructureFields);
-                            // skip offset
-                            JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
-                            if (resultNotIgnored) {
-                                structureFields.add(new JBBPFieldStruct(name, structFields.toArray(new JBBPAbstractField[structFields.size()])));
+                            if (listener != null) {
+                                listener.onStructStart(name);
+                            }
+                            final List<JBBPAbstractField> structFields = parseStruct(inStream, operation.body, varFieldProcessor, namedNumericFieldMap, listener, statistics);
+                            if (listener == null) {
+                                structureFields.add(new JBBPFieldStruct(name, structFields));
+                                if (statistics != null) {
+                                    statistics.fields++;
+                                }
+                            } else {
+                                listener.onStructEnd(name);
                             }
                         } else {
-                            final int nameFieldCurrent = positionAtNamedFieldList.get();
-                            final int varLenProcCurrent = positionAtVarLengthProcessors.get();
+                            if (listener != null) {
+                                listener.onStructArrayStart(name, wholeStreamArray ? -1 : arrayLength);
+                            }
 
                             final JBBPFieldStruct[] result;
-                            if (resultNotIgnored) {
-                                if (wholeStreamArray) {
-                                    // read till the stream end
-                                    final List<JBBPFieldStruct> list = new ArrayList<JBBPFieldStruct>();
-                                    while (inStream.hasAvailableData()) {
-                                        positionAtNamedFieldList.set(nameFieldCurrent);
-                                        positionAtVarLengthProcessors.set(varLenProcCurrent);
-
-                                        final List<JBBPAbstractField> fieldsForStruct = parseStruct(inStream, positionAtCompiledBlock, varFieldProcessor, namedNumericFieldMap, positionAtNamedFieldList, positionAtVarLengthProcessors, skipStructureFields);
+                            if (wholeStreamArray) {
+                                // read till the stream end
+                                final List<JBBPFieldStruct> list = listener == null ? new ArrayList<JBBPFieldStruct>() : null;
+                                while (inStream.hasAvailableData()) {
+                                    if (listener != null) {
+                                        listener.onStructStart(name);
+                                    }
+                                    final List<JBBPAbstractField> fieldsForStruct = parseStruct(inStream, operation.body, varFieldProcessor, namedNumericFieldMap, listener, statistics);
+                                    if (listener == null) {
                                         list.add(new JBBPFieldStruct(name, fieldsForStruct));
-
-                                        final int structStart = JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
-
-                                        if (inStream.hasAvailableData()) {
-                                            positionAtCompiledBlock.set(structStart + (wideCode ? 2 : 1));
+                                        if (statistics != null) {
+                                            statistics.fields++;
                                         }
+                                    } else {
+                                        listener.onStructEnd(name);
                                     }
+                                }
 
-                                    result = list.isEmpty() ? EMPTY_STRUCT_ARRAY : list.toArray(new JBBPFieldStruct[list.size()]);
+                                if (list == null) {
+                                    result = null;
                                 } else {
-                                    // read number of items
-                                    if (arrayLength == 0) {
-                                        // skip the structure
-                                        result = EMPTY_STRUCT_ARRAY;
-                                        parseStruct(inStream, positionAtCompiledBlock, varFieldProcessor, namedNumericFieldMap, positionAtNamedFieldList, positionAtVarLengthProcessors, true);
-                                        JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
-                                    } else {
-                                        result = new JBBPFieldStruct[arrayLength];
-                                        for (int i = 0; i < arrayLength; i++) {
-
-                                            final List<JBBPAbstractField> fieldsForStruct = parseStruct(inStream, positionAtCompiledBlock, varFieldProcessor, namedNumericFieldMap, positionAtNamedFieldList, positionAtVarLengthProcessors, skipStructureFields);
-                                            final int structBodyStart = JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
-
-                                            result[i] = new JBBPFieldStruct(name, fieldsForStruct);
-
-                                            if (i < arrayLength - 1) {
-                                                // not the last
-                                                positionAtNamedFieldList.set(nameFieldCurrent);
-                                                positionAtVarLengthProcessors.set(varLenProcCurrent);
-                                                positionAtCompiledBlock.set(structBodyStart + packedArraySizeOffset + (wideCode ? 2 : 1));
-                                            }
+                                    result = list.isEmpty() ? EMPTY_STRUCT_ARRAY : list.toArray(new JBBPFieldStruct[list.size()]);
+                                }
+                            } else if (arrayLength == 0) {
+                                result = EMPTY_STRUCT_ARRAY;
+                            } else {
+                                result = listener == null ? new JBBPFieldStruct[arrayLength] : null;
+                                for (int i = 0; i < arrayLength; i++) {
+                                    if (listener != null) {
+                                        listener.onStructStart(name);
+                                    }
+                                    final List<JBBPAbstractField> fieldsForStruct = parseStruct(inStream, operation.body, varFieldProcessor, namedNumericFieldMap, listener, statistics);
+                                    if (listener == null) {
+                                        result[i] = new JBBPFieldStruct(name, fieldsForStruct);
+                                        if (statistics != null) {
+                                            statistics.fields++;
                                         }
+                                    } else {
+                                        listener.onStructEnd(name);
                                     }
                                 }
+                            }
 
-                                if (result != null) {
-                                    structureFields.add(new JBBPFieldArrayStruct(name, result));
-                                }
+                            if (listener == null) {
+                                structureFields.add(new JBBPFieldArrayStruct(name, result));
                             } else {
-                                parseStruct(inStream, positionAtCompiledBlock, varFieldProcessor, namedNumericFieldMap, positionAtNamedFieldList, positionAtVarLengthProcessors, skipStructureFields);
-                                JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                                listener.onStructArrayEnd(name);
                             }
                         }
                     }
                     break;
-                    case JBBPCompiler.CODE_STRUCT_END: {
-                        // we just left the method and the caller must process the structure offset start address for the structure
-                        endStructureNotMet = false;
-                    }
-                    break;
                     default:
-                        throw new Error("Detected unexpected field type! Contact developer! [" + code + ']');
+                        throw new Error("Detected unexpected field type! Contact developer! [" + operation.type + ']');
                 }
             } catch (IOException ex) {
                 if (name == null) {
@@ -517,20 +823,31 @@ public final class JBBPParser {
                 }
             }
 
+            if (statistics != null) {
+                if (singleAtomicField != null) {
+                    statistics.fields++;
+                } else if (arrayLength >= 0 && operation.type != JBBPParserOperation.CODE_SKIP_ARRAY) {
+                    statistics.arrays++;
+                }
+            }
+
             if (singleAtomicField != null) {
-                structureFields.add(singleAtomicField);
+                if (structureFields != null && !operation.discardResult) {
+                    structureFields.add(singleAtomicField);
+                }
                 if (namedNumericFieldMap != null && singleAtomicField instanceof JBBPNumericField && name != null) {
-                    namedNumericFieldMap.putField((JBBPNumericField) singleAtomicField);
+                    namedNumericFieldMap.putField(operation.nameIndex, (JBBPNumericField) singleAtomicField);
                 }
             }
-
         }
 
         return structureFields;
     }
 
     /**
-     * Parse an input stream.
+     * Parse an input stream. If the stream is a {@link JBBPBitInputStream} then it
+     * will be used directly, so that a buffered bit stream can be provided to speed up
+     * parsing of big files and network streams.
      *
      * @param in an input stream which content should be parsed, it must not be
      *           null
@@ -553,12 +870,82 @@ public final class JBBPParser {
      * @throws IOException it will be thrown for transport errors
      */
     public JBBPFieldStruct parse(final InputStream in, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        return this.parseWithResult(in, varFieldProcessor, externalValueProvider).getRoot();
+    }
+
+    /**
+     * Parse an input stream and return the result with stream counter information.
+     *
+     * @param in an input stream which content should be parsed, it must not be null
+     * @return the parsing result, must not be null
+     * @throws IOException it will be thrown for transport errors
+     * @since 1.3.1
+     */
+    public JBBPParseResult parseWithResult(final InputStream in) throws IOException {
+        return this.parseWithResult(in, null, null);
+    }
+
+    /**
+     * Parse a byte array and return the result with stream counter information.
+     *
+     * @param array a byte array which content should be parsed, it must not be null
+     * @return the parsing result, must not be null
+     * @throws IOException it will be thrown for transport errors
+     * @since 1.3.1
+     */
+    public JBBPParseResult parseWithResult(final byte[] array) throws IOException {
+        JBBPUtils.assertNotNull(array, "Array must not be null");
+        return this.parseWithResult(makeArrayStream(array), null, null);
+    }
+
+    /**
+     * Parse content of a byte buffer between its position and limit and return the
+     * result with stream counter information. The Position of the buffer is not changed.
+     *
+     * @param buffer a byte buffer which content should be parsed, must not be null
+     * @return the parsing result, must not be null
+     * @throws IOException it will be thrown for transport errors
+     * @since 1.3.1
+     */
+    public JBBPParseResult parseWithResult(final ByteBuffer buffer) throws IOException {
+        JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+        return this.parseWithResult(JBBPBitInputStream.fromBuffer(buffer, this.bitOrder), null, null);
+    }
+
+    /**
+     * Parse an input stream and return the result with stream counter
+     * information. The Method doesn't change the parser state so that it can be
+     * called concurrently from several threads.
+     *
+     * @param in                    an input stream which content will be parsed, it must not be null
+     * @param varFieldProcessor     a var field processor, it may be null if there is
+     *                              not any var field in a script, otherwise NPE will be thrown during parsing
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @return the parsing result, must not be null
+     * @throws IOException it will be thrown for transport errors
+     * @since 1.3.1
+     */
+    public JBBPParseResult parseWithResult(final InputStream in, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
         final JBBPBitInputStream bitInStream = in instanceof JBBPBitInputStream ? (JBBPBitInputStream) in : new JBBPBitInputStream(in, bitOrder);
-        this.finalStreamByteCounter = bitInStream.getCounter();
+        final long startCounter = bitInStream.getCounter();
+
+        final JBBPNamedNumericFieldMap fieldMap = makeNamedNumericFieldMap(varFieldProcessor, externalValueProvider);
+        final JBBPFieldStruct root = new JBBPFieldStruct(ROOT_STRUCT_NAME, parseRoot(bitInStream, varFieldProcessor, fieldMap, null));
+        return new JBBPParseResult(root, startCounter, bitInStream.getCounter());
+    }
 
+    /**
+     * Make named numeric field map for a parsing call if it is needed by the script.
+     *
+     * @param varFieldProcessor     a var field processor, it must not be null if the script contains var fields
+     * @param externalValueProvider an external value provider, it can be null
+     * @return the map or null if the script doesn't need it
+     */
+    JBBPNamedNumericFieldMap makeNamedNumericFieldMap(final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) {
         final JBBPNamedNumericFieldMap fieldMap;
         if (this.compiledBlock.hasEvaluatedSizeArrays() || this.compiledBlock.hasVarFields()) {
-            fieldMap = new JBBPNamedNumericFieldMap(externalValueProvider);
+            fieldMap = new JBBPNamedNumericFieldMap(externalValueProvider, this.compiledBlock);
         } else {
             fieldMap = null;
         }
@@ -566,13 +953,336 @@ public final class JBBPParser {
         if (this.compiledBlock.hasVarFields()) {
             JBBPUtils.assertNotNull(varFieldProcessor, "The Script contains VAR fields, a var field processor must be provided");
         }
-        try {
-            return new JBBPFieldStruct(new JBBPNamedFieldInfo("", "", -1), parseStruct(bitInStream, new JBBPIntCounter(), varFieldProcessor, fieldMap, new JBBPIntCounter(), new JBBPIntCounter(), false));
-        } finally {
-            this.finalStreamByteCounter = bitInStream.getCounter();
+        return fieldMap;
+    }
+
+    /**
+     * Parse an input stream and send read values to a listener, the parser
+     * doesn't make any field tree and wrapper objects for read values so that
+     * a listener can filter and aggregate big streams in constant memory.
+     *
+     * @param in       an input stream which content will be parsed, it must not be null
+     * @param listener a listener to get read values, must not be null
+     * @throws IOException it will be thrown for transport errors
+     * @see JBBPParseListenerAdapter
+     * @since 1.3.1
+     */
+    public void parse(final InputStream in, final JBBPParseListener listener) throws IOException {
+        this.parse(in, listener, null, null);
+    }
+
+    /**
+     * Parse a byte array and send read values to a listener without making
+     * any field tree.
+     *
+     * @param array    a byte array which content will be parsed, it must not be null
+     * @param listener a listener to get read values, must not be null
+     * @throws IOException it will be thrown for transport errors
+     * @since 1.3.1
+     */
+    public void parse(final byte[] array, final JBBPParseListener listener) throws IOException {
+        JBBPUtils.assertNotNull(array, "Array must not be null");
+        this.parse(makeArrayStream(array), listener, null, null);
+    }
+
+    /**
+     * Parse an input stream and send read values to a listener without making
+     * any field tree. Values are sent in the stream order, the root structure
+     * is notified with empty name. NB: If the script contains var fields or
+     * expressions then named numeric fields are still wrapped to be accessible
+     * for evaluators.
+     *
+     * @param in                    an input stream which content will be parsed, it must not be null
+     * @param listener              a listener to get read values, must not be null
+     * @param varFieldProcessor     a var field processor, it may be null if there is
+     *                              not any var field in a script, var fields are sent to
+     *                              the listener as field objects
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @throws IOException it will be thrown for transport errors
+     * @since 1.3.1
+     */
+    public void parse(final InputStream in, final JBBPParseListener listener, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        JBBPUtils.assertNotNull(listener, "Listener must not be null");
+        final JBBPBitInputStream bitInStream = in instanceof JBBPBitInputStream ? (JBBPBitInputStream) in : new JBBPBitInputStream(in, bitOrder);
+
+        final JBBPNamedNumericFieldMap fieldMap = makeNamedNumericFieldMap(varFieldProcessor, externalValueProvider);
+        listener.onStructStart(ROOT_STRUCT_NAME);
+        parseRoot(bitInStream, varFieldProcessor, fieldMap, listener);
+        listener.onStructEnd(ROOT_STRUCT_NAME);
+    }
+
+    /**
+     * Parse an input stream directly into a new instance of a mapping class,
+     * parsed values are written into the instance fields without making
+     * the field tree. Mapping rules are the same as {@link JBBPMapper} uses.
+     *
+     * @param <T>          type of the mapping class
+     * @param in           an input stream which content will be parsed, it must not be null
+     * @param mappingClass a mapping class, must not be null
+     * @return a new instance of the mapping class filled by parsed values
+     * @throws IOException it will be thrown for transport errors
+     * @see JBBPMapper
+     * @since 1.3.1
+     */
+    public <T> T parseInto(final InputStream in, final Class<T> mappingClass) throws IOException {
+        return this.parseInto(in, mappingClass, null, null, null, 0);
+    }
+
+    /**
+     * Parse a byte array directly into a new instance of a mapping class,
+     * parsed values are written into the instance fields without making
+     * the field tree.
+     *
+     * @param <T>          type of the mapping class
+     * @param array        a byte array which content will be parsed, it must not be null
+     * @param mappingClass a mapping class, must not be null
+     * @return a new instance of the mapping class filled by parsed values
+     * @throws IOException it will be thrown for transport errors
+     * @since 1.3.1
+     */
+    public <T> T parseInto(final byte[] array, final Class<T> mappingClass) throws IOException {
+        JBBPUtils.assertNotNull(array, "Array must not be null");
+        return this.parseInto(makeArrayStream(array), mappingClass, null, null, null, 0);
+    }
+
+    /**
+     * Parse an input stream directly into an existing instance of a mapping
+     * class, parsed values are written into the instance fields without making
+     * the field tree.
+     *
+     * @param <T>      type of the mapping class
+     * @param in       an input stream which content will be parsed, it must not be null
+     * @param instance a mapping class instance to be filled, must not be null
+     * @return the same instance filled by parsed values
+     * @throws IOException it will be thrown for transport errors
+     * @since 1.3.1
+     */
+    public <T> T parseInto(final InputStream in, final T instance) throws IOException {
+        return this.parseInto(in, instance, null, null, null, 0);
+    }
+
+    /**
+     * Parse an input stream directly into a new instance of a mapping class.
+     *
+     * @param <T>                   type of the mapping class
+     * @param in                    an input stream which content will be parsed, it must not be null
+     * @param mappingClass          a mapping class, must not be null
+     * @param varFieldProcessor     a var field processor, it may be null if there is
+     *                              not any var field in a script
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @param customFieldProcessor  a custom mapping field processor, it can be null
+     *                              if there is not any custom mapping field
+     * @param mapperFlags           special flags to tune mapping
+     * @return a new instance of the mapping class filled by parsed values
+     * @throws IOException it will be thrown for transport errors
+     * @see JBBPMapper#FLAG_IGNORE_MISSING_VALUES
+     * @since 1.3.1
+     */
+    public <T> T parseInto(final InputStream in, final Class<T> mappingClass, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider, final JBBPMapperCustomFieldProcessor customFieldProcessor, final int mapperFlags) throws IOException {
+        final JBBPDirectMapper mapper = new JBBPDirectMapper(mappingClass, customFieldProcessor, mapperFlags);
+        this.parse(in, mapper, varFieldProcessor, externalValueProvider);
+        return mappingClass.cast(mapper.getResult());
+    }
+
+    /**
+     * Parse an input stream directly into an existing instance of a mapping class.
+     *
+     * @param <T>                   type of the mapping class
+     * @param in                    an input stream which content will be parsed, it must not be null
+     * @param instance              a mapping class instance to be filled, must not be null
+     * @param varFieldProcessor     a var field processor, it may be null if there is
+     *                              not any var field in a script
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @param customFieldProcessor  a custom mapping field processor, it can be null
+     *                              if there is not any custom mapping field
+     * @param mapperFlags           special flags to tune mapping
+     * @return the same instance filled by parsed values
+     * @throws IOException it will be thrown for transport errors
+     * @see JBBPMapper#FLAG_IGNORE_MISSING_VALUES
+     * @since 1.3.1
+     */
+    public <T> T parseInto(final InputStream in, final T instance, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider, final JBBPMapperCustomFieldProcessor customFieldProcessor, final int mapperFlags) throws IOException {
+        this.parse(in, new JBBPDirectMapper(instance, customFieldProcessor, mapperFlags), varFieldProcessor, externalValueProvider);
+        return instance;
+    }
+
+    /**
+     * Write a structure into an output stream in the binary layout described by
+     * the parser script, it is the reverse operation for parsing so that a parsed
+     * structure can be written back. Arrays are written with their own length
+     * which must be the same as the length defined by the script, alignment,
+     * skip and array size expressions are calculated for written values.
+     *
+     * @param root a structure which fields will be written, usually the root structure made by the parser, must not be null
+     * @param out  an output stream, must not be null, if it is not a bit output stream then it will be wrapped and flushed after writing
+     * @throws IOException                  it will be thrown for transport errors
+     * @throws IllegalStateException        if the script contains var or custom type fields
+     * @throws JBBPIllegalArgumentException if fields of the structure don't match the script
+     * @since 1.3.1
+     */
+    public void write(final JBBPFieldStruct root, final OutputStream out) throws IOException {
+        this.write(root, out, null);
+    }
+
+    /**
+     * Write a structure into an output stream in the binary layout described by
+     * the parser script with defined external value provider.
+     *
+     * @param root                  a structure which fields will be written, must not be null
+     * @param out                   an output stream, must not be null
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @throws IOException                  it will be thrown for transport errors
+     * @throws IllegalStateException        if the script contains var or custom type fields
+     * @throws JBBPIllegalArgumentException if fields of the structure don't match the script
+     * @see #write(JBBPFieldStruct, OutputStream)
+     * @since 1.3.1
+     */
+    public void write(final JBBPFieldStruct root, final OutputStream out, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        JBBPUtils.assertNotNull(root, "Structure must not be null");
+        this.writeWithSource(new JBBPCompiledBlockWriter.StructSource(root), out, externalValueProvider);
+    }
+
+    /**
+     * Write a mapping class instance into an output stream in the binary layout
+     * described by the parser script. Values are taken from mapping class
+     * fields by the same rules as mapper uses, anonymous fields are written as
+     * zero values.
+     *
+     * @param instance a mapping class instance, must not be null
+     * @param out      an output stream, must not be null, if it is not a bit output stream then it will be wrapped and flushed after writing
+     * @throws IOException                  it will be thrown for transport errors
+     * @throws IllegalStateException        if the script contains var or custom type fields
+     * @throws JBBPIllegalArgumentException if values of the instance don't match the script or a named field doesn't have mapping value
+     * @see JBBPMapper
+     * @see #writeObject(Object, OutputStream, JBBPExternalValueProvider, int)
+     * @since 1.3.1
+     */
+    public void writeObject(final Object instance, final OutputStream out) throws IOException {
+        this.writeObject(instance, out, null, 0);
+    }
+
+    /**
+     * Write a mapping class instance into an output stream in the binary layout
+     * described by the parser script with defined external value provider.
+     *
+     * @param instance              a mapping class instance, must not be null
+     * @param out                   an output stream, must not be null
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @throws IOException                  it will be thrown for transport errors
+     * @throws IllegalStateException        if the script contains var or custom type fields
+     * @throws JBBPIllegalArgumentException if values of the instance don't match the script or a named field doesn't have mapping value
+     * @see #writeObject(Object, OutputStream)
+     * @since 1.3.1
+     */
+    public void writeObject(final Object instance, final OutputStream out, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        this.writeObject(instance, out, externalValueProvider, 0);
+    }
+
+    /**
+     * Write a mapping class instance into an output stream in the binary layout
+     * described by the parser script with defined external value provider and
+     * mapper flags. If {@link JBBPMapper#FLAG_IGNORE_MISSING_VALUES} is defined
+     * then named fields which don't have mapping values are written as zero
+     * values and arrays without mapping values are written as zero arrays with
+     * length defined by the script.
+     *
+     * @param instance              a mapping class instance, must not be null
+     * @param out                   an output stream, must not be null
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @param mapperFlags           special flags to tune mapping
+     * @throws IOException                  it will be thrown for transport errors
+     * @throws IllegalStateException        if the script contains var or custom type fields
+     * @throws JBBPIllegalArgumentException if values of the instance don't match the script or a named field doesn't have mapping value
+     *                                      and {@link JBBPMapper#FLAG_IGNORE_MISSING_VALUES} is not defined
+     * @see JBBPMapper#FLAG_IGNORE_MISSING_VALUES
+     * @since 1.3.1
+     */
+    public void writeObject(final Object instance, final OutputStream out, final JBBPExternalValueProvider externalValueProvider, final int mapperFlags) throws IOException {
+        JBBPUtils.assertNotNull(instance, "Instance must not be null");
+        this.writeWithSource(new JBBPCompiledBlockWriter.ObjectSource(instance, (mapperFlags & JBBPMapper.FLAG_IGNORE_MISSING_VALUES) != 0), out, externalValueProvider);
+    }
+
+    private void writeWithSource(final JBBPCompiledBlockWriter.Source source, final OutputStream out, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        JBBPUtils.assertNotNull(out, "Output stream must not be null");
+        final JBBPFieldTypeParameterContainer[] customFields = this.compiledBlock.getCustomTypeFields();
+        if (this.compiledBlock.hasVarFields() || (customFields != null && customFields.length > 0)) {
+            throw new IllegalStateException("Script contains var or custom type fields which can't be written");
+        }
+
+        final JBBPBitOutputStream bitOut = out instanceof JBBPBitOutputStream ? (JBBPBitOutputStream) out : new JBBPBitOutputStream(out, this.bitOrder, JBBPBitOutputStream.DEFAULT_BUFFER_SIZE);
+        new JBBPCompiledBlockWriter(this.compiledBlock).write(bitOut, source, externalValueProvider);
+        if (bitOut != out) {
+            bitOut.flush();
         }
     }
 
+    /**
+     * Make lazy iterator over records in a stream, every record is parsed by
+     * the script when requested and the iterator stops on the stream end. If
+     * the stream is not a {@link JBBPBitInputStream} then it is wrapped by
+     * a buffered one, so that the source stream can be read ahead.
+     *
+     * @param in an input stream contains records, must not be null
+     * @return iterator over root structures of records, must not be null
+     * @see JBBPRecordIterator
+     * @since 1.3.1
+     */
+    public JBBPRecordIterator<JBBPFieldStruct> iterate(final InputStream in) {
+        return this.iterate(in, null, null);
+    }
+
+    /**
+     * Make lazy iterator over records in a stream.
+     *
+     * @param in                    an input stream contains records, must not be null
+     * @param varFieldProcessor     a var field processor, it may be null if there is
+     *                              not any var field in a script
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @return iterator over root structures of records, must not be null
+     * @since 1.3.1
+     */
+    public JBBPRecordIterator<JBBPFieldStruct> iterate(final InputStream in, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) {
+        return new JBBPRecordIterator<JBBPFieldStruct>(makeRecordStream(in)) {
+            @Override
+            protected JBBPFieldStruct readRecord(final JBBPBitInputStream stream) throws IOException {
+                return parse(stream, varFieldProcessor, externalValueProvider);
+            }
+        };
+    }
+
+    /**
+     * Make lazy iterator over records in a stream, every record is parsed
+     * directly into a new instance of a mapping class.
+     *
+     * @param <T>          type of the mapping class
+     * @param in           an input stream contains records, must not be null
+     * @param mappingClass a mapping class, must not be null
+     * @return iterator over mapped records, must not be null
+     * @see #parseInto(InputStream, Class)
+     * @since 1.3.1
+     */
+    public <T> JBBPRecordIterator<T> iterate(final InputStream in, final Class<T> mappingClass) {
+        JBBPUtils.assertNotNull(mappingClass, "Mapping class must not be null");
+        return new JBBPRecordIterator<T>(makeRecordStream(in)) {
+            @Override
+            protected T readRecord(final JBBPBitInputStream stream) throws IOException {
+                return parseInto(stream, mappingClass);
+            }
+        };
+    }
+
+    private JBBPBitInputStream makeRecordStream(final InputStream in) {
+        JBBPUtils.assertNotNull(in, "Stream must not be null");
+        return in instanceof JBBPBitInputStream ? (JBBPBitInputStream) in : new JBBPBitInputStream(in, this.bitOrder, JBBPBitInputStream.DEFAULT_BUFFER_SIZE);
+    }
+
     /**
      * Get the parse flags.
      *
@@ -583,6 +1293,26 @@ public final class JBBPParser {
         return this.flags;
     }
 
+    /**
+     * Get the bit order used by the parser for stream operations.
+     *
+     * @return the bit order, must not be null
+     * @since 1.3.1
+     */
+    public JBBPBitOrder getBitOrder() {
+        return this.bitOrder;
+    }
+
+    /**
+     * Get the custom field type processor of the parser.
+     *
+     * @return the custom field type processor, it can be null
+     * @since 1.3.1
+     */
+    public JBBPCustomFieldTypeProcessor getCustomFieldTypeProcessor() {
+        return this.customFieldTypeProcessor;
+    }
+
     /**
      * Parse a byte array content.
      *
@@ -593,7 +1323,7 @@ public final class JBBPParser {
      */
     public JBBPFieldStruct parse(final byte[] array) throws IOException {
         JBBPUtils.assertNotNull(array, "Array must not be null");
-        return this.parse(new ByteArrayInputStream(array), null, null);
+        return this.parse(makeArrayStream(array), null, null);
     }
 
     /**
@@ -610,17 +1340,277 @@ public final class JBBPParser {
      */
     public JBBPFieldStruct parse(final byte[] array, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
         JBBPUtils.assertNotNull(array, "Array must not be null");
-        return this.parse(new ByteArrayInputStream(array), varFieldProcessor, externalValueProvider);
+        return this.parse(makeArrayStream(array), varFieldProcessor, externalValueProvider);
+    }
+
+    /**
+     * Make bit input stream to read a byte array directly without copying.
+     *
+     * @param array the array to be read, must not be null
+     * @return the bit input stream for the array
+     */
+    private JBBPBitInputStream makeArrayStream(final byte[] array) {
+        return JBBPBitInputStream.fromBuffer(ByteBuffer.wrap(array), this.bitOrder);
+    }
+
+    /**
+     * Parse content of a byte buffer between its position and limit. The Buffer
+     * can be a direct one or memory mapped file, its data are read directly without
+     * copying. The Position of the buffer is not changed, use {@link #parseWithResult(ByteBuffer)}
+     * to get number of consumed bytes.
+     *
+     * @param buffer a byte buffer which content should be parsed, must not be null
+     * @return the parsed content as the root structure
+     * @throws IOException it will be thrown for transport errors
+     * @since 1.3.1
+     */
+    public JBBPFieldStruct parse(final ByteBuffer buffer) throws IOException {
+        return this.parse(buffer, null, null);
+    }
+
+    /**
+     * Parse content of a byte buffer between its position and limit. The Buffer
+     * can be a direct one or memory mapped file, its data are read directly without
+     * copying. The Position of the buffer is not changed.
+     *
+     * @param buffer                a byte buffer which content should be parsed, must not be null
+     * @param varFieldProcessor     a var field processor, it may be null if there is
+     *                              not any var field in a script, otherwise NPE will be thrown during parsing
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @return the parsed content as the root structure
+     * @throws IOException it will be thrown for transport errors
+     * @since 1.3.1
+     */
+    public JBBPFieldStruct parse(final ByteBuffer buffer, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+        return this.parse(JBBPBitInputStream.fromBuffer(buffer, this.bitOrder), varFieldProcessor, externalValueProvider);
+    }
+
+    /**
+     * Parse a byte array in lazy mode. Parsing makes only fast pass through data to find positions of fields,
+     * values of fields are decoded on first access. The Array must not be changed while the result is in use.
+     *
+     * @param array a byte array which content should be parsed, it must not be null
+     * @return the lazy root structure, must not be null
+     * @throws IOException it will be thrown for transport errors and if data is too short for fields
+     * @see JBBPLazyFieldStruct
+     * @since 1.3.1
+     */
+    public JBBPLazyFieldStruct parseLazy(final byte[] array) throws IOException {
+        JBBPUtils.assertNotNull(array, "Array must not be null");
+        return this.parseLazy(ByteBuffer.wrap(array), null, null);
+    }
+
+    /**
+     * Parse content of a byte buffer between its position and limit in lazy mode. The Position of the buffer is not
+     * changed, content of the buffer must not be changed while the result is in use.
+     *
+     * @param buffer a byte buffer which content should be parsed, must not be null
+     * @return the lazy root structure, must not be null
+     * @throws IOException it will be thrown for transport errors and if data is too short for fields
+     * @see JBBPLazyFieldStruct
+     * @since 1.3.1
+     */
+    public JBBPLazyFieldStruct parseLazy(final ByteBuffer buffer) throws IOException {
+        return this.parseLazy(buffer, null, null);
+    }
+
+    /**
+     * Parse content of a byte buffer between its position and limit in lazy mode. Var and custom type fields and
+     * fields which values are needed to calculate expressions are decoded during parsing, other fields are decoded
+     * on first access. The Position of the buffer is not changed, content of the buffer must not be changed while
+     * the result is in use.
+     *
+     * @param buffer                a byte buffer which content should be parsed, must not be null
+     * @param varFieldProcessor     a var field processor, it may be null if there is
+     *                              not any var field in a script, otherwise NPE will be thrown during parsing
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @return the lazy root structure, must not be null
+     * @throws IOException it will be thrown for transport errors and if data is too short for fields
+     * @see JBBPLazyFieldStruct
+     * @since 1.3.1
+     */
+    public JBBPLazyFieldStruct parseLazy(final ByteBuffer buffer, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+        return JBBPLazyFieldStruct.parse(this, buffer, varFieldProcessor, externalValueProvider);
+    }
+
+    /**
+     * Parse a region of a file channel. The Region is mapped into memory in read
+     * only mode and parsed directly from the mapped buffer.
+     *
+     * @param channel a file channel which content should be parsed, must not be null
+     * @param offset  offset of the region in the file, must not be negative
+     * @param length  length of the region in bytes, must not be greater than Integer.MAX_VALUE
+     * @return the parsed content as the root structure
+     * @throws IOException              it will be thrown for transport errors
+     * @throws IllegalArgumentException if the region length is too big to be mapped
+     * @since 1.3.1
+     */
+    public JBBPFieldStruct parse(final FileChannel channel, final long offset, final long length) throws IOException {
+        JBBPUtils.assertNotNull(channel, "Channel must not be null");
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Region is too big to be mapped [" + length + ']');
+        }
+        return this.parse(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    /**
+     * Parse a byte array which contains a sequence of fixed size records, the
+     * array is split into record aligned chunks which are parsed by tasks of an
+     * executor. The Script must describe fixed size data.
+     *
+     * @param array    a byte array contains records, must not be null
+     * @param executor an executor to parse chunks, must not be null
+     * @return parsed records in their order, must not be null
+     * @throws IOException           it will be thrown for transport errors
+     * @throws IllegalStateException if the script doesn't describe fixed size records
+     * @see JBBPCompiledBlock#getFixedRecordSize()
+     * @since 1.3.1
+     */
+    public JBBPFieldStruct[] parseParallel(final byte[] array, final ExecutorService executor) throws IOException {
+        JBBPUtils.assertNotNull(array, "Array must not be null");
+        return this.parseParallel(ByteBuffer.wrap(array), executor);
+    }
+
+    /**
+     * Parse content of a byte buffer between its position and limit as a sequence
+     * of fixed size records, chunks of records are parsed by tasks of an executor.
+     * The Position of the buffer is not changed.
+     *
+     * @param buffer   a byte buffer contains records, must not be null
+     * @param executor an executor to parse chunks, must not be null
+     * @return parsed records in their order, must not be null
+     * @throws IOException           it will be thrown for transport errors
+     * @throws IllegalStateException if the script doesn't describe fixed size records
+     * @see JBBPCompiledBlock#getFixedRecordSize()
+     * @since 1.3.1
+     */
+    public JBBPFieldStruct[] parseParallel(final ByteBuffer buffer, final ExecutorService executor) throws IOException {
+        JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+        final ByteBuffer source = buffer.duplicate();
+        return this.parseParallel(source.remaining(), executor, new RegionProvider() {
+            @Override
+            public ByteBuffer getRegion(final long offset, final int length) {
+                final ByteBuffer region = source.duplicate();
+                region.position(source.position() + (int) offset);
+                region.limit(region.position() + length);
+                return region;
+            }
+        });
+    }
+
+    /**
+     * Parse a region of a file channel as a sequence of fixed size records, every
+     * chunk of records is mapped into memory separately by its parsing task so
+     * that the region can be bigger than 2Gb.
+     *
+     * @param channel  a file channel contains records, must not be null
+     * @param offset   offset of the region in the file, must not be negative
+     * @param length   length of the region in bytes
+     * @param executor an executor to parse chunks, must not be null
+     * @return parsed records in their order, must not be null
+     * @throws IOException           it will be thrown for transport errors
+     * @throws IllegalStateException if the script doesn't describe fixed size records
+     * @see JBBPCompiledBlock#getFixedRecordSize()
+     * @since 1.3.1
+     */
+    public JBBPFieldStruct[] parseParallel(final FileChannel channel, final long offset, final long length, final ExecutorService executor) throws IOException {
+        JBBPUtils.assertNotNull(channel, "Channel must not be null");
+        return this.parseParallel(length, executor, new RegionProvider() {
+            @Override
+            public ByteBuffer getRegion(final long regionOffset, final int regionLength) throws IOException {
+                return channel.map(FileChannel.MapMode.READ_ONLY, offset + regionOffset, regionLength);
+            }
+        });
+    }
+
+    /**
+     * Inside method to split data into chunks of fixed size records and parse
+     * them by an executor.
+     *
+     * @param length   length of whole data in bytes
+     * @param executor an executor to parse chunks, must not be null
+     * @param provider provider of data regions, must not be null, it is called from tasks of the executor
+     * @return parsed records in their order, must not be null
+     * @throws IOException it will be thrown for transport errors
+     */
+    private JBBPFieldStruct[] parseParallel(final long length, final ExecutorService executor, final RegionProvider provider) throws IOException {
+        JBBPUtils.assertNotNull(executor, "Executor must not be null");
+        final int recordSize = this.compiledBlock.getFixedRecordSize();
+        if (recordSize <= 0) {
+            throw new IllegalStateException("Script doesn't describe fixed size records");
+        }
+        if (length % recordSize != 0) {
+            throw new JBBPParsingException("Data length is not multiple of record size [" + length + " % " + recordSize + ']');
+        }
+        final long records = length / recordSize;
+        if (records > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many records [" + records + ']');
+        }
+
+        final JBBPFieldStruct[] result = new JBBPFieldStruct[(int) records];
+        final long chunks = Math.max(1L, Math.min(records, Runtime.getRuntime().availableProcessors() * 4L));
+        final long recordsPerChunk = Math.min(Integer.MAX_VALUE / recordSize, (records + chunks - 1L) / chunks);
+
+        final List<Future<?>> futures = new ArrayList<Future<?>>();
+        try {
+            for (long first = 0L; first < records; first += recordsPerChunk) {
+                final int start = (int) first;
+                final int count = (int) Math.min(recordsPerChunk, records - first);
+                final long regionOffset = first * recordSize;
+                futures.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        // the region is made by the task so that file regions are mapped in parallel
+                        final ByteBuffer region = provider.getRegion(regionOffset, count * recordSize);
+                        final JBBPBitInputStream stream = JBBPBitInputStream.fromBuffer(region, bitOrder);
+                        for (int i = 0; i < count; i++) {
+                            result[start + i] = parse(stream, null, null);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (final Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Parallel parsing has been interrupted");
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new JBBPParsingException("Can't parse records for exception", cause);
+            }
+        } finally {
+            for (final Future<?> f : futures) {
+                f.cancel(true);
+            }
+        }
+        return result;
     }
 
     /**
      * Get the final input stream byte counter value for the last parsing
-     * operation. It is loaded just after exception or parsing completion. NB: It
-     * is appropriate one only if the parsing didn't make any counter reset
-     * operation.
+     * operation. It is loaded just after exception or parsing completion.
+     * NB: It is appropriate one only if the parsing didn't make any counter reset
+     * operation. If the parser is shared between threads then the value can be
+     * written by any of parsing calls, so that it is reliable only if the parser
+     * is used by single thread.
      *
      * @return the last parsing byte counter value
+     * @deprecated the value is shared by all parsing calls, use {@link JBBPParseResult#getFinalStreamByteCounter()} provided by parseWithResult methods
      */
+    @Deprecated
     public long getFinalStreamByteCounter() {
         return this.finalStreamByteCounter;
     }
@@ -644,48 +1634,75 @@ public final class JBBPParser {
      * @throws IllegalArgumentException if target is unsupported
      * @see JBBPToJava6Converter
      * @see JBBPToJava6Converter.Builder
+     * @see JBBPToJava8BufferConverter
      * @since 1.3.0
      */
     public List<ResultSrcItem> convertToSrc(final TargetSources target, final String name) {
         JBBPUtils.assertNotNull(name, "Name must not be null");
 
+        final int nameStart = name.lastIndexOf('.');
+        final String packageName;
+        final String className;
+        if (nameStart < 0) {
+            packageName = "";
+            className = name;
+        } else {
+            packageName = name.substring(0, nameStart);
+            className = name.substring(nameStart + 1);
+        }
+
+        final String converterName;
+        final String resultSources;
         switch (target) {
             case JAVA_1_6: {
-                final Properties metadata = new Properties();
-                metadata.setProperty("script", this.compiledBlock.getSource());
-                metadata.setProperty("name", name);
-                metadata.setProperty("target", target.name());
-                metadata.setProperty("converter", JBBPToJava6Converter.class.getCanonicalName());
-
-                final int nameStart = name.lastIndexOf('.');
-                final String packageName;
-                final String className;
-                if (nameStart < 0) {
-                    packageName = "";
-                    className = name;
-                } else {
-                    packageName = name.substring(0, nameStart);
-                    className = name.substring(nameStart + 1);
-                }
-
-                final String resultSources = JBBPToJava6Converter.makeBuilder(this).setMainClassPackage(packageName).setMainClassName(className).build().convert();
-                final Map<String, String> resultMap = Collections.singletonMap(name.replace('.', '/') + ".java", resultSources);
-
-                return Collections.<ResultSrcItem>singletonList(new ResultSrcItem() {
-                    @Override
-                    public Properties getMetadata() {
-                        return metadata;
-                    }
-
-                    @Override
-                    public Map<String, String> getResult() {
-                        return resultMap;
-                    }
-                });
+                converterName = JBBPToJava6Converter.class.getCanonicalName();
+                resultSources = JBBPToJava6Converter.makeBuilder(this).setMainClassPackage(packageName).setMainClassName(className).build().convert();
+            }
+            break;
+            case JAVA_1_8: {
+                converterName = JBBPToJava8BufferConverter.class.getCanonicalName();
+                resultSources = JBBPToJava8BufferConverter.makeBuilder(this).setMainClassPackage(packageName).setMainClassName(className).build().convert();
             }
+            break;
             default: {
                 throw new IllegalArgumentException("Unsupported target : " + target);
             }
         }
+
+        final Properties metadata = new Properties();
+        metadata.setProperty("script", this.compiledBlock.getSource());
+        metadata.setProperty("name", name);
+        metadata.setProperty("target", target.name());
+        metadata.setProperty("converter", converterName);
+
+        final Map<String, String> resultMap = Collections.singletonMap(name.replace('.', '/') + ".java", resultSources);
+
+        return Collections.<ResultSrcItem>singletonList(new ResultSrcItem() {
+            @Override
+            public Properties getMetadata() {
+                return metadata;
+            }
+
+            @Override
+            public Map<String, String> getResult() {
+                return resultMap;
+            }
+        });
+    }
+
+    /**
+     * Provider of data regions for parallel parsing, it is called concurrently
+     * from parsing tasks.
+     */
+    private interface RegionProvider {
+        /**
+         * Get region of data.
+         *
+         * @param offset offset of the region from data start
+         * @param length length of the region in bytes
+         * @return byte buffer contains the region between its position and limit
+         * @throws IOException it will be thrown for transport errors
+         */
+        ByteBuffer getRegion(long offset, int length) throws IOException;
     }
 }
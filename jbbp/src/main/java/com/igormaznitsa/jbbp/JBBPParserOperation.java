@@ -0,0 +1,515 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.compiler.conversion.ExpressionEvaluatorVisitor;
+import com.igormaznitsa.jbbp.compiler.tokenizer.JBBPFieldTypeParameterContainer;
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.utils.JBBPIntCounter;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inside auxiliary class describes a pre-decoded item of a compiled block. The
+ * Compiled block is decoded once into a tree of operations, every operation
+ * contains already resolved name info, byte order, constant values, evaluators
+ * and custom type info, so that the parser doesn't decode the compiled block
+ * during parsing.
+ *
+ * @since 1.3.1
+ */
+final class JBBPParserOperation {
+
+    /**
+     * The Operation is not an array.
+     */
+    static final int ARRAY_NONE = 0;
+    /**
+     * The Operation is an array with fixed length.
+     */
+    static final int ARRAY_FIXED = 1;
+    /**
+     * The Operation is an array which length is calculated by an expression.
+     */
+    static final int ARRAY_EXPRESSION = 2;
+    /**
+     * The Operation is an array to be read till the end of stream.
+     */
+    static final int ARRAY_WHOLE_STREAM = 3;
+
+    /**
+     * Pseudo type of projected operation which skips an array with calculated length, extra value contains size of
+     * array element in bytes.
+     */
+    static final int CODE_SKIP_ARRAY = 0x10;
+
+    /**
+     * Max number of bits in a run of skipped fields which can be merged into one skip operation.
+     */
+    private static final long MAX_SKIP_BITS = (long) Integer.MAX_VALUE << 3;
+
+    private static final JBBPParserOperation[] EMPTY = new JBBPParserOperation[0];
+
+    /**
+     * Type of the operation, one of JBBPCompiler.CODE_* constants.
+     */
+    final int type;
+    /**
+     * Name info of the field, null for anonymous fields.
+     */
+    final JBBPNamedFieldInfo name;
+    /**
+     * Index of the name info in the named field list of the compiled block, -1 for anonymous fields.
+     */
+    final int nameIndex;
+    /**
+     * Byte order of the field.
+     */
+    final JBBPByteOrder byteOrder;
+    /**
+     * Offset in the compiled block to be provided to evaluators.
+     */
+    final int offset;
+    /**
+     * Array mode of the operation.
+     */
+    final int arrayMode;
+    /**
+     * Array length for fixed arrays.
+     */
+    final int arrayLength;
+    /**
+     * Evaluator of array length for expression arrays, null otherwise.
+     */
+    final JBBPIntegerValueEvaluator arrayLengthEvaluator;
+    /**
+     * Constant extra value (number of bits, align and skip values, extra data of var and custom fields).
+     */
+    final int extraValue;
+    /**
+     * Evaluator of the extra value if it is an expression, null otherwise.
+     */
+    final JBBPIntegerValueEvaluator extraValueEvaluator;
+    /**
+     * Decoded bit number for bit fields with constant number of bits, null otherwise.
+     */
+    final JBBPBitNumber bitNumber;
+    /**
+     * Type info for custom type fields, null otherwise.
+     */
+    final JBBPFieldTypeParameterContainer customType;
+    /**
+     * Operations of structure body, empty for non-structure operations.
+     */
+    final JBBPParserOperation[] body;
+    /**
+     * Flag shows that the operation must be executed but its result must not be placed into parsed structure,
+     * it is used by projections for fields needed to calculate sizes of other fields.
+     */
+    final boolean discardResult;
+
+    private JBBPParserOperation(final int type, final JBBPNamedFieldInfo name, final int nameIndex, final JBBPByteOrder byteOrder, final int offset, final int arrayMode, final int arrayLength, final JBBPIntegerValueEvaluator arrayLengthEvaluator, final int extraValue, final JBBPIntegerValueEvaluator extraValueEvaluator, final JBBPFieldTypeParameterContainer customType, final JBBPParserOperation[] body) {
+        this(type, name, nameIndex, byteOrder, offset, arrayMode, arrayLength, arrayLengthEvaluator, extraValue, extraValueEvaluator, customType, body, false);
+    }
+
+    private JBBPParserOperation(final int type, final JBBPNamedFieldInfo name, final int nameIndex, final JBBPByteOrder byteOrder, final int offset, final int arrayMode, final int arrayLength, final JBBPIntegerValueEvaluator arrayLengthEvaluator, final int extraValue, final JBBPIntegerValueEvaluator extraValueEvaluator, final JBBPFieldTypeParameterContainer customType, final JBBPParserOperation[] body, final boolean discardResult) {
+        this.type = type;
+        this.name = name;
+        this.nameIndex = nameIndex;
+        this.byteOrder = byteOrder;
+        this.offset = offset;
+        this.arrayMode = arrayMode;
+        this.arrayLength = arrayLength;
+        this.arrayLengthEvaluator = arrayLengthEvaluator;
+        this.extraValue = extraValue;
+        this.extraValueEvaluator = extraValueEvaluator;
+        this.bitNumber = type == JBBPCompiler.CODE_BIT && extraValueEvaluator == null && extraValue >= 1 && extraValue <= 8 ? JBBPBitNumber.decode(extraValue) : null;
+        this.customType = customType;
+        this.body = body;
+        this.discardResult = discardResult;
+    }
+
+    /**
+     * Make copy of the operation with another body and discard flag.
+     *
+     * @param newBody       new body of the operation, must not be null
+     * @param discardResult true if result of the operation must be discarded
+     * @return new operation, must not be null
+     */
+    private JBBPParserOperation copy(final JBBPParserOperation[] newBody, final boolean discardResult) {
+        return new JBBPParserOperation(this.type, this.name, this.nameIndex, this.byteOrder, this.offset, this.arrayMode, this.arrayLength, this.arrayLengthEvaluator, this.extraValue, this.extraValueEvaluator, this.customType, newBody, discardResult);
+    }
+
+    /**
+     * Decode a compiled block into operations of the root structure.
+     *
+     * @param block the compiled block to be decoded, must not be null
+     * @return array of operations of the root structure, must not be null
+     */
+    static JBBPParserOperation[] decode(final JBBPCompiledBlock block) {
+        return decodeStruct(block, new JBBPIntCounter(), new JBBPIntCounter(), new JBBPIntCounter());
+    }
+
+    private static JBBPParserOperation[] decodeStruct(final JBBPCompiledBlock block, final JBBPIntCounter positionAtCompiledBlock, final JBBPIntCounter positionAtNamedFieldList, final JBBPIntCounter positionAtVarLengthProcessors) {
+        final byte[] compiled = block.getCompiledData();
+        final List<JBBPParserOperation> result = new ArrayList<JBBPParserOperation>();
+
+        while (positionAtCompiledBlock.get() < compiled.length) {
+            final int c = compiled[positionAtCompiledBlock.getAndIncrement()] & 0xFF;
+            final boolean wideCode = (c & JBBPCompiler.FLAG_WIDE) != 0;
+            final int ec = wideCode ? compiled[positionAtCompiledBlock.getAndIncrement()] & 0xFF : 0;
+            final boolean extraFieldNumAsExpr = (ec & JBBPCompiler.EXT_FLAG_EXTRA_AS_EXPRESSION) != 0;
+            final int code = (ec << 8) | c;
+            final int type = code & 0xF;
+
+            if (type == JBBPCompiler.CODE_STRUCT_END) {
+                break;
+            }
+
+            final int offset = positionAtCompiledBlock.get();
+            final int nameIndex = (code & JBBPCompiler.FLAG_NAMED) == 0 ? -1 : positionAtNamedFieldList.getAndIncrement();
+            final JBBPNamedFieldInfo name = nameIndex < 0 ? null : block.getNamedFields()[nameIndex];
+            final JBBPByteOrder byteOrder = (code & JBBPCompiler.FLAG_LITTLE_ENDIAN) == 0 ? JBBPByteOrder.BIG_ENDIAN : JBBPByteOrder.LITTLE_ENDIAN;
+            final JBBPIntegerValueEvaluator extraValueEvaluator = extraFieldNumAsExpr ? block.getArraySizeEvaluators()[positionAtVarLengthProcessors.getAndIncrement()] : null;
+
+            final int arrayMode;
+            int arrayLength = 0;
+            JBBPIntegerValueEvaluator arrayLengthEvaluator = null;
+            switch (code & (JBBPCompiler.FLAG_ARRAY | (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8))) {
+                case JBBPCompiler.FLAG_ARRAY: {
+                    arrayMode = ARRAY_FIXED;
+                    arrayLength = JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                }
+                break;
+                case (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8): {
+                    arrayMode = ARRAY_WHOLE_STREAM;
+                }
+                break;
+                case JBBPCompiler.FLAG_ARRAY | (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM << 8): {
+                    arrayMode = ARRAY_EXPRESSION;
+                    arrayLengthEvaluator = block.getArraySizeEvaluators()[positionAtVarLengthProcessors.getAndIncrement()];
+                }
+                break;
+                default: {
+                    arrayMode = ARRAY_NONE;
+                }
+                break;
+            }
+
+            int extraValue = 0;
+            JBBPFieldTypeParameterContainer customType = null;
+            JBBPParserOperation[] body = EMPTY;
+            switch (type) {
+                case JBBPCompiler.CODE_ALIGN:
+                case JBBPCompiler.CODE_SKIP:
+                case JBBPCompiler.CODE_BIT:
+                case JBBPCompiler.CODE_VAR: {
+                    if (!extraFieldNumAsExpr) {
+                        extraValue = JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                    }
+                }
+                break;
+                case JBBPCompiler.CODE_CUSTOMTYPE: {
+                    if (!extraFieldNumAsExpr) {
+                        extraValue = JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                    }
+                    customType = block.getCustomTypeFields()[JBBPUtils.unpackInt(compiled, positionAtCompiledBlock)];
+                }
+                break;
+                case JBBPCompiler.CODE_STRUCT_START: {
+                    body = decodeStruct(block, positionAtCompiledBlock, positionAtNamedFieldList, positionAtVarLengthProcessors);
+                    // skip offset of the structure start
+                    JBBPUtils.unpackInt(compiled, positionAtCompiledBlock);
+                }
+                break;
+                default:
+                    break;
+            }
+
+            result.add(new JBBPParserOperation(type, name, nameIndex, byteOrder, offset, arrayMode, arrayLength, arrayLengthEvaluator, extraValue, extraValueEvaluator, customType, body));
+        }
+
+        return result.isEmpty() ? EMPTY : result.toArray(new JBBPParserOperation[result.size()]);
+    }
+
+    /**
+     * Make projection of operations which keeps only requested fields in parsing results. Fields which are not
+     * requested and have statically known size are replaced by skip operations, arrays with calculated length are
+     * skipped through calculated size, other fields are parsed but their results are discarded.
+     *
+     * @param block      compiled block of operations, must not be null
+     * @param operations operations of the root structure, must not be null
+     * @param requested  name info of requested fields, must not be null
+     * @param mergeSkips true if skip operations of neighbour fields can be merged, false if every field should be
+     *                   skipped separately
+     * @return operations of the projection, must not be null
+     */
+    static JBBPParserOperation[] project(final JBBPCompiledBlock block, final JBBPParserOperation[] operations, final Set<JBBPNamedFieldInfo> requested, final boolean mergeSkips) {
+        return projectStruct(operations, requested, findDependencies(block, operations), mergeSkips);
+    }
+
+    /**
+     * Find named fields which values are needed during parsing to calculate expressions.
+     *
+     * @param block      compiled block of operations, must not be null
+     * @param operations operations of the root structure, must not be null
+     * @return set of name info of fields which values are needed, must not be null
+     */
+    static Set<JBBPNamedFieldInfo> findDependencies(final JBBPCompiledBlock block, final JBBPParserOperation[] operations) {
+        final Set<JBBPNamedFieldInfo> dependencies = new HashSet<JBBPNamedFieldInfo>();
+        if (block.hasVarFields()) {
+            // var field processors get access to all named numeric fields
+            dependencies.addAll(Arrays.asList(block.getNamedFields()));
+        } else {
+            collectDependencies(block, operations, dependencies);
+        }
+        return dependencies;
+    }
+
+    /**
+     * Make copy of the operation where expressions are replaced by their calculated values.
+     *
+     * @param calculatedArrayLength calculated array length, used only for arrays with calculated length
+     * @param calculatedExtraValue  calculated extra value
+     * @return operation without expressions, the same operation if it doesn't have expressions
+     */
+    JBBPParserOperation resolve(final int calculatedArrayLength, final int calculatedExtraValue) {
+        if (this.arrayLengthEvaluator == null && this.extraValueEvaluator == null) {
+            return this;
+        }
+        final boolean calculatedArray = this.arrayMode == ARRAY_EXPRESSION;
+        return new JBBPParserOperation(this.type, this.name, this.nameIndex, this.byteOrder, this.offset, calculatedArray ? ARRAY_FIXED : this.arrayMode, calculatedArray ? calculatedArrayLength : this.arrayLength, null, calculatedExtraValue, null, this.customType, this.body, this.discardResult);
+    }
+
+    private static JBBPParserOperation[] projectStruct(final JBBPParserOperation[] operations, final Set<JBBPNamedFieldInfo> requested, final Set<JBBPNamedFieldInfo> dependencies, final boolean mergeSkips) {
+        final List<JBBPParserOperation> result = new ArrayList<JBBPParserOperation>();
+        long skippedBits = 0L;
+
+        for (final JBBPParserOperation operation : operations) {
+            if (operation.name != null && requested.contains(operation.name)) {
+                skippedBits = addSkip(result, skippedBits);
+                result.add(operation);
+                continue;
+            }
+
+            if (operation.type == JBBPCompiler.CODE_STRUCT_START && containsAny(operation.body, requested)) {
+                skippedBits = addSkip(result, skippedBits);
+                result.add(operation.copy(projectStruct(operation.body, requested, dependencies, mergeSkips), false));
+                continue;
+            }
+
+            final long bits = containsAny(new JBBPParserOperation[] {operation}, dependencies) ? -1L : operation.getStaticSizeInBits();
+            if (bits >= 0L && bits <= MAX_SKIP_BITS) {
+                if (skippedBits + bits > MAX_SKIP_BITS) {
+                    skippedBits = addSkip(result, skippedBits);
+                }
+                skippedBits += bits;
+                if (!mergeSkips) {
+                    skippedBits = addSkip(result, skippedBits);
+                }
+                continue;
+            }
+
+            skippedBits = addSkip(result, skippedBits);
+
+            switch (operation.type) {
+                case JBBPCompiler.CODE_ALIGN:
+                case JBBPCompiler.CODE_SKIP:
+                case JBBPCompiler.CODE_RESET_COUNTER: {
+                    result.add(operation);
+                }
+                break;
+                case JBBPCompiler.CODE_STRUCT_START: {
+                    result.add(operation.copy(projectStruct(operation.body, requested, dependencies, mergeSkips), true));
+                }
+                break;
+                default: {
+                    final int elementSize = operation.getElementSizeInBytes();
+                    if (operation.arrayMode == ARRAY_EXPRESSION && elementSize > 0) {
+                        result.add(new JBBPParserOperation(CODE_SKIP_ARRAY, operation.name, operation.nameIndex, operation.byteOrder, operation.offset, ARRAY_EXPRESSION, 0, operation.arrayLengthEvaluator, elementSize, null, null, EMPTY, true));
+                    } else {
+                        result.add(operation.copy(operation.body, true));
+                    }
+                }
+                break;
+            }
+        }
+        addSkip(result, skippedBits);
+
+        return result.isEmpty() ? EMPTY : result.toArray(new JBBPParserOperation[result.size()]);
+    }
+
+    /**
+     * Add operations to skip number of bits.
+     *
+     * @param result list of operations to add skip operations, must not be null
+     * @param bits   number of bits to be skipped
+     * @return always zero to reset accumulated number of bits
+     */
+    private static long addSkip(final List<JBBPParserOperation> result, final long bits) {
+        if (bits >= 8L) {
+            result.add(new JBBPParserOperation(JBBPCompiler.CODE_SKIP, null, -1, JBBPByteOrder.BIG_ENDIAN, 0, ARRAY_NONE, 0, null, (int) (bits >>> 3), null, null, EMPTY, true));
+        }
+        if ((bits & 7L) != 0L) {
+            result.add(new JBBPParserOperation(JBBPCompiler.CODE_BIT, null, -1, JBBPByteOrder.BIG_ENDIAN, 0, ARRAY_NONE, 0, null, (int) (bits & 7L), null, null, EMPTY, true));
+        }
+        return 0L;
+    }
+
+    private static boolean containsAny(final JBBPParserOperation[] operations, final Set<JBBPNamedFieldInfo> names) {
+        for (final JBBPParserOperation operation : operations) {
+            if ((operation.name != null && names.contains(operation.name)) || containsAny(operation.body, names)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void collectDependencies(final JBBPCompiledBlock block, final JBBPParserOperation[] operations, final Set<JBBPNamedFieldInfo> dependencies) {
+        final ExpressionEvaluatorVisitor collector = new ExpressionEvaluatorVisitor() {
+            @Override
+            public ExpressionEvaluatorVisitor visitStart() {
+                return this;
+            }
+
+            @Override
+            public ExpressionEvaluatorVisitor visitSpecial(final Special specialField) {
+                return this;
+            }
+
+            @Override
+            public ExpressionEvaluatorVisitor visitField(final JBBPNamedFieldInfo nullableNameFieldInfo, final String nullableExternalFieldName) {
+                if (nullableNameFieldInfo != null) {
+                    dependencies.add(nullableNameFieldInfo);
+                }
+                return this;
+            }
+
+            @Override
+            public ExpressionEvaluatorVisitor visitOperator(final Operator operator) {
+                return this;
+            }
+
+            @Override
+            public ExpressionEvaluatorVisitor visitConstant(final int value) {
+                return this;
+            }
+
+            @Override
+            public ExpressionEvaluatorVisitor visitEnd() {
+                return this;
+            }
+        };
+
+        for (final JBBPParserOperation operation : operations) {
+            if (operation.arrayLengthEvaluator != null) {
+                operation.arrayLengthEvaluator.visitItems(block, operation.offset, collector);
+            }
+            if (operation.extraValueEvaluator != null) {
+                operation.extraValueEvaluator.visitItems(block, operation.offset, collector);
+            }
+            collectDependencies(block, operation.body, dependencies);
+        }
+    }
+
+    /**
+     * Get size of single element of the operation in bytes.
+     *
+     * @return size of element in bytes or -1 if the element is not a primitive one or its size is not whole bytes
+     */
+    int getElementSizeInBytes() {
+        switch (this.type) {
+            case JBBPCompiler.CODE_BOOL:
+            case JBBPCompiler.CODE_BYTE:
+            case JBBPCompiler.CODE_UBYTE:
+                return 1;
+            case JBBPCompiler.CODE_SHORT:
+            case JBBPCompiler.CODE_USHORT:
+                return 2;
+            case JBBPCompiler.CODE_INT:
+                return 4;
+            case JBBPCompiler.CODE_LONG:
+                return 8;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Get size of data read by the operation if it doesn't depend on read values and stream position.
+     *
+     * @return number of bits or -1 if the size can't be calculated statically
+     */
+    private long getStaticSizeInBits() {
+        final long elementBits;
+        switch (this.type) {
+            case JBBPCompiler.CODE_BIT: {
+                elementBits = this.bitNumber == null ? -1L : this.bitNumber.getBitNumber();
+            }
+            break;
+            case JBBPCompiler.CODE_SKIP: {
+                return this.extraValueEvaluator == null ? Math.max(0L, this.extraValue) << 3 : -1L;
+            }
+            case JBBPCompiler.CODE_STRUCT_START: {
+                long sum = 0L;
+                for (final JBBPParserOperation operation : this.body) {
+                    final long bits = operation.getStaticSizeInBits();
+                    if (bits < 0L) {
+                        return -1L;
+                    }
+                    sum += bits;
+                    if (sum > MAX_SKIP_BITS) {
+                        return -1L;
+                    }
+                }
+                elementBits = sum;
+            }
+            break;
+            default: {
+                final int bytes = this.getElementSizeInBytes();
+                elementBits = bytes < 0 ? -1L : (long) bytes << 3;
+            }
+            break;
+        }
+
+        if (elementBits < 0L) {
+            return -1L;
+        }
+
+        switch (this.arrayMode) {
+            case ARRAY_NONE:
+                return elementBits;
+            case ARRAY_FIXED: {
+                if (elementBits != 0L && this.arrayLength > MAX_SKIP_BITS / elementBits) {
+                    return -1L;
+                }
+                return elementBits * this.arrayLength;
+            }
+            default:
+                return -1L;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.exceptions.JBBPIOException;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy iterator over records of a stream, every record is read only when it is
+ * requested so that big streams can be processed in bounded memory. All records
+ * are read from the same bit stream. Transport errors are wrapped into
+ * {@link JBBPIOException}. An Instance is not thread safe.
+ *
+ * @param <T> type of records
+ * @see JBBPParser#iterate(java.io.InputStream)
+ * @since 1.3.1
+ */
+public abstract class JBBPRecordIterator<T> implements Iterator<T> {
+
+    private final JBBPBitInputStream stream;
+    private long recordCounter;
+
+    /**
+     * Constructor.
+     *
+     * @param stream the source bit stream, must not be null
+     */
+    protected JBBPRecordIterator(final JBBPBitInputStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * Read next record from the stream.
+     *
+     * @param stream the source bit stream, must not be null
+     * @return the read record, must not be null
+     * @throws IOException it will be thrown for transport errors
+     */
+    protected abstract T readRecord(JBBPBitInputStream stream) throws IOException;
+
+    /**
+     * Get the source bit stream.
+     *
+     * @return the bit stream, must not be null
+     */
+    public JBBPBitInputStream getStream() {
+        return this.stream;
+    }
+
+    /**
+     * Get number of already read records.
+     *
+     * @return number of records returned by the iterator
+     */
+    public long getRecordCounter() {
+        return this.recordCounter;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return this.stream.hasAvailableData();
+        } catch (IOException ex) {
+            throw new JBBPIOException("Can't check stream for next record", ex);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("There is no more records");
+        }
+        try {
+            final T result = readRecord(this.stream);
+            this.recordCounter++;
+            return result;
+        } catch (IOException ex) {
+            throw new JBBPIOException("Can't read record #" + this.recordCounter, ex);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Records can't be removed");
+    }
+}
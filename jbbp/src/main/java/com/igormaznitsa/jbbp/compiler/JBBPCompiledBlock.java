@@ -19,6 +19,7 @@ import com.igormaznitsa.jbbp.compiler.tokenizer.JBBPFieldTypeParameterContainer;
 import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
 import com.igormaznitsa.jbbp.exceptions.JBBPException;
 import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
+import com.igormaznitsa.jbbp.utils.JBBPIntCounter;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
 
 import java.util.ArrayList;
@@ -32,6 +33,11 @@ import java.util.List;
  */
 public final class JBBPCompiledBlock {
 
+    /**
+     * Max number of bits in a fixed size record.
+     */
+    private static final long MAX_FIXED_SIZE_IN_BITS = Integer.MAX_VALUE * 8L;
+
     /**
      * The Array of named field info items.
      */
@@ -60,6 +66,11 @@ public final class JBBPCompiledBlock {
      */
     private final boolean hasVarFields;
 
+    /**
+     * Size of data described by the block in bytes, -1 if it is not fixed.
+     */
+    private final int fixedRecordSize;
+
     /**
      * The Class
      *
@@ -76,6 +87,87 @@ public final class JBBPCompiledBlock {
         this.compiledArray = compiledData;
         this.arraySizeEvaluators = arraySizeEvaluators;
         this.customTypeFields = customTypeFields;
+        this.fixedRecordSize = calculateFixedRecordSize();
+    }
+
+    /**
+     * Calculate size of data described by the block if it doesn't depend on
+     * read data.
+     *
+     * @return the size in bytes or -1 if the size is not fixed
+     */
+    private int calculateFixedRecordSize() {
+        if (this.hasVarFields || this.arraySizeEvaluators != null || this.customTypeFields.length > 0) {
+            return -1;
+        }
+        final long bits = calculateFixedSizeInBits(this.compiledArray, new JBBPIntCounter());
+        return bits < 0L || bits % 8L != 0L ? -1 : (int) (bits / 8L);
+    }
+
+    /**
+     * Calculate number of bits in a structure body till its end.
+     *
+     * @param compiled the compiled data, must not be null
+     * @param position position in the compiled data, must not be null
+     * @return number of bits or -1 if the size is not fixed
+     */
+    private static long calculateFixedSizeInBits(final byte[] compiled, final JBBPIntCounter position) {
+        long result = 0L;
+        while (position.get() < compiled.length) {
+            final int code = compiled[position.getAndIncrement()] & 0xFF;
+            final int extCode = (code & JBBPCompiler.FLAG_WIDE) == 0 ? 0 : compiled[position.getAndIncrement()] & 0xFF;
+            if ((extCode & (JBBPCompiler.EXT_FLAG_EXPRESSION_OR_WHOLESTREAM | JBBPCompiler.EXT_FLAG_EXTRA_AS_EXPRESSION)) != 0) {
+                return -1L;
+            }
+            final long items = (code & JBBPCompiler.FLAG_ARRAY) == 0 ? 1L : JBBPUtils.unpackInt(compiled, position);
+
+            final long itemBits;
+            switch (code & 0xF) {
+                case JBBPCompiler.CODE_RESET_COUNTER:
+                    itemBits = 0L;
+                    break;
+                case JBBPCompiler.CODE_SKIP:
+                    itemBits = JBBPUtils.unpackInt(compiled, position) * 8L;
+                    break;
+                case JBBPCompiler.CODE_BIT:
+                    itemBits = JBBPUtils.unpackInt(compiled, position);
+                    break;
+                case JBBPCompiler.CODE_BOOL:
+                case JBBPCompiler.CODE_BYTE:
+                case JBBPCompiler.CODE_UBYTE:
+                    itemBits = 8L;
+                    break;
+                case JBBPCompiler.CODE_SHORT:
+                case JBBPCompiler.CODE_USHORT:
+                    itemBits = 16L;
+                    break;
+                case JBBPCompiler.CODE_INT:
+                    itemBits = 32L;
+                    break;
+                case JBBPCompiler.CODE_LONG:
+                    itemBits = 64L;
+                    break;
+                case JBBPCompiler.CODE_STRUCT_START: {
+                    itemBits = calculateFixedSizeInBits(compiled, position);
+                    if (itemBits < 0L) {
+                        return -1L;
+                    }
+                    // offset of the structure start
+                    JBBPUtils.unpackInt(compiled, position);
+                }
+                break;
+                case JBBPCompiler.CODE_STRUCT_END:
+                    return result;
+                default:
+                    // align depends on stream position, var and custom fields depend on read data
+                    return -1L;
+            }
+            if (itemBits > 0L && items > (MAX_FIXED_SIZE_IN_BITS - result) / itemBits) {
+                return -1L;
+            }
+            result += items * itemBits;
+        }
+        return result;
     }
 
     /**
@@ -115,6 +207,18 @@ public final class JBBPCompiledBlock {
         return this.arraySizeEvaluators != null;
     }
 
+    /**
+     * Get size of data described by the block if it is fixed one. The Size is
+     * fixed if the block doesn't contain var fields, custom type fields,
+     * alignment, expressions and arrays read till the end of stream.
+     *
+     * @return the size in bytes, -1 if the size depends on read data
+     * @since 1.3.1
+     */
+    public int getFixedRecordSize() {
+        return this.fixedRecordSize;
+    }
+
     /**
      * Get the compiled data block
      *
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler;
+
+import com.igormaznitsa.jbbp.JBBPCustomFieldTypeProcessor;
+import com.igormaznitsa.jbbp.utils.JBBPSystemProperty;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded thread-safe cache of compiled blocks, it allows to avoid compilation
+ * of the same script many times. Blocks are cached for script text, scripts compiled
+ * with a custom field type processor are not cached to not keep references to user
+ * processors and their class loaders in the global cache. The Cache is split into several segments, each segment removes its least recently
+ * used block if it is full.
+ *
+ * @since 1.3.1
+ */
+public final class JBBPCompiledBlockCache {
+
+    /**
+     * Default max number of blocks in the global cache.
+     */
+    public static final int DEFAULT_MAX_SIZE = 256;
+    /**
+     * Max number of segments in cache.
+     */
+    private static final int MAX_SEGMENTS = 16;
+    /**
+     * Min number of blocks in a segment.
+     */
+    private static final int MIN_SEGMENT_SIZE = 16;
+    /**
+     * The Global cache instance used by parsers, its size can be defined by
+     * system property, zero size disables the cache.
+     *
+     * @see JBBPSystemProperty#PROPERTY_COMPILED_BLOCK_CACHE_SIZE
+     */
+    private static final JBBPCompiledBlockCache INSTANCE = new JBBPCompiledBlockCache(JBBPSystemProperty.PROPERTY_COMPILED_BLOCK_CACHE_SIZE.getAsInteger(DEFAULT_MAX_SIZE));
+
+    private final Segment[] segments;
+    private final int maxSize;
+    private final AtomicLong hitCounter = new AtomicLong();
+    private final AtomicLong missCounter = new AtomicLong();
+    private volatile boolean enabled;
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize max number of cached blocks, zero or negative value makes disabled cache
+     */
+    public JBBPCompiledBlockCache(final int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        this.enabled = this.maxSize > 0;
+        final int segmentNumber = Math.max(1, Math.min(MAX_SEGMENTS, this.maxSize / MIN_SEGMENT_SIZE));
+        this.segments = new Segment[segmentNumber];
+        final int segmentSize = (this.maxSize + segmentNumber - 1) / segmentNumber;
+        for (int i = 0; i < segmentNumber; i++) {
+            this.segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * Get the global cache instance.
+     *
+     * @return the global cache, must not be null
+     */
+    public static JBBPCompiledBlockCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get compiled block for script from the cache or compile the script and
+     * place the result into the cache. If the cache is disabled or a custom field type
+     * processor is provided then the script is just compiled.
+     *
+     * @param script                   a text script to be compiled, must not be null
+     * @param customTypeFieldProcessor processor to process custom type fields, can be null
+     * @return a compiled block for the script
+     * @throws IOException it will be thrown for an inside IO error
+     * @see JBBPCompiler#compile(String, JBBPCustomFieldTypeProcessor)
+     */
+    public JBBPCompiledBlock compile(final String script, final JBBPCustomFieldTypeProcessor customTypeFieldProcessor) throws IOException {
+        JBBPUtils.assertNotNull(script, "Script must not be null");
+        if (!this.enabled || customTypeFieldProcessor != null) {
+            return JBBPCompiler.compile(script, customTypeFieldProcessor);
+        }
+
+        final Segment segment = this.segments[(script.hashCode() & 0x7FFFFFFF) % this.segments.length];
+
+        JBBPCompiledBlock result;
+        synchronized (segment) {
+            result = segment.get(script);
+        }
+
+        if (result == null) {
+            this.missCounter.incrementAndGet();
+            result = JBBPCompiler.compile(script, null);
+            synchronized (segment) {
+                segment.put(script, result);
+            }
+        } else {
+            this.hitCounter.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Check that the cache is enabled.
+     *
+     * @return true if enabled, false otherwise
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Enable or disable the cache. Disabling also removes all cached blocks. The
+     * Cache with zero max size can't be enabled.
+     *
+     * @param flag true to enable the cache, false to disable it
+     */
+    public void setEnabled(final boolean flag) {
+        this.enabled = flag && this.maxSize > 0;
+        if (!this.enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Get max number of blocks which can be kept by the cache.
+     *
+     * @return the max size of the cache
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Get current number of cached blocks.
+     *
+     * @return number of cached blocks
+     */
+    public int size() {
+        int result = 0;
+        for (final Segment s : this.segments) {
+            synchronized (s) {
+                result += s.size();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove all cached blocks and reset hit and miss counters.
+     */
+    public void clear() {
+        for (final Segment s : this.segments) {
+            synchronized (s) {
+                s.clear();
+            }
+        }
+        this.hitCounter.set(0L);
+        this.missCounter.set(0L);
+    }
+
+    /**
+     * Get number of requests which have been served by cached blocks.
+     *
+     * @return the hit counter value
+     */
+    public long getHitCount() {
+        return this.hitCounter.get();
+    }
+
+    /**
+     * Get number of requests which have required compilation.
+     *
+     * @return the miss counter value
+     */
+    public long getMissCount() {
+        return this.missCounter.get();
+    }
+
+    private static final class Segment extends LinkedHashMap<String, JBBPCompiledBlock> {
+        private static final long serialVersionUID = 3307564371874522618L;
+
+        private final int maxSize;
+
+        Segment(final int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, JBBPCompiledBlock> eldest) {
+            return this.size() > this.maxSize;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler.bytecode;
+
+import com.igormaznitsa.jbbp.JBBPCustomFieldTypeProcessor;
+import com.igormaznitsa.jbbp.JBBPNamedNumericFieldMap;
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.JBBPVarFieldProcessor;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.compiler.tokenizer.JBBPFieldTypeParameterContainer;
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.model.*;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Base class for parsers generated by {@link JBBPBytecodeParser}. Generated
+ * classes contain a method for each structure of a script, the methods call
+ * read operations in the script order with already decoded arguments. The
+ * Class is public only to be extended by generated classes loaded by another
+ * class loader, it is not a part of the API.
+ *
+ * @since 1.3.1
+ */
+public abstract class AbstractGeneratedParser {
+
+    /**
+     * Name info of the root structure.
+     */
+    private static final JBBPNamedFieldInfo ROOT_STRUCT_NAME = new JBBPNamedFieldInfo("", "", -1);
+    private static final JBBPFieldStruct[] EMPTY_STRUCT_ARRAY = new JBBPFieldStruct[0];
+
+    /**
+     * Names of fields used by generated code.
+     */
+    protected final JBBPNamedFieldInfo[] names;
+    private final JBBPCompiledBlock compiledBlock;
+    private final JBBPIntegerValueEvaluator[] evaluators;
+    private final JBBPFieldTypeParameterContainer[] customTypes;
+    private final JBBPCustomFieldTypeProcessor customFieldTypeProcessor;
+    private final JBBPBitOrder bitOrder;
+    private final int flags;
+
+    /**
+     * Constructor.
+     *
+     * @param parser      the source parser, must not be null
+     * @param names       names used by generated code, must not be null
+     * @param evaluators  expression evaluators used by generated code, must not be null
+     * @param customTypes custom type descriptors used by generated code, must not be null
+     */
+    protected AbstractGeneratedParser(final JBBPParser parser, final JBBPNamedFieldInfo[] names, final JBBPIntegerValueEvaluator[] evaluators, final JBBPFieldTypeParameterContainer[] customTypes) {
+        this.compiledBlock = parser.getCompiledBlock();
+        this.customFieldTypeProcessor = parser.getCustomFieldTypeProcessor();
+        this.bitOrder = parser.getBitOrder();
+        this.flags = parser.getFlags();
+        this.names = names;
+        this.evaluators = evaluators;
+        this.customTypes = customTypes;
+    }
+
+    private static <T extends JBBPAbstractField> T register(final T field, final JBBPNamedNumericFieldMap map) {
+        if (map != null && field.getNameInfo() != null) {
+            map.putField((JBBPNumericField) field);
+        }
+        return field;
+    }
+
+    protected static JBBPAbstractField readBool(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final JBBPNamedNumericFieldMap map) throws IOException {
+        return register(new JBBPFieldBoolean(name, in.readBoolean()), map);
+    }
+
+    protected static JBBPAbstractField readByte(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final JBBPNamedNumericFieldMap map) throws IOException {
+        return register(new JBBPFieldByte(name, (byte) in.readByte()), map);
+    }
+
+    protected static JBBPAbstractField readUByte(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final JBBPNamedNumericFieldMap map) throws IOException {
+        return register(new JBBPFieldUByte(name, (byte) in.readByte()), map);
+    }
+
+    protected static JBBPAbstractField readShort(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final JBBPByteOrder order, final JBBPNamedNumericFieldMap map) throws IOException {
+        return register(new JBBPFieldShort(name, (short) in.readUnsignedShort(order)), map);
+    }
+
+    protected static JBBPAbstractField readUShort(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final JBBPByteOrder order, final JBBPNamedNumericFieldMap map) throws IOException {
+        return register(new JBBPFieldUShort(name, (short) in.readUnsignedShort(order)), map);
+    }
+
+    protected static JBBPAbstractField readInt(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final JBBPByteOrder order, final JBBPNamedNumericFieldMap map) throws IOException {
+        return register(new JBBPFieldInt(name, in.readInt(order)), map);
+    }
+
+    protected static JBBPAbstractField readLong(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final JBBPByteOrder order, final JBBPNamedNumericFieldMap map) throws IOException {
+        return register(new JBBPFieldLong(name, in.readLong(order)), map);
+    }
+
+    protected static JBBPAbstractField readBit(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final JBBPBitNumber bitNumber, final JBBPNamedNumericFieldMap map) throws IOException {
+        return register(new JBBPFieldBit(name, (int) in.readBitsLong(bitNumber.getBitNumber()), bitNumber), map);
+    }
+
+    protected static JBBPAbstractField readBoolArray(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final int length) throws IOException {
+        return new JBBPFieldArrayBoolean(name, in.readBoolArray(length));
+    }
+
+    protected static JBBPAbstractField readByteArray(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final int length, final JBBPByteOrder order) throws IOException {
+        return new JBBPFieldArrayByte(name, in.readByteArray(length, order));
+    }
+
+    protected static JBBPAbstractField readUByteArray(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final int length, final JBBPByteOrder order) throws IOException {
+        return new JBBPFieldArrayUByte(name, in.readByteArray(length, order));
+    }
+
+    protected static JBBPAbstractField readShortArray(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final int length, final JBBPByteOrder order) throws IOException {
+        return new JBBPFieldArrayShort(name, in.readShortArray(length, order));
+    }
+
+    protected static JBBPAbstractField readUShortArray(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final int length, final JBBPByteOrder order) throws IOException {
+        return new JBBPFieldArrayUShort(name, in.readShortArray(length, order));
+    }
+
+    protected static JBBPAbstractField readIntArray(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final int length, final JBBPByteOrder order) throws IOException {
+        return new JBBPFieldArrayInt(name, in.readIntArray(length, order));
+    }
+
+    protected static JBBPAbstractField readLongArray(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final int length, final JBBPByteOrder order) throws IOException {
+        return new JBBPFieldArrayLong(name, in.readLongArray(length, order));
+    }
+
+    protected static JBBPAbstractField readBitArray(final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final int length, final JBBPBitNumber bitNumber) throws IOException {
+        return new JBBPFieldArrayBit(name, in.readBitsArray(length, bitNumber), bitNumber);
+    }
+
+    protected static JBBPAbstractField readVar(final JBBPVarFieldProcessor processor, final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final int extraValue, final JBBPByteOrder order, final JBBPNamedNumericFieldMap map) throws IOException {
+        final JBBPAbstractField result = processor.readVarField(in, name, extraValue, order, map);
+        JBBPUtils.assertNotNull(result, "A Var processor must not return null as a result of a field reading");
+        if (result instanceof JBBPAbstractArrayField) {
+            throw new JBBPParsingException("A Var field processor has returned an array value instead of a field value [" + name + ':' + extraValue + ']');
+        }
+        if (result.getNameInfo() != name) {
+            throw new JBBPParsingException("Detected wrong name for a read field , must be " + name + " but detected " + result.getNameInfo() + ']');
+        }
+        if (result instanceof JBBPNumericField) {
+            register(result, map);
+        }
+        return result;
+    }
+
+    protected static JBBPAbstractField readVarArray(final JBBPVarFieldProcessor processor, final JBBPBitInputStream in, final JBBPNamedFieldInfo name, final int length, final int extraValue, final JBBPByteOrder order, final JBBPNamedNumericFieldMap map) throws IOException {
+        final JBBPAbstractArrayField<? extends JBBPAbstractField> result = processor.readVarArray(in, length, name, extraValue, order, map);
+        JBBPUtils.assertNotNull(result, "A Var processor must not return null as a result of an array field reading [" + name + ':' + extraValue + ']');
+        if (result.getNameInfo() != name) {
+            throw new JBBPParsingException("Detected wrong name for a read field array, must be " + name + " but detected " + result.getNameInfo() + ']');
+        }
+        return result;
+    }
+
+    protected static int arrayLength(final int length, final JBBPNamedFieldInfo name) {
+        if (length < 0) {
+            throw new JBBPParsingException("Detected negative calculated array length for field '" + (name == null ? "<NO NAME>" : name.getFieldPath()) + "\' [" + JBBPUtils.int2msg(length) + ']');
+        }
+        return length;
+    }
+
+    protected static void align(final JBBPBitInputStream in, final int value) throws IOException {
+        in.align(value);
+    }
+
+    protected static void skip(final JBBPBitInputStream in, final int value) throws IOException {
+        if (value > 0) {
+            final long skippedBytes = in.skip(value);
+            if (skippedBytes != value) {
+                throw new EOFException("Can't skip " + value + " byte(s), skipped only " + skippedBytes + " byte(s)");
+            }
+        }
+    }
+
+    protected static JBBPFieldStruct struct(final JBBPNamedFieldInfo name, final JBBPAbstractField[] fields) {
+        return new JBBPFieldStruct(name, fields);
+    }
+
+    protected static JBBPAbstractField structArray(final JBBPNamedFieldInfo name, final JBBPFieldStruct[] structs) {
+        return new JBBPFieldArrayStruct(name, structs.length == 0 ? EMPTY_STRUCT_ARRAY : structs);
+    }
+
+    protected static JBBPAbstractField wholeStreamStructArray(final JBBPNamedFieldInfo name, final List<JBBPFieldStruct> structs) {
+        return new JBBPFieldArrayStruct(name, structs.isEmpty() ? EMPTY_STRUCT_ARRAY : structs.toArray(new JBBPFieldStruct[structs.size()]));
+    }
+
+    /**
+     * Cut array of read fields if parsing has been stopped because of end of stream.
+     *
+     * @param fields array of fields
+     * @param number number of read fields
+     * @return array contains only read fields
+     */
+    protected static JBBPAbstractField[] truncate(final JBBPAbstractField[] fields, final int number) {
+        final JBBPAbstractField[] result = new JBBPAbstractField[number];
+        System.arraycopy(fields, 0, result, 0, number);
+        return result;
+    }
+
+    protected static JBBPParsingException parsingError(final IOException error, final JBBPNamedFieldInfo name) {
+        return new JBBPParsingException("Can't parse field '" + name.getFieldPath() + "' for IOException", error);
+    }
+
+    protected final int eval(final int evaluatorIndex, final int offsetInCompiledBlock, final JBBPBitInputStream in, final JBBPNamedNumericFieldMap map) {
+        return this.evaluators[evaluatorIndex].eval(in, offsetInCompiledBlock, this.compiledBlock, map);
+    }
+
+    protected final JBBPAbstractField readCustom(final JBBPBitInputStream in, final int typeIndex, final JBBPNamedFieldInfo name, final int extraData, final boolean wholeStream, final int length, final JBBPNamedNumericFieldMap map) throws IOException {
+        final JBBPAbstractField result = this.customFieldTypeProcessor.readCustomFieldType(in, this.bitOrder, this.flags, this.customTypes[typeIndex], name, extraData, wholeStream, length);
+        JBBPUtils.assertNotNull(result, "Must not return null as read result");
+        if (length < 0 && result instanceof JBBPNumericField) {
+            register(result, map);
+        }
+        return result;
+    }
+
+    /**
+     * Parse the root structure.
+     *
+     * @param in        the input stream, must not be null
+     * @param map       map of named numeric fields, it can be null if the script doesn't need it
+     * @param processor var field processor, it can be null if the script doesn't contain var fields
+     * @return fields of the root structure, must not be null
+     * @throws IOException it will be thrown for transport errors
+     */
+    protected abstract JBBPAbstractField[] parseBody(JBBPBitInputStream in, JBBPNamedNumericFieldMap map, JBBPVarFieldProcessor processor) throws IOException;
+
+    /**
+     * Parse data from a stream.
+     *
+     * @param in        the input stream, must not be null
+     * @param map       map of named numeric fields, it can be null if the script doesn't need it
+     * @param processor var field processor, it can be null if the script doesn't contain var fields
+     * @return the root structure, must not be null
+     * @throws IOException it will be thrown for transport errors
+     */
+    public final JBBPFieldStruct parse(final JBBPBitInputStream in, final JBBPNamedNumericFieldMap map, final JBBPVarFieldProcessor processor) throws IOException {
+        return new JBBPFieldStruct(ROOT_STRUCT_NAME, this.parseBody(in, map, processor));
+    }
+}
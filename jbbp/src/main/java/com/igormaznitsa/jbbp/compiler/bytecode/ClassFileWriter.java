@@ -0,0 +1,221 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal writer of java class files. It makes classes of version 49 (Java 5)
+ * so that methods don't need stack map frames and can be checked by the type
+ * inferencing verifier.
+ *
+ * @since 1.3.1
+ */
+final class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_PROTECTED = 0x0004;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int CLASS_FILE_MAJOR_VERSION = 49;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final Map<String, Integer> constantIndexes = new HashMap<String, Integer>();
+    private final ByteArrayOutputStream constantPoolBuffer = new ByteArrayOutputStream(1024);
+    private final DataOutputStream constantPool = new DataOutputStream(this.constantPoolBuffer);
+    private final List<byte[]> methods = new ArrayList<byte[]>();
+    private final String className;
+    private final String superClassName;
+    private int constantPoolSize = 1;
+
+    /**
+     * Constructor.
+     *
+     * @param className      internal name of the class, like 'a/b/Class', must not be null
+     * @param superClassName internal name of the super class, must not be null
+     */
+    ClassFileWriter(final String className, final String superClassName) {
+        this.className = className;
+        this.superClassName = superClassName;
+    }
+
+    String getClassName() {
+        return this.className;
+    }
+
+    private int register(final String key, final int tag, final int value1, final int value2) {
+        Integer result = this.constantIndexes.get(key);
+        if (result == null) {
+            try {
+                this.constantPool.writeByte(tag);
+                this.constantPool.writeShort(value1);
+                if (value2 >= 0) {
+                    this.constantPool.writeShort(value2);
+                }
+            } catch (IOException ex) {
+                throw new Error("Unexpected IO exception", ex);
+            }
+            result = this.constantPoolSize++;
+            this.constantIndexes.put(key, result);
+        }
+        return result;
+    }
+
+    int utf8(final String text) {
+        final String key = "U" + text;
+        Integer result = this.constantIndexes.get(key);
+        if (result == null) {
+            try {
+                this.constantPool.writeByte(CONSTANT_UTF8);
+                this.constantPool.writeUTF(text);
+            } catch (IOException ex) {
+                throw new Error("Unexpected IO exception", ex);
+            }
+            result = this.constantPoolSize++;
+            this.constantIndexes.put(key, result);
+        }
+        return result;
+    }
+
+    int integer(final int value) {
+        final String key = "I" + value;
+        Integer result = this.constantIndexes.get(key);
+        if (result == null) {
+            try {
+                this.constantPool.writeByte(CONSTANT_INTEGER);
+                this.constantPool.writeInt(value);
+            } catch (IOException ex) {
+                throw new Error("Unexpected IO exception", ex);
+            }
+            result = this.constantPoolSize++;
+            this.constantIndexes.put(key, result);
+        }
+        return result;
+    }
+
+    int classRef(final String internalName) {
+        return register("C" + internalName, CONSTANT_CLASS, utf8(internalName), -1);
+    }
+
+    private int nameAndType(final String name, final String descriptor) {
+        return register("N" + name + ' ' + descriptor, CONSTANT_NAME_AND_TYPE, utf8(name), utf8(descriptor));
+    }
+
+    int fieldRef(final String owner, final String name, final String descriptor) {
+        return register("F" + owner + '.' + name + ' ' + descriptor, CONSTANT_FIELDREF, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    int methodRef(final String owner, final String name, final String descriptor, final boolean isInterface) {
+        return register((isInterface ? "J" : "M") + owner + '.' + name + descriptor, isInterface ? CONSTANT_INTERFACE_METHODREF : CONSTANT_METHODREF, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    /**
+     * Add method into the class.
+     *
+     * @param access     access flags
+     * @param name       name of the method
+     * @param descriptor descriptor of the method
+     * @param code       code of the method, must not be null
+     */
+    void addMethod(final int access, final String name, final String descriptor, final CodeWriter code) {
+        final byte[] body = code.getCode();
+        if (body.length > 0xFFFF) {
+            throw new IllegalStateException("Method '" + name + "' is too big : " + body.length);
+        }
+        final List<int[]> exceptionTable = code.getExceptionTable();
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length + 64);
+        final DataOutputStream out = new DataOutputStream(buffer);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1);
+
+            out.writeShort(utf8("Code"));
+            out.writeInt(12 + body.length + exceptionTable.size() * 8);
+            out.writeShort(code.getMaxStack());
+            out.writeShort(code.getMaxLocals());
+            out.writeInt(body.length);
+            out.write(body);
+            out.writeShort(exceptionTable.size());
+            for (final int[] e : exceptionTable) {
+                for (final int v : e) {
+                    out.writeShort(v);
+                }
+            }
+            out.writeShort(0);
+            out.flush();
+        } catch (IOException ex) {
+            throw new Error("Unexpected IO exception", ex);
+        }
+        this.methods.add(buffer.toByteArray());
+    }
+
+    /**
+     * Make class file body.
+     *
+     * @param access access flags of the class
+     * @return the class file as byte array, must not be null
+     */
+    byte[] toByteArray(final int access) {
+        final int thisClass = classRef(this.className);
+        final int superClass = classRef(this.superClassName);
+        if (this.constantPoolSize > 0xFFFF) {
+            throw new IllegalStateException("Too many constants : " + this.constantPoolSize);
+        }
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(this.constantPoolBuffer.size() + 1024);
+        final DataOutputStream out = new DataOutputStream(buffer);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_FILE_MAJOR_VERSION);
+            out.writeShort(this.constantPoolSize);
+            this.constantPool.flush();
+            this.constantPoolBuffer.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(this.methods.size());
+            for (final byte[] m : this.methods) {
+                out.write(m);
+            }
+            out.writeShort(0);
+            out.flush();
+        } catch (IOException ex) {
+            throw new Error("Unexpected IO exception", ex);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler.bytecode;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writer of method byte code, it supports only instructions needed for
+ * generated parsers.
+ *
+ * @since 1.3.1
+ */
+final class CodeWriter {
+
+    static final int ACONST_NULL = 1;
+    static final int ICONST_0 = 3;
+    static final int BIPUSH = 16;
+    static final int SIPUSH = 17;
+    static final int LDC_W = 19;
+    static final int ILOAD = 21;
+    static final int ALOAD = 25;
+    static final int AALOAD = 50;
+    static final int ISTORE = 54;
+    static final int ASTORE = 58;
+    static final int AASTORE = 83;
+    static final int POP = 87;
+    static final int DUP = 89;
+    static final int IINC = 132;
+    static final int I2L = 133;
+    static final int IFEQ = 153;
+    static final int IFNE = 154;
+    static final int IF_ICMPGE = 162;
+    static final int GOTO = 167;
+    static final int ARETURN = 176;
+    static final int RETURN = 177;
+    static final int GETSTATIC = 178;
+    static final int GETFIELD = 180;
+    static final int INVOKEVIRTUAL = 182;
+    static final int INVOKESPECIAL = 183;
+    static final int INVOKESTATIC = 184;
+    static final int INVOKEINTERFACE = 185;
+    static final int NEW = 187;
+    static final int ANEWARRAY = 189;
+    static final int ATHROW = 191;
+    static final int WIDE = 196;
+
+    /**
+     * Generated code doesn't keep more than several values on the stack, so
+     * that the fixed limit is used instead of stack analysis.
+     */
+    private static final int MAX_STACK = 32;
+
+    private final ClassFileWriter classFile;
+    private final List<int[]> exceptionTable = new ArrayList<int[]>();
+    private byte[] code = new byte[256];
+    private int length;
+    private int maxLocals;
+
+    /**
+     * Constructor.
+     *
+     * @param classFile      the class file which constant pool is used, must not be null
+     * @param argumentsSlots number of local slots occupied by this and method arguments
+     */
+    CodeWriter(final ClassFileWriter classFile, final int argumentsSlots) {
+        this.classFile = classFile;
+        this.maxLocals = argumentsSlots;
+    }
+
+    static String toDescriptor(final Class<?> type) {
+        if (type.isPrimitive()) {
+            if (type == int.class) {
+                return "I";
+            } else if (type == long.class) {
+                return "J";
+            } else if (type == boolean.class) {
+                return "Z";
+            } else if (type == byte.class) {
+                return "B";
+            } else if (type == char.class) {
+                return "C";
+            } else if (type == short.class) {
+                return "S";
+            } else if (type == float.class) {
+                return "F";
+            } else if (type == double.class) {
+                return "D";
+            } else {
+                return "V";
+            }
+        } else if (type.isArray()) {
+            return type.getName().replace('.', '/');
+        } else {
+            return 'L' + toInternalName(type) + ';';
+        }
+    }
+
+    static String toInternalName(final Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    static String toDescriptor(final Class<?> returnType, final Class<?>... args) {
+        final StringBuilder result = new StringBuilder("(");
+        for (final Class<?> a : args) {
+            result.append(toDescriptor(a));
+        }
+        return result.append(')').append(toDescriptor(returnType)).toString();
+    }
+
+    byte[] getCode() {
+        final byte[] result = new byte[this.length];
+        System.arraycopy(this.code, 0, result, 0, this.length);
+        return result;
+    }
+
+    int getMaxStack() {
+        return MAX_STACK;
+    }
+
+    int getMaxLocals() {
+        return this.maxLocals;
+    }
+
+    List<int[]> getExceptionTable() {
+        return this.exceptionTable;
+    }
+
+    int getPosition() {
+        return this.length;
+    }
+
+    /**
+     * Allocate new local variable slot.
+     *
+     * @return index of the slot
+     */
+    int newLocal() {
+        return this.maxLocals++;
+    }
+
+    private void u1(final int value) {
+        if (this.length == this.code.length) {
+            final byte[] newCode = new byte[this.code.length << 1];
+            System.arraycopy(this.code, 0, newCode, 0, this.length);
+            this.code = newCode;
+        }
+        this.code[this.length++] = (byte) value;
+    }
+
+    private void u2(final int value) {
+        u1(value >>> 8);
+        u1(value);
+    }
+
+    void patchU2(final int position, final int value) {
+        this.code[position] = (byte) (value >>> 8);
+        this.code[position + 1] = (byte) value;
+    }
+
+    CodeWriter op(final int opcode) {
+        u1(opcode);
+        return this;
+    }
+
+    CodeWriter pushInt(final int value) {
+        if (value >= -1 && value <= 5) {
+            u1(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            u1(BIPUSH);
+            u1(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            u1(SIPUSH);
+            u2(value);
+        } else {
+            u1(LDC_W);
+            u2(this.classFile.integer(value));
+        }
+        return this;
+    }
+
+    /**
+     * Push short value through SIPUSH to be patched later.
+     *
+     * @return position of the value to be patched
+     */
+    int pushPatchableShort() {
+        u1(SIPUSH);
+        final int result = this.length;
+        u2(0);
+        return result;
+    }
+
+    private CodeWriter local(final int opcode, final int index) {
+        if (index > 0xFF) {
+            u1(WIDE);
+            u1(opcode);
+            u2(index);
+        } else {
+            u1(opcode);
+            u1(index);
+        }
+        return this;
+    }
+
+    CodeWriter aload(final int index) {
+        return local(ALOAD, index);
+    }
+
+    CodeWriter astore(final int index) {
+        return local(ASTORE, index);
+    }
+
+    CodeWriter iload(final int index) {
+        return local(ILOAD, index);
+    }
+
+    CodeWriter istore(final int index) {
+        return local(ISTORE, index);
+    }
+
+    CodeWriter iinc(final int index, final int value) {
+        if (index > 0xFF) {
+            u1(WIDE);
+            u1(IINC);
+            u2(index);
+            u2(value);
+        } else {
+            u1(IINC);
+            u1(index);
+            u1(value);
+        }
+        return this;
+    }
+
+    CodeWriter type(final int opcode, final Class<?> type) {
+        u1(opcode);
+        u2(this.classFile.classRef(toInternalName(type)));
+        return this;
+    }
+
+    CodeWriter getField(final int opcode, final Class<?> owner, final String name, final Class<?> type) {
+        u1(opcode);
+        u2(this.classFile.fieldRef(toInternalName(owner), name, toDescriptor(type)));
+        return this;
+    }
+
+    CodeWriter getStaticEnum(final Enum<?> value) {
+        return getField(GETSTATIC, value.getDeclaringClass(), value.name(), value.getDeclaringClass());
+    }
+
+    CodeWriter invoke(final Method method) {
+        final Class<?> owner = method.getDeclaringClass();
+        final String descriptor = toDescriptor(method.getReturnType(), method.getParameterTypes());
+        if (Modifier.isStatic(method.getModifiers())) {
+            u1(INVOKESTATIC);
+            u2(this.classFile.methodRef(toInternalName(owner), method.getName(), descriptor, false));
+        } else if (owner.isInterface()) {
+            u1(INVOKEINTERFACE);
+            u2(this.classFile.methodRef(toInternalName(owner), method.getName(), descriptor, true));
+            int slots = 1;
+            for (final Class<?> p : method.getParameterTypes()) {
+                slots += p == long.class || p == double.class ? 2 : 1;
+            }
+            u1(slots);
+            u1(0);
+        } else {
+            u1(INVOKEVIRTUAL);
+            u2(this.classFile.methodRef(toInternalName(owner), method.getName(), descriptor, false));
+        }
+        return this;
+    }
+
+    CodeWriter invokeSpecial(final String owner, final String name, final String descriptor) {
+        u1(INVOKESPECIAL);
+        u2(this.classFile.methodRef(owner, name, descriptor, false));
+        return this;
+    }
+
+    CodeWriter jump(final int opcode, final Label label) {
+        final int position = this.length;
+        u1(opcode);
+        if (label.position < 0) {
+            label.fixups.add(position);
+            u2(0);
+        } else {
+            u2(checkJumpOffset(label.position - position));
+        }
+        return this;
+    }
+
+    private static int checkJumpOffset(final int offset) {
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+            throw new IllegalStateException("Too long jump in generated code : " + offset);
+        }
+        return offset;
+    }
+
+    CodeWriter mark(final Label label) {
+        label.position = this.length;
+        for (final Integer p : label.fixups) {
+            patchU2(p + 1, checkJumpOffset(this.length - p));
+        }
+        label.fixups.clear();
+        return this;
+    }
+
+    /**
+     * Register exception handler.
+     *
+     * @param start     start of the protected area
+     * @param end       end of the protected area (exclusive)
+     * @param handler   start of the handler
+     * @param exception exception class to be caught
+     */
+    void addExceptionHandler(final Label start, final Label end, final Label handler, final Class<? extends Throwable> exception) {
+        this.exceptionTable.add(new int[]{start.position, end.position, handler.position, this.classFile.classRef(toInternalName(exception))});
+    }
+
+    /**
+     * Label in code.
+     */
+    static final class Label {
+        private final List<Integer> fixups = new ArrayList<Integer>();
+        private int position = -1;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler.bytecode;
+
+import com.igormaznitsa.jbbp.JBBPExternalValueProvider;
+import com.igormaznitsa.jbbp.JBBPNamedNumericFieldMap;
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.JBBPVarFieldProcessor;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.utils.JBBPSystemProperty;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parser which works through a class generated for the script of a parser in
+ * runtime. The Generated class contains straight code for each structure
+ * of the script, so that parsing doesn't decode compiled block and doesn't
+ * make intermediate lists. The Result is the same as the result of the source
+ * parser. If the class can't be generated or loaded on the platform (for instance
+ * on Android) then the source parser is used for parsing.
+ * <pre>{@code
+ * JBBPBytecodeParser parser = JBBPBytecodeParser.compile(JBBPParser.prepare("int length; byte [length] data;"));
+ * JBBPFieldStruct result = parser.parse(data);
+ * }</pre>
+ * The Instance is thread-safe if the source parser is thread-safe.
+ *
+ * @see JBBPSystemProperty#PROPERTY_BYTECODE_PARSER_DISABLED
+ * @since 1.3.1
+ */
+public final class JBBPBytecodeParser {
+
+    private static final String CLASS_NAME_PREFIX = "com/igormaznitsa/jbbp/compiler/bytecode/generated/JBBPGeneratedParser";
+    private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+    private final JBBPParser parser;
+    private final AbstractGeneratedParser generated;
+    private final boolean needFieldMap;
+    private final boolean hasVarFields;
+
+    private JBBPBytecodeParser(final JBBPParser parser, final AbstractGeneratedParser generated) {
+        this.parser = parser;
+        this.generated = generated;
+        final JBBPCompiledBlock block = parser.getCompiledBlock();
+        this.needFieldMap = block.hasEvaluatedSizeArrays() || block.hasVarFields();
+        this.hasVarFields = block.hasVarFields();
+    }
+
+    /**
+     * Generate bytecode parser for a parser. If generation is disabled or
+     * impossible then the result works through the source parser, projections
+     * of parsers always work through the source parser.
+     *
+     * @param parser a parser which script should be compiled, must not be null
+     * @return the bytecode parser, must not be null
+     */
+    public static JBBPBytecodeParser compile(final JBBPParser parser) {
+        JBBPUtils.assertNotNull(parser, "Parser must not be null");
+
+        AbstractGeneratedParser generated = null;
+        if (!parser.isProjection() && !Boolean.parseBoolean(JBBPSystemProperty.PROPERTY_BYTECODE_PARSER_DISABLED.getAsString("false"))) {
+            try {
+                generated = new ParserClassGenerator(parser, CLASS_NAME_PREFIX + CLASS_COUNTER.incrementAndGet()).generate(new GeneratedClassLoader(AbstractGeneratedParser.class.getClassLoader()));
+            } catch (Exception ex) {
+                generated = null;
+            } catch (LinkageError ex) {
+                generated = null;
+            }
+        }
+        return new JBBPBytecodeParser(parser, generated);
+    }
+
+    /**
+     * Check that parsing works through generated bytecode.
+     *
+     * @return true if generated class is used, false if parsing works through the source parser
+     */
+    public boolean isBytecodeGenerated() {
+        return this.generated != null;
+    }
+
+    /**
+     * Get the source parser.
+     *
+     * @return the source parser, must not be null
+     */
+    public JBBPParser getParser() {
+        return this.parser;
+    }
+
+    /**
+     * Parse an input stream.
+     *
+     * @param in an input stream which content should be parsed, it must not be null
+     * @return the parsed content as the root structure
+     * @throws IOException it will be thrown for transport errors
+     * @see JBBPParser#parse(InputStream)
+     */
+    public JBBPFieldStruct parse(final InputStream in) throws IOException {
+        return this.parse(in, null, null);
+    }
+
+    /**
+     * Parse an input stream with defined var field processor and external value provider.
+     *
+     * @param in                    an input stream which content should be parsed, it must not be null
+     * @param varFieldProcessor     a var field processor, it must not be null if the script contains var fields
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @return the parsed content as the root structure
+     * @throws IOException it will be thrown for transport errors
+     * @see JBBPParser#parse(InputStream, JBBPVarFieldProcessor, JBBPExternalValueProvider)
+     */
+    public JBBPFieldStruct parse(final InputStream in, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        if (this.generated == null) {
+            return this.parser.parse(in, varFieldProcessor, externalValueProvider);
+        }
+        final JBBPBitInputStream bitInStream = in instanceof JBBPBitInputStream ? (JBBPBitInputStream) in : new JBBPBitInputStream(in, this.parser.getBitOrder());
+        return this.parseStream(bitInStream, varFieldProcessor, externalValueProvider);
+    }
+
+    /**
+     * Parse a byte array content.
+     *
+     * @param array a byte array which content should be parsed, it must not be null
+     * @return the parsed content as the root structure
+     * @throws IOException it will be thrown for transport errors
+     * @see JBBPParser#parse(byte[])
+     */
+    public JBBPFieldStruct parse(final byte[] array) throws IOException {
+        return this.parse(array, null, null);
+    }
+
+    /**
+     * Parse a byte array content with defined var field processor and external value provider.
+     *
+     * @param array                 a byte array which content should be parsed, it must not be null
+     * @param varFieldProcessor     a var field processor, it must not be null if the script contains var fields
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @return the parsed content as the root structure
+     * @throws IOException it will be thrown for transport errors
+     * @see JBBPParser#parse(byte[], JBBPVarFieldProcessor, JBBPExternalValueProvider)
+     */
+    public JBBPFieldStruct parse(final byte[] array, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        JBBPUtils.assertNotNull(array, "Array must not be null");
+        return this.parse(ByteBuffer.wrap(array), varFieldProcessor, externalValueProvider);
+    }
+
+    /**
+     * Parse content of a byte buffer between its position and limit. The Position of the buffer is not changed.
+     *
+     * @param buffer a byte buffer which content should be parsed, must not be null
+     * @return the parsed content as the root structure
+     * @throws IOException it will be thrown for transport errors
+     * @see JBBPParser#parse(ByteBuffer)
+     */
+    public JBBPFieldStruct parse(final ByteBuffer buffer) throws IOException {
+        return this.parse(buffer, null, null);
+    }
+
+    /**
+     * Parse content of a byte buffer between its position and limit with defined
+     * var field processor and external value provider. The Position of the buffer is not changed.
+     *
+     * @param buffer                a byte buffer which content should be parsed, must not be null
+     * @param varFieldProcessor     a var field processor, it must not be null if the script contains var fields
+     * @param externalValueProvider an external value provider, it can be null but
+     *                              only if the script doesn't have fields desired the provider
+     * @return the parsed content as the root structure
+     * @throws IOException it will be thrown for transport errors
+     * @see JBBPParser#parse(ByteBuffer, JBBPVarFieldProcessor, JBBPExternalValueProvider)
+     */
+    public JBBPFieldStruct parse(final ByteBuffer buffer, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+        if (this.generated == null) {
+            return this.parser.parse(buffer, varFieldProcessor, externalValueProvider);
+        }
+        return this.parseStream(JBBPBitInputStream.fromBuffer(buffer, this.parser.getBitOrder()), varFieldProcessor, externalValueProvider);
+    }
+
+    private JBBPFieldStruct parseStream(final JBBPBitInputStream in, final JBBPVarFieldProcessor varFieldProcessor, final JBBPExternalValueProvider externalValueProvider) throws IOException {
+        if (this.hasVarFields) {
+            JBBPUtils.assertNotNull(varFieldProcessor, "The Script contains VAR fields, a var field processor must be provided");
+        }
+        final JBBPNamedNumericFieldMap fieldMap = this.needFieldMap ? new JBBPNamedNumericFieldMap(externalValueProvider, this.parser.getCompiledBlock()) : null;
+        return this.generated.parse(in, fieldMap, varFieldProcessor);
+    }
+
+    /**
+     * Class loader to define generated parsers, each parser has its own loader
+     * so that the class can be collected together with the parser.
+     */
+    private static final class GeneratedClassLoader extends ClassLoader implements ParserClassGenerator.Loader {
+        GeneratedClassLoader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        public Class<?> define(final String name, final byte[] classBody) {
+            return this.defineClass(name, classBody, 0, classBody.length);
+        }
+    }
+}
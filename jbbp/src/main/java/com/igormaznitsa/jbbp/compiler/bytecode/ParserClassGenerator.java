@@ -0,0 +1,502 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler.bytecode;
+
+import com.igormaznitsa.jbbp.JBBPNamedNumericFieldMap;
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.JBBPVarFieldProcessor;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.compiler.conversion.CompiledBlockVisitor;
+import com.igormaznitsa.jbbp.compiler.tokenizer.JBBPFieldTypeParameterContainer;
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.model.JBBPAbstractField;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.igormaznitsa.jbbp.compiler.bytecode.CodeWriter.*;
+
+/**
+ * Generator of parser classes, it visits compiled block and makes class file
+ * with method for each structure. Methods contain direct calls of read
+ * operations with already decoded field types, names, byte orders and constant
+ * values, so that nothing is decoded from the compiled block during parsing.
+ *
+ * @since 1.3.1
+ */
+final class ParserClassGenerator extends CompiledBlockVisitor {
+
+    private static final String BODY_DESCRIPTOR = toDescriptor(JBBPAbstractField[].class, JBBPBitInputStream.class, JBBPNamedNumericFieldMap.class, JBBPVarFieldProcessor.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = toDescriptor(void.class, JBBPParser.class, JBBPNamedFieldInfo[].class, JBBPIntegerValueEvaluator[].class, JBBPFieldTypeParameterContainer[].class);
+
+    private static final int LOCAL_IN = 1;
+    private static final int LOCAL_MAP = 2;
+    private static final int LOCAL_PROCESSOR = 3;
+    private static final int BODY_ARGUMENTS_SLOTS = 4;
+
+    private static final Map<String, Method> HELPERS = new HashMap<String, Method>();
+    private static final Method STREAM_HAS_AVAILABLE_DATA;
+    private static final Method STREAM_RESET_COUNTER;
+    private static final Method BIT_NUMBER_DECODE;
+    private static final Method LIST_ADD;
+
+    static {
+        for (final Method m : AbstractGeneratedParser.class.getDeclaredMethods()) {
+            HELPERS.put(m.getName(), m);
+        }
+        try {
+            STREAM_HAS_AVAILABLE_DATA = JBBPBitInputStream.class.getMethod("hasAvailableData");
+            STREAM_RESET_COUNTER = JBBPBitInputStream.class.getMethod("resetCounter");
+            BIT_NUMBER_DECODE = JBBPBitNumber.class.getMethod("decode", int.class);
+            LIST_ADD = ArrayList.class.getMethod("add", Object.class);
+        } catch (NoSuchMethodException ex) {
+            throw new Error("Can't find method", ex);
+        }
+    }
+
+    private final ClassFileWriter classFile;
+    private final JBBPParser parser;
+    private final List<Body> bodyStack = new ArrayList<Body>();
+    private final List<JBBPNamedFieldInfo> names = new ArrayList<JBBPNamedFieldInfo>();
+    private final Map<JBBPNamedFieldInfo, Integer> nameIndexes = new IdentityHashMap<JBBPNamedFieldInfo, Integer>();
+    private final List<JBBPIntegerValueEvaluator> evaluators = new ArrayList<JBBPIntegerValueEvaluator>();
+    private final Map<JBBPIntegerValueEvaluator, Integer> evaluatorIndexes = new IdentityHashMap<JBBPIntegerValueEvaluator, Integer>();
+    private final Map<JBBPIntegerValueEvaluator, Boolean> scriptEvaluators = new IdentityHashMap<JBBPIntegerValueEvaluator, Boolean>();
+    private final List<JBBPFieldTypeParameterContainer> customTypes = new ArrayList<JBBPFieldTypeParameterContainer>();
+
+    /**
+     * Constructor.
+     *
+     * @param parser    the parser to be converted, must not be null
+     * @param className internal name of the result class, must not be null
+     */
+    ParserClassGenerator(final JBBPParser parser, final String className) {
+        super(parser.getFlags(), parser.getCompiledBlock());
+        this.parser = parser;
+        this.classFile = new ClassFileWriter(className, toInternalName(AbstractGeneratedParser.class));
+        final JBBPIntegerValueEvaluator[] blockEvaluators = parser.getCompiledBlock().getArraySizeEvaluators();
+        if (blockEvaluators != null) {
+            for (final JBBPIntegerValueEvaluator e : blockEvaluators) {
+                this.scriptEvaluators.put(e, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Generate the class and make its instance.
+     *
+     * @param loader the loader to define the class, must not be null
+     * @return instance of the generated parser, must not be null
+     * @throws Exception if the class can't be generated or loaded
+     */
+    AbstractGeneratedParser generate(final Loader loader) throws Exception {
+        this.visit();
+        final Class<?> klazz = loader.define(this.classFile.getClassName().replace('/', '.'), this.classFile.toByteArray(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL | ClassFileWriter.ACC_SUPER));
+        return (AbstractGeneratedParser) klazz.getConstructor(JBBPParser.class, JBBPNamedFieldInfo[].class, JBBPIntegerValueEvaluator[].class, JBBPFieldTypeParameterContainer[].class)
+                .newInstance(this.parser,
+                        this.names.toArray(new JBBPNamedFieldInfo[this.names.size()]),
+                        this.evaluators.toArray(new JBBPIntegerValueEvaluator[this.evaluators.size()]),
+                        this.customTypes.toArray(new JBBPFieldTypeParameterContainer[this.customTypes.size()]));
+    }
+
+    private Body getBody() {
+        return this.bodyStack.get(0);
+    }
+
+    private CodeWriter code() {
+        return this.getBody().code;
+    }
+
+    @Override
+    public void visitStart() {
+        this.bodyStack.clear();
+        this.bodyStack.add(new Body("parseBody", null, null, false, 0));
+
+        final CodeWriter constructor = new CodeWriter(this.classFile, 5);
+        constructor.aload(0).aload(1).aload(2).aload(3).aload(4)
+                .invokeSpecial(toInternalName(AbstractGeneratedParser.class), "<init>", CONSTRUCTOR_DESCRIPTOR)
+                .op(RETURN);
+        this.classFile.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, constructor);
+    }
+
+    @Override
+    public void visitEnd() {
+        final Body root = this.bodyStack.remove(0);
+        root.finish(ClassFileWriter.ACC_PROTECTED | ClassFileWriter.ACC_FINAL);
+    }
+
+    private void beginItem() {
+        if (this.isFlagSkipRemainingFieldsIfEOF()) {
+            final Body body = this.getBody();
+            final Label hasData = new Label();
+            body.code.aload(LOCAL_IN).invoke(STREAM_HAS_AVAILABLE_DATA).jump(IFNE, hasData)
+                    .aload(body.fieldsLocal).pushInt(body.fieldCounter).invoke(HELPERS.get("truncate")).op(ARETURN)
+                    .mark(hasData);
+        }
+    }
+
+    private Label beginField() {
+        final Body body = this.getBody();
+        final Label start = new Label();
+        body.code.mark(start).aload(body.fieldsLocal).pushInt(body.fieldCounter++);
+        return start;
+    }
+
+    private void endField(final Label start, final JBBPNamedFieldInfo name) {
+        final Body body = this.getBody();
+        body.code.op(AASTORE);
+        if (name != null) {
+            final Label end = new Label();
+            body.code.mark(end);
+            body.errorHandlers.add(new ErrorHandler(start, end, name));
+        }
+    }
+
+    private void loadName(final JBBPNamedFieldInfo name) {
+        loadName(code(), name);
+    }
+
+    private void loadName(final CodeWriter code, final JBBPNamedFieldInfo name) {
+        if (name == null) {
+            code.op(ACONST_NULL);
+        } else {
+            Integer index = this.nameIndexes.get(name);
+            if (index == null) {
+                index = this.names.size();
+                this.names.add(name);
+                this.nameIndexes.put(name, index);
+            }
+            code.aload(0).getField(GETFIELD, AbstractGeneratedParser.class, "names", JBBPNamedFieldInfo[].class).pushInt(index).op(AALOAD);
+        }
+    }
+
+    private boolean isExpression(final JBBPIntegerValueEvaluator evaluator) {
+        return this.scriptEvaluators.containsKey(evaluator);
+    }
+
+    private void loadValue(final JBBPIntegerValueEvaluator evaluator, final int offsetInCompiledBlock) {
+        if (isExpression(evaluator)) {
+            Integer index = this.evaluatorIndexes.get(evaluator);
+            if (index == null) {
+                index = this.evaluators.size();
+                this.evaluators.add(evaluator);
+                this.evaluatorIndexes.put(evaluator, index);
+            }
+            code().aload(0).pushInt(index).pushInt(offsetInCompiledBlock).aload(LOCAL_IN).aload(LOCAL_MAP).invoke(HELPERS.get("eval"));
+        } else {
+            code().pushInt(evaluator.eval(null, offsetInCompiledBlock, this.compiledBlock, null));
+        }
+    }
+
+    private void loadArrayLength(final JBBPIntegerValueEvaluator arraySize, final boolean wholeStream, final int offsetInCompiledBlock, final JBBPNamedFieldInfo name) {
+        if (wholeStream) {
+            code().pushInt(-1);
+        } else {
+            loadValue(arraySize, offsetInCompiledBlock);
+            if (isExpression(arraySize)) {
+                loadName(name);
+                code().invoke(HELPERS.get("arrayLength"));
+            }
+        }
+    }
+
+    private void loadBitNumber(final JBBPIntegerValueEvaluator bitNumber, final int offsetInCompiledBlock) {
+        if (isExpression(bitNumber)) {
+            loadValue(bitNumber, offsetInCompiledBlock);
+            code().invoke(BIT_NUMBER_DECODE);
+        } else {
+            code().getStaticEnum(JBBPBitNumber.decode(bitNumber.eval(null, offsetInCompiledBlock, this.compiledBlock, null)));
+        }
+    }
+
+    private boolean isWholeStream(final JBBPIntegerValueEvaluator arraySize, final boolean wholeStreamFlag) {
+        return wholeStreamFlag || (arraySize != null && !isExpression(arraySize) && arraySize.eval(null, 0, null, null) < 0);
+    }
+
+    @Override
+    public void visitActionItem(final int offsetInCompiledBlock, final int actionType, final JBBPIntegerValueEvaluator nullableArgument) {
+        beginItem();
+        switch (actionType & 0xF) {
+            case JBBPCompiler.CODE_RESET_COUNTER: {
+                code().aload(LOCAL_IN).invoke(STREAM_RESET_COUNTER);
+            }
+            break;
+            case JBBPCompiler.CODE_ALIGN: {
+                code().aload(LOCAL_IN);
+                loadValue(nullableArgument, offsetInCompiledBlock);
+                code().invoke(HELPERS.get("align"));
+            }
+            break;
+            case JBBPCompiler.CODE_SKIP: {
+                code().aload(LOCAL_IN);
+                loadValue(nullableArgument, offsetInCompiledBlock);
+                code().invoke(HELPERS.get("skip"));
+            }
+            break;
+            default: {
+                throw new Error("Detected unknown action, contact developer!");
+            }
+        }
+    }
+
+    @Override
+    public void visitPrimitiveField(final int offsetInCompiledBlock, final int primitiveType, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPByteOrder byteOrder, final boolean readWholeStreamAsArray, final JBBPIntegerValueEvaluator nullableArraySize) {
+        final String helper;
+        switch (primitiveType) {
+            case JBBPCompiler.CODE_BOOL:
+                helper = "readBool";
+                break;
+            case JBBPCompiler.CODE_BYTE:
+                helper = "readByte";
+                break;
+            case JBBPCompiler.CODE_UBYTE:
+                helper = "readUByte";
+                break;
+            case JBBPCompiler.CODE_SHORT:
+                helper = "readShort";
+                break;
+            case JBBPCompiler.CODE_USHORT:
+                helper = "readUShort";
+                break;
+            case JBBPCompiler.CODE_INT:
+                helper = "readInt";
+                break;
+            case JBBPCompiler.CODE_LONG:
+                helper = "readLong";
+                break;
+            default:
+                throw new Error("Unexpected primitive type, contact developer! [" + primitiveType + ']');
+        }
+
+        beginItem();
+        final Label start = beginField();
+        code().aload(LOCAL_IN);
+        loadName(nullableNameFieldInfo);
+        final Method method;
+        if (nullableArraySize == null) {
+            method = HELPERS.get(helper);
+            if (primitiveType != JBBPCompiler.CODE_BOOL && primitiveType != JBBPCompiler.CODE_BYTE && primitiveType != JBBPCompiler.CODE_UBYTE) {
+                code().getStaticEnum(byteOrder);
+            }
+            code().aload(LOCAL_MAP);
+        } else {
+            method = HELPERS.get(helper + "Array");
+            loadArrayLength(nullableArraySize, isWholeStream(nullableArraySize, readWholeStreamAsArray), offsetInCompiledBlock, nullableNameFieldInfo);
+            if (primitiveType != JBBPCompiler.CODE_BOOL) {
+                code().getStaticEnum(byteOrder);
+            }
+        }
+        code().invoke(method);
+        endField(start, nullableNameFieldInfo);
+    }
+
+    @Override
+    public void visitBitField(final int offsetInCompiledBlock, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPIntegerValueEvaluator notNullFieldSize, final JBBPIntegerValueEvaluator nullableArraySize) {
+        beginItem();
+        final Label start = beginField();
+        code().aload(LOCAL_IN);
+        loadName(nullableNameFieldInfo);
+        if (nullableArraySize == null) {
+            loadBitNumber(notNullFieldSize, offsetInCompiledBlock);
+            code().aload(LOCAL_MAP).invoke(HELPERS.get("readBit"));
+        } else {
+            loadArrayLength(nullableArraySize, isWholeStream(nullableArraySize, false), offsetInCompiledBlock, nullableNameFieldInfo);
+            loadBitNumber(notNullFieldSize, offsetInCompiledBlock);
+            code().invoke(HELPERS.get("readBitArray"));
+        }
+        endField(start, nullableNameFieldInfo);
+    }
+
+    @Override
+    public void visitVarField(final int offsetInCompiledBlock, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPByteOrder byteOrder, final boolean readWholeStreamIntoArray, final JBBPIntegerValueEvaluator nullableArraySizeEvaluator, final JBBPIntegerValueEvaluator extraDataValueEvaluator) {
+        beginItem();
+        final Label start = beginField();
+        code().aload(LOCAL_PROCESSOR).aload(LOCAL_IN);
+        loadName(nullableNameFieldInfo);
+        if (nullableArraySizeEvaluator == null) {
+            loadValue(extraDataValueEvaluator, offsetInCompiledBlock);
+            code().getStaticEnum(byteOrder).aload(LOCAL_MAP).invoke(HELPERS.get("readVar"));
+        } else {
+            loadArrayLength(nullableArraySizeEvaluator, isWholeStream(nullableArraySizeEvaluator, readWholeStreamIntoArray), offsetInCompiledBlock, nullableNameFieldInfo);
+            loadValue(extraDataValueEvaluator, offsetInCompiledBlock);
+            code().getStaticEnum(byteOrder).aload(LOCAL_MAP).invoke(HELPERS.get("readVarArray"));
+        }
+        endField(start, nullableNameFieldInfo);
+    }
+
+    @Override
+    public void visitCustomField(final int offsetInCompiledBlock, final JBBPFieldTypeParameterContainer notNullFieldType, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPByteOrder byteOrder, final boolean readWholeStream, final JBBPIntegerValueEvaluator nullableArraySizeEvaluator, final JBBPIntegerValueEvaluator extraDataValueEvaluator) {
+        final int typeIndex = this.customTypes.size();
+        this.customTypes.add(notNullFieldType);
+
+        final boolean wholeStream = nullableArraySizeEvaluator != null && isWholeStream(nullableArraySizeEvaluator, readWholeStream);
+
+        beginItem();
+        final Label start = beginField();
+        code().aload(0).aload(LOCAL_IN).pushInt(typeIndex);
+        loadName(nullableNameFieldInfo);
+        loadValue(extraDataValueEvaluator, offsetInCompiledBlock);
+        code().pushInt(wholeStream ? 1 : 0);
+        if (nullableArraySizeEvaluator == null) {
+            code().pushInt(-1);
+        } else if (wholeStream) {
+            code().pushInt(0);
+        } else {
+            loadArrayLength(nullableArraySizeEvaluator, false, offsetInCompiledBlock, nullableNameFieldInfo);
+        }
+        code().aload(LOCAL_MAP).invoke(HELPERS.get("readCustom"));
+        endField(start, nullableNameFieldInfo);
+    }
+
+    @Override
+    public void visitStructureStart(final int offsetInCompiledBlock, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPIntegerValueEvaluator nullableArraySize) {
+        beginItem();
+        this.bodyStack.add(0, new Body("struct" + offsetInCompiledBlock, nullableNameFieldInfo, nullableArraySize, nullableArraySize != null && isWholeStream(nullableArraySize, false), offsetInCompiledBlock));
+    }
+
+    private void callBody(final Body body) {
+        code().aload(0).aload(LOCAL_IN).aload(LOCAL_MAP).aload(LOCAL_PROCESSOR).invokeSpecial(this.classFile.getClassName(), body.methodName, BODY_DESCRIPTOR);
+    }
+
+    @Override
+    public void visitStructureEnd(final int offsetInCompiledBlock, final JBBPNamedFieldInfo nullableNameFieldInfo) {
+        final Body struct = this.bodyStack.remove(0);
+        struct.finish(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL);
+
+        final CodeWriter code = code();
+        final JBBPNamedFieldInfo name = struct.name;
+
+        if (struct.arraySize == null) {
+            final Label start = beginField();
+            loadName(name);
+            callBody(struct);
+            code.invoke(HELPERS.get("struct"));
+            endField(start, name);
+        } else if (struct.wholeStream) {
+            final Label start = new Label();
+            final Label loop = new Label();
+            final Label end = new Label();
+            final int list = code.newLocal();
+            code.mark(start).type(NEW, ArrayList.class).op(DUP).invokeSpecial(toInternalName(ArrayList.class), "<init>", "()V").astore(list)
+                    .mark(loop).aload(LOCAL_IN).invoke(STREAM_HAS_AVAILABLE_DATA).jump(IFEQ, end)
+                    .aload(list);
+            loadName(name);
+            callBody(struct);
+            code.invoke(HELPERS.get("struct")).invoke(LIST_ADD).op(POP).jump(GOTO, loop).mark(end);
+
+            beginField();
+            loadName(name);
+            code.aload(list).invoke(HELPERS.get("wholeStreamStructArray"));
+            endField(start, name);
+        } else {
+            final Label start = new Label();
+            final Label loop = new Label();
+            final Label end = new Label();
+            final int length = code.newLocal();
+            final int array = code.newLocal();
+            final int index = code.newLocal();
+
+            code.mark(start);
+            loadArrayLength(struct.arraySize, false, struct.offset, name);
+            code.istore(length)
+                    .iload(length).type(ANEWARRAY, JBBPFieldStruct.class).astore(array)
+                    .pushInt(0).istore(index)
+                    .mark(loop).iload(index).iload(length).jump(IF_ICMPGE, end)
+                    .aload(array).iload(index);
+            loadName(name);
+            callBody(struct);
+            code.invoke(HELPERS.get("struct")).op(AASTORE).iinc(index, 1).jump(GOTO, loop).mark(end);
+
+            beginField();
+            loadName(name);
+            code.aload(array).invoke(HELPERS.get("structArray"));
+            endField(start, name);
+        }
+    }
+
+    /**
+     * Generated method for a structure.
+     */
+    private final class Body {
+        private final String methodName;
+        private final JBBPNamedFieldInfo name;
+        private final JBBPIntegerValueEvaluator arraySize;
+        private final boolean wholeStream;
+        private final int offset;
+        private final CodeWriter code;
+        private final int fieldsLocal;
+        private final int fieldNumberPosition;
+        private final List<ErrorHandler> errorHandlers = new ArrayList<ErrorHandler>();
+        private int fieldCounter;
+
+        private Body(final String methodName, final JBBPNamedFieldInfo name, final JBBPIntegerValueEvaluator arraySize, final boolean wholeStream, final int offset) {
+            this.methodName = methodName;
+            this.name = name;
+            this.arraySize = arraySize;
+            this.wholeStream = wholeStream;
+            this.offset = offset;
+            this.code = new CodeWriter(classFile, BODY_ARGUMENTS_SLOTS);
+            this.fieldsLocal = this.code.newLocal();
+            this.fieldNumberPosition = this.code.pushPatchableShort();
+            this.code.type(ANEWARRAY, JBBPAbstractField.class).astore(this.fieldsLocal);
+        }
+
+        private void finish(final int access) {
+            if (this.fieldCounter > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many fields in structure : " + this.fieldCounter);
+            }
+            this.code.patchU2(this.fieldNumberPosition, this.fieldCounter);
+            this.code.aload(this.fieldsLocal).op(ARETURN);
+            for (final ErrorHandler h : this.errorHandlers) {
+                final Label handler = new Label();
+                this.code.mark(handler);
+                this.code.addExceptionHandler(h.start, h.end, handler, IOException.class);
+                loadName(this.code, h.name);
+                this.code.invoke(HELPERS.get("parsingError")).op(ATHROW);
+            }
+            classFile.addMethod(access, this.methodName, BODY_DESCRIPTOR, this.code);
+        }
+    }
+
+    private static final class ErrorHandler {
+        private final Label start;
+        private final Label end;
+        private final JBBPNamedFieldInfo name;
+
+        private ErrorHandler(final Label start, final Label end, final JBBPNamedFieldInfo name) {
+            this.start = start;
+            this.end = end;
+            this.name = name;
+        }
+    }
+
+    /**
+     * Loader of generated classes.
+     */
+    interface Loader {
+        Class<?> define(String name, byte[] classBody);
+    }
+}
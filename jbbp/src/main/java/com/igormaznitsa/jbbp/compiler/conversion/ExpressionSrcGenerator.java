@@ -0,0 +1,221 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler.conversion;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Auxiliary class to convert array size and other expressions of compiled
+ * blocks into Java source expressions, it is shared by source converters.
+ *
+ * @since 1.3.1
+ */
+final class ExpressionSrcGenerator {
+
+    private ExpressionSrcGenerator() {
+    }
+
+    /**
+     * Convert an evaluator into string representation
+     *
+     * @param compiledBlock    the compiled block contains the evaluator, must not be null
+     * @param offsetInBlock    offset of the data in the compiled block
+     * @param evaluator        the evaluator to be converted, must not be null
+     * @param argumentProvider provider of sources for expression arguments, must not be null
+     * @return the evaluator string representation, must not be null
+     */
+    static String evaluatorToString(final JBBPCompiledBlock compiledBlock, final int offsetInBlock, final JBBPIntegerValueEvaluator evaluator, final ArgumentProvider argumentProvider) {
+        final StringBuilder buffer = new StringBuilder();
+
+        final ExpressionEvaluatorVisitor visitor = new ExpressionEvaluatorVisitor() {
+            private final List<Object> stack = new ArrayList<Object>();
+
+            @Override
+            public ExpressionEvaluatorVisitor visitStart() {
+                this.stack.clear();
+                return this;
+            }
+
+            @Override
+            public ExpressionEvaluatorVisitor visitSpecial(final Special specialField) {
+                this.stack.add(specialField);
+                return this;
+            }
+
+            @Override
+            public ExpressionEvaluatorVisitor visitField(final JBBPNamedFieldInfo nullableNameFieldInfo, final String nullableExternalFieldName) {
+                if (nullableNameFieldInfo != null) {
+                    this.stack.add(nullableNameFieldInfo);
+                } else if (nullableExternalFieldName != null) {
+                    this.stack.add(nullableExternalFieldName);
+                }
+                return this;
+            }
+
+            @Override
+            public ExpressionEvaluatorVisitor visitOperator(final Operator operator) {
+                this.stack.add(operator);
+                return this;
+            }
+
+            @Override
+            public ExpressionEvaluatorVisitor visitConstant(final int value) {
+                this.stack.add(value);
+                return this;
+            }
+
+            private String arg2str(final Object obj) {
+                if (obj instanceof ExprTreeItem) {
+                    return obj.toString();
+                } else if (obj instanceof Special) {
+                    switch ((Special) obj) {
+                        case STREAM_COUNTER:
+                            return argumentProvider.makeStreamCounter();
+                        default:
+                            throw new Error("Unexpected special");
+                    }
+                } else if (obj instanceof Integer) {
+                    if ((Integer) obj < 0) {
+                        return '(' + obj.toString() + ')';
+                    } else {
+                        return obj.toString();
+                    }
+                } else if (obj instanceof String) {
+                    return argumentProvider.makeExternalValue((String) obj);
+                } else if (obj instanceof JBBPNamedFieldInfo) {
+                    return argumentProvider.makeFieldValue((JBBPNamedFieldInfo) obj);
+                } else {
+                    return null;
+                }
+            }
+
+            @Override
+            public ExpressionEvaluatorVisitor visitEnd() {
+                buffer.setLength(0);
+
+                for (int i = 0; i < this.stack.size(); i++) {
+                    if (this.stack.get(i) instanceof Operator) {
+                        final Operator op = (Operator) this.stack.remove(i);
+                        i--;
+                        ExprTreeItem newItem = new ExprTreeItem(op);
+                        for (int j = 0; j < op.argsNumber; j++) {
+                            final Object val = this.stack.remove(i);
+                            i--;
+                            if (newItem.right == null) {
+                                newItem.right = val;
+                            } else {
+                                newItem.left = val;
+                            }
+                        }
+                        i++;
+                        this.stack.add(i, newItem);
+                    }
+                }
+
+                if (this.stack.size() != 1) {
+                    throw new IllegalStateException("Stack must have only element");
+                }
+
+                final Object result = this.stack.remove(0);
+                if (result instanceof ExprTreeItem) {
+                    buffer.append('(').append(result.toString()).append(')');
+                } else {
+                    buffer.append(arg2str(result));
+                }
+
+                return this;
+            }
+
+            class ExprTreeItem {
+
+                Operator op;
+                Object left;
+                Object right;
+
+                ExprTreeItem(Operator op) {
+                    this.op = op;
+                }
+
+                boolean doesNeedBrackets(Object obj) {
+                    if (obj == null || !(obj instanceof ExprTreeItem)) {
+                        return false;
+                    }
+                    final ExprTreeItem that = (ExprTreeItem) obj;
+
+                    return that.op.priority <= this.op.priority || ((that.op == Operator.LSHIFT || that.op == Operator.RSHIFT || that.op == Operator.URSHIFT) && (this.op == Operator.LSHIFT || this.op == Operator.RSHIFT || this.op == Operator.URSHIFT));
+                }
+
+                @Override
+                public String toString() {
+                    String leftStr = arg2str(this.left);
+                    String rightStr = arg2str(this.right);
+                    if (doesNeedBrackets(this.left)) {
+                        leftStr = '(' + leftStr + ')';
+                    }
+                    if (doesNeedBrackets(this.right)) {
+                        rightStr = '(' + rightStr + ')';
+                    }
+                    return (leftStr == null ? "" : leftStr) + this.op.text + (rightStr == null ? "" : rightStr);
+                }
+            }
+        };
+
+        evaluator.visitItems(compiledBlock, offsetInBlock, visitor);
+
+        String result = buffer.toString();
+        if (result.startsWith("(") && result.endsWith(")")) {
+            try{
+                result = Integer.toString(Integer.parseInt(result.substring(1,result.length()-1).trim()));
+            }catch(NumberFormatException ex){
+                // ignore the excepton because it is checking exception
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Provider of sources for arguments met in expressions.
+     */
+    interface ArgumentProvider {
+        /**
+         * Make source to get the stream counter value as integer.
+         *
+         * @return the source text, must not be null
+         */
+        String makeStreamCounter();
+
+        /**
+         * Make source to get an external value as integer.
+         *
+         * @param name name of the external value, must not be null
+         * @return the source text, must not be null
+         */
+        String makeExternalValue(String name);
+
+        /**
+         * Make source to get value of a named field as integer.
+         *
+         * @param fieldInfo info about the field, must not be null
+         * @return the source text, must not be null
+         */
+        String makeFieldValue(JBBPNamedFieldInfo fieldInfo);
+    }
+}
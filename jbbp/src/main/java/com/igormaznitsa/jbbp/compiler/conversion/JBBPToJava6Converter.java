@@ -555,173 +555,43 @@ public final class JBBPToJava6Converter extends CompiledBlockVisitor {
      * @return the evaluator string representation, must not be null
      */
     private String evaluatorToString(final String streamName, final int offsetInBlock, final JBBPIntegerValueEvaluator evaluator, final AtomicInteger detectedFlagsSet) {
-        final StringBuilder buffer = new StringBuilder();
-
-        final ExpressionEvaluatorVisitor visitor = new ExpressionEvaluatorVisitor() {
-            private final List<Object> stack = new ArrayList<Object>();
-
-            @Override
-            public ExpressionEvaluatorVisitor visitStart() {
-                this.stack.clear();
-                return this;
-            }
-
+        return ExpressionSrcGenerator.evaluatorToString(this.compiledBlock, offsetInBlock, evaluator, new ExpressionSrcGenerator.ArgumentProvider() {
             @Override
-            public ExpressionEvaluatorVisitor visitSpecial(final Special specialField) {
-                this.stack.add(specialField);
-                return this;
-            }
-
-            @Override
-            public ExpressionEvaluatorVisitor visitField(final JBBPNamedFieldInfo nullableNameFieldInfo, final String nullableExternalFieldName) {
-                if (nullableNameFieldInfo != null) {
-                    this.stack.add(nullableNameFieldInfo);
-                } else if (nullableExternalFieldName != null) {
-                    detectedFlagsSet.set(detectedFlagsSet.get() | FLAG_DETECTED_EXTERNAL_FIELDS);
-                    this.stack.add(nullableExternalFieldName);
-                }
-                return this;
+            public String makeStreamCounter() {
+                return "(int)" + streamName + ".getCounter()";
             }
 
             @Override
-            public ExpressionEvaluatorVisitor visitOperator(final Operator operator) {
-                this.stack.add(operator);
-                return this;
-            }
-
-            @Override
-            public ExpressionEvaluatorVisitor visitConstant(final int value) {
-                this.stack.add(value);
-                return this;
-            }
-
-            private String arg2str(final Object obj) {
-                if (obj instanceof ExprTreeItem) {
-                    return obj.toString();
-                } else if (obj instanceof Special) {
-                    switch ((Special) obj) {
-                        case STREAM_COUNTER:
-                            return "(int)" + streamName + ".getCounter()";
-                        default:
-                            throw new Error("Unexpected special");
-                    }
-                } else if (obj instanceof Integer) {
-                    if ((Integer) obj < 0) {
-                        return '(' + obj.toString() + ')';
-                    } else {
-                        return obj.toString();
-                    }
-                } else if (obj instanceof String) {
-                    return String.format("%s.getNamedValue(this, \"%s\")", (getCurrentStruct().isRoot() ? "this" : "this." + NAME_ROOT_STRUCT), obj.toString());
-                } else if (obj instanceof JBBPNamedFieldInfo) {
-                    final NamedFieldInfo namedFieldInfo = foundNamedFields.get(obj);
-                    final String fieldPath = namedFieldInfo.makeSrcPath(getCurrentStruct());
-
-                    String result;
-                    switch (namedFieldInfo.fieldType) {
-                        case BOOL: {
-                            result = '(' + fieldPath + "?1:0)";
-                        }
-                        break;
-                        case CUSTOM:
-                        case VAR: {
-                            result = "((JBBPNumericField)" + fieldPath + ").getAsInt()";
-                        }
-                        break;
-                        default: {
-                            result = "(int)" + fieldPath;
-                        }
-                        break;
-                    }
-
-                    return result;
-                } else {
-                    return null;
-                }
+            public String makeExternalValue(final String name) {
+                detectedFlagsSet.set(detectedFlagsSet.get() | FLAG_DETECTED_EXTERNAL_FIELDS);
+                return String.format("%s.getNamedValue(this, \"%s\")", (getCurrentStruct().isRoot() ? "this" : "this." + NAME_ROOT_STRUCT), name);
             }
 
             @Override
-            public ExpressionEvaluatorVisitor visitEnd() {
-                buffer.setLength(0);
-
-                for (int i = 0; i < this.stack.size(); i++) {
-                    if (this.stack.get(i) instanceof Operator) {
-                        final Operator op = (Operator) this.stack.remove(i);
-                        i--;
-                        ExprTreeItem newItem = new ExprTreeItem(op);
-                        for (int j = 0; j < op.argsNumber; j++) {
-                            final Object val = this.stack.remove(i);
-                            i--;
-                            if (newItem.right == null) {
-                                newItem.right = val;
-                            } else {
-                                newItem.left = val;
-                            }
-                        }
-                        i++;
-                        this.stack.add(i, newItem);
+            public String makeFieldValue(final JBBPNamedFieldInfo fieldInfo) {
+                final NamedFieldInfo namedFieldInfo = foundNamedFields.get(fieldInfo);
+                final String fieldPath = namedFieldInfo.makeSrcPath(getCurrentStruct());
+
+                String result;
+                switch (namedFieldInfo.fieldType) {
+                    case BOOL: {
+                        result = '(' + fieldPath + "?1:0)";
                     }
-                }
-
-                if (this.stack.size() != 1) {
-                    throw new IllegalStateException("Stack must have only element");
-                }
-
-                final Object result = this.stack.remove(0);
-                if (result instanceof ExprTreeItem) {
-                    buffer.append('(').append(result.toString()).append(')');
-                } else {
-                    buffer.append(arg2str(result));
-                }
-
-                return this;
-            }
-
-            class ExprTreeItem {
-
-                Operator op;
-                Object left;
-                Object right;
-
-                ExprTreeItem(Operator op) {
-                    this.op = op;
-                }
-
-                boolean doesNeedBrackets(Object obj) {
-                    if (obj == null || !(obj instanceof ExprTreeItem)) {
-                        return false;
+                    break;
+                    case CUSTOM:
+                    case VAR: {
+                        result = "((JBBPNumericField)" + fieldPath + ").getAsInt()";
                     }
-                    final ExprTreeItem that = (ExprTreeItem) obj;
-
-                    return that.op.priority <= this.op.priority || ((that.op == Operator.LSHIFT || that.op == Operator.RSHIFT || that.op == Operator.URSHIFT) && (this.op == Operator.LSHIFT || this.op == Operator.RSHIFT || this.op == Operator.URSHIFT));
-                }
-
-                @Override
-                public String toString() {
-                    String leftStr = arg2str(this.left);
-                    String rightStr = arg2str(this.right);
-                    if (doesNeedBrackets(this.left)) {
-                        leftStr = '(' + leftStr + ')';
-                    }
-                    if (doesNeedBrackets(this.right)) {
-                        rightStr = '(' + rightStr + ')';
+                    break;
+                    default: {
+                        result = "(int)" + fieldPath;
                     }
-                    return (leftStr == null ? "" : leftStr) + this.op.text + (rightStr == null ? "" : rightStr);
+                    break;
                 }
-            }
-        };
 
-        evaluator.visitItems(this.compiledBlock, offsetInBlock, visitor);
-
-        String result = buffer.toString();
-        if (result.startsWith("(") && result.endsWith(")")) {
-            try{
-                result = Integer.toString(Integer.parseInt(result.substring(1,result.length()-1).trim()));
-            }catch(NumberFormatException ex){
-                // ignore the excepton because it is checking exception
+                return result;
             }
-        }
-        return result;
+        });
     }
 
     @Override
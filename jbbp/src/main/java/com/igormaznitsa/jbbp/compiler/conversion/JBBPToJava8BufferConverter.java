@@ -0,0 +1,1057 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler.conversion;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.compiler.tokenizer.JBBPFieldTypeParameterContainer;
+import com.igormaznitsa.jbbp.compiler.varlen.JBBPIntegerValueEvaluator;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.utils.JavaSrcTextBuffer;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.igormaznitsa.jbbp.compiler.JBBPCompiler.*;
+
+/**
+ * Converter to produce Java class sources (1.8+) from JBBPParser, generated
+ * classes read and write data directly from byte buffers and byte arrays with
+ * explicit offset through {@link com.igormaznitsa.jbbp.io.JBBPByteBufferReader} and
+ * {@link com.igormaznitsa.jbbp.io.JBBPByteBufferWriter}. Positions of fields
+ * are analyzed during conversion and fields which are always byte aligned are
+ * read and written directly by buffer indexes, bit operations are used only for
+ * bit fields and fields placed after them. Variable and custom fields are not
+ * supported, if a parser contains external values in expressions then the
+ * result class will be abstract one.
+ *
+ * @since 1.3.1
+ */
+@SuppressWarnings("SpellCheckingInspection")
+public final class JBBPToJava8BufferConverter extends CompiledBlockVisitor {
+
+    private static final int FLAG_DETECTED_EXTERNAL_FIELDS = 1;
+
+    /**
+     * Name of the field to be used as link to the root structure instance in
+     * child structures.
+     */
+    private static final String NAME_ROOT_STRUCT = "_Root_";
+    /**
+     * Name of the field to keep information about parser flags.
+     */
+    private static final String NAME_PARSER_FLAGS = "_ParserFlags_";
+    /**
+     * Name of the input reader argument.
+     */
+    private static final String NAME_INPUT_STREAM = "In";
+    /**
+     * Name of the output writer argument.
+     */
+    private static final String NAME_OUTPUT_STREAM = "Out";
+    /**
+     * Detected flags.
+     */
+    private final AtomicInteger flagSet = new AtomicInteger();
+
+    /**
+     * Map of detected named fields to their name field info object.
+     */
+    private final Map<JBBPNamedFieldInfo, NamedFieldInfo> foundNamedFields = new HashMap<JBBPNamedFieldInfo, NamedFieldInfo>();
+    /**
+     * Counter of anonymous fields to generate unique names.
+     */
+    private final AtomicInteger anonymousFieldCounter = new AtomicInteger();
+    /**
+     * The List implements stack of current processing structures. The 0 contains
+     * the root.
+     */
+    private final List<Struct> structStack = new ArrayList<Struct>();
+    /**
+     * Text buffer for the special section.
+     */
+    private final JavaSrcTextBuffer specialSection = new JavaSrcTextBuffer();
+    /**
+     * The Builder instance to be used as the data source for the parser. It must
+     * not be null.
+     */
+    private final Builder builder;
+    /**
+     * Bit order of the parser.
+     */
+    private final JBBPBitOrder bitOrder;
+    /**
+     * Map of offsets in the compiled block to known bit offsets of fields, it is
+     * filled before conversion.
+     */
+    private Map<Integer, Integer> fieldBitOffsets;
+    /**
+     * The Field contains conversion result after process end.
+     */
+    private String result;
+
+    /**
+     * The Only Constructor based on a builder instance.
+     *
+     * @param builder a builder instance, must not be null
+     */
+    private JBBPToJava8BufferConverter(final Builder builder) {
+        super(builder.parserFlags, builder.srcParser.getCompiledBlock());
+        this.builder = builder;
+        this.bitOrder = builder.srcParser.getBitOrder();
+    }
+
+    /**
+     * Make new builder.
+     *
+     * @param parser parser instance to be used as the base for translation, must not be
+     *               null
+     * @return the new builder instance, must not be null.
+     */
+    public static Builder makeBuilder(final JBBPParser parser) {
+        return new Builder(parser);
+    }
+
+    /**
+     * Do conversion.
+     *
+     * @return generated class with needed parameters as text, must not be null.
+     * @throws IllegalArgumentException if the parser contains var or custom fields
+     */
+    public String convert() {
+        this.fieldBitOffsets = new BitOffsetAnalyzer(this.parserFlags, this.compiledBlock).analyze();
+        return JBBPToJava8BufferConverter.class.cast(this.visit()).getResult();
+    }
+
+    /**
+     * Check that a field is always byte aligned so that it can be processed
+     * directly by buffer indexes.
+     *
+     * @param offsetInCompiledBlock offset of the field in the compiled block
+     * @return true if the field is always aligned, false otherwise
+     */
+    private boolean isAligned(final int offsetInCompiledBlock) {
+        final Integer bitOffset = this.fieldBitOffsets.get(offsetInCompiledBlock);
+        return this.bitOrder == JBBPBitOrder.LSB0 && bitOffset != null && bitOffset == 0;
+    }
+
+    private void registerNamedField(final JBBPNamedFieldInfo fieldInfo, final FieldType fieldType) {
+        if (fieldInfo != null) {
+            if (this.foundNamedFields.containsKey(fieldInfo)) {
+                throw new Error("Detected duplication of named field : " + fieldInfo);
+            }
+            this.foundNamedFields.put(fieldInfo, new NamedFieldInfo(fieldInfo, this.getCurrentStruct(), fieldType));
+        }
+    }
+
+    private Struct getCurrentStruct() {
+        return this.structStack.get(0);
+    }
+
+    @Override
+    public void visitStart() {
+        this.flagSet.set(0);
+        this.foundNamedFields.clear();
+        this.anonymousFieldCounter.set(1234);
+        this.specialSection.clean();
+        this.structStack.clear();
+
+        this.structStack.add(new Struct(null, this.builder.mainClassName, "public"));
+    }
+
+    /**
+     * Get result of the conversion process.
+     *
+     * @return the result, it will not be null if the process completed without
+     * errors.
+     */
+    public String getResult() {
+        return this.result;
+    }
+
+    @Override
+    public void visitEnd() {
+        final JavaSrcTextBuffer buffer = new JavaSrcTextBuffer();
+
+        if (this.builder.headComment != null) {
+            buffer.printCommentMultiLinesWithIndent(this.builder.headComment);
+        }
+
+        if (this.builder.mainClassPackage != null && this.builder.mainClassPackage.length() != 0) {
+            buffer.print("package ").print(this.builder.mainClassPackage).println(";");
+        }
+
+        buffer.println();
+
+        buffer.println("import com.igormaznitsa.jbbp.io.*;");
+        buffer.println("import java.io.IOException;");
+        buffer.println("import java.nio.ByteBuffer;");
+        buffer.println("import java.util.*;");
+
+        buffer.println();
+
+        this.specialSection.println();
+        this.specialSection.printJavaDocLinesWithIndent("The Constant contains parser flags\n@see JBBPParser#FLAG_SKIP_REMAINING_FIELDS_IF_EOF");
+        this.specialSection.indent().printf("protected static final int %s = %d;", NAME_PARSER_FLAGS, this.parserFlags);
+
+        final JavaSrcTextBuffer specialMethods = new JavaSrcTextBuffer();
+        if ((this.flagSet.get() & FLAG_DETECTED_EXTERNAL_FIELDS) != 0) {
+            specialMethods.printJavaDocLinesWithIndent("Method is called from expressions to provide value\n@param sourceStruct source structure holding the field, must not be null\n@param valueName name of value to be provided, must not be null\n@return integer value for the named parameter");
+            specialMethods.println("public abstract int getNamedValue(Object sourceStruct, String valueName);");
+        }
+
+        final String specialMethodsText = specialMethods.toString();
+
+        final boolean hasAbstractMethods = (this.flagSet.get() & FLAG_DETECTED_EXTERNAL_FIELDS) != 0 || this.builder.doMainClassAbstract;
+
+        buffer.printJavaDocLinesWithIndent("Generated from JBBP script by internal JBBP Class Source Generator for byte buffers");
+
+        this.structStack.get(0).write(buffer,
+                hasAbstractMethods ? "abstract" : null,
+                this.builder.superClass,
+                this.builder.mainClassImplements,
+                this.builder.mapSubClassesInterfaces,
+                this.specialSection.toString(),
+                specialMethodsText.length() == 0 ? null : specialMethodsText,
+                this.builder.mainClassCustomText,
+                this.bitOrder
+        );
+
+        this.result = buffer.toString();
+    }
+
+    @Override
+    public void visitStructureStart(final int offsetInCompiledBlock, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPIntegerValueEvaluator nullableArraySize) {
+        final String structName = (nullableNameFieldInfo == null ? makeAnonymousStructName() : nullableNameFieldInfo.getFieldName()).toLowerCase(Locale.ENGLISH);
+        final String structBaseTypeName = structName.toUpperCase(Locale.ENGLISH);
+        final String arraySizeIn = nullableArraySize == null ? null : evaluatorToString(NAME_INPUT_STREAM, offsetInCompiledBlock, nullableArraySize);
+        final String arraySizeOut = nullableArraySize == null ? null : evaluatorToString(NAME_OUTPUT_STREAM, offsetInCompiledBlock, nullableArraySize);
+        final Struct newStruct = new Struct(this.getCurrentStruct(), structBaseTypeName, "public static");
+
+        final String fieldModifier = makeModifier(nullableNameFieldInfo);
+
+        final String structType;
+        if (nullableArraySize == null) {
+            structType = structBaseTypeName;
+            this.getCurrentStruct().getFields().indent().print(fieldModifier).printf(" %s %s;", structType, structName).println();
+            processSkipRemainingFlag();
+            this.getCurrentStruct().getReadFunc().indent()
+                    .printf("if ( this.%1$s == null) { this.%1$s = new %2$s(%3$s);}", structName, structType, this.structStack.size() == 1 ? "this" : "this." + NAME_ROOT_STRUCT)
+                    .printf(" this.%s.read(%s);%n", structName, NAME_INPUT_STREAM);
+            this.getCurrentStruct().getWriteFunc().indent().print(structName).printf(".write(%s);%n", NAME_OUTPUT_STREAM);
+        } else {
+            structType = structBaseTypeName + " []";
+            this.getCurrentStruct().getFields().indent().print(fieldModifier).printf(" %s %s;", structType, structName).println();
+            processSkipRemainingFlag();
+            if ("-1".equals(arraySizeIn)) {
+                this.getCurrentStruct().getReadFunc().indent()
+                        .printf("List<%3$s> __%1$s_tmplst__ = new ArrayList<%3$s>(); while (%5$s.hasAvailableData()){ __%1$s_tmplst__.add(new %3$s(%4$s).read(%5$s));} this.%1$s = __%1$s_tmplst__.toArray(new %3$s[__%1$s_tmplst__.size()]);__%1$s_tmplst__ = null;%n", structName, arraySizeIn, structBaseTypeName, (this.structStack.size() == 1 ? "this" : NAME_ROOT_STRUCT), NAME_INPUT_STREAM);
+                this.getCurrentStruct().getWriteFunc().indent().printf("for (int I=0;I<this.%1$s.length;I++){ this.%1$s[I].write(%2$s); }%n", structName, NAME_OUTPUT_STREAM);
+            } else {
+                this.getCurrentStruct().getReadFunc().indent()
+                        .printf("if (this.%1$s == null || this.%1$s.length != %2$s){ this.%1$s = new %3$s[%2$s]; for(int I=0;I<%2$s;I++){ this.%1$s[I] = new %3$s(%4$s);}}", structName, arraySizeIn, structBaseTypeName, (this.structStack.size() == 1 ? "this" : "this." + NAME_ROOT_STRUCT))
+                        .printf("for (int I=0;I<%2$s;I++){ this.%1$s[I].read(%3$s); }%n", structName, arraySizeIn, NAME_INPUT_STREAM);
+                this.getCurrentStruct().getWriteFunc().indent().printf("for (int I=0;I<%2$s;I++){ this.%1$s[I].write(%3$s); }%n", structName, arraySizeOut, NAME_OUTPUT_STREAM);
+            }
+        }
+
+        if (nullableNameFieldInfo != null && this.builder.addGettersSetters) {
+            final String interfaceForGetter = this.builder.mapSubClassesInterfaces.get(newStruct.getPath());
+            registerGetterSetter(interfaceForGetter == null ? structType : interfaceForGetter + (nullableArraySize == null ? "" : " []"), structName, false);
+        }
+
+        this.structStack.add(0, newStruct);
+    }
+
+    private void processSkipRemainingFlag() {
+        if (this.isFlagSkipRemainingFieldsIfEOF()) {
+            this.getCurrentStruct().getReadFunc().indent().println(String.format("if (!%s.hasAvailableData()) return this;", NAME_INPUT_STREAM));
+        }
+    }
+
+    @Override
+    public void visitStructureEnd(final int offsetInCompiledBlock, final JBBPNamedFieldInfo nullableNameFieldInfo) {
+        this.structStack.remove(0);
+    }
+
+    @Override
+    public void visitPrimitiveField(final int offsetInCompiledBlock, final int primitiveType, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPByteOrder byteOrder, final boolean readWholeStreamAsArray, final JBBPIntegerValueEvaluator nullableArraySize) {
+        final String fieldName = nullableNameFieldInfo == null ? makeAnonymousFieldName() : nullableNameFieldInfo.getFieldName();
+        final FieldType type = FieldType.findForCode(primitiveType);
+
+        registerNamedField(nullableNameFieldInfo, type);
+
+        final String arraySizeIn = nullableArraySize == null ? null : evaluatorToString(NAME_INPUT_STREAM, offsetInCompiledBlock, nullableArraySize);
+        final String arraySizeOut = nullableArraySize == null ? null : evaluatorToString(NAME_OUTPUT_STREAM, offsetInCompiledBlock, nullableArraySize);
+
+        final String fieldModifier = makeModifier(nullableNameFieldInfo);
+        processSkipRemainingFlag();
+
+        final String textFieldType;
+
+        if (nullableArraySize == null) {
+            final boolean aligned = isAligned(offsetInCompiledBlock);
+            textFieldType = type.asJavaSingleFieldType();
+            getCurrentStruct().getFields().printf("%s %s %s;%n", fieldModifier, textFieldType, fieldName);
+            getCurrentStruct().getReadFunc().println(String.format("this.%s = %s;", fieldName, type.makeReaderForSingleField(NAME_INPUT_STREAM, byteOrder, aligned)));
+            getCurrentStruct().getWriteFunc().print(type.makeWriterForSingleField(NAME_OUTPUT_STREAM, "this." + fieldName, byteOrder, aligned)).println(";");
+        } else {
+            textFieldType = type.asJavaArrayFieldType() + " []";
+            getCurrentStruct().getFields().printf("%s %s %s;%n", fieldModifier, textFieldType, fieldName);
+            getCurrentStruct().getReadFunc().printf("this.%s = %s;%n", fieldName, type.makeReaderForArray(NAME_INPUT_STREAM, arraySizeIn, byteOrder));
+            getCurrentStruct().getWriteFunc().print(type.makeWriterForArray(NAME_OUTPUT_STREAM, "this." + fieldName, readWholeStreamAsArray ? "-1" : arraySizeOut, byteOrder)).println(";");
+        }
+
+        if (nullableNameFieldInfo != null && this.builder.addGettersSetters) {
+            registerGetterSetter(textFieldType, fieldName, true);
+        }
+    }
+
+    private void registerGetterSetter(final String fieldType, final String fieldName, final boolean makeSetter) {
+        if (!this.getCurrentStruct().getGettersSetters().isEmpty()) {
+            this.getCurrentStruct().getGettersSetters().println();
+        }
+
+        if (makeSetter) {
+            this.getCurrentStruct().getGettersSetters().indent().printf("public void set%s(%s value) { this.%s = value;}%n", fieldName.toUpperCase(Locale.ENGLISH), fieldType, fieldName);
+        }
+
+        this.getCurrentStruct().getGettersSetters().indent().printf("public %s get%s() { return this.%s;}%n", fieldType, fieldName.toUpperCase(Locale.ENGLISH), fieldName);
+    }
+
+    @Override
+    public void visitBitField(final int offsetInCompiledBlock, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPIntegerValueEvaluator notNullFieldSize, final JBBPIntegerValueEvaluator nullableArraySize) {
+        final String fieldName = nullableNameFieldInfo == null ? makeAnonymousFieldName() : nullableNameFieldInfo.getFieldName();
+
+        registerNamedField(nullableNameFieldInfo, FieldType.BIT);
+
+        String sizeOfFieldIn = evaluatorToString(NAME_INPUT_STREAM, offsetInCompiledBlock, notNullFieldSize);
+        String sizeOfFieldOut = evaluatorToString(NAME_OUTPUT_STREAM, offsetInCompiledBlock, notNullFieldSize);
+        try {
+            sizeOfFieldIn = "JBBPBitNumber." + JBBPBitNumber.decode(Integer.parseInt(sizeOfFieldIn)).name();
+        } catch (NumberFormatException ex) {
+            sizeOfFieldIn = "JBBPBitNumber.decode(" + sizeOfFieldIn + ')';
+        }
+
+        try {
+            sizeOfFieldOut = "JBBPBitNumber." + JBBPBitNumber.decode(Integer.parseInt(sizeOfFieldOut)).name();
+        } catch (NumberFormatException ex) {
+            sizeOfFieldOut = "JBBPBitNumber.decode(" + sizeOfFieldOut + ')';
+        }
+
+        final String arraySizeIn = nullableArraySize == null ? null : evaluatorToString(NAME_INPUT_STREAM, offsetInCompiledBlock, nullableArraySize);
+        final String arraySizeOut = nullableArraySize == null ? null : evaluatorToString(NAME_OUTPUT_STREAM, offsetInCompiledBlock, nullableArraySize);
+
+        final String fieldModifier = makeModifier(nullableNameFieldInfo);
+
+        processSkipRemainingFlag();
+
+        if (arraySizeIn == null) {
+            getCurrentStruct().getReadFunc().indent().printf("this.%s = %s.readBitField(%s);%n", fieldName, NAME_INPUT_STREAM, sizeOfFieldIn);
+            getCurrentStruct().getWriteFunc().indent().printf("%s.writeBits(this.%s,%s);%n", NAME_OUTPUT_STREAM, fieldName, sizeOfFieldOut);
+        } else {
+            getCurrentStruct().getReadFunc().indent().printf("this.%s = %s.readBitsArray(%s,%s);%n", fieldName, NAME_INPUT_STREAM, arraySizeIn, sizeOfFieldIn);
+            getCurrentStruct().getWriteFunc().indent().printf("%s.writeBitsArray(this.%s,%s,%s);%n", NAME_OUTPUT_STREAM, fieldName, arraySizeOut, sizeOfFieldOut);
+        }
+
+        final String fieldType = nullableArraySize == null ? "byte" : "byte []";
+        getCurrentStruct().getFields().indent().printf("%s %s %s;%n", fieldModifier, fieldType, fieldName);
+
+        if (nullableNameFieldInfo != null && this.builder.addGettersSetters) {
+            registerGetterSetter(fieldType, fieldName, true);
+        }
+    }
+
+    private String makeAnonymousFieldName() {
+        return "_AField" + this.anonymousFieldCounter.getAndIncrement();
+    }
+
+    private String makeAnonymousStructName() {
+        return "_AStruct" + this.anonymousFieldCounter.getAndIncrement();
+    }
+
+    private String makeModifier(final JBBPNamedFieldInfo nullableNameFieldInfo) {
+        return nullableNameFieldInfo == null || this.builder.addGettersSetters ? "protected" : "public";
+    }
+
+    @Override
+    public void visitCustomField(final int offsetInCompiledBlock, final JBBPFieldTypeParameterContainer notNullFieldType, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPByteOrder byteOrder, final boolean readWholeStream, final JBBPIntegerValueEvaluator nullableArraySizeEvaluator, final JBBPIntegerValueEvaluator extraDataValueEvaluator) {
+        throw new IllegalArgumentException("Custom fields are not supported by the buffer converter [" + (nullableNameFieldInfo == null ? notNullFieldType.getTypeName() : nullableNameFieldInfo.getFieldPath()) + ']');
+    }
+
+    @Override
+    public void visitVarField(final int offsetInCompiledBlock, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPByteOrder byteOrder, final boolean readWholeStreamIntoArray, final JBBPIntegerValueEvaluator nullableArraySizeEvaluator, final JBBPIntegerValueEvaluator extraDataValueEvaluator) {
+        throw new IllegalArgumentException("Var fields are not supported by the buffer converter [" + (nullableNameFieldInfo == null ? "anonymous" : nullableNameFieldInfo.getFieldPath()) + ']');
+    }
+
+    /**
+     * Convert an evaluator into string representation
+     *
+     * @param streamName    name of the reader or the writer in the case, must not be null
+     * @param offsetInBlock offset of the data in the compiled block
+     * @param evaluator     the evaluator to be converted, must not be null
+     * @return the evaluator string representation, must not be null
+     */
+    private String evaluatorToString(final String streamName, final int offsetInBlock, final JBBPIntegerValueEvaluator evaluator) {
+        return ExpressionSrcGenerator.evaluatorToString(this.compiledBlock, offsetInBlock, evaluator, new ExpressionSrcGenerator.ArgumentProvider() {
+            @Override
+            public String makeStreamCounter() {
+                return "(int)" + streamName + ".getCounter()";
+            }
+
+            @Override
+            public String makeExternalValue(final String name) {
+                flagSet.set(flagSet.get() | FLAG_DETECTED_EXTERNAL_FIELDS);
+                return String.format("%s.getNamedValue(this, \"%s\")", (getCurrentStruct().isRoot() ? "this" : "this." + NAME_ROOT_STRUCT), name);
+            }
+
+            @Override
+            public String makeFieldValue(final JBBPNamedFieldInfo fieldInfo) {
+                final NamedFieldInfo namedFieldInfo = foundNamedFields.get(fieldInfo);
+                final String fieldPath = namedFieldInfo.makeSrcPath(getCurrentStruct());
+
+                final String result;
+                switch (namedFieldInfo.fieldType) {
+                    case BOOL: {
+                        result = '(' + fieldPath + "?1:0)";
+                    }
+                    break;
+                    case BIT: {
+                        result = '(' + fieldPath + " & 0xFF)";
+                    }
+                    break;
+                    default: {
+                        result = "(int)" + fieldPath;
+                    }
+                    break;
+                }
+
+                return result;
+            }
+        });
+    }
+
+    @Override
+    public void visitActionItem(final int offsetInCompiledBlock, final int actionType, final JBBPIntegerValueEvaluator nullableArgument) {
+        final String valueTxtIn = nullableArgument == null ? "1" : evaluatorToString(NAME_INPUT_STREAM, offsetInCompiledBlock, nullableArgument);
+        final String valueTxtOut = nullableArgument == null ? "1" : evaluatorToString(NAME_OUTPUT_STREAM, offsetInCompiledBlock, nullableArgument);
+
+        switch (actionType) {
+            case CODE_RESET_COUNTER: {
+                getCurrentStruct().getReadFunc().println(NAME_INPUT_STREAM + ".resetCounter();");
+                getCurrentStruct().getWriteFunc().println(NAME_OUTPUT_STREAM + ".resetCounter();");
+            }
+            break;
+            case CODE_ALIGN: {
+                getCurrentStruct().getReadFunc().indent().print(NAME_INPUT_STREAM + ".align(").print(valueTxtIn).println(");");
+                getCurrentStruct().getWriteFunc().indent().print(NAME_OUTPUT_STREAM + ".align(").print(valueTxtOut).println(");");
+            }
+            break;
+            case CODE_SKIP: {
+                getCurrentStruct().getReadFunc().indent().print(NAME_INPUT_STREAM + ".skip(").print(valueTxtIn).println(");");
+                getCurrentStruct().getWriteFunc().indent().print(NAME_OUTPUT_STREAM + ".writeZeroBytes(").print(valueTxtOut).println(");");
+            }
+            break;
+            default: {
+                throw new Error("Detected unknown action, contact developer!");
+            }
+        }
+    }
+
+    private enum FieldType {
+        BOOL(CODE_BOOL, "boolean", "boolean", "%s.readAlignedByte() != 0", "%s.readBoolean()", "%s.readBoolArray(%s)", "%s.writeAlignedByte(%s ? 1 : 0)", "%s.write(%s ? 1 : 0)", "%1$s.writeBoolArray(%2$s, %3$s)"),
+        BYTE(CODE_BYTE, "byte", "byte", "(byte)%s.readAlignedByte()", "(byte)%s.readByte()", "%s.readByteArray(%s, %s)", "%s.writeAlignedByte(%s)", "%s.write(%s)", "%1$s.writeBytes(%2$s, %3$s, %4$s)"),
+        UBYTE(CODE_UBYTE, "char", "byte", "(char)%s.readAlignedByte()", "(char)%s.readByte()", "%s.readByteArray(%s, %s)", "%s.writeAlignedByte(%s)", "%s.write(%s)", "%1$s.writeBytes(%2$s, %3$s, %4$s)"),
+        SHORT(CODE_SHORT, "short", "short", "(short)%s.readAlignedUnsignedShort(%s)", "(short)%s.readUnsignedShort(%s)", "%s.readShortArray(%s,%s)", "%s.writeAlignedShort(%s,%s)", "%s.writeShort(%s,%s)", "%1$s.writeShortArray(%2$s, %3$s, %4$s)"),
+        USHORT(CODE_USHORT, "char", "char", "(char)%s.readAlignedUnsignedShort(%s)", "(char)%s.readUnsignedShort(%s)", "%s.readUShortArray(%s,%s)", "%s.writeAlignedShort(%s,%s)", "%s.writeShort(%s,%s)", "%1$s.writeUShortArray(%2$s, %3$s, %4$s)"),
+        INT(CODE_INT, "int", "int", "%s.readAlignedInt(%s)", "%s.readInt(%s)", "%s.readIntArray(%s,%s)", "%s.writeAlignedInt(%s,%s)", "%s.writeInt(%s,%s)", "%1$s.writeIntArray(%2$s, %3$s, %4$s)"),
+        LONG(CODE_LONG, "long", "long", "%s.readAlignedLong(%s)", "%s.readLong(%s)", "%s.readLongArray(%s,%s)", "%s.writeAlignedLong(%s,%s)", "%s.writeLong(%s,%s)", "%1$s.writeLongArray(%2$s, %3$s, %4$s)"),
+        BIT(-3, "", "", "", "", "", "", "", ""),
+        UNKNOWN(Integer.MIN_VALUE, "", "", "", "", "", "", "", "");
+
+        private final int code;
+        private final String javaSingleType;
+        private final String javaArrayType;
+        private final String methodReadOneAligned;
+        private final String methodReadOne;
+        private final String methodReadArray;
+        private final String methodWriteOneAligned;
+        private final String methodWriteOne;
+        private final String methodWriteArray;
+
+        FieldType(final int code, final String javaSingleType, final String javaArrayType, final String readOneAligned, final String readOne, final String readArray, final String writeOneAligned, final String writeOne, final String writeArray) {
+            this.code = code;
+            this.javaSingleType = javaSingleType;
+            this.javaArrayType = javaArrayType;
+            this.methodReadOneAligned = readOneAligned;
+            this.methodReadOne = readOne;
+            this.methodReadArray = readArray;
+            this.methodWriteOneAligned = writeOneAligned;
+            this.methodWriteOne = writeOne;
+            this.methodWriteArray = writeArray;
+        }
+
+        static FieldType findForCode(final int code) {
+            for (final FieldType t : values()) {
+                if (t.code == code) {
+                    return t;
+                }
+            }
+            return UNKNOWN;
+        }
+
+        void assertNotUnknown() {
+            if (this == UNKNOWN) {
+                throw new Error("Call method for unknown type");
+            }
+        }
+
+        String asJavaSingleFieldType() {
+            assertNotUnknown();
+            return this.javaSingleType;
+        }
+
+        String asJavaArrayFieldType() {
+            assertNotUnknown();
+            return this.javaArrayType;
+        }
+
+        String makeReaderForSingleField(final String streamName, final JBBPByteOrder byteOrder, final boolean aligned) {
+            assertNotUnknown();
+            return String.format(aligned ? this.methodReadOneAligned : this.methodReadOne, streamName, "JBBPByteOrder." + byteOrder.name());
+        }
+
+        String makeWriterForSingleField(final String streamName, final String fieldName, final JBBPByteOrder byteOrder, final boolean aligned) {
+            assertNotUnknown();
+            return String.format(aligned ? this.methodWriteOneAligned : this.methodWriteOne, streamName, fieldName, "JBBPByteOrder." + byteOrder.name());
+        }
+
+        String makeReaderForArray(final String streamName, final String arraySize, final JBBPByteOrder byteOrder) {
+            assertNotUnknown();
+            return String.format(this.methodReadArray, streamName, arraySize, "JBBPByteOrder." + byteOrder.name());
+        }
+
+        String makeWriterForArray(final String streamName, final String fieldName, final String arraySize, final JBBPByteOrder byteOrder) {
+            assertNotUnknown();
+            return String.format(this.methodWriteArray, streamName, fieldName, arraySize, "JBBPByteOrder." + byteOrder.name());
+        }
+    }
+
+    /**
+     * Auxiliary visitor to find bit offsets of fields inside bytes, only fields
+     * with zero offset in all cases can be processed directly by buffer indexes.
+     * Structure arrays are entered aligned only if their body doesn't change the
+     * bit offset, it is detected by repeated passes.
+     */
+    private static final class BitOffsetAnalyzer extends CompiledBlockVisitor {
+
+        private static final int UNKNOWN = -1;
+
+        private final Map<Integer, Integer> bitOffsets = new HashMap<Integer, Integer>();
+        private final Set<Integer> unalignedStructArrays = new HashSet<Integer>();
+        private final List<int[]> structStack = new ArrayList<int[]>();
+        private int bitOffset;
+        private boolean changed;
+
+        BitOffsetAnalyzer(final int parserFlags, final JBBPCompiledBlock compiledBlock) {
+            super(parserFlags, compiledBlock);
+        }
+
+        private static int getConstValue(final JBBPIntegerValueEvaluator evaluator) {
+            return evaluator instanceof IntConstValueEvaluator ? evaluator.eval(null, 0, null, null) : UNKNOWN;
+        }
+
+        Map<Integer, Integer> analyze() {
+            do {
+                this.changed = false;
+                this.visit();
+            } while (this.changed);
+            return this.bitOffsets;
+        }
+
+        @Override
+        public void visitStart() {
+            this.bitOffsets.clear();
+            this.structStack.clear();
+            this.bitOffset = 0;
+        }
+
+        @Override
+        public void visitActionItem(final int offsetInCompiledBlock, final int actionType, final JBBPIntegerValueEvaluator nullableArgument) {
+            this.bitOffsets.put(offsetInCompiledBlock, this.bitOffset);
+            if (actionType == CODE_ALIGN || actionType == CODE_RESET_COUNTER) {
+                this.bitOffset = 0;
+            }
+        }
+
+        @Override
+        public void visitPrimitiveField(final int offsetInCompiledBlock, final int primitiveType, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPByteOrder byteOrder, final boolean readWholeStreamAsArray, final JBBPIntegerValueEvaluator nullableArraySize) {
+            this.bitOffsets.put(offsetInCompiledBlock, this.bitOffset);
+        }
+
+        @Override
+        public void visitBitField(final int offsetInCompiledBlock, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPIntegerValueEvaluator notNullFieldSize, final JBBPIntegerValueEvaluator nullableArraySize) {
+            this.bitOffsets.put(offsetInCompiledBlock, this.bitOffset);
+            final int bits = getConstValue(notNullFieldSize);
+            final int items = nullableArraySize == null ? 1 : getConstValue(nullableArraySize);
+            if (this.bitOffset == UNKNOWN || bits == UNKNOWN || items < 0) {
+                this.bitOffset = UNKNOWN;
+            } else {
+                this.bitOffset = (int) ((this.bitOffset + (long) bits * items) % 8);
+            }
+        }
+
+        @Override
+        public void visitStructureStart(final int offsetInCompiledBlock, final JBBPNamedFieldInfo nullableNameFieldInfo, final JBBPIntegerValueEvaluator nullableArraySize) {
+            this.bitOffsets.put(offsetInCompiledBlock, this.bitOffset);
+            final boolean array = nullableArraySize != null;
+            final int entryOffset;
+            if (array) {
+                entryOffset = this.bitOffset == 0 && !this.unalignedStructArrays.contains(offsetInCompiledBlock) ? 0 : UNKNOWN;
+            } else {
+                entryOffset = this.bitOffset;
+            }
+            this.structStack.add(0, new int[]{offsetInCompiledBlock, array ? 1 : 0, entryOffset});
+            this.bitOffset = entryOffset;
+        }
+
+        @Override
+        public void visitStructureEnd(final int offsetInCompiledBlock, final JBBPNamedFieldInfo nullableNameFieldInfo) {
+            final int[] struct = this.structStack.remove(0);
+            if (struct[1] != 0) {
+                if (struct[2] == 0 && this.bitOffset != 0) {
+                    this.unalignedStructArrays.add(struct[0]);
+                    this.changed = true;
+                }
+                this.bitOffset = struct[2] == 0 && this.bitOffset == 0 ? 0 : UNKNOWN;
+            }
+        }
+    }
+
+    /**
+     * Builder to build instance of converter.
+     */
+    public static final class Builder {
+
+        /**
+         * Set of interfaces to be implemented by the main result class.
+         */
+        private final Set<String> mainClassImplements = new HashSet<String>();
+        /**
+         * The Parser to provide compiled data.
+         */
+        private final JBBPParser srcParser;
+        /**
+         * Interfaces to be implemented by generated subclasses, also getters return the interface type.
+         */
+        private final Map<String, String> mapSubClassesInterfaces = new HashMap<String, String>();
+        /**
+         * The Package name for the result class.
+         */
+        private String mainClassPackage;
+        /**
+         * The Result class name for the result class.
+         */
+        private String mainClassName;
+        /**
+         * The Flag to force the result class as abstract one.
+         */
+        private boolean doMainClassAbstract;
+        /**
+         * The Name of class to be extended by the result class.
+         */
+        private String superClass;
+        /**
+         * The Comment to be placed before package info.
+         */
+        private String headComment;
+        /**
+         * Flag to lockBuilder the builder.
+         */
+        private boolean lockBuilder;
+        /**
+         * Parser flags.
+         */
+        private int parserFlags;
+        /**
+         * Generate getters and setters.
+         */
+        private boolean addGettersSetters;
+        /**
+         * Text to be inserted into custom section of the resut class.
+         */
+        private String mainClassCustomText;
+
+        private Builder(final JBBPParser parser) {
+            this.srcParser = parser;
+            this.parserFlags = parser.getFlags();
+        }
+
+        private void assertNonLocked() {
+            if (this.lockBuilder) {
+                throw new IllegalStateException("Builder already locked");
+            }
+        }
+
+        /**
+         * Map inside structures to mainClassImplements, a structure class will implement mapped interface and getter of the structure object will return interface object as result.
+         *
+         * @param mapClassNameToInterface map with structure path as the key and the interface name as value, it can be null. <b>Names of structures should be in the lower case form amd dot separated for their hierarchy. (example: "a.b.c")</b>
+         * @return the builder instance, must not be null
+         */
+        public Builder setMapSubClassesInterfaces(final Map<String, String> mapClassNameToInterface) {
+            assertNonLocked();
+            this.mapSubClassesInterfaces.clear();
+            if (mapClassNameToInterface != null) {
+                this.mapSubClassesInterfaces.putAll(mapClassNameToInterface);
+            }
+            return this;
+        }
+
+        /**
+         * Set custom text, the text will be added into the end of the result class.
+         *
+         * @param value text value, it can be null
+         * @return the builder instance, must not be null
+         */
+        public Builder setMainClassCustomText(final String value) {
+            assertNonLocked();
+            this.mainClassCustomText = value;
+            return this;
+        }
+
+        /**
+         * Set flag to generate getters setters. <b>NB! All fields will be private ones in the case.</b>
+         *
+         * @param value flag, if true then generate getters setters, false otherwise
+         * @return the builder instance, must not be null
+         */
+        public Builder setAddGettersSetters(final boolean value) {
+            assertNonLocked();
+            this.addGettersSetters = value;
+            return this;
+        }
+
+        /**
+         * Set the parser flags for the generated class, by default the flags are imported from the base parser.
+         *
+         * @param value parser flags.
+         * @return the builder instance, must not be null
+         */
+        public Builder setParserFlags(final int value) {
+            assertNonLocked();
+            this.parserFlags = value;
+            return this;
+        }
+
+        /**
+         * Set the package for the generated class.
+         *
+         * @param value name of the package, it can be empty or null in the case the class will be in the default package
+         * @return the builder instance, must not be null
+         */
+        public Builder setMainClassPackage(final String value) {
+            assertNonLocked();
+            this.mainClassPackage = value;
+            return this;
+        }
+
+        /**
+         * Set flag to force abstract modifier for the generated class, by default the class is abstract one only if it contains abstract methods.
+         *
+         * @param value true if to force the abstract modifier, false otherwise
+         * @return the builder instance, must not be null
+         */
+        public Builder setDoMainClassAbstract(final boolean value) {
+            assertNonLocked();
+            this.doMainClassAbstract = value;
+            return this;
+        }
+
+        /**
+         * The Name of the generated class. Must be provided.
+         *
+         * @param value the class name for the generated class, must not be null
+         * @return the builder instance, must not be null
+         */
+        public Builder setMainClassName(final String value) {
+            assertNonLocked();
+            this.mainClassName = value;
+            return this;
+        }
+
+        /**
+         * Set the superclass for the main generated class. <b>NB! Also it affects read and write methods of the main class, the class will be used as the return type.</b>
+         *
+         * @param value the superclass name, it can be null
+         * @return the builder instance, must not be null
+         */
+        public Builder setSuperClass(final String value) {
+            assertNonLocked();
+            this.superClass = value;
+            return this;
+        }
+
+        /**
+         * Set interfaces to be added into 'implements' for the generated class.
+         *
+         * @param values interface names
+         * @return the builder instance, must not be null
+         */
+        public Builder setMainClassImplements(final String... values) {
+            assertNonLocked();
+            Collections.addAll(this.mainClassImplements, values);
+            return this;
+        }
+
+        /**
+         * Set commentaries placed just before first package directive of the generated class.
+         *
+         * @param text text to be used as comment, it can be null
+         * @return the builder instance, must not be null
+         */
+        public Builder setHeadComment(final String text) {
+            assertNonLocked();
+            this.headComment = text;
+            return this;
+        }
+
+        /**
+         * Build converter with provided parameters. NB! It locks builder parameters and they can't be changed in future.
+         *
+         * @return a converter instance.
+         */
+        public JBBPToJava8BufferConverter build() {
+            this.lockBuilder = true;
+            if (this.mainClassName == null) throw new NullPointerException("Class name must not be null");
+            return new JBBPToJava8BufferConverter(this);
+        }
+    }
+
+    private static class Struct {
+
+        private final String classModifiers;
+        private final String className;
+        private final Struct parent;
+        private final List<Struct> children = new ArrayList<Struct>();
+        private final JavaSrcTextBuffer fields = new JavaSrcTextBuffer();
+        private final JavaSrcTextBuffer readFunc = new JavaSrcTextBuffer();
+        private final JavaSrcTextBuffer writeFunc = new JavaSrcTextBuffer();
+        private final JavaSrcTextBuffer gettersSetters = new JavaSrcTextBuffer();
+        private final String path;
+
+        private Struct(final Struct parent, final String className, final String classModifiers) {
+            this.path = parent == null ? "" : parent.path + (parent.path.length() == 0 ? "" : ".") + className.toLowerCase(Locale.ENGLISH);
+            this.classModifiers = classModifiers;
+            this.className = className;
+            this.parent = parent;
+            if (this.parent != null) {
+                this.parent.children.add(this);
+            }
+        }
+
+        private static String interfaces2str(final Set<String> set) {
+            final StringBuilder buffer = new StringBuilder();
+            for (final String s : set) {
+                if (buffer.length() > 0) {
+                    buffer.append(',');
+                }
+                buffer.append(s);
+            }
+            return buffer.toString();
+        }
+
+        boolean isRoot() {
+            return this.parent == null;
+        }
+
+        String getPath() {
+            return this.path;
+        }
+
+        Struct findRoot() {
+            if (this.parent == null) {
+                return this;
+            }
+            return this.parent.findRoot();
+        }
+
+        void write(final JavaSrcTextBuffer buffer, final String extraModifier, final String superClass, final Set<String> implementedInterfaces, final Map<String, String> mapStructInterfaces, final String commonSectionText, final String specialMethods, final String customText, final JBBPBitOrder bitOrder) {
+            final String interfaceForGetSet = mapStructInterfaces == null ? null : mapStructInterfaces.get(this.getPath());
+
+            buffer.indent().printf(
+                    "%s%sclass %s%s%s {%n",
+                    this.classModifiers,
+                    extraModifier == null ? " " : ' ' + extraModifier + ' ',
+                    this.className,
+                    superClass != null ? " extends " + superClass + ' ' : "",
+                    interfaceForGetSet == null ? implementedInterfaces != null && !implementedInterfaces.isEmpty() ? " implements " + interfaces2str(implementedInterfaces) + ' ' : "" : " implements " + interfaceForGetSet
+            );
+            buffer.incIndent();
+
+            if (commonSectionText != null) {
+                buffer.printLinesWithIndent(commonSectionText);
+            }
+
+            for (final Struct c : this.children) {
+                c.write(buffer, null, null, null, mapStructInterfaces, null, null, null, bitOrder);
+            }
+            buffer.println();
+
+            buffer.printLinesWithIndent(this.fields.toString());
+            if (this.parent != null) {
+                buffer.indent().println("private final " + findRoot().className + ' ' + NAME_ROOT_STRUCT + ';');
+            }
+            buffer.println();
+
+            buffer.indent().print("public ").print(this.className).print(" (")
+                    .print(this.parent == null ? "" : (findRoot().className + " root"))
+                    .println(") {");
+
+            buffer.incIndent();
+            if (this.parent != null) {
+                buffer.indent().print(NAME_ROOT_STRUCT).print(" = ").println("root;");
+            }
+            buffer.decIndent();
+
+            buffer.indent().println("}");
+
+            buffer.println();
+
+            buffer.indent().printf("public %s read(final JBBPByteBufferReader %s) throws IOException {%n", superClass == null ? this.className : superClass, NAME_INPUT_STREAM);
+            buffer.incIndent();
+            buffer.printLinesWithIndent(this.readFunc.toString());
+            buffer.indent().println("return this;");
+            buffer.decIndent();
+            buffer.indent().println("}");
+
+            buffer.println();
+
+            buffer.indent().printf("public %s write(final JBBPByteBufferWriter %s) throws IOException {%n", superClass == null ? this.className : superClass, NAME_OUTPUT_STREAM);
+            buffer.incIndent();
+            buffer.printLinesWithIndent(this.writeFunc.toString());
+            buffer.indent().println("return this;");
+            buffer.decIndent();
+            buffer.indent().println("}");
+
+            if (this.parent == null) {
+                buffer.println();
+                buffer.printJavaDocLinesWithIndent("Read data from buffer.\n@param buffer buffer contains data, must not be null\n@param offset offset of data in the buffer\n@return index of the next byte after read data\n@exception IOException if data can't be read");
+                buffer.indent().println("public int read(final ByteBuffer buffer, final int offset) throws IOException {");
+                buffer.incIndent();
+                buffer.indent().printf("final JBBPByteBufferReader reader = new JBBPByteBufferReader(buffer, offset, JBBPBitOrder.%s);%n", bitOrder.name());
+                buffer.indent().println("this.read(reader);");
+                buffer.indent().println("return reader.getPosition();");
+                buffer.decIndent();
+                buffer.indent().println("}");
+
+                buffer.println();
+                buffer.printJavaDocLinesWithIndent("Read data from byte array.\n@param array array contains data, must not be null\n@param offset offset of data in the array\n@return index of the next byte after read data\n@exception IOException if data can't be read");
+                buffer.indent().println("public int read(final byte [] array, final int offset) throws IOException {");
+                buffer.incIndent();
+                buffer.indent().println("return this.read(ByteBuffer.wrap(array), offset);");
+                buffer.decIndent();
+                buffer.indent().println("}");
+
+                buffer.println();
+                buffer.printJavaDocLinesWithIndent("Write data into buffer, not completed byte of bits is written too.\n@param buffer buffer to be written, must not be null\n@param offset offset of data in the buffer\n@return index of the next byte after written data\n@exception IOException if data can't be written");
+                buffer.indent().println("public int write(final ByteBuffer buffer, final int offset) throws IOException {");
+                buffer.incIndent();
+                buffer.indent().printf("final JBBPByteBufferWriter writer = new JBBPByteBufferWriter(buffer, offset, JBBPBitOrder.%s);%n", bitOrder.name());
+                buffer.indent().println("this.write(writer);");
+                buffer.indent().println("writer.flush();");
+                buffer.indent().println("return writer.getPosition();");
+                buffer.decIndent();
+                buffer.indent().println("}");
+
+                buffer.println();
+                buffer.printJavaDocLinesWithIndent("Write data into byte array, not completed byte of bits is written too.\n@param array array to be written, must not be null\n@param offset offset of data in the array\n@return index of the next byte after written data\n@exception IOException if data can't be written");
+                buffer.indent().println("public int write(final byte [] array, final int offset) throws IOException {");
+                buffer.incIndent();
+                buffer.indent().println("return this.write(ByteBuffer.wrap(array), offset);");
+                buffer.decIndent();
+                buffer.indent().println("}");
+            }
+
+            if (specialMethods != null) {
+                buffer.println();
+                buffer.printLinesWithIndent(specialMethods);
+                buffer.println();
+            }
+
+            if (!this.gettersSetters.isEmpty()) {
+                buffer.println();
+                buffer.printLinesWithIndent(this.gettersSetters.toString());
+                buffer.println();
+            }
+
+            if (customText != null && customText.length() != 0) {
+                buffer.printCommentLinesWithIndent("------ Custom section START");
+                buffer.printLinesWithIndent(customText);
+                buffer.printCommentLinesWithIndent("------ Custom section END");
+            }
+
+            buffer.decIndent();
+            buffer.indent().println("}");
+
+        }
+
+        JavaSrcTextBuffer getWriteFunc() {
+            return this.writeFunc;
+        }
+
+        JavaSrcTextBuffer getReadFunc() {
+            return this.readFunc;
+        }
+
+        JavaSrcTextBuffer getFields() {
+            return this.fields;
+        }
+
+        JavaSrcTextBuffer getGettersSetters() {
+            return this.gettersSetters;
+        }
+    }
+
+    private static final class NamedFieldInfo {
+
+        final JBBPNamedFieldInfo info;
+        final Struct struct;
+        final FieldType fieldType;
+
+        NamedFieldInfo(final JBBPNamedFieldInfo info, final Struct struct, final FieldType fieldType) {
+            this.info = info;
+            this.struct = struct;
+            this.fieldType = fieldType;
+        }
+
+        String makeSrcPath(final Struct currentStruct) {
+            if (this.struct == currentStruct) {
+                return "this." + info.getFieldName();
+            } else {
+                final String structPath = this.struct.getPath();
+                if (currentStruct.isRoot()) {
+                    return "this." + (structPath.length() == 0 ? "" : structPath + ".") + info.getFieldName();
+                } else {
+                    return "this." + NAME_ROOT_STRUCT + '.' + (structPath.length() == 0 ? "" : structPath + ".") + info.getFieldName();
+                }
+            }
+        }
+    }
+}
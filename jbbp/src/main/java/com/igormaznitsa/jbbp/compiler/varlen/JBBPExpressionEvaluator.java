@@ -149,6 +149,14 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
      * @since 1.2.1
      */
     private final int maxStackDepth;
+    /**
+     * Tree of pre-resolved expression items made from the compiled expression,
+     * constant sub-expressions are already calculated. The Tree is not serialized
+     * and it is restored from the compiled expression if needed.
+     *
+     * @since 1.3.1
+     */
+    private transient ExpressionNode evaluationTree;
 
     /**
      * The Constructor. It makes compilation an expression into internal representation.
@@ -400,6 +408,7 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
         this.externalValueNames = externalValueNameList.isEmpty() ? null : externalValueNameList.toArray(new String[externalValueNameList.size()]);
 
         this.maxStackDepth = calculateMaxStackDepth();
+        this.evaluationTree = makeEvaluationTree();
     }
 
     /**
@@ -578,8 +587,24 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
      */
     @Override
     public int eval(final JBBPBitInputStream inStream, final int currentCompiledBlockOffset, final JBBPCompiledBlock compiledBlockData, final JBBPNamedNumericFieldMap fieldMap) {
-        final int[] stack = new int[this.maxStackDepth];
+        ExpressionNode tree = this.evaluationTree;
+        if (tree == null) {
+            // restore the tree after deserialization
+            tree = makeEvaluationTree();
+            this.evaluationTree = tree;
+        }
+        return tree.eval(this, inStream, compiledBlockData, fieldMap);
+    }
 
+    /**
+     * Make tree of expression items from the compiled expression. Operators
+     * which have only constant operands are calculated during the call, except
+     * division and remainder by zero which must throw exception during evaluation.
+     *
+     * @return the root of the tree, must not be null
+     */
+    private ExpressionNode makeEvaluationTree() {
+        final ExpressionNode[] stack = new ExpressionNode[this.maxStackDepth];
         int stackDepth = 0;
 
         final JBBPIntCounter counter = new JBBPIntCounter();
@@ -587,84 +612,50 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
         while (counter.get() < this.compiledExpression.length) {
             final int code = this.compiledExpression[counter.getAndIncrement()];
             switch (code) {
-                case CODE_EXTVAR:
-                case CODE_VAR: {
-                    final int index = JBBPUtils.unpackInt(this.compiledExpression, counter);
-
-                    stack[stackDepth++] = code == CODE_EXTVAR
-                            ? "$".equals(this.externalValueNames[index]) ? (int) inStream.getCounter() : fieldMap.getExternalFieldValue(this.externalValueNames[index], compiledBlockData, this)
-                            : fieldMap.get(compiledBlockData.getNamedFields()[index]).getAsInt();
+                case CODE_EXTVAR: {
+                    final String name = this.externalValueNames[JBBPUtils.unpackInt(this.compiledExpression, counter)];
+                    stack[stackDepth++] = "$".equals(name) ? new StreamCounterNode() : new ExternalValueNode(name);
                 }
                 break;
-                case CODE_CONST: {
-                    stack[stackDepth++] = JBBPUtils.unpackInt(this.compiledExpression, counter);
-                }
-                break;
-                case CODE_ADD: {
-                    final int top = stack[--stackDepth];
-                    stack[stackDepth - 1] += top;
-                }
-                break;
-                case CODE_AND: {
-                    final int top = stack[--stackDepth];
-                    stack[stackDepth - 1] &= top;
-                }
-                break;
-                case CODE_OR: {
-                    final int top = stack[--stackDepth];
-                    stack[stackDepth - 1] |= top;
-                }
-                break;
-                case CODE_XOR: {
-                    final int top = stack[--stackDepth];
-                    stack[stackDepth - 1] ^= top;
-                }
-                break;
-                case CODE_MINUS: {
-                    final int top = stack[--stackDepth];
-                    stack[stackDepth - 1] -= top;
+                case CODE_VAR: {
+                    stack[stackDepth++] = new FieldNode(JBBPUtils.unpackInt(this.compiledExpression, counter));
                 }
                 break;
-                case CODE_UNARYMINUS: {
-                    stack[stackDepth - 1] = -stack[stackDepth - 1];
+                case CODE_CONST: {
+                    stack[stackDepth++] = new ConstNode(JBBPUtils.unpackInt(this.compiledExpression, counter));
                 }
                 break;
                 case CODE_UNARYPLUS: {
                     // do nothing
                 }
                 break;
+                case CODE_UNARYMINUS:
                 case CODE_NOT: {
-                    stack[stackDepth - 1] = ~stack[stackDepth - 1];
-                }
-                break;
-                case CODE_DIV: {
-                    final int top = stack[--stackDepth];
-                    stack[stackDepth - 1] /= top;
-                }
-                break;
-                case CODE_MUL: {
-                    final int top = stack[--stackDepth];
-                    stack[stackDepth - 1] *= top;
-                }
-                break;
-                case CODE_MOD: {
-                    final int top = stack[--stackDepth];
-                    stack[stackDepth - 1] %= top;
-                }
-                break;
-                case CODE_LSHIFT: {
-                    final int top = stack[--stackDepth];
-                    stack[stackDepth - 1] <<= top;
-                }
-                break;
-                case CODE_RSHIFT: {
-                    final int top = stack[--stackDepth];
-                    stack[stackDepth - 1] >>= top;
+                    final ExpressionNode operand = stack[stackDepth - 1];
+                    stack[stackDepth - 1] = operand instanceof ConstNode
+                            ? new ConstNode(calculate(code, ((ConstNode) operand).value, 0))
+                            : new UnaryNode(code, operand);
                 }
                 break;
+                case CODE_ADD:
+                case CODE_AND:
+                case CODE_OR:
+                case CODE_XOR:
+                case CODE_MINUS:
+                case CODE_DIV:
+                case CODE_MUL:
+                case CODE_MOD:
+                case CODE_LSHIFT:
+                case CODE_RSHIFT:
                 case CODE_RSIGNSHIFT: {
-                    final int top = stack[--stackDepth];
-                    stack[stackDepth - 1] >>>= top;
+                    final ExpressionNode right = stack[--stackDepth];
+                    final ExpressionNode left = stack[stackDepth - 1];
+                    if (left instanceof ConstNode && right instanceof ConstNode
+                            && !((code == CODE_DIV || code == CODE_MOD) && ((ConstNode) right).value == 0)) {
+                        stack[stackDepth - 1] = new ConstNode(calculate(code, ((ConstNode) left).value, ((ConstNode) right).value));
+                    } else {
+                        stack[stackDepth - 1] = new BinaryNode(code, left, right);
+                    }
                 }
                 break;
                 default:
@@ -675,6 +666,47 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
         return stack[0];
     }
 
+    /**
+     * Calculate result of an operator.
+     *
+     * @param code  the operator code
+     * @param left  the left operand or the single operand of an unary operator
+     * @param right the right operand, ignored for unary operators
+     * @return the result
+     */
+    private static int calculate(final int code, final int left, final int right) {
+        switch (code) {
+            case CODE_ADD:
+                return left + right;
+            case CODE_AND:
+                return left & right;
+            case CODE_OR:
+                return left | right;
+            case CODE_XOR:
+                return left ^ right;
+            case CODE_MINUS:
+                return left - right;
+            case CODE_UNARYMINUS:
+                return -left;
+            case CODE_NOT:
+                return ~left;
+            case CODE_DIV:
+                return left / right;
+            case CODE_MUL:
+                return left * right;
+            case CODE_MOD:
+                return left % right;
+            case CODE_LSHIFT:
+                return left << right;
+            case CODE_RSHIFT:
+                return left >> right;
+            case CODE_RSIGNSHIFT:
+                return left >>> right;
+            default:
+                throw new Error("Detected unsupported operation, contact developer");
+        }
+    }
+
     @Override
     public void visitItems(final JBBPCompiledBlock block, final int currentCompiledBlockOffset, final ExpressionEvaluatorVisitor visitor) {
         visitor.visitStart();
@@ -755,4 +787,90 @@ public final class JBBPExpressionEvaluator implements JBBPIntegerValueEvaluator
     public String toString() {
         return this.expressionSource;
     }
+
+    /**
+     * Item of the evaluation tree.
+     */
+    private abstract static class ExpressionNode {
+        abstract int eval(JBBPExpressionEvaluator evaluator, JBBPBitInputStream inStream, JBBPCompiledBlock block, JBBPNamedNumericFieldMap fieldMap);
+    }
+
+    private static final class ConstNode extends ExpressionNode {
+        private final int value;
+
+        ConstNode(final int value) {
+            this.value = value;
+        }
+
+        @Override
+        int eval(final JBBPExpressionEvaluator evaluator, final JBBPBitInputStream inStream, final JBBPCompiledBlock block, final JBBPNamedNumericFieldMap fieldMap) {
+            return this.value;
+        }
+    }
+
+    private static final class FieldNode extends ExpressionNode {
+        private final int namedFieldIndex;
+
+        FieldNode(final int namedFieldIndex) {
+            this.namedFieldIndex = namedFieldIndex;
+        }
+
+        @Override
+        int eval(final JBBPExpressionEvaluator evaluator, final JBBPBitInputStream inStream, final JBBPCompiledBlock block, final JBBPNamedNumericFieldMap fieldMap) {
+            return fieldMap.getNamedFieldValue(block, this.namedFieldIndex);
+        }
+    }
+
+    private static final class StreamCounterNode extends ExpressionNode {
+        @Override
+        int eval(final JBBPExpressionEvaluator evaluator, final JBBPBitInputStream inStream, final JBBPCompiledBlock block, final JBBPNamedNumericFieldMap fieldMap) {
+            return (int) inStream.getCounter();
+        }
+    }
+
+    private static final class ExternalValueNode extends ExpressionNode {
+        private final String name;
+
+        ExternalValueNode(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        int eval(final JBBPExpressionEvaluator evaluator, final JBBPBitInputStream inStream, final JBBPCompiledBlock block, final JBBPNamedNumericFieldMap fieldMap) {
+            return fieldMap.getExternalFieldValue(this.name, block, evaluator);
+        }
+    }
+
+    private static final class UnaryNode extends ExpressionNode {
+        private final int code;
+        private final ExpressionNode operand;
+
+        UnaryNode(final int code, final ExpressionNode operand) {
+            this.code = code;
+            this.operand = operand;
+        }
+
+        @Override
+        int eval(final JBBPExpressionEvaluator evaluator, final JBBPBitInputStream inStream, final JBBPCompiledBlock block, final JBBPNamedNumericFieldMap fieldMap) {
+            return calculate(this.code, this.operand.eval(evaluator, inStream, block, fieldMap), 0);
+        }
+    }
+
+    private static final class BinaryNode extends ExpressionNode {
+        private final int code;
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        BinaryNode(final int code, final ExpressionNode left, final ExpressionNode right) {
+            this.code = code;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int eval(final JBBPExpressionEvaluator evaluator, final JBBPBitInputStream inStream, final JBBPCompiledBlock block, final JBBPNamedNumericFieldMap fieldMap) {
+            final int leftValue = this.left.eval(evaluator, inStream, block, fieldMap);
+            return calculate(this.code, leftValue, this.right.eval(evaluator, inStream, block, fieldMap));
+        }
+    }
 }
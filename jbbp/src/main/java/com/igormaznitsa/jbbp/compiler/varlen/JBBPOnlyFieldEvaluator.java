@@ -52,7 +52,7 @@ public final class JBBPOnlyFieldEvaluator implements JBBPIntegerValueEvaluator {
     @Override
     public int eval(final JBBPBitInputStream inStream, final int currentCompiledBlockOffset, final JBBPCompiledBlock block, final JBBPNamedNumericFieldMap fieldMap) {
         return externalFieldName == null
-                ? fieldMap.get(block.getNamedFields()[this.namedFieldIndex]).getAsInt()
+                ? fieldMap.getNamedFieldValue(block, this.namedFieldIndex)
                 : this.externalFieldName.equals("$")
                 ? (int) inStream.getCounter()
                 : fieldMap.getExternalFieldValue(this.externalFieldName, block, this);
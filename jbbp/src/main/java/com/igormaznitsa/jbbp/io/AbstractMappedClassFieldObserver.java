@@ -28,6 +28,8 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Abstract class to collect, order and process all fields in a mapped class.
@@ -36,10 +38,12 @@ import java.util.*;
 public abstract class AbstractMappedClassFieldObserver {
 
     /**
-     * Inside cache to keep outOrder of fields for classes for data output. It is
-     * lazy initialized field.
+     * Inside lock-free cache of resolved write plans for classes, a plan contains
+     * ordered fields of a class with already resolved annotations and types.
+     *
+     * @since 1.3.1
      */
-    private static volatile Map<Class<?>, Field[]> cachedClasses;
+    private static final ConcurrentMap<Class<?>, ClassPlan> cachedClasses = new ConcurrentHashMap<Class<?>, ClassPlan>();
 
     /**
      * Inside auxiliary method to read object field value.
@@ -70,6 +74,50 @@ public abstract class AbstractMappedClassFieldObserver {
         }
     }
 
+    /**
+     * Get element of an array of integral primitives as long value, elements are
+     * read directly without boxing.
+     *
+     * @param array an array, must not be null
+     * @param index index of the element
+     * @return the element value as long
+     * @since 1.3.1
+     */
+    private static long readArrayElementAsLong(final Object array, final int index) {
+        if (array instanceof byte[]) {
+            return ((byte[]) array)[index];
+        } else if (array instanceof short[]) {
+            return ((short[]) array)[index];
+        } else if (array instanceof char[]) {
+            return ((char[]) array)[index];
+        } else if (array instanceof int[]) {
+            return ((int[]) array)[index];
+        } else if (array instanceof long[]) {
+            return ((long[]) array)[index];
+        } else {
+            return ((Number) Array.get(array, index)).longValue();
+        }
+    }
+
+    /**
+     * Get cached write plan for a class or make and cache new one.
+     *
+     * @param clazz a class to be processed, must not be null
+     * @return the write plan for the class, must not be null
+     * @since 1.3.1
+     */
+    private static ClassPlan findClassPlan(final Class<?> clazz) {
+        ClassPlan result = cachedClasses.get(clazz);
+        if (result == null) {
+            result = new ClassPlan(clazz);
+            final ClassPlan alreadyCached = cachedClasses.putIfAbsent(clazz, result);
+            if (alreadyCached != null) {
+                result = alreadyCached;
+            }
+        }
+        return result;
+    }
+
     /**
      * Process an object.
      *
@@ -80,92 +128,24 @@ public abstract class AbstractMappedClassFieldObserver {
     protected void processObject(final Object obj, final Field field, final Object customFieldProcessor) {
         JBBPUtils.assertNotNull(obj, "Object must not be null");
 
-        Field[] orderedFields = null;
-
-        final Map<Class<?>, Field[]> fieldz;
-        if (cachedClasses == null) {
-            fieldz = new HashMap<Class<?>, Field[]>();
-            cachedClasses = fieldz;
-        } else {
-            fieldz = cachedClasses;
-            synchronized (fieldz) {
-                orderedFields = fieldz.get(obj.getClass());
-            }
-        }
-
-        if (orderedFields == null) {
-            // find out the outOrder of fields and fields which should be serialized
-            final List<Class<?>> listOfClassHierarchy = new ArrayList<Class<?>>();
-            final List<OrderedField> fields = new ArrayList<OrderedField>();
-
-            Class<?> current = obj.getClass();
-            while (current != java.lang.Object.class) {
-                listOfClassHierarchy.add(current);
-                current = current.getSuperclass();
-            }
-
-            for (int i = listOfClassHierarchy.size() - 1; i >= 0; i--) {
-                final Class<?> clazzToProcess = listOfClassHierarchy.get(i);
-                final Bin clazzAnno = clazzToProcess.getAnnotation(Bin.class);
-
-                for (final Field f : clazzToProcess.getDeclaredFields()) {
-                    if (!f.isAccessible()) {
-                        JBBPUtils.makeAccessible(f);
-                    }
-
-                    final int modifiers = f.getModifiers();
-                    if (Modifier.isTransient(modifiers) || Modifier.isStatic(modifiers) || f.getName().indexOf('$') >= 0) {
-                        continue;
-                    }
-
-                    Bin fieldAnno = f.getAnnotation(Bin.class);
-                    fieldAnno = fieldAnno == null ? clazzAnno : fieldAnno;
-                    if (fieldAnno == null) {
-                        continue;
-                    }
-
-                    fields.add(new OrderedField(fieldAnno.outOrder(), f));
-                }
-            }
-
-            Collections.sort(fields);
-
-            orderedFields = new Field[fields.size()];
-            for (int i = 0; i < fields.size(); i++) {
-                orderedFields[i] = fields.get(i).field;
-            }
-
-            synchronized (fieldz) {
-                fieldz.put(obj.getClass(), orderedFields);
-            }
-        }
-
         if (field != null && !field.isAccessible()) {
             JBBPUtils.makeAccessible(field);
         }
 
-        final Bin clazzAnno = obj.getClass().getAnnotation(Bin.class);
+        final ClassPlan classPlan = findClassPlan(obj.getClass());
         final Bin fieldAnno = field == null ? null : field.getAnnotation(Bin.class);
+        final Bin structAnno = classPlan.classAnnotation == null ? fieldAnno : classPlan.classAnnotation;
 
-        this.onStructStart(obj, field, clazzAnno == null ? fieldAnno : clazzAnno);
+        this.onStructStart(obj, field, structAnno);
 
-        for (final Field f : orderedFields) {
-            Bin binAnno = f.getAnnotation(Bin.class);
-            if (binAnno == null) {
-                binAnno = f.getDeclaringClass().getAnnotation(Bin.class);
-                if (binAnno == null) {
-                    throw new JBBPIllegalArgumentException("Can't find any Bin annotation to use for " + f + " field");
-                }
+        for (final FieldPlan f : classPlan.fields) {
+            if (f.custom && customFieldProcessor == null) {
+                throw new JBBPIllegalArgumentException("The Class '" + obj.getClass().getName() + "' contains the field '" + f.field.getName() + "\' which is a custom one, you must provide a JBBPCustomFieldWriter instance to save the field.");
             }
-
-            if (binAnno.custom() && customFieldProcessor == null) {
-                throw new JBBPIllegalArgumentException("The Class '" + obj.getClass().getName() + "' contains the field '" + f.getName() + "\' which is a custom one, you must provide a JBBPCustomFieldWriter instance to save the field.");
-            }
-
-            processObjectField(obj, f, binAnno, customFieldProcessor);
+            this.processObjectField(obj, f.field, f.annotation, customFieldProcessor);
         }
 
-        this.onStructEnd(obj, field, clazzAnno == null ? fieldAnno : clazzAnno);
+        this.onStructEnd(obj, field, structAnno);
     }
 
     /**
@@ -179,27 +159,40 @@ public abstract class AbstractMappedClassFieldObserver {
      *                             of custom fields, must not be null if object contains custom fields
      */
     protected void processObjectField(final Object obj, final Field field, final Bin annotation, final Object customFieldProcessor) {
-        if (annotation.custom()) {
-            this.onFieldCustom(obj, field, annotation, customFieldProcessor, readFieldValue(obj, field));
-        } else {
-            final Class<?> fieldType = field.getType();
+        FieldPlan plan = findClassPlan(obj.getClass()).findFieldPlan(field);
+        if (plan == null || plan.annotation != annotation) {
+            plan = new FieldPlan(field, annotation);
+        }
+        processObjectField(obj, plan, customFieldProcessor);
+    }
 
-            final BinType type;
-            if (annotation.type() == BinType.UNDEFINED) {
-                type = BinType.findCompatible(fieldType);
-            } else {
-                type = annotation.type();
-            }
+    /**
+     * Inside auxiliary method to process a field of an object through its resolved plan.
+     *
+     * @param obj                  the object which field under processing, must not be null
+     * @param plan                 the resolved plan of the field, must not be null
+     * @param customFieldProcessor an object which will be provided for processing
+     *                             of custom fields, must not be null if object contains custom fields
+     * @since 1.3.1
+     */
+    private void processObjectField(final Object obj, final FieldPlan plan, final Object customFieldProcessor) {
+        final Field field = plan.field;
+        final Bin annotation = plan.annotation;
 
-            final boolean reverseBits = annotation.bitOrder() == JBBPBitOrder.MSB0;
+        if (plan.custom) {
+            this.onFieldCustom(obj, field, annotation, customFieldProcessor, readFieldValue(obj, field));
+        } else {
+            final Class<?> fieldType = plan.fieldType;
+            final BinType type = plan.type;
+            final boolean reverseBits = plan.reverseBits;
 
             switch (type) {
                 case BIT: {
-                    final JBBPBitNumber bitNumber = annotation.outBitNumber();
+                    final JBBPBitNumber bitNumber = plan.bitNumber;
                     if (fieldType == boolean.class) {
-                        this.onFieldBits(obj, field, annotation, bitNumber, ((Boolean) readFieldValue(obj, field)) ? 0xFF : 0x00);
+                        this.onFieldBits(obj, field, annotation, bitNumber, plan.readBoolean(obj) ? 0xFF : 0x00);
                     } else {
-                        byte value = ((Number) readFieldValue(obj, field)).byteValue();
+                        byte value = plan.readByte(obj);
                         if (reverseBits) {
                             value = JBBPUtils.reverseBitsInByte(bitNumber, value);
                         }
@@ -209,15 +202,15 @@ public abstract class AbstractMappedClassFieldObserver {
                 break;
                 case BOOL: {
                     if (fieldType == boolean.class) {
-                        onFieldBool(obj, field, annotation, (Boolean) readFieldValue(obj, field));
+                        onFieldBool(obj, field, annotation, plan.readBoolean(obj));
                     } else {
-                        onFieldBool(obj, field, annotation, ((Number) readFieldValue(obj, field)).longValue() != 0);
+                        onFieldBool(obj, field, annotation, plan.readLong(obj) != 0);
                     }
                 }
                 break;
                 case BYTE:
                 case UBYTE: {
-                    byte value = ((Number) readFieldValue(obj, field)).byteValue();
+                    byte value = plan.readByte(obj);
                     if (reverseBits) {
                         value = JBBPUtils.reverseBitsInByte(value);
                     }
@@ -228,9 +221,9 @@ public abstract class AbstractMappedClassFieldObserver {
                 case USHORT: {
                     short value;
                     if (fieldType == char.class) {
-                        value = (short) ((Character) readFieldValue(obj, field)).charValue();
+                        value = (short) plan.readChar(obj);
                     } else {
-                        value = ((Number) readFieldValue(obj, field)).shortValue();
+                        value = plan.readShort(obj);
                     }
                     if (reverseBits) {
                         value = (short) JBBPFieldShort.reverseBits(value);
@@ -241,9 +234,9 @@ public abstract class AbstractMappedClassFieldObserver {
                 case INT: {
                     int value;
                     if (float.class == fieldType) {
-                        value = Float.floatToIntBits((Float) readFieldValue(obj, field));
+                        value = Float.floatToIntBits(plan.readFloat(obj));
                     } else {
-                        value = ((Number) readFieldValue(obj, field)).intValue();
+                        value = plan.readInt(obj);
                     }
                     if (reverseBits) {
                         value = (int) JBBPFieldInt.reverseBits(value);
@@ -254,11 +247,11 @@ public abstract class AbstractMappedClassFieldObserver {
                 case LONG: {
                     long value;
                     if (float.class == fieldType) {
-                        value = Float.floatToIntBits((Float) readFieldValue(obj, field));
+                        value = Float.floatToIntBits(plan.readFloat(obj));
                     } else if (double.class == fieldType) {
-                        value = Double.doubleToLongBits((Double) readFieldValue(obj, field));
+                        value = Double.doubleToLongBits(plan.readDouble(obj));
                     } else {
-                        value = ((Number) readFieldValue(obj, field)).longValue();
+                        value = plan.readLong(obj);
                     }
 
                     if (reverseBits) {
@@ -268,7 +261,7 @@ public abstract class AbstractMappedClassFieldObserver {
                 }
                 break;
                 case STRUCT: {
-                    processObject(readFieldValue(obj, field), field, customFieldProcessor);
+                    this.processObject(readFieldValue(obj, field), field, customFieldProcessor);
                 }
                 break;
                 default: {
@@ -280,7 +273,7 @@ public abstract class AbstractMappedClassFieldObserver {
                             final int len = Array.getLength(array);
                             this.onArrayStart(obj, field, annotation, len);
 
-                            final JBBPBitNumber bitNumber = annotation.outBitNumber();
+                            final JBBPBitNumber bitNumber = plan.bitNumber;
 
                             if (fieldType.getComponentType() == boolean.class) {
                                 for (int i = 0; i < len; i++) {
@@ -288,7 +281,7 @@ public abstract class AbstractMappedClassFieldObserver {
                                 }
                             } else {
                                 for (int i = 0; i < len; i++) {
-                                    byte value = ((Number) Array.get(array, i)).byteValue();
+                                    byte value = plan.integralComponent ? (byte) readArrayElementAsLong(array, i) : ((Number) Array.get(array, i)).byteValue();
                                     if (reverseBits) {
                                         value = JBBPUtils.reverseBitsInByte(bitNumber, value);
                                     }
@@ -305,8 +298,15 @@ public abstract class AbstractMappedClassFieldObserver {
                             final int len = Array.getLength(array);
                             this.onArrayStart(obj, field, annotation, len);
 
-                            for (int i = 0; i < len; i++) {
-                                this.onFieldBool(obj, field, annotation, (Boolean) Array.get(array, i));
+                            if (array instanceof boolean[]) {
+                                final boolean[] values = (boolean[]) array;
+                                for (int i = 0; i < len; i++) {
+                                    this.onFieldBool(obj, field, annotation, values[i]);
+                                }
+                            } else {
+                                for (int i = 0; i < len; i++) {
+                                    this.onFieldBool(obj, field, annotation, (Boolean) Array.get(array, i));
+                                }
                             }
 
                             this.onArrayEnd(obj, field, annotation);
@@ -317,7 +317,7 @@ public abstract class AbstractMappedClassFieldObserver {
                             final boolean signed = type == BinType.BYTE_ARRAY;
 
                             if (fieldType == String.class) {
-                                final String strValue = (String) readFieldValue(obj, field);
+                                final String strValue = (String) array;
                                 this.onArrayStart(obj, field, annotation, strValue.length());
 
                                 for (int i = 0; i < strValue.length(); i++) {
@@ -332,7 +332,7 @@ public abstract class AbstractMappedClassFieldObserver {
                                 final int len = Array.getLength(array);
                                 this.onArrayStart(obj, field, annotation, len);
                                 for (int i = 0; i < len; i++) {
-                                    byte value = ((Number) Array.get(array, i)).byteValue();
+                                    byte value = plan.integralComponent ? (byte) readArrayElementAsLong(array, i) : ((Number) Array.get(array, i)).byteValue();
                                     if (reverseBits) {
                                         value = JBBPUtils.reverseBitsInByte(value);
                                     }
@@ -348,7 +348,7 @@ public abstract class AbstractMappedClassFieldObserver {
                             final boolean signed = type == BinType.SHORT_ARRAY;
 
                             if (fieldType == String.class) {
-                                final String str = (String) readFieldValue(obj, field);
+                                final String str = (String) array;
                                 this.onArrayStart(obj, field, annotation, str.length());
 
                                 for (int i = 0; i < str.length(); i++) {
@@ -364,7 +364,7 @@ public abstract class AbstractMappedClassFieldObserver {
                                 final int len = Array.getLength(array);
                                 this.onArrayStart(obj, field, annotation, len);
 
-                                if (fieldType.getComponentType() == char.class) {
+                                if (fieldType.getComponentType() == Character.class) {
                                     for (int i = 0; i < len; i++) {
                                         short value = (short) ((Character) Array.get(array, i)).charValue();
                                         if (reverseBits) {
@@ -374,7 +374,7 @@ public abstract class AbstractMappedClassFieldObserver {
                                     }
                                 } else {
                                     for (int i = 0; i < len; i++) {
-                                        short value = ((Number) Array.get(array, i)).shortValue();
+                                        short value = plan.integralComponent ? (short) readArrayElementAsLong(array, i) : ((Number) Array.get(array, i)).shortValue();
                                         if (reverseBits) {
                                             value = (short) JBBPFieldShort.reverseBits(value);
                                         }
@@ -391,8 +391,9 @@ public abstract class AbstractMappedClassFieldObserver {
                             final int len = Array.getLength(array);
                             this.onArrayStart(obj, field, annotation, len);
                             if (fieldType.getComponentType() == float.class) {
+                                final float[] values = (float[]) array;
                                 for (int i = 0; i < len; i++) {
-                                    int value = Float.floatToIntBits(Array.getFloat(array, i));
+                                    int value = Float.floatToIntBits(values[i]);
                                     if (reverseBits) {
                                         value = (int) JBBPFieldInt.reverseBits(value);
                                     }
@@ -400,7 +401,7 @@ public abstract class AbstractMappedClassFieldObserver {
                                 }
                             } else {
                                 for (int i = 0; i < len; i++) {
-                                    int value = ((Number) Array.get(array, i)).intValue();
+                                    int value = plan.integralComponent ? (int) readArrayElementAsLong(array, i) : ((Number) Array.get(array, i)).intValue();
                                     if (reverseBits) {
                                         value = (int) JBBPFieldInt.reverseBits(value);
                                     }
@@ -416,16 +417,18 @@ public abstract class AbstractMappedClassFieldObserver {
                             final int len = Array.getLength(array);
                             this.onArrayStart(obj, field, annotation, len);
                             if (fieldType.getComponentType() == float.class) {
+                                final float[] values = (float[]) array;
                                 for (int i = 0; i < len; i++) {
-                                    long value = Float.floatToIntBits(Array.getFloat(array, i));
+                                    long value = Float.floatToIntBits(values[i]);
                                     if (reverseBits) {
                                         value = JBBPFieldLong.reverseBits(value);
                                     }
                                     this.onFieldLong(obj, field, annotation, value);
                                 }
                             } else if (fieldType.getComponentType() == double.class) {
+                                final double[] values = (double[]) array;
                                 for (int i = 0; i < len; i++) {
-                                    long value = Double.doubleToLongBits(Array.getDouble(array, i));
+                                    long value = Double.doubleToLongBits(values[i]);
                                     if (reverseBits) {
                                         value = JBBPFieldLong.reverseBits(value);
                                     }
@@ -433,7 +436,7 @@ public abstract class AbstractMappedClassFieldObserver {
                                 }
                             } else {
                                 for (int i = 0; i < len; i++) {
-                                    long value = ((Number) Array.get(array, i)).longValue();
+                                    long value = plan.integralComponent ? readArrayElementAsLong(array, i) : ((Number) Array.get(array, i)).longValue();
                                     if (reverseBits) {
                                         value = JBBPFieldLong.reverseBits(value);
                                     }
@@ -601,10 +604,170 @@ public abstract class AbstractMappedClassFieldObserver {
      * the method allows to reset the inside cache.
      */
     public void resetInsideClassCache() {
-        final Map<Class<?>, Field[]> fieldz = cachedClasses;
-        if (fieldz != null) {
-            synchronized (fieldz) {
-                fieldz.clear();
+        cachedClasses.clear();
+    }
+
+    /**
+     * Resolved write plan of a class, it contains ordered fields to be written.
+     *
+     * @since 1.3.1
+     */
+    private static final class ClassPlan {
+
+        final Bin classAnnotation;
+        final FieldPlan[] fields;
+        final Map<Field, FieldPlan> fieldPlans;
+
+        ClassPlan(final Class<?> clazz) {
+            this.classAnnotation = clazz.getAnnotation(Bin.class);
+
+            // find out the outOrder of fields and fields which should be serialized
+            final List<Class<?>> listOfClassHierarchy = new ArrayList<Class<?>>();
+            final List<OrderedField> orderedFields = new ArrayList<OrderedField>();
+
+            Class<?> current = clazz;
+            while (current != java.lang.Object.class) {
+                listOfClassHierarchy.add(current);
+                current = current.getSuperclass();
+            }
+
+            for (int i = listOfClassHierarchy.size() - 1; i >= 0; i--) {
+                final Class<?> clazzToProcess = listOfClassHierarchy.get(i);
+                final Bin clazzAnno = clazzToProcess.getAnnotation(Bin.class);
+
+                for (final Field f : clazzToProcess.getDeclaredFields()) {
+                    final int modifiers = f.getModifiers();
+                    if (Modifier.isTransient(modifiers) || Modifier.isStatic(modifiers) || f.getName().indexOf('$') >= 0) {
+                        continue;
+                    }
+
+                    Bin fieldAnno = f.getAnnotation(Bin.class);
+                    fieldAnno = fieldAnno == null ? clazzAnno : fieldAnno;
+                    if (fieldAnno == null) {
+                        continue;
+                    }
+
+                    if (!f.isAccessible()) {
+                        JBBPUtils.makeAccessible(f);
+                    }
+
+                    orderedFields.add(new OrderedField(fieldAnno.outOrder(), f, fieldAnno));
+                }
+            }
+
+            Collections.sort(orderedFields);
+
+            this.fields = new FieldPlan[orderedFields.size()];
+            this.fieldPlans = new IdentityHashMap<Field, FieldPlan>(orderedFields.size() * 2);
+            for (int i = 0; i < orderedFields.size(); i++) {
+                final OrderedField orderedField = orderedFields.get(i);
+                this.fields[i] = new FieldPlan(orderedField.field, orderedField.annotation);
+                this.fieldPlans.put(orderedField.field, this.fields[i]);
+            }
+        }
+
+        /**
+         * Find plan of a field provided by the class plan.
+         *
+         * @param field the field, must not be null
+         * @return the plan of the field or null if the field object is not from the class plan
+         */
+        FieldPlan findFieldPlan(final Field field) {
+            return this.fieldPlans.get(field);
+        }
+    }
+
+    /**
+     * Resolved write plan of a field, it keeps all values which are derived from
+     * the field annotation and the field type.
+     *
+     * @since 1.3.1
+     */
+    private static final class FieldPlan {
+
+        final Field field;
+        final Bin annotation;
+        final Class<?> fieldType;
+        final boolean custom;
+        final BinType type;
+        final boolean reverseBits;
+        final JBBPBitNumber bitNumber;
+        final boolean primitiveNumber;
+        final boolean integralComponent;
+
+        FieldPlan(final Field field, final Bin annotation) {
+            this.field = field;
+            this.annotation = annotation;
+            this.fieldType = field.getType();
+            this.custom = annotation.custom();
+            this.type = this.custom ? null : annotation.type() == BinType.UNDEFINED ? BinType.findCompatible(this.fieldType) : annotation.type();
+            this.reverseBits = annotation.bitOrder() == JBBPBitOrder.MSB0;
+            this.bitNumber = annotation.outBitNumber();
+            this.primitiveNumber = this.fieldType.isPrimitive()
+                    && this.fieldType != boolean.class
+                    && this.fieldType != float.class
+                    && this.fieldType != double.class;
+            final Class<?> componentType = this.fieldType.getComponentType();
+            this.integralComponent = componentType == byte.class
+                    || componentType == short.class
+                    || componentType == char.class
+                    || componentType == int.class
+                    || componentType == long.class;
+        }
+
+        private long readPrimitiveNumber(final Object obj) {
+            try {
+                return this.field.getLong(obj);
+            } catch (Exception ex) {
+                throw new JBBPException("Can't get falue from field [" + this.field + ']', ex);
+            }
+        }
+
+        byte readByte(final Object obj) {
+            return this.primitiveNumber ? (byte) readPrimitiveNumber(obj) : ((Number) readFieldValue(obj, this.field)).byteValue();
+        }
+
+        short readShort(final Object obj) {
+            return this.primitiveNumber ? (short) readPrimitiveNumber(obj) : ((Number) readFieldValue(obj, this.field)).shortValue();
+        }
+
+        int readInt(final Object obj) {
+            return this.primitiveNumber ? (int) readPrimitiveNumber(obj) : ((Number) readFieldValue(obj, this.field)).intValue();
+        }
+
+        long readLong(final Object obj) {
+            return this.primitiveNumber ? readPrimitiveNumber(obj) : ((Number) readFieldValue(obj, this.field)).longValue();
+        }
+
+        boolean readBoolean(final Object obj) {
+            try {
+                return this.field.getBoolean(obj);
+            } catch (Exception ex) {
+                throw new JBBPException("Can't get falue from field [" + this.field + ']', ex);
+            }
+        }
+
+        char readChar(final Object obj) {
+            try {
+                return this.field.getChar(obj);
+            } catch (Exception ex) {
+                throw new JBBPException("Can't get falue from field [" + this.field + ']', ex);
+            }
+        }
+
+        float readFloat(final Object obj) {
+            try {
+                return this.field.getFloat(obj);
+            } catch (Exception ex) {
+                throw new JBBPException("Can't get falue from field [" + this.field + ']', ex);
+            }
+        }
+
+        double readDouble(final Object obj) {
+            try {
+                return this.field.getDouble(obj);
+            } catch (Exception ex) {
+                throw new JBBPException("Can't get falue from field [" + this.field + ']', ex);
             }
         }
     }
@@ -616,10 +779,12 @@ public abstract class AbstractMappedClassFieldObserver {
 
         final int order;
         final Field field;
+        final Bin annotation;
 
-        OrderedField(final int order, final Field field) {
+        OrderedField(final int order, final Field field, final Bin annotation) {
             this.order = order;
             this.field = field;
+            this.annotation = annotation;
         }
 
         @Override
@@ -22,6 +22,9 @@ import java.io.EOFException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.InvalidMarkException;
 
 /**
  * A Filter stream implementing a countable bit stream interface. It allows read
@@ -36,6 +39,12 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
      * The Initial an Array buffer size for whole stream read.
      */
     protected static final int INITIAL_ARRAY_BUFFER_SIZE = JBBPSystemProperty.PROPERTY_INPUT_INITIAL_ARRAY_BUFFER_SIZE.getAsInteger(32);
+    /**
+     * Default size of the inside read buffer in bytes, it is used if the buffered mode is on.
+     *
+     * @since 1.3.1
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
     /**
      * Flag shows that bit operations must be processed for MSB0 (most significant
      * bit 0) mode.
@@ -65,6 +74,20 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
      * Inside temp variable to keep the byte counter temporarily.
      */
     private long markedByteCounter;
+    /**
+     * Inside read buffer, null if the stream works in unbuffered mode. The
+     * Buffer is kept in read mode, its remaining bytes are not read yet.
+     *
+     * @since 1.3.1
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Flag shows that the inside buffer can be refilled from the wrapped stream,
+     * it is false if the stream reads a byte buffer provided by user.
+     *
+     * @since 1.3.1
+     */
+    private final boolean refillable;
 
     /**
      * A Constructor, the LSB0 bit order will be used by default.
@@ -84,9 +107,126 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
      * @see JBBPBitOrder#MSB0
      */
     public JBBPBitInputStream(final InputStream in, final JBBPBitOrder order) {
+        this(in, order, null, false);
+    }
+
+    /**
+     * A Constructor of a buffered stream. The Stream reads data from the wrapped
+     * stream by big chunks and decodes multi-byte values directly from the inside
+     * buffer. NB! The Stream can read more bytes from the wrapped stream than
+     * requested by read operations so that the wrapped stream should not be used
+     * directly after that. Mark and reset operations are not supported in the mode.
+     *
+     * @param in         an input stream to be filtered.
+     * @param order      a bit order mode for the filter.
+     * @param bufferSize size of the inside buffer in bytes, must be greater than zero
+     * @throws IllegalArgumentException if the buffer size is zero or negative
+     * @see #DEFAULT_BUFFER_SIZE
+     * @since 1.3.1
+     */
+    public JBBPBitInputStream(final InputStream in, final JBBPBitOrder order, final int bufferSize) {
+        this(in, order, allocateBuffer(bufferSize), true);
+    }
+
+    /**
+     * Inside constructor for streams working through a byte buffer.
+     *
+     * @param in         an input stream to be filtered, null only for not refillable buffer
+     * @param order      a bit order mode for the filter.
+     * @param buffer     a byte buffer in read mode, null for unbuffered mode
+     * @param refillable true if the buffer should be refilled from the input stream
+     */
+    private JBBPBitInputStream(final InputStream in, final JBBPBitOrder order, final ByteBuffer buffer, final boolean refillable) {
         super(in);
         this.bitsInBuffer = 0;
         this.msb0 = order == JBBPBitOrder.MSB0;
+        this.buffer = buffer;
+        this.refillable = refillable;
+    }
+
+    private static ByteBuffer allocateBuffer(final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be greater than zero [" + bufferSize + ']');
+        }
+        final ByteBuffer result = ByteBuffer.allocate(bufferSize);
+        result.flip();
+        return result;
+    }
+
+    /**
+     * Make a stream reading data directly from a byte buffer, the buffer can be
+     * direct one or memory mapped file. Data between the current position and
+     * the limit of the buffer will be read, the position of the provided buffer
+     * is not changed because the stream works with its duplicate. Mark and reset
+     * operations are supported. The Stream doesn't have any wrapped stream.
+     *
+     * @param source a byte buffer to be read, must not be null
+     * @param order  a bit order mode for the stream.
+     * @return new stream reading the buffer
+     * @since 1.3.1
+     */
+    public static JBBPBitInputStream fromBuffer(final ByteBuffer source, final JBBPBitOrder order) {
+        JBBPUtils.assertNotNull(source, "Source buffer must not be null");
+        return new JBBPBitInputStream(null, order, source.duplicate(), false);
+    }
+
+    /**
+     * Check that the stream works in buffered mode or reads a byte buffer.
+     *
+     * @return true if the stream reads data through a byte buffer, false otherwise
+     * @since 1.3.1
+     */
+    public boolean isBuffered() {
+        return this.buffer != null;
+    }
+
+    /**
+     * Fill the inside buffer from the wrapped stream. The Method makes at least one
+     * read operation and continues reading until the buffer contains requested
+     * number of bytes or the end of the wrapped stream has been reached.
+     *
+     * @param minBytes minimal number of bytes which should be in the buffer
+     * @return true if the buffer contains requested number of bytes, false otherwise
+     * @throws IOException it will be thrown for transport errors
+     */
+    private boolean fillBuffer(final int minBytes) throws IOException {
+        final ByteBuffer buff = this.buffer;
+        if (!this.refillable) {
+            return buff.remaining() >= minBytes;
+        }
+        buff.compact();
+        try {
+            do {
+                final int read = this.in.read(buff.array(), buff.arrayOffset() + buff.position(), buff.remaining());
+                if (read < 0) {
+                    break;
+                }
+                buff.position(buff.position() + read);
+            } while (buff.position() < minBytes);
+        } finally {
+            buff.flip();
+        }
+        return buff.remaining() >= minBytes;
+    }
+
+    /**
+     * Check that the buffer contains enough bytes to decode a value directly from
+     * it. Values can be decoded directly only if there are not buffered bits and
+     * bits in bytes must not be reversed.
+     *
+     * @param bytes number of bytes to be decoded
+     * @return true if the value can be read directly from the buffer
+     * @throws IOException it will be thrown for transport errors
+     */
+    private boolean canReadFromBuffer(final int bytes) throws IOException {
+        return this.buffer != null
+                && this.bitsInBuffer == 0
+                && !this.msb0
+                && (this.buffer.remaining() >= bytes || (this.buffer.capacity() >= bytes && fillBuffer(bytes)));
+    }
+
+    private static ByteOrder toNioOrder(final JBBPByteOrder byteOrder) {
+        return byteOrder == JBBPByteOrder.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
     }
 
     /**
@@ -171,7 +311,25 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
                     throw new EOFException("Have read only " + read + " byte(s) instead of " + items + " byte(s)");
                 }
             } else {
-                for (int i = 0; i < items; i++) {
+                final int bits = bitNumber.getBitNumber();
+                final int itemsPerWord = 64 / bits;
+                final int itemMask = (1 << bits) - 1;
+                int i = 0;
+                if (bits < 8) {
+                    while (items - i >= itemsPerWord) {
+                        long word;
+                        try {
+                            word = readBitsLong(itemsPerWord * bits);
+                        } catch (EOFException ex) {
+                            throw new EOFException("Have read only " + i + " bit portions instead of " + items);
+                        }
+                        for (int j = 0; j < itemsPerWord; j++) {
+                            buffer[i++] = (byte) (word & itemMask);
+                            word >>>= bits;
+                        }
+                    }
+                }
+                for (; i < items; i++) {
                     final int next = readBits(bitNumber);
                     if (next < 0) {
                         throw new EOFException("Have read only " + i + " bit portions instead of " + items);
@@ -411,6 +569,10 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
      * @see JBBPByteOrder#LITTLE_ENDIAN
      */
     public int readUnsignedShort(final JBBPByteOrder byteOrder) throws IOException {
+        if (canReadFromBuffer(2)) {
+            this.byteCounter += 2;
+            return this.buffer.order(toNioOrder(byteOrder)).getShort() & 0xFFFF;
+        }
         final int b0 = this.read();
         if (b0 < 0) {
             throw new EOFException();
@@ -435,6 +597,10 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
      * @see JBBPByteOrder#LITTLE_ENDIAN
      */
     public int readInt(final JBBPByteOrder byteOrder) throws IOException {
+        if (canReadFromBuffer(4)) {
+            this.byteCounter += 4;
+            return this.buffer.order(toNioOrder(byteOrder)).getInt();
+        }
         if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
             return (readUnsignedShort(byteOrder) << 16) | readUnsignedShort(byteOrder);
         } else {
@@ -455,6 +621,10 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
      * @see JBBPByteOrder#LITTLE_ENDIAN
      */
     public long readLong(final JBBPByteOrder byteOrder) throws IOException {
+        if (canReadFromBuffer(8)) {
+            this.byteCounter += 8;
+            return this.buffer.order(toNioOrder(byteOrder)).getLong();
+        }
         if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
             return (((long) readInt(byteOrder) & 0xFFFFFFFFL) << 32) | ((long) readInt(byteOrder) & 0xFFFFFFFFL);
         } else {
@@ -519,11 +689,10 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
     }
 
     /**
-     * Read number of bits from the input stream. It reads bits from input stream
-     * since 0 bit and make reversion to return bits in the right order when 0 bit
-     * is 0 bit. if the stream is completed early than the data read then reading
-     * is just stopped and read value returned. The First read bit is placed as
-     * 0th bit.
+     * Read number of bits from the input stream. Bits are extracted from the
+     * inside bit buffer and the next stream byte by shifts and masks. if the
+     * stream is completed early than the data read then reading is just stopped
+     * and read value returned. The First read bit is placed as 0th bit.
      *
      * @param numOfBitsToRead the number of bits to be read, must be 1..8
      * @return the read bits as integer, -1 if the end of stream has been reached
@@ -531,62 +700,102 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
      * @throws NullPointerException if number of bits to be read is null
      */
     public int readBits(final JBBPBitNumber numOfBitsToRead) throws IOException {
-        int result;
-
         final int numOfBitsAsNumber = numOfBitsToRead.getBitNumber();
+        final int bitsInTheBuffer = this.bitsInBuffer;
 
-        if (this.bitsInBuffer == 0 && numOfBitsAsNumber == 8) {
-            result = this.readByteFromStream();
+        if (bitsInTheBuffer == 0 && numOfBitsAsNumber == 8) {
+            final int result = this.readByteFromStream();
             if (result >= 0) {
                 this.byteCounter++;
             }
             return result;
-        } else {
-            result = 0;
+        }
 
-            if (numOfBitsAsNumber == this.bitsInBuffer) {
-                result = this.bitBuffer;
-                this.bitBuffer = 0;
-                this.bitsInBuffer = 0;
-                this.byteCounter++;
-                return result;
-            }
+        if (numOfBitsAsNumber == bitsInTheBuffer) {
+            final int result = this.bitBuffer;
+            this.bitBuffer = 0;
+            this.bitsInBuffer = 0;
+            this.byteCounter++;
+            return result;
+        }
 
-            int i = numOfBitsAsNumber;
-            int theBitBuffer = this.bitBuffer;
-            int theBitBufferCounter = this.bitsInBuffer;
+        if (numOfBitsAsNumber < bitsInTheBuffer) {
+            final int result = this.bitBuffer & ((1 << numOfBitsAsNumber) - 1);
+            this.bitBuffer >>>= numOfBitsAsNumber;
+            this.bitsInBuffer = bitsInTheBuffer - numOfBitsAsNumber;
+            return result;
+        }
 
-            final boolean doIncCounter = theBitBufferCounter != 0;
+        int result = this.bitBuffer & ((1 << bitsInTheBuffer) - 1);
+        if (bitsInTheBuffer != 0) {
+            this.byteCounter++;
+        }
+        this.bitBuffer = 0;
+        this.bitsInBuffer = 0;
 
-            while (i > 0) {
-                if (theBitBufferCounter == 0) {
-                    if (doIncCounter) {
-                        this.byteCounter++;
-                    }
-                    final int nextByte = this.readByteFromStream();
-                    if (nextByte < 0) {
-                        if (i == numOfBitsAsNumber) {
-                            return nextByte;
-                        } else {
-                            break;
-                        }
-                    } else {
-                        theBitBuffer = nextByte;
-                        theBitBufferCounter = 8;
-                    }
-                }
+        final int nextByte = this.readByteFromStream();
+        if (nextByte < 0) {
+            return bitsInTheBuffer == 0 ? nextByte : result;
+        }
 
-                result = (result << 1) | (theBitBuffer & 1);
-                theBitBuffer >>= 1;
-                theBitBufferCounter--;
-                i--;
-            }
+        final int restBits = numOfBitsAsNumber - bitsInTheBuffer;
+        result |= (nextByte & ((1 << restBits) - 1)) << bitsInTheBuffer;
+        this.bitBuffer = nextByte >>> restBits;
+        this.bitsInBuffer = 8 - restBits;
+        return result;
+    }
 
-            this.bitBuffer = theBitBuffer;
-            this.bitsInBuffer = theBitBufferCounter;
+    /**
+     * Read number of bits from the input stream as a long value. The First read
+     * bit is placed as 0th bit of the result, bits from the inside bit buffer
+     * are read first, whole bytes are placed into the result by shifts without
+     * bit by bit processing.
+     *
+     * @param numOfBitsToRead number of bits to be read, must be 1..64
+     * @return read bits as long value
+     * @throws IOException              it will be thrown for transport errors or if the end of stream has been reached before all bits were read
+     * @throws IllegalArgumentException if the number of bits is not in 1..64
+     * @since 1.3.1
+     */
+    public long readBitsLong(final int numOfBitsToRead) throws IOException {
+        if (numOfBitsToRead < 1 || numOfBitsToRead > 64) {
+            throw new IllegalArgumentException("Number of bits must be in 1..64 [" + numOfBitsToRead + ']');
+        }
 
-            return JBBPUtils.reverseBitsInByte(JBBPBitNumber.decode(numOfBitsAsNumber - i), (byte) result) & 0xFF;
+        final int bitsInTheBuffer = this.bitsInBuffer;
+        if (numOfBitsToRead <= bitsInTheBuffer) {
+            return this.readBits(JBBPBitNumber.decode(numOfBitsToRead));
         }
+
+        long result = this.bitBuffer & ((1 << bitsInTheBuffer) - 1);
+        int readBits = bitsInTheBuffer;
+        if (bitsInTheBuffer != 0) {
+            this.byteCounter++;
+        }
+        this.bitBuffer = 0;
+        this.bitsInBuffer = 0;
+
+        while (numOfBitsToRead - readBits >= 8) {
+            final int nextByte = this.readByteFromStream();
+            if (nextByte < 0) {
+                throw new EOFException("Have read only " + readBits + " bit(s) instead of " + numOfBitsToRead);
+            }
+            result |= (long) nextByte << readBits;
+            readBits += 8;
+            this.byteCounter++;
+        }
+
+        final int restBits = numOfBitsToRead - readBits;
+        if (restBits > 0) {
+            final int nextByte = this.readByteFromStream();
+            if (nextByte < 0) {
+                throw new EOFException("Have read only " + readBits + " bit(s) instead of " + numOfBitsToRead);
+            }
+            result |= (long) (nextByte & ((1 << restBits) - 1)) << readBits;
+            this.bitBuffer = nextByte >>> restBits;
+            this.bitsInBuffer = 8 - restBits;
+        }
+        return result;
     }
 
     /**
@@ -617,9 +826,40 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
         return read;
     }
 
+    @Override
+    public boolean markSupported() {
+        return this.buffer == null ? super.markSupported() : !this.refillable;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (this.buffer == null) {
+            return super.available();
+        }
+        return this.refillable ? this.buffer.remaining() + super.available() : this.buffer.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // a stream made for a byte buffer doesn't have any wrapped stream
+        if (this.in != null) {
+            super.close();
+        }
+    }
+
     @Override
     public synchronized void reset() throws IOException {
-        in.reset();
+        if (this.buffer == null) {
+            in.reset();
+        } else if (this.refillable) {
+            throw new IOException("Reset is not supported by buffered stream");
+        } else {
+            try {
+                this.buffer.reset();
+            } catch (InvalidMarkException ex) {
+                throw new IOException("Mark has not been set");
+            }
+        }
         this.bitBuffer = this.markedBitBuffer;
         this.byteCounter = this.markedByteCounter;
         this.bitsInBuffer = this.markedBitsInBuffer;
@@ -627,7 +867,13 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
 
     @Override
     public synchronized void mark(final int readlimit) {
-        in.mark(readlimit);
+        if (this.buffer == null) {
+            in.mark(readlimit);
+        } else if (this.refillable) {
+            return;
+        } else {
+            this.buffer.mark();
+        }
         this.markedBitBuffer = this.bitBuffer;
         this.markedByteCounter = this.byteCounter;
         this.markedBitsInBuffer = this.bitsInBuffer;
@@ -662,6 +908,19 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
     @Override
     public long skip(final long numOfBytes) throws IOException {
         if (this.bitsInBuffer == 0) {
+            if (this.buffer != null) {
+                if (numOfBytes <= 0L) {
+                    return 0L;
+                }
+                final int fromBuffer = (int) Math.min(numOfBytes, this.buffer.remaining());
+                this.buffer.position(this.buffer.position() + fromBuffer);
+                long r = fromBuffer;
+                if (this.refillable && numOfBytes > fromBuffer) {
+                    r += in.skip(numOfBytes - fromBuffer);
+                }
+                this.byteCounter += r;
+                return r;
+            }
             final long r = in.skip(numOfBytes);
             this.byteCounter += (int) r;
             return r;
@@ -687,7 +946,14 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
      * @throws IOException it will be thrown for transport errors
      */
     private int readByteFromStream() throws IOException {
-        int result = this.in.read();
+        int result;
+        if (this.buffer == null) {
+            result = this.in.read();
+        } else if (this.buffer.hasRemaining() || fillBuffer(1)) {
+            result = this.buffer.get() & 0xFF;
+        } else {
+            result = -1;
+        }
         if (result >= 0 && this.msb0) {
             result = JBBPUtils.reverseBitsInByte((byte) result) & 0xFF;
         }
@@ -725,14 +991,21 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
     }
 
     /**
-     * Check that there is available data to read from stream. NB: It will read
-     * one byte from the stream and will save it into inside bit buffer.
+     * Check that there is available data to read from stream. NB: It can read
+     * one byte from the stream and save it into inside bit buffer, in buffered
+     * mode the byte is kept in the read buffer.
      *
      * @return true if there is data to be read
      * @throws IOException it will be thrown for transport errors
      */
     public boolean hasAvailableData() throws IOException {
-        return this.bitsInBuffer > 0 || loadNextByteInBuffer() >= 0;
+        if (this.bitsInBuffer > 0) {
+            return true;
+        }
+        if (this.buffer != null && (this.buffer.hasRemaining() || fillBuffer(1))) {
+            return true;
+        }
+        return loadNextByteInBuffer() >= 0;
     }
 
     @Override
@@ -742,7 +1015,7 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
             int tmpoffset = offset;
             int tmplen = length;
             while (tmplen > 0) {
-                int read = this.in.read(array, tmpoffset, tmplen);
+                final int read = readFromStream(array, tmpoffset, tmplen);
                 if (read < 0) {
                     readBytes = readBytes == 0 ? read : readBytes;
                     break;
@@ -779,6 +1052,34 @@ public class JBBPBitInputStream extends FilterInputStream implements JBBPCountab
         }
     }
 
+    /**
+     * Inside method to read a block of bytes from the wrapped stream or from the
+     * inside buffer if the stream is buffered one. Big blocks are read directly
+     * from the wrapped stream if the buffer is empty.
+     *
+     * @param array  the destination array
+     * @param offset offset in the array
+     * @param length number of bytes to be read
+     * @return number of read bytes or -1 if the end of stream has been reached
+     * @throws IOException it will be thrown for transport errors
+     */
+    private int readFromStream(final byte[] array, final int offset, final int length) throws IOException {
+        if (this.buffer == null) {
+            return this.in.read(array, offset, length);
+        }
+        if (!this.buffer.hasRemaining()) {
+            if (this.refillable && length >= this.buffer.capacity()) {
+                return this.in.read(array, offset, length);
+            }
+            if (!fillBuffer(1)) {
+                return -1;
+            }
+        }
+        final int len = Math.min(length, this.buffer.remaining());
+        this.buffer.get(array, offset, len);
+        return len;
+    }
+
     /**
      * Reset the byte counter for the stream. The Inside bit buffer will be reset
      * also if it is not full.
@@ -20,13 +20,26 @@ import com.igormaznitsa.jbbp.utils.JBBPUtils;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
 
 /**
  * The Filter allows to write bit by bit into an output stream and count the written byte number. The Class is not a thread-safe one.
+ * A Buffered stream collects written bytes in an inside buffer and passes them to the wrapped stream by blocks, the buffer is flushed
+ * by {@link #flush()} and {@link #close()}.
  *
  * @since 1.0
  */
 public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCountableBitStream {
+    /**
+     * Default size of the inside write buffer.
+     *
+     * @since 1.3.1
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    /**
+     * Zero bytes used to write padding into unbuffered stream.
+     */
+    private static final byte[] ZERO_BLOCK = new byte[256];
     /**
      * Flag shows that bit operations must be processed for MSB0 (most significant
      * bit 0) mode.
@@ -44,6 +57,14 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
      * The byte counter of written bytes.
      */
     private long byteCounter;
+    /**
+     * Inside write buffer, null for unbuffered mode.
+     */
+    private final byte[] buffer;
+    /**
+     * Number of bytes collected in the write buffer.
+     */
+    private int bufferPosition;
 
     /**
      * A Constructor. The Default LSB0 bit mode will be used for bit writing operations.
@@ -65,6 +86,69 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
     public JBBPBitOutputStream(final OutputStream out, final JBBPBitOrder order) {
         super(out);
         this.msb0 = order == JBBPBitOrder.MSB0;
+        this.buffer = null;
+    }
+
+    /**
+     * A Constructor of buffered stream which passes data to the wrapped stream
+     * by blocks. NB! Collected data will be written into the wrapped stream
+     * only during flush or close or if the buffer is full.
+     *
+     * @param out        an output stream to be filtered.
+     * @param order      a bit writing mode to used for writing operations.
+     * @param bufferSize size of the inside write buffer, must be greater than zero
+     * @throws IllegalArgumentException if the buffer size is zero or negative
+     * @see #DEFAULT_BUFFER_SIZE
+     * @since 1.3.1
+     */
+    public JBBPBitOutputStream(final OutputStream out, final JBBPBitOrder order, final int bufferSize) {
+        super(out);
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be greater than zero [" + bufferSize + ']');
+        }
+        this.msb0 = order == JBBPBitOrder.MSB0;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Check that the stream collects written data in an inside buffer.
+     *
+     * @return true if the stream is buffered one, false otherwise
+     * @since 1.3.1
+     */
+    public boolean isBuffered() {
+        return this.buffer != null;
+    }
+
+    /**
+     * Write collected bytes from the inside buffer into the wrapped stream.
+     *
+     * @throws IOException it will be thrown for transport errors
+     */
+    private void flushWriteBuffer() throws IOException {
+        if (this.bufferPosition > 0) {
+            final int len = this.bufferPosition;
+            this.bufferPosition = 0;
+            this.out.write(this.buffer, 0, len);
+        }
+    }
+
+    /**
+     * Check that the fast path can be used to place whole bytes directly into the buffer.
+     *
+     * @param bytes number of bytes to be placed
+     * @return true if bytes can be placed directly, false otherwise
+     * @throws IOException it will be thrown for transport errors
+     */
+    private boolean prepareBufferFor(final int bytes) throws IOException {
+        if (this.buffer == null || this.bitBufferCount != 0 || this.msb0) {
+            return false;
+        }
+        if (this.buffer.length - this.bufferPosition < bytes) {
+            flushWriteBuffer();
+            return this.buffer.length >= bytes;
+        }
+        return true;
     }
 
     /**
@@ -89,7 +173,19 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
      * @see JBBPByteOrder#LITTLE_ENDIAN
      */
     public void writeShort(final int value, final JBBPByteOrder byteOrder) throws IOException {
-        if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+        if (prepareBufferFor(2)) {
+            final byte[] buf = this.buffer;
+            int pos = this.bufferPosition;
+            if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+                buf[pos++] = (byte) (value >>> 8);
+                buf[pos++] = (byte) value;
+            } else {
+                buf[pos++] = (byte) value;
+                buf[pos++] = (byte) (value >>> 8);
+            }
+            this.bufferPosition = pos;
+            this.byteCounter += 2;
+        } else if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
             this.write(value >>> 8);
             this.write(value);
         } else {
@@ -108,7 +204,21 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
      * @see JBBPByteOrder#LITTLE_ENDIAN
      */
     public void writeInt(final int value, final JBBPByteOrder byteOrder) throws IOException {
-        if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+        if (prepareBufferFor(4)) {
+            final byte[] buf = this.buffer;
+            int pos = this.bufferPosition;
+            if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+                for (int shift = 24; shift >= 0; shift -= 8) {
+                    buf[pos++] = (byte) (value >>> shift);
+                }
+            } else {
+                for (int shift = 0; shift < 32; shift += 8) {
+                    buf[pos++] = (byte) (value >>> shift);
+                }
+            }
+            this.bufferPosition = pos;
+            this.byteCounter += 4;
+        } else if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
             this.writeShort(value >>> 16, byteOrder);
             this.writeShort(value, byteOrder);
         } else {
@@ -127,7 +237,21 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
      * @see JBBPByteOrder#LITTLE_ENDIAN
      */
     public void writeLong(final long value, final JBBPByteOrder byteOrder) throws IOException {
-        if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+        if (prepareBufferFor(8)) {
+            final byte[] buf = this.buffer;
+            int pos = this.bufferPosition;
+            if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    buf[pos++] = (byte) (value >>> shift);
+                }
+            } else {
+                for (int shift = 0; shift < 64; shift += 8) {
+                    buf[pos++] = (byte) (value >>> shift);
+                }
+            }
+            this.bufferPosition = pos;
+            this.byteCounter += 8;
+        } else if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
             this.writeInt((int) (value >>> 32), byteOrder);
             this.writeInt((int) value, byteOrder);
         } else {
@@ -181,13 +305,27 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
     @Override
     public void flush() throws IOException {
         flushBitBuffer();
+        flushWriteBuffer();
         this.out.flush();
     }
 
     @Override
     public void write(final byte[] b, final int off, final int len) throws IOException {
         if (this.bitBufferCount == 0) {
-            out.write(b, off, len);
+            if (this.buffer == null) {
+                out.write(b, off, len);
+            } else if (len <= this.buffer.length - this.bufferPosition) {
+                System.arraycopy(b, off, this.buffer, this.bufferPosition, len);
+                this.bufferPosition += len;
+            } else {
+                flushWriteBuffer();
+                if (len < this.buffer.length) {
+                    System.arraycopy(b, off, this.buffer, 0, len);
+                    this.bufferPosition = len;
+                } else {
+                    out.write(b, off, len);
+                }
+            }
             this.byteCounter += len;
         } else {
             int i = off;
@@ -256,9 +394,20 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
         if (alignByteNumber > 0) {
             long padding = (alignByteNumber - (this.byteCounter % alignByteNumber)) % alignByteNumber;
             while (padding > 0) {
-                this.out.write(0);
-                this.byteCounter++;
-                padding--;
+                final int len;
+                if (this.buffer == null) {
+                    len = (int) Math.min(padding, ZERO_BLOCK.length);
+                    this.out.write(ZERO_BLOCK, 0, len);
+                } else {
+                    if (this.bufferPosition == this.buffer.length) {
+                        flushWriteBuffer();
+                    }
+                    len = (int) Math.min(padding, this.buffer.length - this.bufferPosition);
+                    Arrays.fill(this.buffer, this.bufferPosition, this.bufferPosition + len, (byte) 0);
+                    this.bufferPosition += len;
+                }
+                this.byteCounter += len;
+                padding -= len;
             }
         }
     }
@@ -273,7 +422,14 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
         if (this.msb0) {
             value = JBBPUtils.reverseBitsInByte((byte) value) & 0xFF;
         }
-        this.out.write(value);
+        if (this.buffer == null) {
+            this.out.write(value);
+        } else {
+            if (this.bufferPosition == this.buffer.length) {
+                flushWriteBuffer();
+            }
+            this.buffer[this.bufferPosition++] = (byte) value;
+        }
         this.byteCounter++;
     }
 
@@ -313,6 +469,16 @@ public class JBBPBitOutputStream extends FilterOutputStream implements JBBPCount
         }
     }
 
+    /**
+     * Drop all bytes collected in the write buffer and not passed into the
+     * wrapped stream yet. The Byte counter and the bit buffer are not changed.
+     *
+     * @since 1.3.1
+     */
+    void discardWriteBuffer() {
+        this.bufferPosition = 0;
+    }
+
     /**
      * Reset the byte counter for the stream. The Inside bit buffer will be reset also.
      */
@@ -0,0 +1,591 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reader of data from a byte buffer by absolute indexes, it doesn't change
+ * position of the buffer and keeps its own cursor. Data is available from the
+ * start offset till the buffer limit detected during creation. The Reader has
+ * the same bit and counter semantics as {@link JBBPBitInputStream} but values
+ * are decoded directly from the buffer, it is used by classes generated for
+ * buffers. Aligned methods can be used only if there are not buffered bits and
+ * the bit order is LSB0, they don't make any checks of bit state.
+ *
+ * @see JBBPBitInputStream
+ * @since 1.3.1
+ */
+public final class JBBPByteBufferReader {
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final boolean msb0;
+    private int position;
+    private int counterStart;
+    private int bitBuffer;
+    private int bitsInBuffer;
+
+    /**
+     * Constructor with LSB0 bit order.
+     *
+     * @param buffer buffer contains data, must not be null
+     * @param offset offset of the first byte in the buffer
+     */
+    public JBBPByteBufferReader(final ByteBuffer buffer, final int offset) {
+        this(buffer, offset, JBBPBitOrder.LSB0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param buffer buffer contains data, must not be null
+     * @param offset offset of the first byte in the buffer
+     * @param order  bit order to read bits, must not be null
+     * @throws IllegalArgumentException if the offset is out of the buffer limit
+     */
+    public JBBPByteBufferReader(final ByteBuffer buffer, final int offset, final JBBPBitOrder order) {
+        JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+        JBBPUtils.assertNotNull(order, "Bit order must not be null");
+        if (offset < 0 || offset > buffer.limit()) {
+            throw new IllegalArgumentException("Wrong offset [" + offset + ']');
+        }
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+        this.msb0 = order == JBBPBitOrder.MSB0;
+        this.position = offset;
+        this.counterStart = offset;
+    }
+
+    /**
+     * Get the index of the next byte to be read from the buffer.
+     *
+     * @return the index in the buffer, if there are buffered bits then their byte has been already taken
+     */
+    public int getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Get the bit order of the reader.
+     *
+     * @return the bit order, must not be null
+     */
+    public JBBPBitOrder getBitOrder() {
+        return this.msb0 ? JBBPBitOrder.MSB0 : JBBPBitOrder.LSB0;
+    }
+
+    /**
+     * Get number of fully read bytes since start or the last counter reset.
+     *
+     * @return the counter value
+     * @see JBBPBitInputStream#getCounter()
+     */
+    public long getCounter() {
+        return this.position - this.counterStart - (this.bitsInBuffer == 0 ? 0 : 1);
+    }
+
+    /**
+     * Reset the byte counter, not read buffered bits are dropped.
+     *
+     * @see JBBPBitInputStream#resetCounter()
+     */
+    public void resetCounter() {
+        this.bitsInBuffer = 0;
+        this.bitBuffer = 0;
+        this.counterStart = this.position;
+    }
+
+    /**
+     * Get number of buffered bits.
+     *
+     * @return number of bits in the bit buffer, 0..7
+     */
+    public int getBufferedBitsNumber() {
+        return this.bitsInBuffer;
+    }
+
+    /**
+     * Check that there is data to be read.
+     *
+     * @return true if there are buffered bits or not read bytes
+     */
+    public boolean hasAvailableData() {
+        return this.bitsInBuffer > 0 || this.position < this.limit;
+    }
+
+    /**
+     * Drop buffered bits.
+     */
+    public void alignByte() {
+        this.bitsInBuffer = 0;
+        this.bitBuffer = 0;
+    }
+
+    /**
+     * Drop buffered bits and skip bytes to make the counter value aligned.
+     *
+     * @param alignByteNumber the align border, if zero or negative then only buffered bits are dropped
+     * @throws EOFException if the buffer limit has been reached before the border
+     * @see JBBPBitInputStream#align(long)
+     */
+    public void align(final long alignByteNumber) throws IOException {
+        this.alignByte();
+        if (alignByteNumber > 0) {
+            final long padding = (alignByteNumber - (this.getCounter() % alignByteNumber)) % alignByteNumber;
+            if (padding > this.limit - this.position) {
+                throw new EOFException("Can't align for " + alignByteNumber + " byte(s)");
+            }
+            this.position += (int) padding;
+        }
+    }
+
+    /**
+     * Skip bytes.
+     *
+     * @param numOfBytes number of bytes to be skipped
+     * @throws EOFException if there is not enough data
+     */
+    public void skip(final long numOfBytes) throws IOException {
+        if (this.bitsInBuffer == 0) {
+            if (numOfBytes > this.limit - this.position) {
+                throw new EOFException("Can't skip " + numOfBytes + " byte(s)");
+            }
+            if (numOfBytes > 0) {
+                this.position += (int) numOfBytes;
+            }
+        } else {
+            for (long i = 0; i < numOfBytes; i++) {
+                readByte();
+            }
+        }
+    }
+
+    private int nextByte() throws IOException {
+        if (this.position >= this.limit) {
+            throw new EOFException();
+        }
+        final int result = this.buffer.get(this.position++) & 0xFF;
+        return this.msb0 ? JBBPUtils.reverseBitsInByte((byte) result) & 0xFF : result;
+    }
+
+    /**
+     * Read bits, if the buffer end has been reached in the middle then already
+     * read bits are returned.
+     *
+     * @param numOfBits number of bits, 1..8
+     * @return read bits or -1 if there is not any data
+     */
+    private int readBitsOrEof(final int numOfBits) {
+        final int bitsInTheBuffer = this.bitsInBuffer;
+
+        if (numOfBits <= bitsInTheBuffer) {
+            final int result = this.bitBuffer & ((1 << numOfBits) - 1);
+            this.bitBuffer >>>= numOfBits;
+            this.bitsInBuffer = bitsInTheBuffer - numOfBits;
+            return result;
+        }
+
+        int result = this.bitBuffer & ((1 << bitsInTheBuffer) - 1);
+        this.bitBuffer = 0;
+        this.bitsInBuffer = 0;
+
+        if (this.position >= this.limit) {
+            return bitsInTheBuffer == 0 ? -1 : result;
+        }
+
+        int nextByte = this.buffer.get(this.position++) & 0xFF;
+        if (this.msb0) {
+            nextByte = JBBPUtils.reverseBitsInByte((byte) nextByte) & 0xFF;
+        }
+
+        final int restBits = numOfBits - bitsInTheBuffer;
+        result |= (nextByte & ((1 << restBits) - 1)) << bitsInTheBuffer;
+        this.bitBuffer = nextByte >>> restBits;
+        this.bitsInBuffer = 8 - restBits;
+        return result;
+    }
+
+    /**
+     * Read bit field.
+     *
+     * @param bitNumber number of bits, must not be null
+     * @return read bits as byte
+     * @throws EOFException if there is not any data
+     */
+    public byte readBitField(final JBBPBitNumber bitNumber) throws IOException {
+        final int result = readBitsOrEof(bitNumber.getBitNumber());
+        if (result < 0) {
+            throw new EOFException("Can't read bits from buffer [" + bitNumber + ']');
+        }
+        return (byte) result;
+    }
+
+    /**
+     * Read a byte.
+     *
+     * @return read unsigned byte value
+     * @throws EOFException if there is not enough data
+     */
+    public int readByte() throws IOException {
+        if (this.bitsInBuffer == 0) {
+            return nextByte();
+        }
+        final int result = readBitsOrEof(8);
+        if (result < 0) {
+            throw new EOFException();
+        }
+        return result;
+    }
+
+    /**
+     * Read a boolean value saved as a byte.
+     *
+     * @return true if the byte is not zero
+     * @throws EOFException if there is not enough data
+     */
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    /**
+     * Read an unsigned short value.
+     *
+     * @param byteOrder byte order, must not be null
+     * @return read value
+     * @throws EOFException if there is not enough data
+     */
+    public int readUnsignedShort(final JBBPByteOrder byteOrder) throws IOException {
+        if (this.bitsInBuffer == 0 && !this.msb0) {
+            return readAlignedUnsignedShort(byteOrder);
+        }
+        final int b0 = readByte();
+        final int b1 = readByte();
+        return byteOrder == JBBPByteOrder.BIG_ENDIAN ? (b0 << 8) | b1 : (b1 << 8) | b0;
+    }
+
+    /**
+     * Read an integer value.
+     *
+     * @param byteOrder byte order, must not be null
+     * @return read value
+     * @throws EOFException if there is not enough data
+     */
+    public int readInt(final JBBPByteOrder byteOrder) throws IOException {
+        if (this.bitsInBuffer == 0 && !this.msb0) {
+            return readAlignedInt(byteOrder);
+        }
+        if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+            return (readUnsignedShort(byteOrder) << 16) | readUnsignedShort(byteOrder);
+        } else {
+            return readUnsignedShort(byteOrder) | (readUnsignedShort(byteOrder) << 16);
+        }
+    }
+
+    /**
+     * Read a long value.
+     *
+     * @param byteOrder byte order, must not be null
+     * @return read value
+     * @throws EOFException if there is not enough data
+     */
+    public long readLong(final JBBPByteOrder byteOrder) throws IOException {
+        if (this.bitsInBuffer == 0 && !this.msb0) {
+            return readAlignedLong(byteOrder);
+        }
+        if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+            return (((long) readInt(byteOrder) & 0xFFFFFFFFL) << 32) | ((long) readInt(byteOrder) & 0xFFFFFFFFL);
+        } else {
+            return ((long) readInt(byteOrder) & 0xFFFFFFFFL) | (((long) readInt(byteOrder) & 0xFFFFFFFFL) << 32);
+        }
+    }
+
+    private int take(final int bytes) throws IOException {
+        final int result = this.position;
+        if (this.limit - result < bytes) {
+            throw new EOFException("Can't read " + bytes + " byte(s)");
+        }
+        this.position = result + bytes;
+        return result;
+    }
+
+    /**
+     * Read an unsigned byte directly from the buffer.
+     *
+     * @return read value
+     * @throws EOFException if there is not enough data
+     */
+    public int readAlignedByte() throws IOException {
+        return this.buffer.get(take(1)) & 0xFF;
+    }
+
+    /**
+     * Read an unsigned short value directly from the buffer.
+     *
+     * @param byteOrder byte order, must not be null
+     * @return read value
+     * @throws EOFException if there is not enough data
+     */
+    public int readAlignedUnsignedShort(final JBBPByteOrder byteOrder) throws IOException {
+        final short value = this.buffer.getShort(take(2));
+        return (isSameOrder(byteOrder) ? value : Short.reverseBytes(value)) & 0xFFFF;
+    }
+
+    /**
+     * Read an integer value directly from the buffer.
+     *
+     * @param byteOrder byte order, must not be null
+     * @return read value
+     * @throws EOFException if there is not enough data
+     */
+    public int readAlignedInt(final JBBPByteOrder byteOrder) throws IOException {
+        final int value = this.buffer.getInt(take(4));
+        return isSameOrder(byteOrder) ? value : Integer.reverseBytes(value);
+    }
+
+    /**
+     * Read a long value directly from the buffer.
+     *
+     * @param byteOrder byte order, must not be null
+     * @return read value
+     * @throws EOFException if there is not enough data
+     */
+    public long readAlignedLong(final JBBPByteOrder byteOrder) throws IOException {
+        final long value = this.buffer.getLong(take(8));
+        return isSameOrder(byteOrder) ? value : Long.reverseBytes(value);
+    }
+
+    private boolean isSameOrder(final JBBPByteOrder byteOrder) {
+        return (this.buffer.order() == ByteOrder.BIG_ENDIAN) == (byteOrder == JBBPByteOrder.BIG_ENDIAN);
+    }
+
+    private boolean isDirect() {
+        return this.bitsInBuffer == 0 && !this.msb0;
+    }
+
+    private int countWholeStreamItems(final int itemSize) throws IOException {
+        final int rest = this.limit - this.position;
+        if (rest % itemSize != 0) {
+            throw new EOFException("Buffer contains incomplete item [" + rest + " byte(s) for " + itemSize + " byte item]");
+        }
+        return rest / itemSize;
+    }
+
+    /**
+     * Read array of bit fields.
+     *
+     * @param items     number of items, if negative then till the buffer end
+     * @param bitNumber number of bits in items, must not be null
+     * @return read items
+     * @throws EOFException if there is not enough data
+     */
+    public byte[] readBitsArray(final int items, final JBBPBitNumber bitNumber) throws IOException {
+        final int bits = bitNumber.getBitNumber();
+        if (bits == 8) {
+            return readByteArray(items, JBBPByteOrder.BIG_ENDIAN);
+        }
+        if (items < 0) {
+            final int maxItems = ((this.limit - this.position) * 8 + this.bitsInBuffer + bits - 1) / bits;
+            final byte[] result = new byte[maxItems];
+            int pos = 0;
+            while (true) {
+                final int next = readBitsOrEof(bits);
+                if (next < 0) {
+                    break;
+                }
+                result[pos++] = (byte) next;
+            }
+            if (pos == maxItems) {
+                return result;
+            }
+            final byte[] cut = new byte[pos];
+            System.arraycopy(result, 0, cut, 0, pos);
+            return cut;
+        } else {
+            final byte[] result = new byte[items];
+            for (int i = 0; i < items; i++) {
+                final int next = readBitsOrEof(bits);
+                if (next < 0) {
+                    throw new EOFException("Have read only " + i + " bit portions instead of " + items);
+                }
+                result[i] = (byte) next;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Read array of boolean values saved as bytes.
+     *
+     * @param items number of items, if negative then till the buffer end
+     * @return read items
+     * @throws EOFException if there is not enough data
+     */
+    public boolean[] readBoolArray(final int items) throws IOException {
+        final byte[] data = readByteArray(items, JBBPByteOrder.BIG_ENDIAN);
+        final boolean[] result = new boolean[data.length];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = data[i] != 0;
+        }
+        return result;
+    }
+
+    /**
+     * Read array of bytes.
+     *
+     * @param items     number of items, if negative then till the buffer end
+     * @param byteOrder if LITTLE_ENDIAN then the array will be reversed
+     * @return read items
+     * @throws EOFException if there is not enough data
+     */
+    public byte[] readByteArray(final int items, final JBBPByteOrder byteOrder) throws IOException {
+        final byte[] result;
+        if (isDirect()) {
+            final int len = items < 0 ? this.limit - this.position : items;
+            final int start = take(len);
+            result = new byte[len];
+            if (this.buffer.hasArray()) {
+                System.arraycopy(this.buffer.array(), this.buffer.arrayOffset() + start, result, 0, len);
+            } else {
+                for (int i = 0; i < len; i++) {
+                    result[i] = this.buffer.get(start + i);
+                }
+            }
+        } else if (items < 0) {
+            final byte[] buffer = new byte[this.limit - this.position + (this.bitsInBuffer == 0 ? 0 : 1)];
+            int pos = 0;
+            while (true) {
+                final int next = readBitsOrEof(8);
+                if (next < 0) {
+                    break;
+                }
+                buffer[pos++] = (byte) next;
+            }
+            if (pos == buffer.length) {
+                result = buffer;
+            } else {
+                result = new byte[pos];
+                System.arraycopy(buffer, 0, result, 0, pos);
+            }
+        } else {
+            result = new byte[items];
+            for (int i = 0; i < items; i++) {
+                result[i] = (byte) readByte();
+            }
+        }
+        if (byteOrder == JBBPByteOrder.LITTLE_ENDIAN) {
+            JBBPUtils.reverseArray(result);
+        }
+        return result;
+    }
+
+    /**
+     * Read array of short values.
+     *
+     * @param items     number of items, if negative then till the buffer end
+     * @param byteOrder byte order, must not be null
+     * @return read items
+     * @throws EOFException if there is not enough data
+     */
+    public short[] readShortArray(final int items, final JBBPByteOrder byteOrder) throws IOException {
+        final int len = items < 0 ? countWholeStreamItems(2) : items;
+        final short[] result = new short[len];
+        if (isDirect()) {
+            for (int i = 0; i < len; i++) {
+                result[i] = (short) readAlignedUnsignedShort(byteOrder);
+            }
+        } else {
+            for (int i = 0; i < len; i++) {
+                result[i] = (short) readUnsignedShort(byteOrder);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read array of unsigned short values.
+     *
+     * @param items     number of items, if negative then till the buffer end
+     * @param byteOrder byte order, must not be null
+     * @return read items
+     * @throws EOFException if there is not enough data
+     */
+    public char[] readUShortArray(final int items, final JBBPByteOrder byteOrder) throws IOException {
+        final int len = items < 0 ? countWholeStreamItems(2) : items;
+        final char[] result = new char[len];
+        if (isDirect()) {
+            for (int i = 0; i < len; i++) {
+                result[i] = (char) readAlignedUnsignedShort(byteOrder);
+            }
+        } else {
+            for (int i = 0; i < len; i++) {
+                result[i] = (char) readUnsignedShort(byteOrder);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read array of integer values.
+     *
+     * @param items     number of items, if negative then till the buffer end
+     * @param byteOrder byte order, must not be null
+     * @return read items
+     * @throws EOFException if there is not enough data
+     */
+    public int[] readIntArray(final int items, final JBBPByteOrder byteOrder) throws IOException {
+        final int len = items < 0 ? countWholeStreamItems(4) : items;
+        final int[] result = new int[len];
+        if (isDirect()) {
+            for (int i = 0; i < len; i++) {
+                result[i] = readAlignedInt(byteOrder);
+            }
+        } else {
+            for (int i = 0; i < len; i++) {
+                result[i] = readInt(byteOrder);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read array of long values.
+     *
+     * @param items     number of items, if negative then till the buffer end
+     * @param byteOrder byte order, must not be null
+     * @return read items
+     * @throws EOFException if there is not enough data
+     */
+    public long[] readLongArray(final int items, final JBBPByteOrder byteOrder) throws IOException {
+        final int len = items < 0 ? countWholeStreamItems(8) : items;
+        final long[] result = new long[len];
+        if (isDirect()) {
+            for (int i = 0; i < len; i++) {
+                result[i] = readAlignedLong(byteOrder);
+            }
+        } else {
+            for (int i = 0; i < len; i++) {
+                result[i] = readLong(byteOrder);
+            }
+        }
+        return result;
+    }
+}
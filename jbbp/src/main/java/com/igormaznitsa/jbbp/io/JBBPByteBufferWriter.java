@@ -0,0 +1,464 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Writer of data into a byte buffer by absolute indexes, it doesn't change
+ * position of the buffer and keeps its own cursor. Data can be written from the
+ * start offset till the buffer limit detected during creation. The Writer has
+ * the same bit and counter semantics as {@link JBBPBitOutputStream} but values
+ * are encoded directly into the buffer, it is used by classes generated for
+ * buffers. Aligned methods can be used only if there are not buffered bits and
+ * the bit order is LSB0, they don't make any checks of bit state. Buffered bits
+ * are written only by {@link #flush()} or during alignment.
+ *
+ * @see JBBPBitOutputStream
+ * @since 1.3.1
+ */
+public final class JBBPByteBufferWriter {
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final boolean msb0;
+    private int position;
+    private int counterStart;
+    private int bitBuffer;
+    private int bitsInBuffer;
+
+    /**
+     * Constructor with LSB0 bit order.
+     *
+     * @param buffer buffer to be written, must not be null
+     * @param offset offset of the first byte in the buffer
+     */
+    public JBBPByteBufferWriter(final ByteBuffer buffer, final int offset) {
+        this(buffer, offset, JBBPBitOrder.LSB0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param buffer buffer to be written, must not be null
+     * @param offset offset of the first byte in the buffer
+     * @param order  bit order to write bits, must not be null
+     * @throws IllegalArgumentException if the offset is out of the buffer limit
+     */
+    public JBBPByteBufferWriter(final ByteBuffer buffer, final int offset, final JBBPBitOrder order) {
+        JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+        JBBPUtils.assertNotNull(order, "Bit order must not be null");
+        if (offset < 0 || offset > buffer.limit()) {
+            throw new IllegalArgumentException("Wrong offset [" + offset + ']');
+        }
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+        this.msb0 = order == JBBPBitOrder.MSB0;
+        this.position = offset;
+        this.counterStart = offset;
+    }
+
+    /**
+     * Get the index of the next byte to be written into the buffer.
+     *
+     * @return the index in the buffer, buffered bits are not counted
+     */
+    public int getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Get the bit order of the writer.
+     *
+     * @return the bit order, must not be null
+     */
+    public JBBPBitOrder getBitOrder() {
+        return this.msb0 ? JBBPBitOrder.MSB0 : JBBPBitOrder.LSB0;
+    }
+
+    /**
+     * Get number of written bytes since start or the last counter reset.
+     *
+     * @return the counter value
+     * @see JBBPBitOutputStream#getCounter()
+     */
+    public long getCounter() {
+        return this.position - this.counterStart;
+    }
+
+    /**
+     * Reset the byte counter, buffered bits are dropped.
+     *
+     * @see JBBPBitOutputStream#resetCounter()
+     */
+    public void resetCounter() {
+        this.bitBuffer = 0;
+        this.bitsInBuffer = 0;
+        this.counterStart = this.position;
+    }
+
+    /**
+     * Get number of buffered bits.
+     *
+     * @return number of bits in the bit buffer, 0..7
+     */
+    public int getBufferedBitsNumber() {
+        return this.bitsInBuffer;
+    }
+
+    /**
+     * Write buffered bits as a byte.
+     *
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void flush() throws IOException {
+        if (this.bitsInBuffer > 0) {
+            this.bitsInBuffer = 0;
+            putByte(this.bitBuffer);
+            this.bitBuffer = 0;
+        }
+    }
+
+    /**
+     * Write buffered bits and write zero bytes to make the counter value aligned.
+     *
+     * @param alignByteNumber the align border, if zero or negative then only buffered bits are written
+     * @throws IOException if there is not enough space in the buffer
+     * @see JBBPBitOutputStream#align(long)
+     */
+    public void align(final long alignByteNumber) throws IOException {
+        this.flush();
+        if (alignByteNumber > 0) {
+            writeZeroBytes((alignByteNumber - (this.getCounter() % alignByteNumber)) % alignByteNumber);
+        }
+    }
+
+    /**
+     * Write number of zero bytes.
+     *
+     * @param numOfBytes number of bytes to be written
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeZeroBytes(final long numOfBytes) throws IOException {
+        if (this.bitsInBuffer == 0) {
+            if (numOfBytes > 0) {
+                final int start = take((int) Math.min(numOfBytes, Integer.MAX_VALUE));
+                for (int i = 0; i < numOfBytes; i++) {
+                    this.buffer.put(start + i, (byte) 0);
+                }
+            }
+        } else {
+            for (long i = 0; i < numOfBytes; i++) {
+                write(0);
+            }
+        }
+    }
+
+    private int take(final int bytes) throws IOException {
+        final int result = this.position;
+        if (this.limit - result < bytes) {
+            throw new IOException("Not enough space in buffer");
+        }
+        this.position = result + bytes;
+        return result;
+    }
+
+    private void putByte(int value) throws IOException {
+        if (this.msb0) {
+            value = JBBPUtils.reverseBitsInByte((byte) value) & 0xFF;
+        }
+        this.buffer.put(take(1), (byte) value);
+    }
+
+    private boolean isSameOrder(final JBBPByteOrder byteOrder) {
+        return (this.buffer.order() == ByteOrder.BIG_ENDIAN) == (byteOrder == JBBPByteOrder.BIG_ENDIAN);
+    }
+
+    private boolean isDirect() {
+        return this.bitsInBuffer == 0 && !this.msb0;
+    }
+
+    /**
+     * Write bits of a value, the lowest bit is written first.
+     *
+     * @param value     the value
+     * @param bitNumber number of bits to be written, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeBits(final int value, final JBBPBitNumber bitNumber) throws IOException {
+        final int bits = bitNumber.getBitNumber();
+        final int bitsInTheBuffer = this.bitsInBuffer;
+
+        if (bitsInTheBuffer == 0 && bits == 8) {
+            putByte(value);
+            return;
+        }
+
+        final int accum = this.bitBuffer | ((value & ((1 << bits) - 1)) << bitsInTheBuffer);
+        final int total = bitsInTheBuffer + bits;
+        if (total >= 8) {
+            this.bitBuffer = 0;
+            this.bitsInBuffer = 0;
+            putByte(accum & 0xFF);
+            this.bitBuffer = accum >>> 8;
+            this.bitsInBuffer = total - 8;
+        } else {
+            this.bitBuffer = accum;
+            this.bitsInBuffer = total;
+        }
+    }
+
+    /**
+     * Write a byte.
+     *
+     * @param value the byte value
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void write(final int value) throws IOException {
+        if (this.bitsInBuffer == 0) {
+            putByte(value);
+        } else {
+            writeBits(value, JBBPBitNumber.BITS_8);
+        }
+    }
+
+    /**
+     * Write a short value.
+     *
+     * @param value     the value
+     * @param byteOrder byte order, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeShort(final int value, final JBBPByteOrder byteOrder) throws IOException {
+        if (isDirect()) {
+            writeAlignedShort(value, byteOrder);
+        } else if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+            this.write(value >>> 8);
+            this.write(value);
+        } else {
+            this.write(value);
+            this.write(value >>> 8);
+        }
+    }
+
+    /**
+     * Write an integer value.
+     *
+     * @param value     the value
+     * @param byteOrder byte order, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeInt(final int value, final JBBPByteOrder byteOrder) throws IOException {
+        if (isDirect()) {
+            writeAlignedInt(value, byteOrder);
+        } else if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+            this.writeShort(value >>> 16, byteOrder);
+            this.writeShort(value, byteOrder);
+        } else {
+            this.writeShort(value, byteOrder);
+            this.writeShort(value >>> 16, byteOrder);
+        }
+    }
+
+    /**
+     * Write a long value.
+     *
+     * @param value     the value
+     * @param byteOrder byte order, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeLong(final long value, final JBBPByteOrder byteOrder) throws IOException {
+        if (isDirect()) {
+            writeAlignedLong(value, byteOrder);
+        } else if (byteOrder == JBBPByteOrder.BIG_ENDIAN) {
+            this.writeInt((int) (value >>> 32), byteOrder);
+            this.writeInt((int) value, byteOrder);
+        } else {
+            this.writeInt((int) value, byteOrder);
+            this.writeInt((int) (value >>> 32), byteOrder);
+        }
+    }
+
+    /**
+     * Write a byte directly into the buffer.
+     *
+     * @param value the value
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeAlignedByte(final int value) throws IOException {
+        this.buffer.put(take(1), (byte) value);
+    }
+
+    /**
+     * Write a short value directly into the buffer.
+     *
+     * @param value     the value
+     * @param byteOrder byte order, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeAlignedShort(final int value, final JBBPByteOrder byteOrder) throws IOException {
+        final short shortValue = (short) value;
+        this.buffer.putShort(take(2), isSameOrder(byteOrder) ? shortValue : Short.reverseBytes(shortValue));
+    }
+
+    /**
+     * Write an integer value directly into the buffer.
+     *
+     * @param value     the value
+     * @param byteOrder byte order, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeAlignedInt(final int value, final JBBPByteOrder byteOrder) throws IOException {
+        this.buffer.putInt(take(4), isSameOrder(byteOrder) ? value : Integer.reverseBytes(value));
+    }
+
+    /**
+     * Write a long value directly into the buffer.
+     *
+     * @param value     the value
+     * @param byteOrder byte order, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeAlignedLong(final long value, final JBBPByteOrder byteOrder) throws IOException {
+        this.buffer.putLong(take(8), isSameOrder(byteOrder) ? value : Long.reverseBytes(value));
+    }
+
+    /**
+     * Write array of bit fields.
+     *
+     * @param array     array to be written, must not be null
+     * @param length    number of items to be written, if negative then whole array
+     * @param bitNumber number of bits for each item, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeBitsArray(final byte[] array, final int length, final JBBPBitNumber bitNumber) throws IOException {
+        final int len = length < 0 ? array.length : length;
+        for (int i = 0; i < len; i++) {
+            writeBits(array[i], bitNumber);
+        }
+    }
+
+    /**
+     * Write array of boolean values as bytes.
+     *
+     * @param array  array to be written, must not be null
+     * @param length number of items to be written, if negative then whole array
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeBoolArray(final boolean[] array, final int length) throws IOException {
+        final int len = length < 0 ? array.length : length;
+        for (int i = 0; i < len; i++) {
+            write(array[i] ? 1 : 0);
+        }
+    }
+
+    /**
+     * Write array of bytes.
+     *
+     * @param array     array to be written, must not be null
+     * @param length    number of items to be written, if negative then whole array
+     * @param byteOrder if LITTLE_ENDIAN then the array is written in reversed order
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeBytes(final byte[] array, final int length, final JBBPByteOrder byteOrder) throws IOException {
+        final int len = length < 0 ? array.length : length;
+        if (byteOrder == JBBPByteOrder.LITTLE_ENDIAN) {
+            for (int i = len - 1; i >= 0; i--) {
+                write(array[i]);
+            }
+        } else if (isDirect()) {
+            if (len > array.length) {
+                throw new ArrayIndexOutOfBoundsException(len);
+            }
+            final int start = take(len);
+            if (this.buffer.hasArray() && !this.buffer.isReadOnly()) {
+                System.arraycopy(array, 0, this.buffer.array(), this.buffer.arrayOffset() + start, len);
+            } else {
+                for (int i = 0; i < len; i++) {
+                    this.buffer.put(start + i, array[i]);
+                }
+            }
+        } else {
+            for (int i = 0; i < len; i++) {
+                write(array[i]);
+            }
+        }
+    }
+
+    /**
+     * Write array of short values.
+     *
+     * @param array     array to be written, must not be null
+     * @param length    number of items to be written, if negative then whole array
+     * @param byteOrder byte order, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeShortArray(final short[] array, final int length, final JBBPByteOrder byteOrder) throws IOException {
+        final int len = length < 0 ? array.length : length;
+        for (int i = 0; i < len; i++) {
+            writeShort(array[i], byteOrder);
+        }
+    }
+
+    /**
+     * Write array of unsigned short values.
+     *
+     * @param array     array to be written, must not be null
+     * @param length    number of items to be written, if negative then whole array
+     * @param byteOrder byte order, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeUShortArray(final char[] array, final int length, final JBBPByteOrder byteOrder) throws IOException {
+        final int len = length < 0 ? array.length : length;
+        for (int i = 0; i < len; i++) {
+            writeShort(array[i], byteOrder);
+        }
+    }
+
+    /**
+     * Write array of integer values.
+     *
+     * @param array     array to be written, must not be null
+     * @param length    number of items to be written, if negative then whole array
+     * @param byteOrder byte order, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeIntArray(final int[] array, final int length, final JBBPByteOrder byteOrder) throws IOException {
+        final int len = length < 0 ? array.length : length;
+        for (int i = 0; i < len; i++) {
+            writeInt(array[i], byteOrder);
+        }
+    }
+
+    /**
+     * Write array of long values.
+     *
+     * @param array     array to be written, must not be null
+     * @param length    number of items to be written, if negative then whole array
+     * @param byteOrder byte order, must not be null
+     * @throws IOException if there is not enough space in the buffer
+     */
+    public void writeLongArray(final long[] array, final int length, final JBBPByteOrder byteOrder) throws IOException {
+        final int len = length < 0 ? array.length : length;
+        for (int i = 0; i < len; i++) {
+            writeLong(array[i], byteOrder);
+        }
+    }
+}
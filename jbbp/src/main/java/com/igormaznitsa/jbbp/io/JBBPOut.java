@@ -24,6 +24,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 
 /**
  * The Class implements some kind of DSL to form binary blocks. The Class is not
@@ -54,6 +55,15 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
      * then it will be saved into the variable.
      */
     private final ByteArrayOutputStream originalByteArrayOutStream;
+    /**
+     * If the DSL session was started for a byte buffer or a byte array then the
+     * target stream will be saved into the variable.
+     */
+    private final BufferOutputStream bufferOutStream;
+    /**
+     * The Byte order defined for the session start, it is restored by reset.
+     */
+    private final JBBPByteOrder initialByteOrder;
     /**
      * Flag shows that all commands must be skipped till the End.
      */
@@ -77,22 +87,112 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
      *                                  incompatible with defined ones
      */
     private JBBPOut(final OutputStream outStream, final JBBPByteOrder byteOrder, final JBBPBitOrder bitOrder) {
+        this(outStream, byteOrder, bitOrder, 0);
+    }
+
+    /**
+     * The Constructor.
+     *
+     * @param outStream       the output stream for the session, it must not be null.
+     * @param byteOrder       the byte outOrder for the session, it must not be null.
+     * @param bitOrder        the bit outOrder for the session, it must not be null
+     * @param writeBufferSize size of write buffer for the stream, zero if data
+     *                        must be written into the stream without buffering
+     * @throws IllegalArgumentException if defined a bit stream which parameters
+     *                                  incompatible with defined ones
+     */
+    private JBBPOut(final OutputStream outStream, final JBBPByteOrder byteOrder, final JBBPBitOrder bitOrder, final int writeBufferSize) {
         JBBPUtils.assertNotNull(outStream, "Out stream must not be null");
         JBBPUtils.assertNotNull(byteOrder, "Byte order must not be null");
         JBBPUtils.assertNotNull(bitOrder, "Bit order must not be null");
 
-        this.outStream = outStream instanceof JBBPBitOutputStream ? (JBBPBitOutputStream) outStream : new JBBPBitOutputStream(outStream, bitOrder);
+        if (outStream instanceof JBBPBitOutputStream) {
+            this.outStream = (JBBPBitOutputStream) outStream;
+        } else if (writeBufferSize > 0) {
+            this.outStream = new JBBPBitOutputStream(outStream, bitOrder, writeBufferSize);
+        } else {
+            this.outStream = new JBBPBitOutputStream(outStream, bitOrder);
+        }
         this.bitOrder = this.outStream.getBitOrder();
         if (this.bitOrder != bitOrder) {
             throw new IllegalArgumentException("Detected JBBPBitOutputStream as argument with already defined different bit order [" + this.bitOrder + ']');
         }
         this.byteOrder = byteOrder;
+        this.initialByteOrder = byteOrder;
 
         if (outStream instanceof ByteArrayOutputStream) {
             this.originalByteArrayOutStream = (ByteArrayOutputStream) outStream;
         } else {
             this.originalByteArrayOutStream = null;
         }
+        this.bufferOutStream = outStream instanceof BufferOutputStream ? (BufferOutputStream) outStream : null;
+    }
+
+    /**
+     * Start a DSL session writing data directly into a byte buffer, it can be
+     * heap, direct or memory mapped one. Data is written from the current
+     * position of the buffer and the position is moved by written bytes, the
+     * session can be reused after {@link #Reset()} which restores the start
+     * position of the buffer.
+     *
+     * @param buffer    the target buffer, must not be null
+     * @param byteOrder the byte outOrder for the session
+     * @param bitOrder  the bit outOrder for the session
+     * @return the new DSL session generated for the buffer with parameters
+     * @see #Reset()
+     * @since 1.3.1
+     */
+    public static JBBPOut BeginBin(final ByteBuffer buffer, final JBBPByteOrder byteOrder, final JBBPBitOrder bitOrder) {
+        JBBPUtils.assertNotNull(buffer, "Buffer must not be null");
+        return new JBBPOut(new BufferOutputStream(buffer), byteOrder, bitOrder);
+    }
+
+    /**
+     * Start a DSL session writing data directly into a byte buffer with
+     * default parameters.
+     *
+     * @param buffer the target buffer, must not be null
+     * @return the new DSL session generated for the buffer
+     * @see #BeginBin(ByteBuffer, JBBPByteOrder, JBBPBitOrder)
+     * @since 1.3.1
+     */
+    public static JBBPOut BeginBin(final ByteBuffer buffer) {
+        return BeginBin(buffer, DEFAULT_BYTE_ORDER, DEFAULT_BIT_ORDER);
+    }
+
+    /**
+     * Start a DSL session writing data directly into a byte array area. Number
+     * of written bytes can be got through {@link #getByteCounter()}, the
+     * session can be reused after {@link #Reset()} which moves the write cursor
+     * to the start offset.
+     *
+     * @param array     the target array, must not be null
+     * @param offset    the start offset in the array
+     * @param length    the max number of bytes which can be written into the array
+     * @param byteOrder the byte outOrder for the session
+     * @param bitOrder  the bit outOrder for the session
+     * @return the new DSL session generated for the array with parameters
+     * @throws IndexOutOfBoundsException if the offset or the length is wrong for the array
+     * @see #Reset()
+     * @since 1.3.1
+     */
+    public static JBBPOut BeginBin(final byte[] array, final int offset, final int length, final JBBPByteOrder byteOrder, final JBBPBitOrder bitOrder) {
+        JBBPUtils.assertNotNull(array, "Array must not be null");
+        return BeginBin(ByteBuffer.wrap(array, offset, length), byteOrder, bitOrder);
+    }
+
+    /**
+     * Start a DSL session writing data directly into a whole byte array with
+     * default parameters.
+     *
+     * @param array the target array, must not be null
+     * @return the new DSL session generated for the array
+     * @see #BeginBin(byte[], int, int, JBBPByteOrder, JBBPBitOrder)
+     * @since 1.3.1
+     */
+    public static JBBPOut BeginBin(final byte[] array) {
+        JBBPUtils.assertNotNull(array, "Array must not be null");
+        return BeginBin(array, 0, array.length, DEFAULT_BYTE_ORDER, DEFAULT_BIT_ORDER);
     }
 
     /**
@@ -119,6 +219,31 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
         return new JBBPOut(out, byteOrder, bitOrder);
     }
 
+    /**
+     * Start a DSL session for a defined stream with defined parameters and
+     * write buffer. Data is collected in the buffer and passed into the stream
+     * by blocks, so that the session must be flushed or ended to pass all data
+     * into the stream. A bit output stream is used as is, without additional
+     * buffer.
+     *
+     * @param out        the defined stream, must not be null
+     * @param byteOrder  the byte outOrder for the session
+     * @param bitOrder   the bit outOrder for the session
+     * @param bufferSize size of the write buffer in bytes, must be greater than zero
+     * @return the new DSL session generated for the stream with parameters
+     * @throws IllegalArgumentException if the buffer size is zero or negative
+     * @see JBBPBitOutputStream#DEFAULT_BUFFER_SIZE
+     * @see #Flush()
+     * @see #End()
+     * @since 1.3.1
+     */
+    public static JBBPOut BeginBin(final OutputStream out, final JBBPByteOrder byteOrder, final JBBPBitOrder bitOrder, final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be greater than zero [" + bufferSize + ']');
+        }
+        return new JBBPOut(out, byteOrder, bitOrder, bufferSize);
+    }
+
     /**
      * Start a DSL session for default parameters and inside byte array stream.
      *
@@ -914,6 +1039,32 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
         return this.originalByteArrayOutStream;
     }
 
+    /**
+     * Reset the session to write new data from the start, it can be called
+     * for both ended and not ended sessions. Not flushed bits and bytes
+     * collected in the write buffer are dropped, the byte counter and the byte
+     * order are reset. If the session is based on a byte buffer or a byte
+     * array then write position is moved to the start, if it is based on a
+     * byte array output stream then the stream is reset, data already passed
+     * into other streams is not affected.
+     *
+     * @return the DSL session
+     * @since 1.3.1
+     */
+    public JBBPOut Reset() {
+        this.outStream.discardWriteBuffer();
+        this.outStream.resetCounter();
+        if (this.bufferOutStream != null) {
+            this.bufferOutStream.rewind();
+        } else if (this.originalByteArrayOutStream != null) {
+            this.originalByteArrayOutStream.reset();
+        }
+        this.byteOrder = this.initialByteOrder;
+        this.processCommands = true;
+        this.ended = false;
+        return this;
+    }
+
     /**
      * get the current byte counter value for the underlying stream. it has
      * appropriate value only if it was not reset.
@@ -1039,5 +1190,38 @@ public final class JBBPOut extends AbstractMappedClassFieldObserver {
         }
     }
 
+    /**
+     * Inside output stream writing data into a byte buffer.
+     */
+    private static final class BufferOutputStream extends OutputStream {
+        private final ByteBuffer buffer;
+        private final int startPosition;
+
+        BufferOutputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.startPosition = buffer.position();
+        }
+
+        void rewind() {
+            this.buffer.position(this.startPosition);
+        }
+
+        private void assertRemaining(final int bytes) throws IOException {
+            if (this.buffer.remaining() < bytes) {
+                throw new IOException("Not enough space in buffer [" + this.buffer.remaining() + " < " + bytes + ']');
+            }
+        }
 
+        @Override
+        public void write(final int value) throws IOException {
+            assertRemaining(1);
+            this.buffer.put((byte) value);
+        }
+
+        @Override
+        public void write(final byte[] array, final int offset, final int length) throws IOException {
+            assertRemaining(length);
+            this.buffer.put(array, offset, length);
+        }
+    }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper;
+
+/**
+ * Accessor to read and write a resolved mapping class field. Implementations
+ * are made once for a field and reused for all instances of its class.
+ *
+ * @since 1.3.1
+ */
+interface FieldAccessor {
+    Object get(Object instance) throws IllegalAccessException;
+
+    void set(Object instance, Object value) throws IllegalAccessException;
+
+    void setBoolean(Object instance, boolean value) throws IllegalAccessException;
+
+    void setByte(Object instance, byte value) throws IllegalAccessException;
+
+    void setChar(Object instance, char value) throws IllegalAccessException;
+
+    void setShort(Object instance, short value) throws IllegalAccessException;
+
+    void setInt(Object instance, int value) throws IllegalAccessException;
+
+    void setLong(Object instance, long value) throws IllegalAccessException;
+
+    void setFloat(Object instance, float value) throws IllegalAccessException;
+
+    void setDouble(Object instance, double value) throws IllegalAccessException;
+}
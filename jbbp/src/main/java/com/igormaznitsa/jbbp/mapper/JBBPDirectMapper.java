@@ -0,0 +1,781 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper;
+
+import com.igormaznitsa.jbbp.JBBPParseListener;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.exceptions.JBBPMapperException;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.model.*;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parse listener which writes parsed values directly into fields of a mapping
+ * class instance, so that the parser doesn't make the field tree. Values are
+ * mapped by the same rules as {@link JBBPMapper} does. Structures whose mapping
+ * classes use paths, custom fields or fields with the same binary name are
+ * collected as field trees and mapped by {@link JBBPMapper}.
+ * <p>
+ * An Instance of the class is not thread safe and can be used for one parsing
+ * only.
+ *
+ * @see JBBPMapper
+ * @since 1.3.1
+ */
+public final class JBBPDirectMapper implements JBBPParseListener {
+
+    /**
+     * Cache of mapping plans for classes.
+     */
+    private static final ConcurrentMap<Class<?>, Plan> CACHED_PLANS = new ConcurrentHashMap<Class<?>, Plan>();
+
+    /**
+     * Context to ignore all values of a structure which is not mapped.
+     */
+    private static final Context IGNORED = new Context(null, null) {
+        @Override
+        Context structStart(final JBBPNamedFieldInfo name) {
+            return this;
+        }
+
+        @Override
+        Context structArrayStart(final JBBPNamedFieldInfo name, final int length) {
+            return this;
+        }
+
+        @Override
+        void childCompleted(final Context child, final Object value) {
+        }
+
+        @Override
+        void end() {
+        }
+    };
+
+    private final Object instance;
+    private final JBBPMapperCustomFieldProcessor customFieldProcessor;
+    private final int flags;
+    private final List<Context> stack = new ArrayList<Context>();
+    private Context current;
+
+    /**
+     * Constructor to map values into a new instance of a class.
+     *
+     * @param mappingClass         a mapping class, must not be null
+     * @param customFieldProcessor a custom field processor, it can be null
+     * @param flags                special flags to tune mapping
+     * @see JBBPMapper#FLAG_IGNORE_MISSING_VALUES
+     */
+    public JBBPDirectMapper(final Class<?> mappingClass, final JBBPMapperCustomFieldProcessor customFieldProcessor, final int flags) {
+        this(allocateInstance(mappingClass), customFieldProcessor, flags);
+    }
+
+    /**
+     * Constructor to map values into an existing instance.
+     *
+     * @param instance             a mapping class instance, must not be null
+     * @param customFieldProcessor a custom field processor, it can be null
+     * @param flags                special flags to tune mapping
+     * @see JBBPMapper#FLAG_IGNORE_MISSING_VALUES
+     */
+    public JBBPDirectMapper(final Object instance, final JBBPMapperCustomFieldProcessor customFieldProcessor, final int flags) {
+        JBBPUtils.assertNotNull(instance, "The Mapping class instance must not be null");
+        this.instance = instance;
+        this.customFieldProcessor = customFieldProcessor;
+        this.flags = flags;
+    }
+
+    /**
+     * Clear the inside cache of mapping plans.
+     *
+     * @see JBBPMapper#clearMappingCache()
+     */
+    static void clearPlanCache() {
+        CACHED_PLANS.clear();
+    }
+
+    private static Object allocateInstance(final Class<?> mappingClass) {
+        JBBPUtils.assertNotNull(mappingClass, "Mapping class must not be null");
+        return JBBPMapper.allocateMemoryForClass(null, mappingClass);
+    }
+
+    private static Plan findPlan(final Class<?> mappingClass) {
+        Plan result = CACHED_PLANS.get(mappingClass);
+        if (result == null) {
+            result = new Plan(JBBPMapper.findMappedFields(mappingClass));
+            final Plan alreadyCached = CACHED_PLANS.putIfAbsent(mappingClass, result);
+            if (alreadyCached != null) {
+                result = alreadyCached;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isFastNumeric(final MappedFieldRecord record, final JBBPBitNumber bitNumber) {
+        return record.fieldClass.isPrimitive() && !record.invertBitOrder
+                && (bitNumber == null || !record.bitWideField || record.mappedBitNumber == JBBPBitNumber.BITS_8 || record.mappedBitNumber == bitNumber);
+    }
+
+    private static boolean isFastArray(final MappedFieldRecord record, final Class<?> arrayClass, final JBBPBitNumber bitNumber) {
+        return record.fieldClass == arrayClass && !record.invertBitOrder
+                && (bitNumber == null || !record.bitWideField || record.mappedBitNumber == JBBPBitNumber.BITS_8 || record.mappedBitNumber == bitNumber);
+    }
+
+    /**
+     * Get the mapping class instance filled by parsed values.
+     *
+     * @return the mapping class instance, must not be null
+     */
+    public Object getResult() {
+        return this.instance;
+    }
+
+    private Context makeStructContext(final Context parent, final MappedFieldRecord record, final JBBPNamedFieldInfo name, final Object structInstance, final int structFlags) {
+        if (findPlan(structInstance.getClass()).direct) {
+            return new ObjectContext(parent, record, structInstance, structFlags);
+        } else {
+            return new TreeContext(parent, record, name, structInstance, structFlags);
+        }
+    }
+
+    @Override
+    public void onStructStart(final JBBPNamedFieldInfo name) {
+        final Context context;
+        if (this.current == null) {
+            context = makeStructContext(null, null, name, this.instance, this.flags);
+        } else {
+            context = this.current.structStart(name);
+        }
+        this.stack.add(context);
+        this.current = context;
+    }
+
+    @Override
+    public void onStructEnd(final JBBPNamedFieldInfo name) {
+        this.stack.remove(this.stack.size() - 1).end();
+        this.current = this.stack.isEmpty() ? null : this.stack.get(this.stack.size() - 1);
+    }
+
+    @Override
+    public void onStructArrayStart(final JBBPNamedFieldInfo name, final int length) {
+        final Context context = this.current.structArrayStart(name, length);
+        this.stack.add(context);
+        this.current = context;
+    }
+
+    @Override
+    public void onStructArrayEnd(final JBBPNamedFieldInfo name) {
+        onStructEnd(name);
+    }
+
+    @Override
+    public void onBit(final JBBPNamedFieldInfo name, final int value, final JBBPBitNumber bitNumber) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldBit(name, value, bitNumber));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldBit.class);
+            if (record != null) {
+                if (isFastNumeric(record, bitNumber)) {
+                    JBBPMapper.setNumericValue(context.instance, record, null, value, value, value != 0);
+                } else {
+                    context.map(record, new JBBPFieldBit(name, value, bitNumber));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onBool(final JBBPNamedFieldInfo name, final boolean value) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldBoolean(name, value));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldBoolean.class);
+            if (record != null) {
+                if (isFastNumeric(record, null)) {
+                    final int asInt = value ? 1 : 0;
+                    JBBPMapper.setNumericValue(context.instance, record, null, asInt, asInt, value);
+                } else {
+                    context.map(record, new JBBPFieldBoolean(name, value));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onByte(final JBBPNamedFieldInfo name, final byte value) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldByte(name, value));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldByte.class);
+            if (record != null) {
+                if (isFastNumeric(record, null)) {
+                    JBBPMapper.setNumericValue(context.instance, record, null, value, value, value != 0);
+                } else {
+                    context.map(record, new JBBPFieldByte(name, value));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onUByte(final JBBPNamedFieldInfo name, final int value) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldUByte(name, (byte) value));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldUByte.class);
+            if (record != null) {
+                if (isFastNumeric(record, null)) {
+                    JBBPMapper.setNumericValue(context.instance, record, null, value, value, value != 0);
+                } else {
+                    context.map(record, new JBBPFieldUByte(name, (byte) value));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onShort(final JBBPNamedFieldInfo name, final short value) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldShort(name, value));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldShort.class);
+            if (record != null) {
+                if (isFastNumeric(record, null)) {
+                    JBBPMapper.setNumericValue(context.instance, record, null, value, value, value != 0);
+                } else {
+                    context.map(record, new JBBPFieldShort(name, value));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onUShort(final JBBPNamedFieldInfo name, final int value) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldUShort(name, (short) value));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldUShort.class);
+            if (record != null) {
+                if (isFastNumeric(record, null)) {
+                    JBBPMapper.setNumericValue(context.instance, record, null, value, value, value != 0);
+                } else {
+                    context.map(record, new JBBPFieldUShort(name, (short) value));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onInt(final JBBPNamedFieldInfo name, final int value) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldInt(name, value));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldInt.class);
+            if (record != null) {
+                if (isFastNumeric(record, null)) {
+                    JBBPMapper.setNumericValue(context.instance, record, null, value, value, value != 0);
+                } else {
+                    context.map(record, new JBBPFieldInt(name, value));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onLong(final JBBPNamedFieldInfo name, final long value) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldLong(name, value));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldLong.class);
+            if (record != null) {
+                if (isFastNumeric(record, null)) {
+                    JBBPMapper.setNumericValue(context.instance, record, null, (int) value, value, value != 0L);
+                } else {
+                    context.map(record, new JBBPFieldLong(name, value));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onBitArray(final JBBPNamedFieldInfo name, final byte[] array, final JBBPBitNumber bitNumber) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldArrayBit(name, array, bitNumber));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldArrayBit.class);
+            if (record != null) {
+                if (isFastArray(record, byte[].class, bitNumber)) {
+                    JBBPMapper.setFieldValue(context.instance, record, null, array);
+                } else {
+                    context.map(record, new JBBPFieldArrayBit(name, array, bitNumber));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onBoolArray(final JBBPNamedFieldInfo name, final boolean[] array) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldArrayBoolean(name, array));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldArrayBoolean.class);
+            if (record != null) {
+                if (isFastArray(record, boolean[].class, null)) {
+                    JBBPMapper.setFieldValue(context.instance, record, null, array);
+                } else {
+                    context.map(record, new JBBPFieldArrayBoolean(name, array));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onByteArray(final JBBPNamedFieldInfo name, final byte[] array) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldArrayByte(name, array));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldArrayByte.class);
+            if (record != null) {
+                if (isFastArray(record, byte[].class, null)) {
+                    JBBPMapper.setFieldValue(context.instance, record, null, array);
+                } else {
+                    context.map(record, new JBBPFieldArrayByte(name, array));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onUByteArray(final JBBPNamedFieldInfo name, final byte[] array) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldArrayUByte(name, array));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldArrayUByte.class);
+            if (record != null) {
+                if (isFastArray(record, byte[].class, null)) {
+                    JBBPMapper.setFieldValue(context.instance, record, null, array);
+                } else {
+                    context.map(record, new JBBPFieldArrayUByte(name, array));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onShortArray(final JBBPNamedFieldInfo name, final short[] array) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldArrayShort(name, array));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldArrayShort.class);
+            if (record != null) {
+                if (isFastArray(record, short[].class, null)) {
+                    JBBPMapper.setFieldValue(context.instance, record, null, array);
+                } else {
+                    context.map(record, new JBBPFieldArrayShort(name, array));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onUShortArray(final JBBPNamedFieldInfo name, final short[] array) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldArrayUShort(name, array));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldArrayUShort.class);
+            if (record != null) {
+                if (isFastArray(record, short[].class, null)) {
+                    JBBPMapper.setFieldValue(context.instance, record, null, array);
+                } else {
+                    context.map(record, new JBBPFieldArrayUShort(name, array));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onIntArray(final JBBPNamedFieldInfo name, final int[] array) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldArrayInt(name, array));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldArrayInt.class);
+            if (record != null) {
+                if (isFastArray(record, int[].class, null)) {
+                    JBBPMapper.setFieldValue(context.instance, record, null, array);
+                } else {
+                    context.map(record, new JBBPFieldArrayInt(name, array));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onLongArray(final JBBPNamedFieldInfo name, final long[] array) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(new JBBPFieldArrayLong(name, array));
+        } else {
+            final MappedFieldRecord record = context.find(name, JBBPFieldArrayLong.class);
+            if (record != null) {
+                if (isFastArray(record, long[].class, null)) {
+                    JBBPMapper.setFieldValue(context.instance, record, null, array);
+                } else {
+                    context.map(record, new JBBPFieldArrayLong(name, array));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onField(final JBBPAbstractField field) {
+        final Context context = this.current;
+        if (context.fields != null) {
+            context.fields.add(field);
+        } else {
+            final MappedFieldRecord record = context.find(field.getNameInfo(), field.getClass());
+            if (record != null) {
+                context.map(record, field);
+            }
+        }
+    }
+
+    /**
+     * Mapping plan of a class.
+     */
+    private static final class Plan {
+        final MappedFieldRecord[] records;
+        final Map<String, Integer> indexByName;
+        /**
+         * Flag shows that all fields can be found just by their names.
+         */
+        final boolean direct;
+
+        Plan(final MappedFieldRecord[] records) {
+            this.records = records;
+            this.indexByName = new HashMap<String, Integer>();
+            boolean allDirect = true;
+            for (int i = 0; i < records.length; i++) {
+                final MappedFieldRecord record = records[i];
+                if (record.custom || record.fieldType == null || record.fieldPath.length() != 0 || record.fieldName.length() == 0) {
+                    allDirect = false;
+                } else if (this.indexByName.put(JBBPUtils.normalizeFieldNameOrPath(record.fieldName), i) != null) {
+                    // several mapping fields for the same binary field
+                    allDirect = false;
+                }
+            }
+            this.direct = allDirect;
+        }
+    }
+
+    /**
+     * Context of a structure or a structure array being parsed.
+     */
+    private abstract static class Context {
+        final Context parent;
+        final MappedFieldRecord parentRecord;
+        /**
+         * Instance to get values, null if values are not mapped directly.
+         */
+        Object instance;
+        /**
+         * Collected fields, null if values are mapped directly.
+         */
+        List<JBBPAbstractField> fields;
+
+        Context(final Context parent, final MappedFieldRecord parentRecord) {
+            this.parent = parent;
+            this.parentRecord = parentRecord;
+        }
+
+        MappedFieldRecord find(final JBBPNamedFieldInfo name, final Class<? extends JBBPAbstractField> fieldType) {
+            return null;
+        }
+
+        void map(final MappedFieldRecord record, final JBBPAbstractField field) {
+        }
+
+        abstract Context structStart(JBBPNamedFieldInfo name);
+
+        abstract Context structArrayStart(JBBPNamedFieldInfo name, int length);
+
+        abstract void childCompleted(Context child, Object value);
+
+        abstract void end();
+    }
+
+    /**
+     * Context which writes values directly into a mapping class instance.
+     */
+    private final class ObjectContext extends Context {
+        private final Plan plan;
+        private final boolean[] assigned;
+        private final int structFlags;
+
+        ObjectContext(final Context parent, final MappedFieldRecord parentRecord, final Object structInstance, final int structFlags) {
+            super(parent, parentRecord);
+            this.instance = structInstance;
+            this.plan = findPlan(structInstance.getClass());
+            this.assigned = new boolean[this.plan.records.length];
+            this.structFlags = structFlags;
+        }
+
+        @Override
+        MappedFieldRecord find(final JBBPNamedFieldInfo name, final Class<? extends JBBPAbstractField> fieldType) {
+            if (name == null) {
+                return null;
+            }
+            final Integer index = this.plan.indexByName.get(name.getFieldName());
+            if (index == null) {
+                return null;
+            }
+            final int i = index;
+            final MappedFieldRecord record = this.plan.records[i];
+            if (this.assigned[i] || !record.fieldType.getFieldClass().isAssignableFrom(fieldType)) {
+                return null;
+            }
+            this.assigned[i] = true;
+            return record;
+        }
+
+        @Override
+        void map(final MappedFieldRecord record, final JBBPAbstractField field) {
+            JBBPMapper.mapBinField(this.instance, record, field, customFieldProcessor);
+        }
+
+        @Override
+        Context structStart(final JBBPNamedFieldInfo name) {
+            final MappedFieldRecord record = find(name, JBBPFieldStruct.class);
+            if (record == null) {
+                return IGNORED;
+            }
+            if (!record.fieldClass.isPrimitive() && !record.fieldClass.isArray()) {
+                final Object value = JBBPMapper.getFieldValue(this.instance, record);
+                return makeStructContext(this, record, name, value == null ? JBBPMapper.allocateMemoryForClass(null, record.fieldClass) : value, 0);
+            }
+            return new TreeContext(this, record, name, null, 0);
+        }
+
+        @Override
+        Context structArrayStart(final JBBPNamedFieldInfo name, final int length) {
+            final MappedFieldRecord record = find(name, JBBPFieldArrayStruct.class);
+            if (record == null) {
+                return IGNORED;
+            }
+            if (record.fieldClass.isArray() && !record.fieldClass.getComponentType().isPrimitive()) {
+                return new ObjectArrayContext(this, record, (Object[]) JBBPMapper.getFieldValue(this.instance, record), length);
+            }
+            return new TreeArrayContext(this, record, name);
+        }
+
+        @Override
+        void childCompleted(final Context child, final Object value) {
+            if (value instanceof JBBPAbstractField) {
+                JBBPMapper.mapBinField(this.instance, child.parentRecord, (JBBPAbstractField) value, customFieldProcessor);
+            } else {
+                JBBPMapper.setFieldValue(this.instance, child.parentRecord, null, value);
+            }
+        }
+
+        @Override
+        void end() {
+            if ((this.structFlags & JBBPMapper.FLAG_IGNORE_MISSING_VALUES) == 0) {
+                for (int i = 0; i < this.assigned.length; i++) {
+                    if (!this.assigned[i]) {
+                        final MappedFieldRecord record = this.plan.records[i];
+                        throw new JBBPMapperException("Can't find value to be mapped to a mapping field [" + record.mappingField + ']', null, this.instance.getClass(), record.mappingField, null);
+                    }
+                }
+            }
+            if (this.parent != null) {
+                this.parent.childCompleted(this, this.instance);
+            }
+        }
+    }
+
+    /**
+     * Context which writes elements of a structure array directly into an array
+     * of mapping class instances.
+     */
+    private final class ObjectArrayContext extends Context {
+        private final Class<?> componentType;
+        private final Object[] existing;
+        private final Object[] array;
+        private final List<Object> collected;
+        private int index;
+
+        ObjectArrayContext(final Context parent, final MappedFieldRecord parentRecord, final Object[] existing, final int length) {
+            super(parent, parentRecord);
+            this.componentType = parentRecord.fieldClass.getComponentType();
+            this.existing = existing;
+            if (length < 0) {
+                this.array = null;
+                this.collected = new ArrayList<Object>();
+            } else {
+                if (existing != null && existing.length != length) {
+                    throw makeSizeException(existing.length, length);
+                }
+                this.array = existing == null ? (Object[]) Array.newInstance(this.componentType, length) : existing;
+                this.collected = null;
+            }
+        }
+
+        private JBBPMapperException makeSizeException(final int expected, final int detected) {
+            return new JBBPMapperException("Can't map an array field for different expected size [" + expected + "!=" + detected + ']', null, this.parent.instance.getClass(), this.parentRecord.mappingField, null);
+        }
+
+        @Override
+        Context structStart(final JBBPNamedFieldInfo structName) {
+            final Object element = this.existing != null && this.index < this.existing.length ? this.existing[this.index] : null;
+            return makeStructContext(this, null, structName, element == null ? JBBPMapper.allocateMemoryForClass(null, this.componentType) : element, 0);
+        }
+
+        @Override
+        Context structArrayStart(final JBBPNamedFieldInfo arrayName, final int length) {
+            return IGNORED;
+        }
+
+        @Override
+        void childCompleted(final Context child, final Object value) {
+            if (this.collected == null) {
+                this.array[this.index] = value;
+            } else {
+                this.collected.add(value);
+            }
+            this.index++;
+        }
+
+        @Override
+        void end() {
+            final Object[] result;
+            if (this.collected == null) {
+                result = this.array;
+            } else {
+                if (this.existing == null) {
+                    result = this.collected.toArray((Object[]) Array.newInstance(this.componentType, this.collected.size()));
+                } else {
+                    if (this.existing.length != this.collected.size()) {
+                        throw makeSizeException(this.existing.length, this.collected.size());
+                    }
+                    result = this.collected.toArray(this.existing);
+                }
+            }
+            this.parent.childCompleted(this, result);
+        }
+    }
+
+    /**
+     * Context which collects fields of a structure to be mapped through
+     * {@link JBBPMapper}.
+     */
+    private final class TreeContext extends Context {
+        private final JBBPNamedFieldInfo name;
+        private final Object mappingInstance;
+        private final int structFlags;
+
+        TreeContext(final Context parent, final MappedFieldRecord parentRecord, final JBBPNamedFieldInfo name, final Object mappingInstance, final int structFlags) {
+            super(parent, parentRecord);
+            this.name = name;
+            this.mappingInstance = mappingInstance;
+            this.structFlags = structFlags;
+            this.fields = new ArrayList<JBBPAbstractField>();
+        }
+
+        @Override
+        Context structStart(final JBBPNamedFieldInfo structName) {
+            return new TreeContext(this, null, structName, null, 0);
+        }
+
+        @Override
+        Context structArrayStart(final JBBPNamedFieldInfo arrayName, final int length) {
+            return new TreeArrayContext(this, null, arrayName);
+        }
+
+        @Override
+        void childCompleted(final Context child, final Object value) {
+            this.fields.add((JBBPAbstractField) value);
+        }
+
+        @Override
+        void end() {
+            final JBBPFieldStruct struct = new JBBPFieldStruct(this.name, this.fields);
+            if (this.mappingInstance == null) {
+                this.parent.childCompleted(this, struct);
+            } else {
+                JBBPMapper.map(struct, this.mappingInstance, customFieldProcessor, this.structFlags);
+                if (this.parent != null) {
+                    this.parent.childCompleted(this, this.mappingInstance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Context which collects elements of a structure array to be mapped through
+     * {@link JBBPMapper}.
+     */
+    private final class TreeArrayContext extends Context {
+        private final JBBPNamedFieldInfo name;
+        private final List<JBBPFieldStruct> structs = new ArrayList<JBBPFieldStruct>();
+
+        TreeArrayContext(final Context parent, final MappedFieldRecord parentRecord, final JBBPNamedFieldInfo name) {
+            super(parent, parentRecord);
+            this.name = name;
+        }
+
+        @Override
+        Context structStart(final JBBPNamedFieldInfo structName) {
+            return new TreeContext(this, null, structName, null, 0);
+        }
+
+        @Override
+        Context structArrayStart(final JBBPNamedFieldInfo arrayName, final int length) {
+            return IGNORED;
+        }
+
+        @Override
+        void childCompleted(final Context child, final Object value) {
+            this.structs.add((JBBPFieldStruct) value);
+        }
+
+        @Override
+        void end() {
+            this.parent.childCompleted(this, new JBBPFieldArrayStruct(this.name, this.structs.toArray(new JBBPFieldStruct[this.structs.size()])));
+        }
+    }
+}
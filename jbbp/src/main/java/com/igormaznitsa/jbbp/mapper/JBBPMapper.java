@@ -15,9 +15,9 @@
  */
 package com.igormaznitsa.jbbp.mapper;
 
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
 import com.igormaznitsa.jbbp.exceptions.JBBPMapperException;
 import com.igormaznitsa.jbbp.io.JBBPBitNumber;
-import com.igormaznitsa.jbbp.io.JBBPBitOrder;
 import com.igormaznitsa.jbbp.mapper.instantiators.JBBPClassInstantiator;
 import com.igormaznitsa.jbbp.mapper.instantiators.JBBPClassInstantiatorFactory;
 import com.igormaznitsa.jbbp.model.*;
@@ -28,6 +28,8 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * The Class processes mapping of a parsed binary data to class fields. The
@@ -51,6 +53,67 @@ public final class JBBPMapper {
      */
     private static final JBBPClassInstantiator CLASS_INSTANTIATOR = JBBPClassInstantiatorFactory.getInstance().make();
 
+    /**
+     * Cache of resolved mapping fields for classes.
+     *
+     * @since 1.3.1
+     */
+    private static final ConcurrentMap<Class<?>, MappedFieldRecord[]> CACHED_MAPPED_FIELDS = new ConcurrentHashMap<Class<?>, MappedFieldRecord[]>();
+
+    /**
+     * Get resolved mapping fields for a class, they are calculated once and
+     * cached. Fields are ordered from the class to its ancestors.
+     *
+     * @param mappingClass a mapping class, must not be null
+     * @return array of resolved mapping fields, must not be null
+     */
+    static MappedFieldRecord[] findMappedFields(final Class<?> mappingClass) {
+        MappedFieldRecord[] result = CACHED_MAPPED_FIELDS.get(mappingClass);
+        if (result == null) {
+            final Bin defaultAnno = mappingClass.getAnnotation(Bin.class);
+            final List<MappedFieldRecord> records = new ArrayList<MappedFieldRecord>();
+
+            Class<?> current = mappingClass;
+            while (current != java.lang.Object.class) {
+                for (final Field mappingField : current.getDeclaredFields()) {
+                    final int modifiers = mappingField.getModifiers();
+                    if (Modifier.isTransient(modifiers) || Modifier.isStatic(modifiers)) {
+                        continue;
+                    }
+
+                    if (!mappingField.isAccessible()) {
+                        JBBPUtils.makeAccessible(mappingField);
+                    }
+
+                    final Bin fieldAnno = mappingField.getAnnotation(Bin.class);
+                    if ((fieldAnno == null && defaultAnno == null) || mappingField.getName().indexOf('$') >= 0) {
+                        continue;
+                    }
+                    records.add(new MappedFieldRecord(mappingField, fieldAnno == null ? defaultAnno : fieldAnno));
+                }
+                current = current.getSuperclass();
+            }
+
+            result = records.toArray(new MappedFieldRecord[records.size()]);
+            final MappedFieldRecord[] alreadyCached = CACHED_MAPPED_FIELDS.putIfAbsent(mappingClass, result);
+            if (alreadyCached != null) {
+                result = alreadyCached;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Clear the inside cache of resolved mapping class fields, it can be useful
+     * if mapping classes are loaded by temporary class loaders.
+     *
+     * @since 1.3.1
+     */
+    public static void clearMappingCache() {
+        CACHED_MAPPED_FIELDS.clear();
+        JBBPDirectMapper.clearPlanCache();
+    }
+
     /**
      * Create a class instance, map binary data of a structure for its path to its
      * fields and return the instance.
@@ -255,141 +318,126 @@ public final class JBBPMapper {
 
         final Class<?> mappingClass = mappingClassInstance.getClass();
 
-        final Bin defaultAnno = mappingClass.getAnnotation(Bin.class);
-
-        // make chain of ancestors till java.lang.Object
-        final List<Class<?>> listOfClassHierarchy = new ArrayList<Class<?>>();
-        Class<?> current = mappingClassInstance.getClass();
-        while (current != java.lang.Object.class) {
-            listOfClassHierarchy.add(current);
-            current = current.getSuperclass();
-        }
+        for (final MappedFieldRecord record : findMappedFields(mappingClass)) {
+            final Field mappingField = record.mappingField;
+            final Bin mappedAnno = record.binAnnotation;
 
-        for (final Class<?> processingClazz : listOfClassHierarchy) {
-            for (final Field mappingField : processingClazz.getDeclaredFields()) {
-                final int modifiers = mappingField.getModifiers();
-                if (Modifier.isTransient(modifiers) || Modifier.isStatic(modifiers)) {
-                    continue;
+            if (record.custom) {
+                JBBPUtils.assertNotNull(customFieldProcessor, "There is a custom mapping field, in the case you must provide a custom mapping field processor");
+                final Object value = customFieldProcessor.prepareObjectForMapping(rootStructure, mappedAnno, mappingField);
+                setFieldValue(mappingClassInstance, record, null, value);
+            } else {
+                final BinType fieldType = record.fieldType;
+                if (fieldType == null) {
+                    throw new JBBPMapperException("Can't find compatible type for a mapping field", rootStructure, mappingClass, mappingField, null);
                 }
 
-                if (!mappingField.isAccessible()) {
-                    JBBPUtils.makeAccessible(mappingField);
-                }
+                final JBBPBitNumber mappedBitNumber = record.mappedBitNumber;
+                final String fieldName = record.fieldName;
+                final String fieldPath = record.fieldPath;
 
-                final Bin fieldAnno = mappingField.getAnnotation(Bin.class);
-                final Bin mappedAnno;
-                if ((fieldAnno == null && defaultAnno == null) || mappingField.getName().indexOf('$') >= 0) {
-                    continue;
-                }
-                mappedAnno = fieldAnno == null ? defaultAnno : fieldAnno;
+                final JBBPAbstractField binField;
 
-                if (mappedAnno.custom()) {
-                    JBBPUtils.assertNotNull(customFieldProcessor, "There is a custom mapping field, in the case you must provide a custom mapping field processor");
-                    final Object value = customFieldProcessor.prepareObjectForMapping(rootStructure, mappedAnno, mappingField);
-                    setFieldValue(mappingClassInstance, mappingField, null, value);
+                if (fieldPath.length() == 0) {
+                    binField = fieldName.length() == 0 ? rootStructure.findFieldForType(fieldType.getFieldClass()) : rootStructure.findFieldForNameAndType(fieldName, fieldType.getFieldClass());
                 } else {
-                    final BinType fieldType;
-
-                    final JBBPBitNumber mappedBitNumber = mappedAnno.outBitNumber();
+                    binField = rootStructure.findFieldForPathAndType(fieldPath, fieldType.getFieldClass());
+                }
 
-                    if (mappedAnno.type() == BinType.UNDEFINED) {
-                        BinType thetype = BinType.findCompatible(mappingField.getType());
-                        if (thetype == null) {
-                            throw new JBBPMapperException("Can't find compatible type for a mapping field", rootStructure, mappingClass, mappingField, null);
-                        } else if (mappedBitNumber.getBitNumber() < 8 && !(thetype == BinType.STRUCT || thetype == BinType.STRUCT_ARRAY)) {
-                            thetype = thetype.isArray() ? BinType.BIT_ARRAY : BinType.BIT;
-                        }
-                        fieldType = thetype;
-                    } else {
-                        fieldType = mappedAnno.type();
+                if (binField == null) {
+                    if ((flags & FLAG_IGNORE_MISSING_VALUES) != 0) {
+                        continue;
                     }
-                    final boolean bitWideField = fieldType == BinType.BIT || fieldType == BinType.BIT_ARRAY;
+                    throw new JBBPMapperException("Can't find value to be mapped to a mapping field [" + mappingField + ']', null, mappingClass, mappingField, null);
+                }
 
-                    final String fieldName = mappedAnno.name().length() == 0 ? mappingField.getName() : mappedAnno.name();
-                    final String fieldPath = mappedAnno.path();
+                mapBinField(mappingClassInstance, record, binField, customFieldProcessor);
+            }
+        }
+        return mappingClassInstance;
+    }
 
-                    final JBBPAbstractField binField;
+    /**
+     * Map a found binary field to a mapping class field.
+     *
+     * @param mappingClassInstance a mapping class instance, must not be null
+     * @param record               a resolved mapping field record, must not be null
+     * @param binField             a binary field to be mapped, must not be null
+     * @param customFieldProcessor a custom field processor, it can be null
+     * @throws JBBPMapperException for any error
+     */
+    static void mapBinField(final Object mappingClassInstance, final MappedFieldRecord record, final JBBPAbstractField binField, final JBBPMapperCustomFieldProcessor customFieldProcessor) {
+        final Class<?> mappingClass = mappingClassInstance.getClass();
+        final Field mappingField = record.mappingField;
+        final JBBPBitNumber mappedBitNumber = record.mappedBitNumber;
 
-                    if (fieldPath.length() == 0) {
-                        binField = fieldName.length() == 0 ? rootStructure.findFieldForType(fieldType.getFieldClass()) : rootStructure.findFieldForNameAndType(fieldName, fieldType.getFieldClass());
-                    } else {
-                        binField = rootStructure.findFieldForPathAndType(fieldPath, fieldType.getFieldClass());
-                    }
+        if (record.bitWideField && mappedBitNumber != JBBPBitNumber.BITS_8 && ((BitEntity) binField).getBitWidth() != mappedBitNumber) {
+            throw new JBBPMapperException("Can't map value to a mapping field for different field bit width [" + mappedBitNumber + "!=" + ((BitEntity) binField).getBitWidth().getBitNumber() + ']', null, mappingClass, mappingField, null);
+        }
 
-                    if (binField == null) {
-                        if ((flags & FLAG_IGNORE_MISSING_VALUES) != 0) {
-                            continue;
-                        }
-                        throw new JBBPMapperException("Can't find value to be mapped to a mapping field [" + mappingField + ']', null, mappingClass, mappingField, null);
+        if (record.fieldClass.isArray()) {
+            if (binField instanceof JBBPAbstractArrayField) {
+                if (binField instanceof JBBPFieldArrayStruct) {
+                    // structure
+                    final JBBPFieldArrayStruct structArray = (JBBPFieldArrayStruct) binField;
+                    final Class<?> componentType = record.fieldClass.getComponentType();
+
+                    if (componentType.isPrimitive()) {
+                        throw new JBBPMapperException("Can't map a structure array to a primitive array mapping field", binField, mappingClass, mappingField, null);
                     }
 
-                    if (bitWideField && mappedBitNumber != JBBPBitNumber.BITS_8 && ((BitEntity) binField).getBitWidth() != mappedBitNumber) {
-                        throw new JBBPMapperException("Can't map value to a mapping field for different field bit width [" + mappedBitNumber + "!=" + ((BitEntity) binField).getBitWidth().getBitNumber() + ']', null, mappingClass, mappingField, null);
+                    Object[] valueArray = (Object[]) getFieldValue(mappingClassInstance, record);
+
+                    valueArray = valueArray == null ? (Object[]) Array.newInstance(componentType, structArray.size()) : valueArray;
+
+                    if (valueArray.length != structArray.size()) {
+                        throw new JBBPMapperException("Can't map an array field for different expected size [" + valueArray.length + "!=" + structArray.size() + ']', binField, mappingClass, mappingField, null);
                     }
 
-                    if (mappingField.getType().isArray()) {
-                        if (binField instanceof JBBPAbstractArrayField) {
-                            if (binField instanceof JBBPFieldArrayStruct) {
-                                // structure
-                                final JBBPFieldArrayStruct structArray = (JBBPFieldArrayStruct) binField;
-                                final Class<?> componentType = mappingField.getType().getComponentType();
-
-                                Object valueArray = getFieldValue(mappingClassInstance, mappingField);
-
-                                valueArray = valueArray == null ? Array.newInstance(componentType, structArray.size()) : valueArray;
-
-                                if (Array.getLength(valueArray) != structArray.size()) {
-                                    throw new JBBPMapperException("Can't map an array field for different expected size [" + Array.getLength(valueArray) + "!=" + structArray.size() + ']', binField, mappingClass, mappingField, null);
-                                }
-
-                                for (int i = 0; i < structArray.size(); i++) {
-                                    final Object curInstance = Array.get(valueArray, i);
-                                    if (curInstance == null) {
-                                        Array.set(valueArray, i, map(structArray.getElementAt(i), componentType, customFieldProcessor));
-                                    } else {
-                                        Array.set(valueArray, i, map(structArray.getElementAt(i), curInstance, customFieldProcessor));
-                                    }
-                                }
-                                setFieldValue(mappingClassInstance, mappingField, binField, valueArray);
-                            } else {
-                                // primitive
-                                mapArrayField(mappingClassInstance, mappingField, (JBBPAbstractArrayField<?>) binField, mappedAnno.bitOrder() == JBBPBitOrder.MSB0);
-                            }
+                    for (int i = 0; i < valueArray.length; i++) {
+                        final Object curInstance = valueArray[i];
+                        if (curInstance == null) {
+                            valueArray[i] = map(structArray.getElementAt(i), componentType, customFieldProcessor);
                         } else {
-                            throw new JBBPMapperException("Can't map a non-array value to an array mapping field", binField, mappingClass, mappingField, null);
+                            valueArray[i] = map(structArray.getElementAt(i), curInstance, customFieldProcessor);
                         }
+                    }
+                    setFieldValue(mappingClassInstance, record, binField, valueArray);
+                } else {
+                    // primitive
+                    mapArrayField(mappingClassInstance, record, (JBBPAbstractArrayField<?>) binField, record.invertBitOrder);
+                }
+            } else {
+                throw new JBBPMapperException("Can't map a non-array value to an array mapping field", binField, mappingClass, mappingField, null);
+            }
+        } else {
+            if (binField instanceof JBBPNumericField) {
+                mapNumericField(mappingClassInstance, record, (JBBPNumericField) binField, record.invertBitOrder);
+            } else if (binField instanceof JBBPFieldStruct) {
+                if (record.fieldClass.isPrimitive()) {
+                    throw new JBBPMapperException("Can't map a structure to a primitive mapping field", binField, mappingClass, mappingField, null);
+                } else {
+                    final Object curValue = getFieldValue(mappingClassInstance, record);
+                    if (curValue == null) {
+                        setFieldValue(mappingClassInstance, record, binField, map((JBBPFieldStruct) binField, record.fieldClass, customFieldProcessor));
                     } else {
-                        if (binField instanceof JBBPNumericField) {
-                            mapNumericField(mappingClassInstance, mappingField, (JBBPNumericField) binField, mappedAnno.bitOrder() == JBBPBitOrder.MSB0);
-                        } else if (binField instanceof JBBPFieldStruct) {
-                            if (mappingField.getType().isPrimitive()) {
-                                throw new JBBPMapperException("Can't map a structure to a primitive mapping field", binField, mappingClass, mappingField, null);
-                            } else {
-                                final Object curValue = getFieldValue(mappingClassInstance, mappingField);
-                                if (curValue == null) {
-                                    setFieldValue(mappingClassInstance, mappingField, binField, map((JBBPFieldStruct) binField, mappingField.getType(), customFieldProcessor));
-                                } else {
-                                    setFieldValue(mappingClassInstance, mappingField, binField, map((JBBPFieldStruct) binField, curValue, customFieldProcessor));
-                                }
-                            }
-                        } else {
-                            boolean processed = false;
-                            if (mappingField.getType() == String.class && binField instanceof JBBPAbstractArrayField) {
-                                final String convertedValue = convertFieldValueToString((JBBPAbstractArrayField<?>) binField);
-                                if (convertedValue != null) {
-                                    setFieldValue(mappingClassInstance, mappingField, binField, convertedValue);
-                                    processed = true;
-                                }
-                            }
-                            if (!processed) {
-                                throw new JBBPMapperException("Can't map a field for its value incompatibility", binField, mappingClass, mappingField, null);
-                            }
-                        }
+                        setFieldValue(mappingClassInstance, record, binField, map((JBBPFieldStruct) binField, curValue, customFieldProcessor));
+                    }
+                }
+            } else {
+                boolean processed = false;
+                if (record.fieldClass == String.class && binField instanceof JBBPAbstractArrayField) {
+                    final String convertedValue = convertFieldValueToString((JBBPAbstractArrayField<?>) binField);
+                    if (convertedValue != null) {
+                        setFieldValue(mappingClassInstance, record, binField, convertedValue);
+                        processed = true;
                     }
                 }
+                if (!processed) {
+                    throw new JBBPMapperException("Can't map a field for its value incompatibility", binField, mappingClass, mappingField, null);
+                }
             }
         }
-        return mappingClassInstance;
     }
 
     /**
@@ -442,14 +490,15 @@ public final class JBBPMapper {
      * fields!
      *
      * @param classInstance a class instance
-     * @param classField    a mapping class field which should be set by the value,
+     * @param record        a mapping class field record which should be set by the value,
      *                      must not be null
      * @param binField      a parsed bin field which value will be set, can be null
      * @param value         a value to be set to the class field
      */
-    private static void setFieldValue(final Object classInstance, final Field classField, final JBBPAbstractField binField, final Object value) {
+    static void setFieldValue(final Object classInstance, final MappedFieldRecord record, final JBBPAbstractField binField, final Object value) {
+        final Field classField = record.mappingField;
         try {
-            classField.set(classInstance, value);
+            record.accessor.set(classInstance, value);
         } catch (IllegalArgumentException ex) {
             throw new JBBPMapperException("Can't set value to a mapping field", binField, classInstance.getClass(), classField, ex);
         } catch (IllegalAccessException ex) {
@@ -461,13 +510,14 @@ public final class JBBPMapper {
      * Get a value of a field from a class instance.
      *
      * @param classInstance a class instance object
-     * @param classField    a class field which value must be returned, must not be
+     * @param record        a class field record which value must be returned, must not be
      *                      null
      * @return the field value for the class instance
      */
-    private static Object getFieldValue(final Object classInstance, final Field classField) {
+    static Object getFieldValue(final Object classInstance, final MappedFieldRecord record) {
+        final Field classField = record.mappingField;
         try {
-            return classField.get(classInstance);
+            return record.accessor.get(classInstance);
         } catch (IllegalArgumentException ex) {
             throw new JBBPMapperException("Can't set get value from a mapping field", null, classInstance.getClass(), classField, ex);
         } catch (IllegalAccessException ex) {
@@ -480,38 +530,61 @@ public final class JBBPMapper {
      * class.
      *
      * @param mappingClassInstance the mapping class instance, must not be null
-     * @param mappingField         a mapping field to set the value, must not be null
+     * @param record               a mapping field record to set the value, must not be null
      * @param numericField         a parsed numeric field which value should be used, must
      *                             not be null
      * @param invertBitOrder       flag shows that the parsed numeric field value must
      *                             be reversed in its bit before setting
      */
-    private static void mapNumericField(final Object mappingClassInstance, final Field mappingField, final JBBPNumericField numericField, final boolean invertBitOrder) {
-        final Class<?> fieldClass = mappingField.getType();
+    private static void mapNumericField(final Object mappingClassInstance, final MappedFieldRecord record, final JBBPNumericField numericField, final boolean invertBitOrder) {
+        if (invertBitOrder) {
+            final long inverted = numericField.getAsInvertedBitOrder();
+            setNumericValue(mappingClassInstance, record, (JBBPAbstractField) numericField, (int) inverted, inverted, numericField.getAsBool());
+        } else {
+            setNumericValue(mappingClassInstance, record, (JBBPAbstractField) numericField, numericField.getAsInt(), numericField.getAsLong(), numericField.getAsBool());
+        }
+    }
+
+    /**
+     * Set a primitive field in a mapping class by a numeric value provided in
+     * all its representations, so that it doesn't need any parsed field object.
+     *
+     * @param mappingClassInstance the mapping class instance, must not be null
+     * @param record               a mapping field record to set the value, must not be null
+     * @param binField             a parsed field to be used as info for exception, can be null
+     * @param asInt                the value as integer
+     * @param asLong               the value as long
+     * @param asBool               the value as boolean
+     * @since 1.3.1
+     */
+    static void setNumericValue(final Object mappingClassInstance, final MappedFieldRecord record, final JBBPAbstractField binField, final int asInt, final long asLong, final boolean asBool) {
+        final Field mappingField = record.mappingField;
+        final FieldAccessor accessor = record.accessor;
+        final Class<?> fieldClass = record.fieldClass;
         try {
             if (fieldClass == byte.class) {
-                mappingField.setByte(mappingClassInstance, (byte) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
+                accessor.setByte(mappingClassInstance, (byte) asInt);
             } else if (fieldClass == boolean.class) {
-                mappingField.setBoolean(mappingClassInstance, numericField.getAsBool());
+                accessor.setBoolean(mappingClassInstance, asBool);
             } else if (fieldClass == char.class) {
-                mappingField.setChar(mappingClassInstance, (char) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
+                accessor.setChar(mappingClassInstance, (char) asInt);
             } else if (fieldClass == short.class) {
-                mappingField.setShort(mappingClassInstance, (short) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
+                accessor.setShort(mappingClassInstance, (short) asInt);
             } else if (fieldClass == int.class) {
-                mappingField.setInt(mappingClassInstance, (int) (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
+                accessor.setInt(mappingClassInstance, asInt);
             } else if (fieldClass == long.class) {
-                mappingField.setLong(mappingClassInstance, (invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsLong()));
+                accessor.setLong(mappingClassInstance, asLong);
             } else if (fieldClass == float.class) {
-                mappingField.setFloat(mappingClassInstance, Float.intBitsToFloat(invertBitOrder ? (int) numericField.getAsInvertedBitOrder() : numericField.getAsInt()));
+                accessor.setFloat(mappingClassInstance, Float.intBitsToFloat(asInt));
             } else if (fieldClass == double.class) {
-                mappingField.setDouble(mappingClassInstance, Double.longBitsToDouble(invertBitOrder ? numericField.getAsInvertedBitOrder() : numericField.getAsLong()));
+                accessor.setDouble(mappingClassInstance, Double.longBitsToDouble(asLong));
             } else {
-                throw new JBBPMapperException("Unsupported mapping class field type to be mapped for binary parsed data", (JBBPAbstractField) numericField, mappingClassInstance.getClass(), mappingField, null);
+                throw new JBBPMapperException("Unsupported mapping class field type to be mapped for binary parsed data", binField, mappingClassInstance.getClass(), mappingField, null);
             }
         } catch (IllegalAccessException ex) {
-            throw new JBBPMapperException("Can't get access to a mapping field", (JBBPAbstractField) numericField, mappingClassInstance.getClass(), mappingField, ex);
+            throw new JBBPMapperException("Can't get access to a mapping field", binField, mappingClassInstance.getClass(), mappingField, ex);
         } catch (IllegalArgumentException ex) {
-            throw new JBBPMapperException("Can't set argument to a mapping field", (JBBPAbstractField) numericField, mappingClassInstance.getClass(), mappingField, ex);
+            throw new JBBPMapperException("Can't set argument to a mapping field", binField, mappingClassInstance.getClass(), mappingField, ex);
         }
     }
 
@@ -519,23 +592,24 @@ public final class JBBPMapper {
      * Map a parsed array to an array field in mapping class.
      *
      * @param mappingClassInstance a mapping class instance, must not be null
-     * @param mappingField         a field in the mapping class to be set, must not be
+     * @param record               a field record in the mapping class to be set, must not be
      *                             null
      * @param arrayField           a binary parsed array field, must not be null
      * @param invertBitOrder       flag shows that values of an array must be bit
      *                             reversed before set
      */
-    private static void mapArrayField(final Object mappingClassInstance, final Field mappingField, final JBBPAbstractArrayField<?> arrayField, final boolean invertBitOrder) {
+    private static void mapArrayField(final Object mappingClassInstance, final MappedFieldRecord record, final JBBPAbstractArrayField<?> arrayField, final boolean invertBitOrder) {
+        final Field mappingField = record.mappingField;
         try {
-            if (arrayField instanceof JBBPFieldArrayUShort && mappingField.getType().getComponentType() == char.class) {
+            if (arrayField instanceof JBBPFieldArrayUShort && record.fieldClass.getComponentType() == char.class) {
                 final short[] shortarray = (short[]) arrayField.getValueArrayAsObject(invertBitOrder);
                 final char[] chararray = new char[shortarray.length];
                 for (int i = 0; i < shortarray.length; i++) {
                     chararray[i] = (char) shortarray[i];
                 }
-                mappingField.set(mappingClassInstance, chararray);
+                record.accessor.set(mappingClassInstance, chararray);
             } else {
-                mappingField.set(mappingClassInstance, arrayField.getValueArrayAsObject(invertBitOrder));
+                record.accessor.set(mappingClassInstance, arrayField.getValueArrayAsObject(invertBitOrder));
             }
         } catch (IllegalAccessException ex) {
             throw new JBBPMapperException("Can't get access to a mapping field", arrayField, mappingClassInstance.getClass(), mappingField, ex);
@@ -544,6 +618,162 @@ public final class JBBPMapper {
         }
     }
 
+    /**
+     * Find a mapping class field which is mapped to a binary field, fields
+     * processed by custom field processor are ignored.
+     *
+     * @param mappingClass a mapping class, must not be null
+     * @param name         a binary field name info, must not be null
+     * @return found mapping field record or null
+     */
+    private static MappedFieldRecord findRecordForBinField(final Class<?> mappingClass, final JBBPNamedFieldInfo name) {
+        for (final MappedFieldRecord record : findMappedFields(mappingClass)) {
+            if (record.custom) {
+                continue;
+            }
+            if (record.normalizedFieldPath.length() == 0) {
+                if (record.normalizedFieldName.equals(name.getFieldName())) {
+                    return record;
+                }
+            } else if (record.normalizedFieldPath.equals(name.getFieldPath())) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get value of a mapping class field which is mapped to a binary field, it
+     * can be used to get instances of mapped structures.
+     *
+     * @param instance a mapping class instance, must not be null
+     * @param name     a binary field name info, must not be null
+     * @return the value of the mapping field, null if there is not any mapping field for the binary field
+     * @since 1.3.1
+     */
+    public static Object findMappedValue(final Object instance, final JBBPNamedFieldInfo name) {
+        final MappedFieldRecord record = findRecordForBinField(instance.getClass(), name);
+        return record == null ? null : getFieldValue(instance, record);
+    }
+
+    /**
+     * Make a binary field from the value of a mapping class field, it is the
+     * reverse operation to mapping. If the mapping field defines MSB0 bit order
+     * then bit order of the value is inverted back.
+     *
+     * @param instance  a mapping class instance, must not be null
+     * @param name      a binary field name info, must not be null
+     * @param fieldType type of the binary field to be made, only numeric fields and their arrays are supported
+     * @param bitNumber number of bits for bit fields, it can be null for other types
+     * @return the binary field, null if there is not any mapping field for the binary field
+     * @throws JBBPMapperException if the mapping field value can't be converted into the binary field
+     * @since 1.3.1
+     */
+    public static JBBPAbstractField makeBinField(final Object instance, final JBBPNamedFieldInfo name, final Class<? extends JBBPAbstractField> fieldType, final JBBPBitNumber bitNumber) {
+        final MappedFieldRecord record = findRecordForBinField(instance.getClass(), name);
+        if (record == null) {
+            return null;
+        }
+        final Object value = getFieldValue(instance, record);
+        if (value == null) {
+            throw new JBBPMapperException("Mapping field has null value", null, instance.getClass(), record.mappingField, null);
+        }
+
+        JBBPAbstractField result = makeBinFieldForValue(name, fieldType, bitNumber, value);
+        if (result == null) {
+            throw new JBBPMapperException("Can't convert mapping field value into " + fieldType.getSimpleName(), null, instance.getClass(), record.mappingField, null);
+        }
+        if (record.invertBitOrder) {
+            if (result instanceof JBBPAbstractArrayField) {
+                result = makeBinFieldForValue(name, fieldType, bitNumber, ((JBBPAbstractArrayField<?>) result).getValueArrayAsObject(true));
+            } else {
+                result = makeBinFieldForValue(name, fieldType, bitNumber, ((JBBPNumericField) result).getAsInvertedBitOrder());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Make a binary field for a value.
+     *
+     * @param name      a binary field name info
+     * @param fieldType type of binary field
+     * @param bitNumber number of bits for bit fields
+     * @param value     a boxed primitive value or a primitive array
+     * @return made field or null if the value is not compatible with the field type
+     */
+    private static JBBPAbstractField makeBinFieldForValue(final JBBPNamedFieldInfo name, final Class<? extends JBBPAbstractField> fieldType, final JBBPBitNumber bitNumber, final Object value) {
+        if (value.getClass().isArray()) {
+            if (value instanceof byte[]) {
+                final byte[] array = (byte[]) value;
+                if (fieldType == JBBPFieldArrayByte.class) {
+                    return new JBBPFieldArrayByte(name, array);
+                } else if (fieldType == JBBPFieldArrayUByte.class) {
+                    return new JBBPFieldArrayUByte(name, array);
+                } else if (fieldType == JBBPFieldArrayBit.class) {
+                    return new JBBPFieldArrayBit(name, array, bitNumber);
+                }
+            } else if (value instanceof short[] || value instanceof char[]) {
+                final short[] array;
+                if (value instanceof char[]) {
+                    final char[] chars = (char[]) value;
+                    array = new short[chars.length];
+                    for (int i = 0; i < chars.length; i++) {
+                        array[i] = (short) chars[i];
+                    }
+                } else {
+                    array = (short[]) value;
+                }
+                if (fieldType == JBBPFieldArrayShort.class) {
+                    return new JBBPFieldArrayShort(name, array);
+                } else if (fieldType == JBBPFieldArrayUShort.class) {
+                    return new JBBPFieldArrayUShort(name, array);
+                }
+            } else if (value instanceof boolean[] && fieldType == JBBPFieldArrayBoolean.class) {
+                return new JBBPFieldArrayBoolean(name, (boolean[]) value);
+            } else if (value instanceof int[] && fieldType == JBBPFieldArrayInt.class) {
+                return new JBBPFieldArrayInt(name, (int[]) value);
+            } else if (value instanceof long[] && fieldType == JBBPFieldArrayLong.class) {
+                return new JBBPFieldArrayLong(name, (long[]) value);
+            }
+            return null;
+        }
+
+        final long asLong;
+        if (value instanceof Boolean) {
+            asLong = (Boolean) value ? 1L : 0L;
+        } else if (value instanceof Character) {
+            asLong = (Character) value;
+        } else if (value instanceof Float) {
+            asLong = Float.floatToIntBits((Float) value);
+        } else if (value instanceof Double) {
+            asLong = Double.doubleToLongBits((Double) value);
+        } else if (value instanceof Number) {
+            asLong = ((Number) value).longValue();
+        } else {
+            return null;
+        }
+
+        if (fieldType == JBBPFieldBit.class) {
+            return new JBBPFieldBit(name, (int) asLong & bitNumber.getMask(), bitNumber);
+        } else if (fieldType == JBBPFieldBoolean.class) {
+            return new JBBPFieldBoolean(name, asLong != 0L);
+        } else if (fieldType == JBBPFieldByte.class) {
+            return new JBBPFieldByte(name, (byte) asLong);
+        } else if (fieldType == JBBPFieldUByte.class) {
+            return new JBBPFieldUByte(name, (byte) asLong);
+        } else if (fieldType == JBBPFieldShort.class) {
+            return new JBBPFieldShort(name, (short) asLong);
+        } else if (fieldType == JBBPFieldUShort.class) {
+            return new JBBPFieldUShort(name, (short) asLong);
+        } else if (fieldType == JBBPFieldInt.class) {
+            return new JBBPFieldInt(name, (int) asLong);
+        } else if (fieldType == JBBPFieldLong.class) {
+            return new JBBPFieldLong(name, asLong);
+        }
+        return null;
+    }
+
     /**
      * Makes an instance of a class without call of its constructor, just allocate
      * memory
@@ -555,7 +785,7 @@ public final class JBBPMapper {
      * @throws JBBPMapperException it will be thrown if it is impossible to make
      *                             an instance
      */
-    private static <T> T allocateMemoryForClass(final JBBPFieldStruct root, final Class<T> klazz) {
+    static <T> T allocateMemoryForClass(final JBBPFieldStruct root, final Class<T> klazz) {
         try {
             return CLASS_INSTANTIATOR.makeClassInstance(klazz);
         } catch (InstantiationException ex) {
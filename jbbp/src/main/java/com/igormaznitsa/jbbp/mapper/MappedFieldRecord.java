@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper;
+
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Immutable pre-resolved information about a mapping class field, it is
+ * calculated once for a class and used by the mapper for all its instances.
+ *
+ * @since 1.3.1
+ */
+final class MappedFieldRecord {
+    /**
+     * Flag shows that sun.misc.Unsafe can be used to write fields.
+     */
+    private static final boolean UNSAFE_ACCESSIBLE = isUnsafeAccessible();
+    /**
+     * Accessor to read and write the mapping field.
+     */
+    final FieldAccessor accessor;
+    /**
+     * The Mapping field, it is already accessible.
+     */
+    final Field mappingField;
+    /**
+     * Type of the mapping field.
+     */
+    final Class<?> fieldClass;
+    /**
+     * Annotation to be used for the field, its own or class default.
+     */
+    final Bin binAnnotation;
+    /**
+     * Flag shows that the field is processed by custom field processor.
+     */
+    final boolean custom;
+    /**
+     * Resolved binary type of the field, null if it can't be resolved.
+     */
+    final BinType fieldType;
+    /**
+     * Flag shows that the field is bit field or bit array.
+     */
+    final boolean bitWideField;
+    /**
+     * Bit number defined for the field.
+     */
+    final JBBPBitNumber mappedBitNumber;
+    /**
+     * Name of a binary field to be mapped.
+     */
+    final String fieldName;
+    /**
+     * Path of a binary field to be mapped, empty if not defined.
+     */
+    final String fieldPath;
+    /**
+     * Normalized name of a binary field to be mapped.
+     */
+    final String normalizedFieldName;
+    /**
+     * Normalized path of a binary field to be mapped, empty if not defined.
+     */
+    final String normalizedFieldPath;
+    /**
+     * Flag shows that bit order of values must be inverted.
+     */
+    final boolean invertBitOrder;
+
+    /**
+     * Constructor.
+     *
+     * @param mappingField  a mapping field, must not be null
+     * @param binAnnotation an annotation to be used for the field, must not be null
+     */
+    MappedFieldRecord(final Field mappingField, final Bin binAnnotation) {
+        this.mappingField = mappingField;
+        this.accessor = makeAccessor(mappingField);
+        this.fieldClass = mappingField.getType();
+        this.binAnnotation = binAnnotation;
+        this.custom = binAnnotation.custom();
+        this.mappedBitNumber = binAnnotation.outBitNumber();
+
+        if (binAnnotation.type() == BinType.UNDEFINED) {
+            BinType thetype = BinType.findCompatible(this.fieldClass);
+            if (thetype != null && this.mappedBitNumber.getBitNumber() < 8 && !(thetype == BinType.STRUCT || thetype == BinType.STRUCT_ARRAY)) {
+                thetype = thetype.isArray() ? BinType.BIT_ARRAY : BinType.BIT;
+            }
+            this.fieldType = thetype;
+        } else {
+            this.fieldType = binAnnotation.type();
+        }
+        this.bitWideField = this.fieldType == BinType.BIT || this.fieldType == BinType.BIT_ARRAY;
+        this.fieldName = binAnnotation.name().length() == 0 ? mappingField.getName() : binAnnotation.name();
+        this.fieldPath = binAnnotation.path();
+        this.normalizedFieldName = JBBPUtils.normalizeFieldNameOrPath(this.fieldName);
+        this.normalizedFieldPath = JBBPUtils.normalizeFieldNameOrPath(this.fieldPath);
+        this.invertBitOrder = binAnnotation.bitOrder() == JBBPBitOrder.MSB0;
+    }
+
+    private static boolean isUnsafeAccessible() {
+        try {
+            return UnsafeFieldAccessor.isSupported();
+        } catch (LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Make the fastest accessor for a field which is supported by the platform.
+     * Volatile fields are always processed through reflection to keep their
+     * memory semantics.
+     *
+     * @param field a field, must not be null and must be accessible
+     * @return accessor for the field, must not be null
+     */
+    static FieldAccessor makeAccessor(final Field field) {
+        if (UNSAFE_ACCESSIBLE && !Modifier.isVolatile(field.getModifiers())) {
+            try {
+                return new UnsafeFieldAccessor(field);
+            } catch (LinkageError ex) {
+                // use reflection
+            } catch (RuntimeException ex) {
+                // use reflection
+            }
+        }
+        return new ReflectionFieldAccessor(field);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper;
+
+import java.lang.reflect.Field;
+
+/**
+ * Field accessor working through reflection, it is used if there is no any
+ * faster way on the platform.
+ *
+ * @since 1.3.1
+ */
+final class ReflectionFieldAccessor implements FieldAccessor {
+    private final Field field;
+
+    ReflectionFieldAccessor(final Field field) {
+        this.field = field;
+    }
+
+    @Override
+    public Object get(final Object instance) throws IllegalAccessException {
+        return this.field.get(instance);
+    }
+
+    @Override
+    public void set(final Object instance, final Object value) throws IllegalAccessException {
+        this.field.set(instance, value);
+    }
+
+    @Override
+    public void setBoolean(final Object instance, final boolean value) throws IllegalAccessException {
+        this.field.setBoolean(instance, value);
+    }
+
+    @Override
+    public void setByte(final Object instance, final byte value) throws IllegalAccessException {
+        this.field.setByte(instance, value);
+    }
+
+    @Override
+    public void setChar(final Object instance, final char value) throws IllegalAccessException {
+        this.field.setChar(instance, value);
+    }
+
+    @Override
+    public void setShort(final Object instance, final short value) throws IllegalAccessException {
+        this.field.setShort(instance, value);
+    }
+
+    @Override
+    public void setInt(final Object instance, final int value) throws IllegalAccessException {
+        this.field.setInt(instance, value);
+    }
+
+    @Override
+    public void setLong(final Object instance, final long value) throws IllegalAccessException {
+        this.field.setLong(instance, value);
+    }
+
+    @Override
+    public void setFloat(final Object instance, final float value) throws IllegalAccessException {
+        this.field.setFloat(instance, value);
+    }
+
+    @Override
+    public void setDouble(final Object instance, final double value) throws IllegalAccessException {
+        this.field.setDouble(instance, value);
+    }
+}
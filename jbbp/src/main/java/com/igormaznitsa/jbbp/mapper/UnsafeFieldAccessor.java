@@ -0,0 +1,204 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper;
+
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+
+/**
+ * Field accessor reading and writing values directly in object memory through
+ * sun.misc.Unsafe, it allows to avoid reflection checks for every operation.
+ * The class is the only place which uses the internal API directly and it should
+ * be created only if {@link #isSupported()} returns true.
+ * Primitive fields are written only by setters of their own types, objects are
+ * checked for type compatibility before write.
+ *
+ * @since 1.3.1
+ */
+final class UnsafeFieldAccessor implements FieldAccessor {
+
+    /**
+     * The sun.misc.Unsafe object, null if it is not accessible.
+     */
+    private static final Unsafe UNSAFE;
+
+    static {
+        Unsafe unsafe;
+        try {
+            final Field singleoneInstanceField = Unsafe.class.getDeclaredField("theUnsafe");
+            JBBPUtils.makeAccessible(singleoneInstanceField);
+            unsafe = (Unsafe) singleoneInstanceField.get(null);
+        } catch (Exception ex) {
+            unsafe = null;
+        }
+        UNSAFE = unsafe;
+    }
+
+    private final Field field;
+    private final Class<?> fieldType;
+    private final long offset;
+
+    /**
+     * Constructor.
+     *
+     * @param field a field, must not be null and must be accessible
+     * @throws IllegalStateException if sun.misc.Unsafe is not accessible
+     */
+    UnsafeFieldAccessor(final Field field) {
+        if (!isSupported()) {
+            throw new IllegalStateException("sun.misc.Unsafe is not accessible");
+        }
+        this.field = field;
+        this.fieldType = field.getType();
+        this.offset = UNSAFE.objectFieldOffset(field);
+    }
+
+    /**
+     * Check that sun.misc.Unsafe has been found and it can be used by accessors.
+     *
+     * @return true if accessors can be made, false otherwise
+     */
+    static boolean isSupported() {
+        return UNSAFE != null;
+    }
+
+    private void assertInstance(final Object instance) {
+        if (!this.field.getDeclaringClass().isInstance(instance)) {
+            throw new IllegalArgumentException("Object is not instance of " + this.field.getDeclaringClass().getName());
+        }
+    }
+
+    @Override
+    public Object get(final Object instance) throws IllegalAccessException {
+        assertInstance(instance);
+        final Object result;
+        if (this.fieldType == boolean.class) {
+            result = UNSAFE.getBoolean(instance, this.offset);
+        } else if (this.fieldType == byte.class) {
+            result = UNSAFE.getByte(instance, this.offset);
+        } else if (this.fieldType == char.class) {
+            result = UNSAFE.getChar(instance, this.offset);
+        } else if (this.fieldType == short.class) {
+            result = UNSAFE.getShort(instance, this.offset);
+        } else if (this.fieldType == int.class) {
+            result = UNSAFE.getInt(instance, this.offset);
+        } else if (this.fieldType == long.class) {
+            result = UNSAFE.getLong(instance, this.offset);
+        } else if (this.fieldType == float.class) {
+            result = UNSAFE.getFloat(instance, this.offset);
+        } else if (this.fieldType == double.class) {
+            result = UNSAFE.getDouble(instance, this.offset);
+        } else {
+            result = UNSAFE.getObject(instance, this.offset);
+        }
+        return result;
+    }
+
+    @Override
+    public void set(final Object instance, final Object value) throws IllegalAccessException {
+        if (this.fieldType.isPrimitive()) {
+            this.field.set(instance, value);
+        } else {
+            assertInstance(instance);
+            if (value != null && !this.fieldType.isInstance(value)) {
+                throw new IllegalArgumentException("Can't set " + value.getClass().getName() + " to field of type " + this.fieldType.getName());
+            }
+            UNSAFE.putObject(instance, this.offset, value);
+        }
+    }
+
+    @Override
+    public void setBoolean(final Object instance, final boolean value) throws IllegalAccessException {
+        if (this.fieldType == boolean.class) {
+            assertInstance(instance);
+            UNSAFE.putBoolean(instance, this.offset, value);
+        } else {
+            this.field.setBoolean(instance, value);
+        }
+    }
+
+    @Override
+    public void setByte(final Object instance, final byte value) throws IllegalAccessException {
+        if (this.fieldType == byte.class) {
+            assertInstance(instance);
+            UNSAFE.putByte(instance, this.offset, value);
+        } else {
+            this.field.setByte(instance, value);
+        }
+    }
+
+    @Override
+    public void setChar(final Object instance, final char value) throws IllegalAccessException {
+        if (this.fieldType == char.class) {
+            assertInstance(instance);
+            UNSAFE.putChar(instance, this.offset, value);
+        } else {
+            this.field.setChar(instance, value);
+        }
+    }
+
+    @Override
+    public void setShort(final Object instance, final short value) throws IllegalAccessException {
+        if (this.fieldType == short.class) {
+            assertInstance(instance);
+            UNSAFE.putShort(instance, this.offset, value);
+        } else {
+            this.field.setShort(instance, value);
+        }
+    }
+
+    @Override
+    public void setInt(final Object instance, final int value) throws IllegalAccessException {
+        if (this.fieldType == int.class) {
+            assertInstance(instance);
+            UNSAFE.putInt(instance, this.offset, value);
+        } else {
+            this.field.setInt(instance, value);
+        }
+    }
+
+    @Override
+    public void setLong(final Object instance, final long value) throws IllegalAccessException {
+        if (this.fieldType == long.class) {
+            assertInstance(instance);
+            UNSAFE.putLong(instance, this.offset, value);
+        } else {
+            this.field.setLong(instance, value);
+        }
+    }
+
+    @Override
+    public void setFloat(final Object instance, final float value) throws IllegalAccessException {
+        if (this.fieldType == float.class) {
+            assertInstance(instance);
+            UNSAFE.putFloat(instance, this.offset, value);
+        } else {
+            this.field.setFloat(instance, value);
+        }
+    }
+
+    @Override
+    public void setDouble(final Object instance, final double value) throws IllegalAccessException {
+        if (this.fieldType == double.class) {
+            assertInstance(instance);
+            UNSAFE.putDouble(instance, this.offset, value);
+        } else {
+            this.field.setDouble(instance, value);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.model;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
+
+/**
+ * Pre-compiled path to a field in a structure tree. The Path is normalized and split only once, so it can be used
+ * many times to find fields in parsed structures through {@link JBBPFieldStruct#findFieldForCompiledPath(JBBPFieldPath)}.
+ * If the path is compiled for a compiled block then all its items are checked to be named fields of the block.
+ * Path items are found through the lazy field index of structures, so that the first field with the name is
+ * returned as {@link JBBPFieldStruct#findFieldForPath(String)} does. The Object is immutable and thread safe.
+ *
+ * @since 1.3.1
+ */
+public final class JBBPFieldPath {
+
+    /**
+     * The Path in the form provided by user.
+     */
+    private final String path;
+
+    /**
+     * Normalized path.
+     */
+    private final String normalizedPath;
+
+    /**
+     * Normalized names of path items.
+     */
+    private final String[] names;
+
+    private JBBPFieldPath(final String path, final String[] names) {
+        this.path = path;
+        this.normalizedPath = JBBPUtils.normalizeFieldNameOrPath(path);
+        this.names = names;
+    }
+
+    /**
+     * Compile a field path.
+     *
+     * @param path a field path, must not be null
+     * @return compiled path, must not be null
+     */
+    public static JBBPFieldPath compile(final String path) {
+        JBBPUtils.assertNotNull(path, "Path must not be null");
+        return new JBBPFieldPath(path, JBBPUtils.splitString(JBBPUtils.normalizeFieldNameOrPath(path), '.'));
+    }
+
+    /**
+     * Compile a field path for fields of a compiled block, all items of the path must be named fields of the block.
+     *
+     * @param block a compiled block which parsed structures will be used for search, must not be null
+     * @param path  a field path, must not be null
+     * @return compiled path, must not be null
+     * @throws JBBPFinderException if the block doesn't contain a field for the path or for one of its parents
+     */
+    public static JBBPFieldPath compile(final JBBPCompiledBlock block, final String path) {
+        JBBPUtils.assertNotNull(block, "Compiled block must not be null");
+        JBBPUtils.assertNotNull(path, "Path must not be null");
+
+        final String[] names = JBBPUtils.splitString(JBBPUtils.normalizeFieldNameOrPath(path), '.');
+
+        final StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                buffer.append('.');
+            }
+            buffer.append(names[i]);
+            if (block.findFieldForPath(buffer.toString()) == null) {
+                throw new JBBPFinderException("Can't find field '" + buffer + "' in compiled block", path, null);
+            }
+        }
+
+        return new JBBPFieldPath(path, names);
+    }
+
+    /**
+     * Get the path in the form provided for compilation.
+     *
+     * @return the path, must not be null
+     */
+    public String getPath() {
+        return this.path;
+    }
+
+    /**
+     * Get number of items in the path.
+     *
+     * @return number of path items
+     */
+    public int size() {
+        return this.names.length;
+    }
+
+    /**
+     * Get normalized name of a path item.
+     *
+     * @param index index of the path item
+     * @return normalized name of the item
+     */
+    public String getName(final int index) {
+        return this.names[index];
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        return obj instanceof JBBPFieldPath && this.normalizedPath.equals(((JBBPFieldPath) obj).normalizedPath);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.normalizedPath.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.normalizedPath;
+    }
+}
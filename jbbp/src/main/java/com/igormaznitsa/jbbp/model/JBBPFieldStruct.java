@@ -23,7 +23,10 @@ import com.igormaznitsa.jbbp.mapper.JBBPMapperCustomFieldProcessor;
 import com.igormaznitsa.jbbp.model.finder.JBBPFieldFinder;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
 
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Describes a structure.
@@ -34,11 +37,23 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
 
     private static final long serialVersionUID = -5862961302858335702L;
 
+    /**
+     * Minimal number of structure fields to build index for search.
+     */
+    private static final int MIN_FIELDS_FOR_INDEX = 8;
+
+    private static final int[] EMPTY_INDEXES = new int[0];
+
     /**
      * Structure fields.
      */
     private final JBBPAbstractField[] fields;
 
+    /**
+     * Lazily built index of fields for search operations.
+     */
+    private transient FieldIndex fieldIndex;
+
     /**
      * A Constructor.
      *
@@ -88,7 +103,9 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
 
         for (int i = firstIndex; found != null && i < parsedName.length; i++) {
             if (found instanceof JBBPFieldStruct) {
-                found = ((JBBPFieldStruct) found).findFieldForName(parsedName[i]);
+                final JBBPFieldStruct struct = (JBBPFieldStruct) found;
+                final int index = struct.indexOfName(parsedName[i]);
+                found = index < 0 ? null : struct.fields[index];
             } else {
                 throw new JBBPFinderException("Detected a field instead of a structure as one of nodes in the path '" + fieldPath + '\'', fieldPath, null);
             }
@@ -97,23 +114,133 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
         return found;
     }
 
-    @Override
-    public JBBPAbstractField findFieldForName(final String name) {
-        final String normalizedName = JBBPUtils.normalizeFieldNameOrPath(name);
+    /**
+     * Find a field for a pre-compiled path.
+     *
+     * @param fieldPath a compiled field path, must not be null
+     * @return found field or null if not found
+     * @throws JBBPFinderException if a field instead of a structure is detected as a path node
+     * @since 1.3.1
+     */
+    public JBBPAbstractField findFieldForCompiledPath(final JBBPFieldPath fieldPath) {
+        JBBPAbstractField found = this;
+        final int firstIndex;
+        if ("".equals(this.getFieldName())) {
+            firstIndex = 0;
+        } else if (fieldPath.getName(0).equals(this.getNameInfo().getFieldName())) {
+            firstIndex = 1;
+            found = this;
+        } else {
+            firstIndex = 0;
+            found = null;
+        }
 
-        JBBPAbstractField result = null;
+        for (int i = firstIndex; found != null && i < fieldPath.size(); i++) {
+            if (found instanceof JBBPFieldStruct) {
+                final JBBPFieldStruct struct = (JBBPFieldStruct) found;
+                final int index = struct.indexOfName(fieldPath.getName(i));
+                found = index < 0 ? null : struct.fields[index];
+            } else {
+                throw new JBBPFinderException("Detected a field instead of a structure as one of nodes in the path '" + fieldPath.getPath() + '\'', fieldPath.getPath(), null);
+            }
+        }
 
-        for (final JBBPAbstractField f : this.fields) {
-            if (normalizedName.equals(f.getFieldName())) {
-                result = f;
-                break;
+        return found;
+    }
+
+    /**
+     * Find a field for a pre-compiled path and check its type.
+     *
+     * @param <T>       type of field
+     * @param fieldPath a compiled field path, must not be null
+     * @param fieldType the field type, must not be null
+     * @return found field or null if a field is not found or it has wrong type
+     * @since 1.3.1
+     */
+    public <T extends JBBPAbstractField> T findFieldForCompiledPathAndType(final JBBPFieldPath fieldPath, final Class<T> fieldType) {
+        final JBBPAbstractField field = this.findFieldForCompiledPath(fieldPath);
+
+        T result = null;
+
+        if (field != null && fieldType.isAssignableFrom(field.getClass())) {
+            result = fieldType.cast(field);
+        }
+        return result;
+    }
+
+    /**
+     * Get index of the first structure field which has the name.
+     *
+     * @param normalizedName normalized field name, must not be null
+     * @return index of the field or -1 if not found
+     */
+    int indexOfName(final String normalizedName) {
+        final FieldIndex index = this.getFieldIndex();
+        if (index == null) {
+            for (int i = 0; i < this.fields.length; i++) {
+                if (normalizedName.equals(this.fields[i].getFieldName())) {
+                    return i;
+                }
             }
+            return -1;
+        } else {
+            final Integer found = index.byName.get(normalizedName);
+            return found == null ? -1 : found;
+        }
+    }
+
+    /**
+     * Get indexes of fields with type.
+     *
+     * @param fieldType type of fields
+     * @return array of indexes in order of fields or null if indexes can't be provided by the index and fields should
+     * be checked one by one
+     */
+    private int[] indexesOfType(final Class<?> fieldType) {
+        if (!Modifier.isFinal(fieldType.getModifiers())) {
+            return null;
+        }
+        final FieldIndex index = this.getFieldIndex();
+        if (index == null) {
+            return null;
+        }
+        final int[] found = index.byType.get(fieldType);
+        return found == null ? EMPTY_INDEXES : found;
+    }
+
+    /**
+     * Get lazily built index of fields, it is built only for structures with many fields.
+     *
+     * @return the field index or null if structure is too small for index
+     */
+    private FieldIndex getFieldIndex() {
+        if (this.fields.length < MIN_FIELDS_FOR_INDEX) {
+            return null;
+        }
+        FieldIndex result = this.fieldIndex;
+        if (result == null) {
+            result = new FieldIndex(this.fields);
+            this.fieldIndex = result;
         }
         return result;
     }
 
+    @Override
+    public JBBPAbstractField findFieldForName(final String name) {
+        final int index = this.indexOfName(JBBPUtils.normalizeFieldNameOrPath(name));
+        return index < 0 ? null : this.fields[index];
+    }
+
     @Override
     public <T extends JBBPAbstractField> T findFieldForType(final Class<T> fieldType) {
+        final int[] indexes = this.indexesOfType(fieldType);
+        if (indexes != null) {
+            if (indexes.length > 1) {
+                throw new JBBPTooManyFieldsFoundException(indexes.length, "Detected more than one field", null, fieldType);
+            }
+            return indexes.length == 0 ? null : fieldType.cast(this.fields[indexes[0]]);
+        }
+
         T result = null;
 
         int counter = 0;
@@ -134,6 +261,11 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
 
     @Override
     public <T extends JBBPAbstractField> T findFirstFieldForType(final Class<T> fieldType) {
+        final int[] indexes = this.indexesOfType(fieldType);
+        if (indexes != null) {
+            return indexes.length == 0 ? null : fieldType.cast(this.fields[indexes[0]]);
+        }
+
         T result = null;
 
         for (final JBBPAbstractField f : this.fields) {
@@ -147,6 +279,11 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
 
     @Override
     public <T extends JBBPAbstractField> T findLastFieldForType(final Class<T> fieldType) {
+        final int[] indexes = this.indexesOfType(fieldType);
+        if (indexes != null) {
+            return indexes.length == 0 ? null : fieldType.cast(this.fields[indexes[indexes.length - 1]]);
+        }
+
         T result = null;
 
         for (int i = this.fields.length - 1; i >= 0; i--) {
@@ -163,9 +300,18 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
     public <T extends JBBPAbstractField> T findFieldForNameAndType(final String fieldName, final Class<T> fieldType) {
         final String normalizedName = JBBPUtils.normalizeFieldNameOrPath(fieldName);
 
+        final int index = this.indexOfName(normalizedName);
+        if (index < 0) {
+            return null;
+        }
+        if (fieldType.isAssignableFrom(this.fields[index].getClass())) {
+            return fieldType.cast(this.fields[index]);
+        }
+
         T result = null;
 
-        for (final JBBPAbstractField f : this.fields) {
+        for (int i = index + 1; i < this.fields.length; i++) {
+            final JBBPAbstractField f = this.fields[i];
             if (fieldType.isAssignableFrom(f.getClass()) && normalizedName.equals(f.getFieldName())) {
                 result = fieldType.cast(f);
                 break;
@@ -176,17 +322,7 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
 
     @Override
     public boolean nameExists(final String fieldName) {
-        final String normalizedName = JBBPUtils.normalizeFieldNameOrPath(fieldName);
-
-        boolean result = false;
-
-        for (final JBBPAbstractField f : this.fields) {
-            if (normalizedName.equals(f.getFieldName())) {
-                result = true;
-                break;
-            }
-        }
-        return result;
+        return this.indexOfName(JBBPUtils.normalizeFieldNameOrPath(fieldName)) >= 0;
     }
 
     @Override
@@ -397,4 +533,43 @@ public final class JBBPFieldStruct extends JBBPAbstractField implements JBBPFiel
     public String getTypeAsString() {
         return "{}";
     }
+
+    /**
+     * Index of structure fields for their names and types. It is immutable and can be shared between threads.
+     */
+    private static final class FieldIndex {
+        /**
+         * Index of the first field for each field name.
+         */
+        private final Map<String, Integer> byName;
+        /**
+         * Indexes of fields for their classes.
+         */
+        private final Map<Class<?>, int[]> byType;
+
+        private FieldIndex(final JBBPAbstractField[] fields) {
+            final Map<String, Integer> names = new HashMap<String, Integer>(fields.length * 2);
+            final Map<Class<?>, int[]> types = new HashMap<Class<?>, int[]>();
+
+            for (int i = 0; i < fields.length; i++) {
+                final JBBPAbstractField field = fields[i];
+                final String name = field.getFieldName();
+                if (name != null && !names.containsKey(name)) {
+                    names.put(name, i);
+                }
+                final int[] indexes = types.get(field.getClass());
+                if (indexes == null) {
+                    types.put(field.getClass(), new int[] {i});
+                } else {
+                    final int[] extended = new int[indexes.length + 1];
+                    System.arraycopy(indexes, 0, extended, 0, indexes.length);
+                    extended[indexes.length] = i;
+                    types.put(field.getClass(), extended);
+                }
+            }
+
+            this.byName = names;
+            this.byType = types;
+        }
+    }
 }
@@ -30,7 +30,21 @@ public enum JBBPSystemProperty {
     /**
      * The Property allows to define the initial size for array buffer to read whole stream.
      */
-    PROPERTY_INPUT_INITIAL_ARRAY_BUFFER_SIZE("jbbp.input.initial.array.buffer");
+    PROPERTY_INPUT_INITIAL_ARRAY_BUFFER_SIZE("jbbp.input.initial.array.buffer"),
+
+    /**
+     * The Property allows to define max number of compiled blocks in the global cache, zero disables the cache.
+     *
+     * @since 1.3.1
+     */
+    PROPERTY_COMPILED_BLOCK_CACHE_SIZE("jbbp.compiler.cache.size"),
+
+    /**
+     * The Property allows to disable generation of bytecode parsers, if it is 'true' then they work through the interpreter.
+     *
+     * @since 1.3.1
+     */
+    PROPERTY_BYTECODE_PARSER_DISABLED("jbbp.parser.bytecode.disabled");
 
     /**
      * The name of the property.
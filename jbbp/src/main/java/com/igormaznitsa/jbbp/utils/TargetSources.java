@@ -26,5 +26,11 @@ public enum TargetSources {
     /**
      * Java 1.6 sources.
      */
-    JAVA_1_6
+    JAVA_1_6,
+    /**
+     * Java 1.8 sources reading and writing byte buffers and arrays with explicit offset.
+     *
+     * @since 1.3.1
+     */
+    JAVA_1_8
 }
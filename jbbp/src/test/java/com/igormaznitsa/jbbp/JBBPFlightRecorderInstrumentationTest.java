@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JBBPFlightRecorderInstrumentationTest {
+
+    private static boolean isFlightRecorderApiPresented() {
+        try {
+            Class.forName("jdk.jfr.EventFactory");
+            return true;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+
+    @Test
+    public void testInstance() throws Exception {
+        assertEquals(isFlightRecorderApiPresented(), JBBPFlightRecorderInstrumentation.isSupported());
+        assertSame(JBBPFlightRecorderInstrumentation.getInstance(), JBBPFlightRecorderInstrumentation.getInstance());
+
+        final JBBPParser parser = JBBPParser.prepare("ubyte len; byte [len] data;").instrument(JBBPFlightRecorderInstrumentation.getInstance());
+        assertEquals(JBBPFlightRecorderInstrumentation.isSupported(), parser.getInstrumentation() != null);
+        final JBBPFieldStruct parsed = parser.parse(new byte[] {2, 1, 2});
+        assertEquals(2, parsed.getArray().length);
+    }
+
+    @Test
+    public void testEventsInRecording() throws Exception {
+        if (!JBBPFlightRecorderInstrumentation.isSupported()) {
+            return;
+        }
+
+        final Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        final Object recording = recordingClass.newInstance();
+        final File file = File.createTempFile("jbbp", ".jfr");
+        try {
+            recordingClass.getMethod("enable", String.class).invoke(recording, JBBPFlightRecorderInstrumentation.EVENT_NAME);
+            recordingClass.getMethod("start").invoke(recording);
+
+            final JBBPParser parser = JBBPParser.prepare("ubyte len; byte [len] data; skip:1;").instrument(JBBPFlightRecorderInstrumentation.getInstance());
+            parser.parse(new byte[] {2, 1, 2, 0});
+            parser.parse(new byte[] {3, 1, 2, 3, 0});
+
+            recordingClass.getMethod("stop").invoke(recording);
+            recordingClass.getMethod("dump", Class.forName("java.nio.file.Path")).invoke(recording, File.class.getMethod("toPath").invoke(file));
+
+            final Class<?> recordingFileClass = Class.forName("jdk.jfr.consumer.RecordingFile");
+            final List<?> events = (List<?>) recordingFileClass.getMethod("readAllEvents", Class.forName("java.nio.file.Path")).invoke(null, File.class.getMethod("toPath").invoke(file));
+
+            long consumed = 0L;
+            int found = 0;
+            for (final Object event : events) {
+                final Object type = event.getClass().getMethod("getEventType").invoke(event);
+                if (JBBPFlightRecorderInstrumentation.EVENT_NAME.equals(type.getClass().getMethod("getName").invoke(type))) {
+                    found++;
+                    final Method getLong = event.getClass().getMethod("getLong", String.class);
+                    consumed += (Long) getLong.invoke(event, "consumedBytes");
+                    assertEquals(1L, getLong.invoke(event, "skips"));
+                    assertEquals(1L, getLong.invoke(event, "arrays"));
+                }
+            }
+            assertEquals(2, found);
+            assertEquals(9L, consumed);
+            assertFalse(((JBBPFlightRecorderInstrumentation) JBBPFlightRecorderInstrumentation.getInstance()).isDisabled());
+        } finally {
+            recordingClass.getMethod("close").invoke(recording);
+            assertTrue(file.delete());
+        }
+    }
+}
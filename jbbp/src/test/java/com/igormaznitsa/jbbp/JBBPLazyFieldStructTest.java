@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.exceptions.JBBPTooManyFieldsFoundException;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.model.*;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static com.igormaznitsa.jbbp.TestUtils.assertFieldTreeEquals;
+import static org.junit.Assert.*;
+
+public class JBBPLazyFieldStructTest {
+
+    private static void assertLazyEqualsEager(final JBBPParser parser, final byte[] data) throws Exception {
+        final JBBPFieldStruct eager = parser.parse(data);
+        assertFieldTreeEquals(eager, parser.parseLazy(data).toStruct());
+
+        final JBBPLazyFieldStruct lazy = parser.parseLazy(ByteBuffer.wrap(data));
+        final JBBPAbstractField[] fields = eager.getArray();
+        assertEquals(fields.length, lazy.size());
+        for (int i = fields.length - 1; i >= 0; i--) {
+            assertFieldTreeEquals(fields[i], lazy.getField(i));
+        }
+    }
+
+    @Test
+    public void testLazyEqualsEager() throws Exception {
+        final Random rnd = new Random(12345);
+        final byte[] data = new byte[2048];
+
+        final String[] scripts = new String[] {
+                "byte a; <int b; bit:3 c; bit:7 d; long e; bool f; short [3] g; ushort h; ubyte [_] tail;",
+                "ubyte len; bit:3 pad; int [len] values; s [len>>4] { bit:5 x; <ushort y; } byte [_] rest;",
+                "ubyte n; align:4; s { ubyte m; t { long [m&3] a; } } skip:3; reset$$; bit:((n&7)+1) v; int [2] crc; ubyte [$$] x;",
+                "s [_] { bit:3 a; bit:5 b; ubyte c; }",
+                "ubyte [3] a; x { int; bit:4; } s [2] { }"
+        };
+
+        for (final String script : scripts) {
+            for (int i = 0; i < 16; i++) {
+                rnd.nextBytes(data);
+                assertLazyEqualsEager(JBBPParser.prepare(script), data);
+                assertLazyEqualsEager(JBBPParser.prepare(script, JBBPBitOrder.MSB0), data);
+            }
+        }
+    }
+
+    @Test
+    public void testFieldsAreDecodedOnAccess() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.wrap(new byte[] {2, 0, 1, 0x11, 0x22, 0x33, 0x44, 5});
+        final JBBPLazyFieldStruct lazy = JBBPParser.prepare("ubyte len; header { short id; } int [len/2] payload; byte last;").parseLazy(buffer);
+        assertEquals(0, buffer.position());
+
+        buffer.put(6, (byte) 0x55);
+        buffer.put(7, (byte) 7);
+
+        assertArrayEquals(new int[] {0x11223355}, lazy.findFieldForNameAndType("payload", JBBPFieldArrayInt.class).getArray());
+        assertEquals(7, lazy.findFieldForPathAndType("last", JBBPFieldByte.class).getAsInt());
+
+        buffer.put(7, (byte) 8);
+        assertEquals(7, lazy.findFieldForNameAndType("last", JBBPFieldByte.class).getAsInt());
+        assertSame(lazy.findFieldForName("last"), lazy.findFieldForName("last"));
+    }
+
+    @Test
+    public void testFinder() throws Exception {
+        final JBBPLazyFieldStruct lazy = JBBPParser.prepare("byte a; header { ubyte len; in { int value; } } short [header.len] data; s [2] { byte b; }")
+                .parseLazy(new byte[] {1, 2, 0, 0, 0, 3, 0, 4, 0, 5, 6, 7});
+
+        assertEquals("", lazy.getFieldName());
+        assertEquals(4, lazy.size());
+        assertTrue(lazy.nameExists("HEADER"));
+        assertFalse(lazy.nameExists("len"));
+        assertTrue(lazy.pathExists("data"));
+        assertFalse(lazy.pathExists("header.len"));
+
+        assertEquals(3, lazy.findFieldForPathAndType("header.in.value", JBBPFieldInt.class).getAsInt());
+        assertNull(lazy.findFieldForPathAndType("header.in.value", JBBPFieldLong.class));
+        assertNull(lazy.findFieldForPath("header.unknown"));
+        assertEquals(2, lazy.findFieldForPathAndType("header", JBBPFieldStruct.class).findFieldForNameAndType("len", JBBPFieldUByte.class).getAsInt());
+
+        final JBBPLazyFieldStruct header = lazy.findLazyStructForName("header");
+        assertEquals("header", header.getFieldPath());
+        assertEquals(2, header.size());
+        assertEquals(3, header.findFieldForPathAndType("header.in.value", JBBPFieldInt.class).getAsInt());
+        assertNull(header.findFieldForPath("other.in.value"));
+        assertNull(lazy.findLazyStructForName("s"));
+        assertNull(lazy.findLazyStructForName("data"));
+
+        assertArrayEquals(new short[] {4, 5}, lazy.findFieldForType(JBBPFieldArrayShort.class).getArray());
+        assertEquals(1, lazy.findFirstFieldForType(JBBPFieldByte.class).getAsInt());
+        assertEquals(2, lazy.findLastFieldForType(JBBPFieldArrayStruct.class).size());
+        assertEquals(7, lazy.findLastFieldForType(JBBPFieldArrayStruct.class).getElementAt(1).findFieldForNameAndType("b", JBBPFieldByte.class).getAsInt());
+        assertNull(lazy.findFieldForType(JBBPFieldLong.class));
+
+        try {
+            lazy.findFieldForType(JBBPAbstractField.class);
+            fail("Must throw JBBPTooManyFieldsFoundException");
+        } catch (JBBPTooManyFieldsFoundException ex) {
+            assertEquals(4, ex.getNumberOfFoundInstances());
+        }
+
+        try {
+            lazy.findFieldForPath("data.x");
+            fail("Must throw JBBPFinderException");
+        } catch (JBBPFinderException ex) {
+            assertEquals("data.x", ex.getNameOrPath());
+        }
+    }
+
+    @Test
+    public void testEofDuringScan() throws Exception {
+        try {
+            JBBPParser.prepare("byte a; int [4] b;").parseLazy(new byte[] {1, 2, 3});
+            fail("Must throw JBBPParsingException");
+        } catch (JBBPParsingException ex) {
+            // expected
+        }
+
+        final JBBPLazyFieldStruct lazy = JBBPParser.prepare("byte a; int b; long c;", JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF).parseLazy(new byte[] {1, 0, 0, 0, 2});
+        assertEquals(2, lazy.size());
+        assertEquals(2, lazy.findFieldForNameAndType("b", JBBPFieldInt.class).getAsInt());
+    }
+
+    @Test
+    public void testProjection() throws Exception {
+        final JBBPLazyFieldStruct lazy = JBBPParser.prepare("ubyte len; byte [len] data; int crc;").project("crc").parseLazy(new byte[] {2, 1, 2, 0, 0, 0, 9});
+        assertEquals(1, lazy.size());
+        assertEquals(9, lazy.findFieldForNameAndType("crc", JBBPFieldInt.class).getAsInt());
+    }
+}
@@ -25,6 +25,8 @@ import com.igormaznitsa.jbbp.model.JBBPFieldLong;
 import com.igormaznitsa.jbbp.model.JBBPNumericField;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.*;
 
 public class JBBPNamedNumericFieldMapTest {
@@ -329,4 +331,77 @@ public class JBBPNamedNumericFieldMapTest {
         }
     }
 
+    @Test
+    public void testSlotsForCompiledBlock() {
+        final JBBPCompiledBlock block = JBBPParser.prepare("byte a; s { int b; long c; } short d;").getCompiledBlock();
+        final JBBPNamedFieldInfo[] names = block.getNamedFields();
+        for (int i = 1; i < names.length; i++) {
+            assertTrue(names[i - 1].getFieldOffsetInCompiledBlock() < names[i].getFieldOffsetInCompiledBlock());
+        }
+
+        final JBBPNamedNumericFieldMap map = new JBBPNamedNumericFieldMap(null, block);
+        assertTrue(map.isEmpty());
+
+        final JBBPNamedFieldInfo a = names[0];
+        final JBBPNamedFieldInfo c = block.findFieldForPath("s.c");
+        final JBBPNamedFieldInfo outside = new JBBPNamedFieldInfo("outside", "outside", 1000);
+
+        map.putField(new JBBPFieldLong(c, 0x1234567890L));
+        map.putField(new JBBPFieldInt(outside, 77));
+        map.putField(new JBBPFieldByte(new JBBPNamedFieldInfo(a.getFieldPath(), a.getFieldName(), a.getFieldOffsetInCompiledBlock()), (byte) 12));
+
+        assertEquals(3, map.size());
+        assertEquals(12, map.get(a).getAsInt());
+        assertEquals(12, map.getNamedFieldValue(block, 0));
+        assertEquals(0x34567890, map.getNamedFieldValue(block, Arrays.asList(names).indexOf(c)));
+        assertEquals(77, map.get(outside).getAsInt());
+
+        assertEquals(12, map.findFirstFieldForType(JBBPFieldByte.class).getAsInt());
+        assertEquals(0x1234567890L, map.findFieldForPathAndType("s.c", JBBPFieldLong.class).getAsLong());
+        assertTrue(map.pathExists("outside"));
+
+        assertEquals(12, map.remove(a).getAsInt());
+        assertNull(map.get(a));
+        assertEquals(2, map.size());
+        assertFalse(map.nameExists("a"));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(c));
+    }
+
+    @Test
+    public void testFindersForCompiledBlock_SlotsBeforeOtherFields() {
+        final JBBPCompiledBlock block = JBBPParser.prepare("int a; int b;").getCompiledBlock();
+        final JBBPNamedNumericFieldMap map = new JBBPNamedNumericFieldMap(null, block);
+
+        final JBBPNamedFieldInfo outside = new JBBPNamedFieldInfo("outside", "outside", 1000);
+        map.putField(new JBBPFieldInt(outside, 1));
+        assertEquals(1, map.findFirstFieldForType(JBBPFieldInt.class).getAsInt());
+        assertEquals(1, map.findLastFieldForType(JBBPFieldInt.class).getAsInt());
+
+        map.putField(new JBBPFieldInt(block.findFieldForPath("b"), 3));
+        map.putField(new JBBPFieldInt(block.findFieldForPath("a"), 2));
+        assertEquals(2, map.findFirstFieldForType(JBBPFieldInt.class).getAsInt());
+        assertEquals(1, map.findLastFieldForType(JBBPFieldInt.class).getAsInt());
+        assertEquals(3, map.findFieldForNameAndType("b", JBBPFieldInt.class).getAsInt());
+        assertEquals(1, ((JBBPFieldInt) map.findForFieldOffset(1000)).getAsInt());
+
+        map.putField(new JBBPFieldInt(block.findFieldForPath("b"), 4));
+        assertEquals(4, ((JBBPFieldInt) map.findFieldForName("b")).getAsInt());
+        assertEquals(4, ((JBBPFieldInt) map.findForFieldOffset(block.findFieldForPath("b").getFieldOffsetInCompiledBlock())).getAsInt());
+
+        try {
+            map.findFieldForType(JBBPFieldInt.class);
+            fail("Must throw JBBPTooManyFieldsFoundException");
+        } catch (JBBPTooManyFieldsFoundException ex) {
+            assertEquals(3, ex.getNumberOfFoundInstances());
+        }
+
+        map.remove(block.findFieldForPath("a"));
+        assertEquals(4, map.findFirstFieldForType(JBBPFieldInt.class).getAsInt());
+        assertFalse(map.nameExists("a"));
+        assertTrue(map.pathExists("b"));
+    }
+
 }
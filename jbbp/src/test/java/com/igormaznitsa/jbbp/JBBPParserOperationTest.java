@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp;
+
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiler;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class JBBPParserOperationTest {
+
+    private static JBBPParserOperation[] decode(final String script) {
+        return JBBPParserOperation.decode(JBBPParser.prepare(script).getCompiledBlock());
+    }
+
+    @Test
+    public void testDecode_PrimitivesAndArrays() {
+        final JBBPParserOperation[] operations = decode("byte a; <int [3] b; bit:3 d; bit:(a) e; ushort [_] c;");
+        assertEquals(5, operations.length);
+
+        assertEquals(JBBPCompiler.CODE_BYTE, operations[0].type);
+        assertEquals("a", operations[0].name.getFieldPath());
+        assertEquals(JBBPParserOperation.ARRAY_NONE, operations[0].arrayMode);
+
+        assertEquals(JBBPCompiler.CODE_INT, operations[1].type);
+        assertEquals(JBBPByteOrder.LITTLE_ENDIAN, operations[1].byteOrder);
+        assertEquals(JBBPParserOperation.ARRAY_FIXED, operations[1].arrayMode);
+        assertEquals(3, operations[1].arrayLength);
+
+        assertEquals(JBBPCompiler.CODE_USHORT, operations[4].type);
+        assertEquals(JBBPByteOrder.BIG_ENDIAN, operations[4].byteOrder);
+        assertEquals(JBBPParserOperation.ARRAY_WHOLE_STREAM, operations[4].arrayMode);
+
+        assertEquals(JBBPCompiler.CODE_BIT, operations[2].type);
+        assertEquals(3, operations[2].extraValue);
+        assertSame(JBBPBitNumber.BITS_3, operations[2].bitNumber);
+        assertNull(operations[2].extraValueEvaluator);
+
+        assertEquals(JBBPCompiler.CODE_BIT, operations[3].type);
+        assertNull(operations[3].bitNumber);
+        assertNotNull(operations[3].extraValueEvaluator);
+    }
+
+    @Test
+    public void testDecode_Structures() {
+        final JBBPParserOperation[] operations = decode("byte len; s [len] { int a; in { bool b; } } skip:2; reset$$; t { }");
+        assertEquals(5, operations.length);
+
+        final JBBPParserOperation struct = operations[1];
+        assertEquals(JBBPCompiler.CODE_STRUCT_START, struct.type);
+        assertEquals(JBBPParserOperation.ARRAY_EXPRESSION, struct.arrayMode);
+        assertNotNull(struct.arrayLengthEvaluator);
+        assertEquals(2, struct.body.length);
+        assertEquals("s.a", struct.body[0].name.getFieldPath());
+        assertEquals(1, struct.body[1].body.length);
+        assertEquals("s.in.b", struct.body[1].body[0].name.getFieldPath());
+
+        assertEquals(JBBPCompiler.CODE_SKIP, operations[2].type);
+        assertEquals(2, operations[2].extraValue);
+        assertEquals(JBBPCompiler.CODE_RESET_COUNTER, operations[3].type);
+        assertEquals(JBBPCompiler.CODE_STRUCT_START, operations[4].type);
+        assertEquals(0, operations[4].body.length);
+    }
+
+    private static JBBPParserOperation[] project(final String script, final String... paths) {
+        final JBBPCompiledBlock block = JBBPParser.prepare(script).getCompiledBlock();
+        final Set<JBBPNamedFieldInfo> requested = new HashSet<JBBPNamedFieldInfo>();
+        for (final String path : paths) {
+            requested.add(block.findFieldForPath(path));
+        }
+        return JBBPParserOperation.project(block, JBBPParserOperation.decode(block), requested, true);
+    }
+
+    @Test
+    public void testProject_MergeStaticFieldsIntoSkips() {
+        final JBBPParserOperation[] operations = project("byte a; int [2] b; s { bit:3 c; short d; } long e; bit:5 f; ubyte g;", "e", "g");
+        assertEquals(5, operations.length);
+
+        assertEquals(JBBPCompiler.CODE_SKIP, operations[0].type);
+        assertEquals(11, operations[0].extraValue);
+        assertTrue(operations[0].discardResult);
+        assertEquals(JBBPCompiler.CODE_BIT, operations[1].type);
+        assertSame(JBBPBitNumber.BITS_3, operations[1].bitNumber);
+        assertTrue(operations[1].discardResult);
+
+        assertEquals("e", operations[2].name.getFieldPath());
+        assertFalse(operations[2].discardResult);
+
+        assertEquals(JBBPCompiler.CODE_BIT, operations[3].type);
+        assertSame(JBBPBitNumber.BITS_5, operations[3].bitNumber);
+        assertEquals("g", operations[4].name.getFieldPath());
+    }
+
+    @Test
+    public void testProject_DependenciesAndCalculatedArrays() {
+        final JBBPParserOperation[] operations = project("byte pad; h { ushort len; int x; } int [h.len] values; s [h.len] { byte a; byte b; } align:4; long crc;", "s.b", "crc");
+        assertEquals(6, operations.length);
+
+        assertEquals(JBBPCompiler.CODE_SKIP, operations[0].type);
+        assertEquals(1, operations[0].extraValue);
+
+        final JBBPParserOperation header = operations[1];
+        assertTrue(header.discardResult);
+        assertEquals(2, header.body.length);
+        assertEquals("h.len", header.body[0].name.getFieldPath());
+        assertTrue(header.body[0].discardResult);
+        assertEquals(JBBPCompiler.CODE_SKIP, header.body[1].type);
+        assertEquals(4, header.body[1].extraValue);
+
+        assertEquals(JBBPParserOperation.CODE_SKIP_ARRAY, operations[2].type);
+        assertEquals(4, operations[2].extraValue);
+        assertNotNull(operations[2].arrayLengthEvaluator);
+
+        final JBBPParserOperation struct = operations[3];
+        assertFalse(struct.discardResult);
+        assertEquals(2, struct.body.length);
+        assertEquals(JBBPCompiler.CODE_SKIP, struct.body[0].type);
+        assertEquals("s.b", struct.body[1].name.getFieldPath());
+
+        assertEquals(JBBPCompiler.CODE_ALIGN, operations[4].type);
+        assertEquals("crc", operations[5].name.getFieldPath());
+    }
+}
@@ -17,19 +17,43 @@ package com.igormaznitsa.jbbp;
 
 import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
 import com.igormaznitsa.jbbp.exceptions.JBBPCompilationException;
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import com.igormaznitsa.jbbp.exceptions.JBBPIOException;
+import com.igormaznitsa.jbbp.exceptions.JBBPIllegalArgumentException;
 import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
 import com.igormaznitsa.jbbp.exceptions.JBBPTooManyFieldsFoundException;
 import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitNumber;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
 import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.io.JBBPOut;
+import com.igormaznitsa.jbbp.mapper.Bin;
+import com.igormaznitsa.jbbp.mapper.BinType;
+import com.igormaznitsa.jbbp.mapper.JBBPMapper;
 import com.igormaznitsa.jbbp.model.*;
 import com.igormaznitsa.jbbp.utils.JBBPIntCounter;
+import com.igormaznitsa.jbbp.utils.JBBPUtils;
 import com.igormaznitsa.jbbp.utils.TargetSources;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -1727,4 +1751,762 @@ public class JBBPParserTest {
         assertTrue(src.get(0).getResult().get("SomeClass.java").length() > 128);
     }
 
+    @Test
+    public void testParse_ByteBuffer_HeapAndDirect() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("ubyte len; <int [len] ints; long l; bit:4 [_] tail;");
+        final byte[] data = new byte[]{0x77, 2, 1, 0, 0, 0, 2, 0, 0, 0, 1, 2, 3, 4, 5, 6, 7, 8, (byte) 0xA5};
+
+        final ByteBuffer heap = ByteBuffer.wrap(data);
+        heap.position(1);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).position(1);
+
+        for (final ByteBuffer buffer : new ByteBuffer[]{heap, direct}) {
+            final JBBPFieldStruct result = parser.parse(buffer);
+            assertEquals(1, buffer.position());
+            assertArrayEquals(new int[]{1, 2}, result.findFieldForType(JBBPFieldArrayInt.class).getArray());
+            assertEquals(0x0102030405060708L, result.findFieldForType(JBBPFieldLong.class).getAsLong());
+            assertArrayEquals(new byte[]{5, 0xA}, result.findFieldForType(JBBPFieldArrayBit.class).getArray());
+            assertEquals(data.length - 1, parser.getFinalStreamByteCounter());
+        }
+    }
+
+    @Test(expected = JBBPParsingException.class)
+    public void testParse_ByteBuffer_EOF() throws Exception {
+        JBBPParser.prepare("int a; int b;").parse(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5}));
+    }
+
+    @Test
+    public void testParse_FileChannel() throws Exception {
+        final File file = File.createTempFile("jbbp", ".bin");
+        try {
+            final FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write(new byte[]{0, 0, 0, 1, 2, 3, 4, (byte) 0xFF, 0, 0});
+            } finally {
+                out.close();
+            }
+
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                final JBBPFieldStruct result = JBBPParser.prepare("<int a; byte b;").parse(raf.getChannel(), 3L, 5L);
+                assertEquals(0x04030201, result.findFieldForType(JBBPFieldInt.class).getAsInt());
+                assertEquals(-1, result.findFieldForType(JBBPFieldByte.class).getAsInt());
+            } finally {
+                raf.close();
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testParseWithResult() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("ubyte len; byte [len] data;");
+        final JBBPBitInputStream in = new JBBPBitInputStream(new ByteArrayInputStream(new byte[]{9, 2, 1, 2, 1, 3, 4}));
+        assertEquals(9, in.read());
+
+        final JBBPParseResult first = parser.parseWithResult(in);
+        assertEquals(1L, first.getStartStreamByteCounter());
+        assertEquals(4L, first.getFinalStreamByteCounter());
+        assertEquals(3L, first.getConsumedBytes());
+        assertArrayEquals(new byte[]{1, 2}, first.getRoot().findFieldForType(JBBPFieldArrayByte.class).getArray());
+
+        final JBBPParseResult second = parser.parseWithResult(in);
+        assertEquals(4L, second.getStartStreamByteCounter());
+        assertEquals(2L, second.getConsumedBytes());
+        assertEquals(3L, first.getConsumedBytes());
+
+        assertEquals(3L, parser.parseWithResult(new byte[]{2, 5, 6, 7}).getConsumedBytes());
+        assertEquals(2L, parser.parseWithResult(ByteBuffer.wrap(new byte[]{1, 5, 6, 7})).getConsumedBytes());
+    }
+
+    @Test
+    public void testParseWithResult_SharedParserInThreads() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("ushort len; int [len] values; bit:4 [_] tail;");
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 32; t++) {
+                final int len = t * 7;
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        final byte[] data = new byte[2 + len * 4 + len];
+                        data[0] = (byte) (len >> 8);
+                        data[1] = (byte) len;
+                        for (int i = 0; i < 200; i++) {
+                            final JBBPParseResult result = parser.parseWithResult(data);
+                            if (result.getConsumedBytes() != data.length
+                                    || result.getRoot().findFieldForType(JBBPFieldArrayInt.class).size() != len) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (final Future<Boolean> f : futures) {
+                assertTrue(f.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParse_Listener_EventsInStreamOrder() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("byte a; ubyte len; recs [len] { ushort id; bit:4 [2] flags; } int [_] tail;");
+        final StringBuilder events = new StringBuilder();
+        parser.parse(new byte[]{-1, 2, 0, 1, 0x0D, 0, 2, 0x0A, 0, 0, 0, 7}, new JBBPParseListenerAdapter() {
+            @Override
+            public void onStructStart(final JBBPNamedFieldInfo name) {
+                events.append('{').append(name.getFieldName());
+            }
+
+            @Override
+            public void onStructEnd(final JBBPNamedFieldInfo name) {
+                events.append('}');
+            }
+
+            @Override
+            public void onStructArrayStart(final JBBPNamedFieldInfo name, final int length) {
+                events.append('[').append(name.getFieldName()).append(':').append(length);
+            }
+
+            @Override
+            public void onStructArrayEnd(final JBBPNamedFieldInfo name) {
+                events.append(']');
+            }
+
+            @Override
+            public void onByte(final JBBPNamedFieldInfo name, final byte value) {
+                events.append(name.getFieldName()).append('=').append(value).append(';');
+            }
+
+            @Override
+            public void onUByte(final JBBPNamedFieldInfo name, final int value) {
+                events.append(name.getFieldName()).append('=').append(value).append(';');
+            }
+
+            @Override
+            public void onUShort(final JBBPNamedFieldInfo name, final int value) {
+                events.append(name.getFieldName()).append('=').append(value).append(';');
+            }
+
+            @Override
+            public void onBitArray(final JBBPNamedFieldInfo name, final byte[] array, final JBBPBitNumber bitNumber) {
+                events.append(name.getFieldName()).append('=').append(array.length).append('x').append(bitNumber.getBitNumber()).append(';');
+            }
+
+            @Override
+            public void onIntArray(final JBBPNamedFieldInfo name, final int[] array) {
+                events.append(name.getFieldName()).append('=').append(array[0]).append(';');
+            }
+        });
+        assertEquals("{a=-1;len=2;[recs:2{recsid=1;flags=2x4;}{recsid=2;flags=2x4;}]tail=7;}", events.toString());
+    }
+
+    @Test
+    public void testParse_Listener_ExpressionsAndWholeStreamStructArray() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("items [_] { ubyte len; byte [len] data; }");
+        final int[] counters = new int[3];
+        parser.parse(new ByteArrayInputStream(new byte[]{2, 1, 2, 0, 3, 3, 4, 5}), new JBBPParseListenerAdapter() {
+            @Override
+            public void onStructArrayStart(final JBBPNamedFieldInfo name, final int length) {
+                assertEquals(-1, length);
+            }
+
+            @Override
+            public void onStructStart(final JBBPNamedFieldInfo name) {
+                counters[0]++;
+            }
+
+            @Override
+            public void onByteArray(final JBBPNamedFieldInfo name, final byte[] array) {
+                counters[1] += array.length;
+                for (final byte b : array) {
+                    counters[2] += b;
+                }
+            }
+        });
+        assertEquals(4, counters[0]);
+        assertEquals(5, counters[1]);
+        assertEquals(15, counters[2]);
+    }
+
+    @Test
+    public void testParse_Listener_SkipRemainingFieldsIfEOF() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("int a; some { int b; }", JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF);
+        final List<String> events = new ArrayList<String>();
+        parser.parse(new byte[]{0, 0, 0, 1}, new JBBPParseListenerAdapter() {
+            @Override
+            public void onStructStart(final JBBPNamedFieldInfo name) {
+                events.add("start" + name.getFieldName());
+            }
+
+            @Override
+            public void onStructEnd(final JBBPNamedFieldInfo name) {
+                events.add("end" + name.getFieldName());
+            }
+
+            @Override
+            public void onInt(final JBBPNamedFieldInfo name, final int value) {
+                events.add(name.getFieldName() + value);
+            }
+        });
+        assertEquals(Arrays.asList("start", "a1", "end"), events);
+    }
+
+    @Test
+    public void testIterate_Records() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("ubyte len; byte [len] data;");
+        final JBBPRecordIterator<JBBPFieldStruct> iterator = parser.iterate(new ByteArrayInputStream(new byte[]{2, 1, 2, 0, 3, 3, 4, 5}));
+        final List<Integer> lengths = new ArrayList<Integer>();
+        while (iterator.hasNext()) {
+            lengths.add(iterator.next().findFieldForType(JBBPFieldArrayByte.class).size());
+        }
+        assertEquals(Arrays.asList(2, 0, 3), lengths);
+        assertEquals(3L, iterator.getRecordCounter());
+        assertEquals(8L, iterator.getStream().getCounter());
+        try {
+            iterator.next();
+            fail("Must throw NoSuchElementException");
+        } catch (NoSuchElementException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testIterate_EmptyStream() throws Exception {
+        assertFalse(JBBPParser.prepare("int a;").iterate(new ByteArrayInputStream(new byte[0])).hasNext());
+    }
+
+    @Test
+    public void testIterate_MappedRecords() throws Exception {
+        final byte[] data = new byte[4000 * 6];
+        for (int i = 0; i < 4000; i++) {
+            data[i * 6 + 2] = (byte) (i >> 8);
+            data[i * 6 + 3] = (byte) i;
+            data[i * 6 + 5] = (byte) i;
+        }
+        final Iterator<MappedRecord> iterator = JBBPParser.prepare("int id; short value;").iterate(new ByteArrayInputStream(data), MappedRecord.class);
+        int counter = 0;
+        while (iterator.hasNext()) {
+            final MappedRecord record = iterator.next();
+            assertEquals(counter, record.id);
+            assertEquals(counter & 0xFF, record.value);
+            counter++;
+        }
+        assertEquals(4000, counter);
+    }
+
+    @Test
+    public void testIterate_ErrorForTruncatedRecord() throws Exception {
+        final Iterator<JBBPFieldStruct> iterator = JBBPParser.prepare("int;").iterate(new ByteArrayInputStream(new byte[]{0, 0, 0, 1, 2}));
+        assertEquals(1, iterator.next().findFieldForType(JBBPFieldInt.class).getAsInt());
+        assertTrue(iterator.hasNext());
+        try {
+            iterator.next();
+            fail("Must throw JBBPIOException");
+        } catch (JBBPIOException ex) {
+            assertTrue(ex.getCause() instanceof EOFException);
+        }
+    }
+
+    public static class MappedRecord {
+        @Bin
+        int id;
+        @Bin
+        short value;
+    }
+
+    @Test
+    public void testParseParallel_ByteArrayAndBuffer() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("int id; s { ushort a; bit:4 [2] b; }");
+        final int records = 10007;
+        final byte[] data = new byte[records * 7 + 3];
+        for (int i = 0; i < records; i++) {
+            final int offset = 3 + i * 7;
+            data[offset] = (byte) (i >>> 24);
+            data[offset + 1] = (byte) (i >>> 16);
+            data[offset + 2] = (byte) (i >>> 8);
+            data[offset + 3] = (byte) i;
+            data[offset + 6] = (byte) i;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(data);
+            buffer.position(3);
+            final JBBPFieldStruct[] parsed = parser.parseParallel(buffer, executor);
+            assertEquals(3, buffer.position());
+            assertEquals(records, parsed.length);
+            for (int i = 0; i < records; i++) {
+                assertEquals(i, parsed[i].findFieldForNameAndType("id", JBBPFieldInt.class).getAsInt());
+                assertEquals(i & 0xF, parsed[i].findFieldForPathAndType("s.b", JBBPFieldArrayBit.class).getAsInt(0));
+            }
+
+            final byte[] array = new byte[records * 7];
+            System.arraycopy(data, 3, array, 0, array.length);
+            assertEquals(records - 1, parser.parseParallel(array, executor)[records - 1].findFieldForNameAndType("id", JBBPFieldInt.class).getAsInt());
+            assertEquals(0, parser.parseParallel(new byte[0], executor).length);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParseParallel_FileChannel() throws Exception {
+        final File file = File.createTempFile("jbbp", "parallel");
+        file.deleteOnExit();
+        final byte[] data = new byte[1 + 1000 * 2];
+        for (int i = 0; i < 1000; i++) {
+            data[1 + i * 2] = (byte) (i >> 8);
+            data[2 + i * 2] = (byte) i;
+        }
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final JBBPFieldStruct[] parsed = JBBPParser.prepare("ushort value;").parseParallel(raf.getChannel(), 1L, 2000L, executor);
+            assertEquals(1000, parsed.length);
+            for (int i = 0; i < parsed.length; i++) {
+                assertEquals(i, parsed[i].findFieldForType(JBBPFieldUShort.class).getAsInt());
+            }
+
+            // regions are mapped by tasks, their errors must be thrown by the call
+            raf.getChannel().close();
+            try {
+                JBBPParser.prepare("ushort value;").parseParallel(raf.getChannel(), 1L, 2000L, executor);
+                fail("Must throw IOException");
+            } catch (IOException ex) {
+                // expected
+            }
+        } finally {
+            raf.close();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParseParallel_Errors() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            try {
+                JBBPParser.prepare("byte len; byte [len] data;").parseParallel(new byte[4], executor);
+                fail("Must throw IllegalStateException");
+            } catch (IllegalStateException ex) {
+                // expected
+            }
+            try {
+                JBBPParser.prepare("int a;").parseParallel(new byte[5], executor);
+                fail("Must throw JBBPParsingException");
+            } catch (JBBPParsingException ex) {
+                // expected
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testWrite_ParsedStructureRoundTrip() throws Exception {
+        final byte[] data = JBBPOut.BeginBin()
+                .Bits(JBBPBitNumber.BITS_3, 5).Bits(JBBPBitNumber.BITS_5, 17)
+                .Bool(true).Byte(-3).Byte(2)
+                .ByteOrder(JBBPByteOrder.LITTLE_ENDIAN).Short(0x1234)
+                .ByteOrder(JBBPByteOrder.BIG_ENDIAN).Short(0xFEDC).Int(0x01020304)
+                .ByteOrder(JBBPByteOrder.LITTLE_ENDIAN).Long(0x0102030405060708L)
+                .ByteOrder(JBBPByteOrder.BIG_ENDIAN).Byte(7, 8)
+                .Bits(JBBPBitNumber.BITS_4, 3, 12)
+                .Align(4).Skip(2)
+                .Byte(2)
+                .Byte(1).ByteOrder(JBBPByteOrder.LITTLE_ENDIAN).Short(0x0102)
+                .ByteOrder(JBBPByteOrder.BIG_ENDIAN).Byte(2).ByteOrder(JBBPByteOrder.LITTLE_ENDIAN).Short(3, 4)
+                .ByteOrder(JBBPByteOrder.BIG_ENDIAN).Bits(JBBPBitNumber.BITS_3, 1).Align()
+                .Int(0xCAFEBABE)
+                .Byte(9, 10, 11)
+                .End().toByteArray();
+
+        final JBBPParser parser = JBBPParser.prepare("bit:3 b3; bit:5 b5; bool flag; byte b; ubyte len; <short s; ushort us; int i; <long l;"
+                + "byte [len] data; bit:4 [2] nibbles; align:4; skip:2;"
+                + "ubyte count; pair [count] { ubyte x; <ushort [x] items; }"
+                + "bit:3 beforeReset; reset$$; int afterReset;"
+                + "ubyte [_] tail;");
+
+        final JBBPFieldStruct parsed = parser.parse(data);
+        assertEquals(3, parsed.findFieldForNameAndType("tail", JBBPFieldArrayUByte.class).size());
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        parser.write(parsed, buffer);
+        assertArrayEquals(data, buffer.toByteArray());
+    }
+
+    @Test
+    public void testWrite_ParsedStructureRoundTrip_RandomData() throws Exception {
+        final Random rnd = new Random(1234L);
+        for (final JBBPBitOrder order : JBBPBitOrder.values()) {
+            final JBBPParser parser = JBBPParser.prepare("bit:3 a; bit:5 b; ushort c; bit:2 [4] d; s [2] { <int e; bool [2] f; bit:1 [8] g; } long h;", order);
+            for (int i = 0; i < 100; i++) {
+                final byte[] data = new byte[26];
+                rnd.nextBytes(data);
+                final int trueByte = order == JBBPBitOrder.MSB0 ? 0x80 : 1;
+                for (final int boolIndex : new int[]{8, 9, 15, 16}) {
+                    data[boolIndex] &= trueByte;
+                }
+
+                final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                parser.write(parser.parse(data), buffer);
+                assertArrayEquals(data, buffer.toByteArray());
+            }
+        }
+    }
+
+    public static class WritableInner {
+        @Bin
+        boolean on;
+        @Bin
+        char code;
+    }
+
+    public static class WritableItem {
+        @Bin
+        byte v;
+    }
+
+    public static class WritableRecord {
+        @Bin(type = BinType.UBYTE)
+        int len;
+        @Bin
+        int[] values;
+        @Bin(type = BinType.BIT)
+        byte flags;
+        @Bin
+        WritableInner inner;
+        @Bin
+        WritableItem[] items;
+        @Bin(bitOrder = JBBPBitOrder.MSB0)
+        int reversed;
+    }
+
+    @Test
+    public void testWriteObject() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("ubyte len; int [len] values; bit:3 flags; align; inner { bool on; ushort code; } int reversed; long missing; byte [2] missingArray; items [_] { byte v; }");
+
+        final WritableRecord record = new WritableRecord();
+        record.len = 2;
+        record.values = new int[]{0x01020304, -1};
+        record.flags = 5;
+        record.inner = new WritableInner();
+        record.inner.on = true;
+        record.inner.code = 0xABCD;
+        record.items = new WritableItem[3];
+        for (int i = 0; i < record.items.length; i++) {
+            record.items[i] = new WritableItem();
+            record.items[i].v = (byte) (i + 1);
+        }
+        record.reversed = 0x80000000;
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        parser.writeObject(record, buffer, null, JBBPMapper.FLAG_IGNORE_MISSING_VALUES);
+
+        assertArrayEquals(new byte[]{2, 1, 2, 3, 4, -1, -1, -1, -1, 5, 1, (byte) 0xAB, (byte) 0xCD, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 2, 3}, buffer.toByteArray());
+    }
+
+    @Test
+    public void testWriteObject_ErrorForMissingValues() throws Exception {
+        final WritableRecord record = new WritableRecord();
+        record.inner = new WritableInner();
+
+        for (final String script : new String[]{"int reversed; long missing;", "int reversed; byte [2] missingArray;", "int reversed; missingStruct { byte a; }", "int reversed; missingStructs [2] { byte a; }"}) {
+            try {
+                JBBPParser.prepare(script).writeObject(record, new ByteArrayOutputStream());
+                fail("Must throw JBBPIllegalArgumentException for " + script);
+            } catch (JBBPIllegalArgumentException ex) {
+                assertTrue(ex.getMessage().contains("missing"));
+            }
+        }
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        JBBPParser.prepare("int reversed; byte; missingStruct { byte a; }").writeObject(record, buffer, null, JBBPMapper.FLAG_IGNORE_MISSING_VALUES);
+        assertArrayEquals(new byte[6], buffer.toByteArray());
+    }
+
+    @Test
+    public void testWriteObject_RoundTripWithParseInto() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("ubyte len; int [len] values; bit:3 flags; align; inner { bool on; ushort code; } items [2] { byte v; } int reversed;");
+        final byte[] data = new byte[]{1, 1, 2, 3, 4, 6, 1, 0x12, 0x34, 7, 8, 0x11, 0x22, 0x33, 0x44};
+
+        final WritableRecord record = parser.parseInto(data, WritableRecord.class);
+        assertEquals(0x22CC4488, record.reversed);
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        parser.writeObject(record, buffer);
+        assertArrayEquals(data, buffer.toByteArray());
+    }
+
+    @Test
+    public void testWrite_Errors() throws Exception {
+        final WritableRecord record = new WritableRecord();
+        record.len = 3;
+        record.values = new int[2];
+        try {
+            JBBPParser.prepare("ubyte len; int [len] values;").writeObject(record, new ByteArrayOutputStream());
+            fail("Must throw JBBPIllegalArgumentException");
+        } catch (JBBPIllegalArgumentException ex) {
+            // expected
+        }
+
+        try {
+            JBBPParser.prepare("int [3] values;").writeObject(record, new ByteArrayOutputStream());
+            fail("Must throw JBBPIllegalArgumentException");
+        } catch (JBBPIllegalArgumentException ex) {
+            // expected
+        }
+
+        try {
+            JBBPParser.prepare("int a; var b;").writeObject(record, new ByteArrayOutputStream());
+            fail("Must throw IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+
+        final JBBPFieldStruct parsed = JBBPParser.prepare("byte a; byte b;").parse(new byte[]{1, 2});
+        try {
+            JBBPParser.prepare("byte a; int b;").write(parsed, new ByteArrayOutputStream());
+            fail("Must throw JBBPIllegalArgumentException");
+        } catch (JBBPIllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testProject() throws Exception {
+        final String script = "byte pad; header { ushort len; int [4] reserved; } long skipped; payload [2] { bit:3 flags; byte [header.len] data; int crc; } bit:5 tail; ubyte last;";
+        final byte[] data = JBBPOut.BeginBin()
+                .Byte(0x11).Short(3).Int(1, 2, 3, 4).Long(0x0102030405060708L)
+                .Bits(JBBPBitNumber.BITS_3, 5).Byte(7, 8, 9).Int(0xCAFEBABE)
+                .Bits(JBBPBitNumber.BITS_3, 2).Byte(10, 11, 12).Int(0xDEADBEEF)
+                .Bits(JBBPBitNumber.BITS_5, 0x1F).Byte(0xAA).End().toByteArray();
+
+        final JBBPParser parser = JBBPParser.prepare(script);
+        final JBBPParseResult full = parser.parseWithResult(data);
+
+        final JBBPParser projection = parser.project("payload.crc", "last");
+        assertTrue(projection.isProjection());
+        assertFalse(parser.isProjection());
+        assertArrayEquals(new String[] {"payload.crc", "last"}, projection.getProjectedPaths());
+        assertNull(parser.getProjectedPaths());
+
+        final JBBPParseResult projected = projection.parseWithResult(data);
+        assertEquals(full.getFinalStreamByteCounter(), projected.getFinalStreamByteCounter());
+
+        final JBBPFieldStruct root = projected.getRoot();
+        assertEquals(2, root.getArray().length);
+        assertNull(root.findFieldForName("header"));
+        assertNull(root.findFieldForName("pad"));
+
+        final JBBPFieldArrayStruct payload = root.findFieldForNameAndType("payload", JBBPFieldArrayStruct.class);
+        assertEquals(2, payload.size());
+        for (int i = 0; i < 2; i++) {
+            assertEquals(1, payload.getElementAt(i).getArray().length);
+            assertEquals(full.getRoot().findFieldForNameAndType("payload", JBBPFieldArrayStruct.class).getElementAt(i).findFieldForNameAndType("crc", JBBPFieldInt.class).getAsInt(),
+                    payload.getElementAt(i).findFieldForNameAndType("crc", JBBPFieldInt.class).getAsInt());
+        }
+        assertEquals(0xCAFEBABE, payload.getElementAt(0).findFieldForNameAndType("crc", JBBPFieldInt.class).getAsInt());
+        assertEquals(0xAA, root.findFieldForNameAndType("last", JBBPFieldUByte.class).getAsInt());
+
+        final JBBPFieldStruct wholeHeader = parser.project("header").parse(data);
+        assertEquals(1, wholeHeader.getArray().length);
+        assertEquals(3, wholeHeader.findFieldForPathAndType("header.len", JBBPFieldUShort.class).getAsInt());
+        assertArrayEquals(new int[] {1, 2, 3, 4}, wholeHeader.findFieldForPathAndType("header.reserved", JBBPFieldArrayInt.class).getArray());
+    }
+
+    @Test
+    public void testProject_ListenerGetsOnlyRequestedFields() throws Exception {
+        final List<String> events = new ArrayList<String>();
+        JBBPParser.prepare("ubyte len; byte [len] data; skip:1; int value;").project("value").parse(new byte[] {2, 1, 2, 3, 0, 0, 0, 5}, new JBBPParseListenerAdapter() {
+            @Override
+            public void onByte(final JBBPNamedFieldInfo name, final byte value) {
+                events.add("byte " + name);
+            }
+
+            @Override
+            public void onUByte(final JBBPNamedFieldInfo name, final int value) {
+                events.add("ubyte " + name);
+            }
+
+            @Override
+            public void onByteArray(final JBBPNamedFieldInfo name, final byte[] array) {
+                events.add("array " + name);
+            }
+
+            @Override
+            public void onInt(final JBBPNamedFieldInfo name, final int value) {
+                events.add(name.getFieldPath() + '=' + value);
+            }
+        });
+        assertEquals(Arrays.asList("value=5"), events);
+    }
+
+    @Test
+    public void testProject_SkipRemainingFieldsIfEof() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("byte a; short b; int c; long d;", JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF);
+        final JBBPFieldStruct parsed = parser.project("c", "d").parse(new byte[] {1, 0, 2, 0, 0, 0, 3});
+        assertEquals(3, parsed.findFieldForNameAndType("c", JBBPFieldInt.class).getAsInt());
+        assertNull(parsed.findFieldForName("d"));
+        assertEquals(1, parsed.getArray().length);
+    }
+
+    @Test
+    public void testProject_Errors() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("byte a; s { int b; }");
+        try {
+            parser.project("s.c");
+            fail("Must throw JBBPFinderException");
+        } catch (JBBPFinderException ex) {
+            assertEquals("s.c", ex.getNameOrPath());
+        }
+        try {
+            parser.project();
+            fail("Must throw IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            parser.project("s.b").parse(new byte[] {1, 2, 3});
+            fail("Must throw JBBPParsingException");
+        } catch (JBBPParsingException ex) {
+            assertTrue(ex.getCause() instanceof EOFException);
+        }
+    }
+
+    private static final class StatisticsCollector implements JBBPParseInstrumentation {
+        private final List<JBBPParseStatistics> statistics = new ArrayList<JBBPParseStatistics>();
+
+        @Override
+        public void onParseStart(final JBBPParser parser, final JBBPParseStatistics statistics) {
+            assertNotNull(parser);
+            assertNull(statistics.getAttachment());
+            statistics.setAttachment(parser);
+        }
+
+        @Override
+        public void onParseEnd(final JBBPParser parser, final JBBPParseStatistics statistics) {
+            assertSame(parser, statistics.getAttachment());
+            this.statistics.add(statistics);
+        }
+
+        JBBPParseStatistics last() {
+            assertFalse(this.statistics.isEmpty());
+            return this.statistics.get(this.statistics.size() - 1);
+        }
+    }
+
+    @Test
+    public void testInstrument() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("ubyte len; byte [len] data; s [2] { bit:4 a; bit:4 b; } skip:2; int [_] tail;");
+        assertNull(parser.getInstrumentation());
+
+        final StatisticsCollector collector = new StatisticsCollector();
+        final JBBPParser instrumented = parser.instrument(collector);
+        assertSame(collector, instrumented.getInstrumentation());
+        assertNull(instrumented.instrument(null).getInstrumentation());
+        assertSame(collector, instrumented.project("tail").getInstrumentation());
+
+        final byte[] data = new byte[] {3, 1, 2, 3, 0x12, 0x34, 0, 0, 1, 2, 3, 4, 5, 6, 7, 8};
+        assertEquals(16, instrumented.parseWithResult(data).getConsumedBytes());
+        assertEquals(1, collector.statistics.size());
+
+        final JBBPParseStatistics statistics = collector.last();
+        assertEquals(16, statistics.getConsumedBytes());
+        assertEquals(7, statistics.getFieldCount());
+        assertEquals(3, statistics.getArrayCount());
+        assertEquals(1, statistics.getSkipCount());
+        assertEquals(2, statistics.getSkippedBytes());
+        assertEquals(0L, statistics.getVarFieldProcessorNanos());
+        assertEquals(0L, statistics.getCustomFieldProcessorNanos());
+        assertTrue(statistics.getDurationNanos() >= 0L);
+        assertFalse(statistics.isStoppedByEof());
+        assertFalse(statistics.isListenerMode());
+        assertNull(statistics.getError());
+
+        parser.parse(data);
+        assertEquals(1, collector.statistics.size());
+    }
+
+    @Test
+    public void testInstrument_ListenerAndEof() throws Exception {
+        final StatisticsCollector collector = new StatisticsCollector();
+        final JBBPParser parser = JBBPParser.prepare("int a; int b;", JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF).instrument(collector);
+
+        parser.parse(new byte[] {1, 2, 3, 4}, new JBBPParseListenerAdapter() {
+        });
+
+        final JBBPParseStatistics statistics = collector.last();
+        assertTrue(statistics.isListenerMode());
+        assertTrue(statistics.isStoppedByEof());
+        assertEquals(4, statistics.getConsumedBytes());
+        assertEquals(0, statistics.getFieldCount());
+        assertNull(statistics.getError());
+    }
+
+    @Test
+    public void testInstrument_ErrorAndProcessorTime() throws Exception {
+        final StatisticsCollector collector = new StatisticsCollector();
+        final JBBPParser parser = JBBPParser.prepare("int a; var v;").instrument(collector);
+
+        try {
+            JBBPParser.prepare("int a;").instrument(collector).parse(new byte[] {1, 2});
+            fail("Must throw exception");
+        } catch (JBBPParsingException ex) {
+            assertSame(ex, collector.last().getError());
+        }
+
+        parser.parse(new byte[] {1, 2, 3, 4, 5}, new JBBPVarFieldProcessor() {
+            @Override
+            public JBBPAbstractArrayField<? extends JBBPAbstractField> readVarArray(final JBBPBitInputStream inStream, final int arraySize, final JBBPNamedFieldInfo fieldName, final int extraValue, final JBBPByteOrder byteOrder, final JBBPNamedNumericFieldMap numericFieldMap) throws IOException {
+                fail("Must not be called");
+                return null;
+            }
+
+            @Override
+            public JBBPAbstractField readVarField(final JBBPBitInputStream inStream, final JBBPNamedFieldInfo fieldName, final int extraValue, final JBBPByteOrder byteOrder, final JBBPNamedNumericFieldMap numericFieldMap) throws IOException {
+                try {
+                    Thread.sleep(5L);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return new JBBPFieldByte(fieldName, (byte) inStream.readByte());
+            }
+        }, null);
+
+        final JBBPParseStatistics statistics = collector.last();
+        assertNull(statistics.getError());
+        assertEquals(2, statistics.getFieldCount());
+        assertTrue(statistics.getVarFieldProcessorNanos() >= 1000000L);
+        assertTrue(statistics.getDurationNanos() >= statistics.getVarFieldProcessorNanos());
+    }
+
+    @Test
+    public void testInstrument_Projection() throws Exception {
+        final StatisticsCollector collector = new StatisticsCollector();
+        final JBBPParser parser = JBBPParser.prepare("int a; byte [16] b; int c;").project("c").instrument(collector);
+
+        assertEquals(0x01020304, parser.parse(JBBPUtils.concat(new byte[20], new byte[] {1, 2, 3, 4})).findFieldForNameAndType("c", JBBPFieldInt.class).getAsInt());
+
+        final JBBPParseStatistics statistics = collector.last();
+        assertEquals(1, statistics.getSkipCount());
+        assertEquals(20, statistics.getSkippedBytes());
+        assertEquals(1, statistics.getFieldCount());
+        assertEquals(24, statistics.getConsumedBytes());
+    }
+
 }
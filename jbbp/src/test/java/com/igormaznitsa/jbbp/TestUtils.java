@@ -15,12 +15,19 @@
  */
 package com.igormaznitsa.jbbp;
 
+import com.igormaznitsa.jbbp.model.JBBPAbstractArrayField;
+import com.igormaznitsa.jbbp.model.JBBPAbstractField;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.model.JBBPNumericField;
+
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.Locale;
 import java.util.zip.CRC32;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 /**
  * Different useful auxiliary test methods
@@ -118,6 +125,40 @@ public enum TestUtils {
     assertEquals("CRC32 for " + etalonName + " must be " + crc, crc, chunkCrc);
   }
 
+  /**
+   * Check that two parsed field trees are equal, fields must have the same
+   * classes, name infos and values.
+   *
+   * @param expected expected field, can be null
+   * @param actual   actual field, can be null
+   */
+  public static void assertFieldTreeEquals(final JBBPAbstractField expected, final JBBPAbstractField actual) {
+    if (expected == null) {
+      assertNull(actual);
+      return;
+    }
+    assertNotNull(actual);
+    assertEquals(expected.getClass(), actual.getClass());
+    assertEquals(expected.getNameInfo(), actual.getNameInfo());
+    if (expected instanceof JBBPFieldStruct) {
+      final JBBPAbstractField[] expectedFields = ((JBBPFieldStruct) expected).getArray();
+      final JBBPAbstractField[] actualFields = ((JBBPFieldStruct) actual).getArray();
+      assertEquals(expectedFields.length, actualFields.length);
+      for (int i = 0; i < expectedFields.length; i++) {
+        assertFieldTreeEquals(expectedFields[i], actualFields[i]);
+      }
+    } else if (expected instanceof JBBPAbstractArrayField) {
+      final JBBPAbstractArrayField<?> expectedArray = (JBBPAbstractArrayField<?>) expected;
+      final JBBPAbstractArrayField<?> actualArray = (JBBPAbstractArrayField<?>) actual;
+      assertEquals(expectedArray.size(), actualArray.size());
+      for (int i = 0; i < expectedArray.size(); i++) {
+        assertFieldTreeEquals(expectedArray.getElementAt(i), actualArray.getElementAt(i));
+      }
+    } else if (expected instanceof JBBPNumericField) {
+      assertEquals(((JBBPNumericField) expected).getAsLong(), ((JBBPNumericField) actual).getAsLong());
+    }
+  }
+
   public static String wavInt2Str(final int value) {
     return new String(new char[]{(char) (value & 0xFF), (char) ((value >>> 8) & 0xFF), (char) ((value >>> 16) & 0xFF), (char) (value >>> 24)});
   }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler;
+
+import com.igormaznitsa.jbbp.JBBPCustomFieldTypeProcessor;
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.compiler.tokenizer.JBBPFieldTypeParameterContainer;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.model.JBBPAbstractField;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class JBBPCompiledBlockCacheTest {
+
+    private static JBBPCustomFieldTypeProcessor makeProcessor() {
+        return new JBBPCustomFieldTypeProcessor() {
+            @Override
+            public String[] getCustomFieldTypes() {
+                return new String[]{"some"};
+            }
+
+            @Override
+            public boolean isAllowed(final JBBPFieldTypeParameterContainer fieldType, final String fieldName, final int extraData, final boolean isArray) {
+                return true;
+            }
+
+            @Override
+            public JBBPAbstractField readCustomFieldType(final JBBPBitInputStream in, final JBBPBitOrder bitOrder, final int parserFlags, final JBBPFieldTypeParameterContainer customTypeFieldInfo, final JBBPNamedFieldInfo fieldName, final int extraData, final boolean readWholeStream, final int arrayLength) throws IOException {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void testHitAndMiss() throws Exception {
+        final JBBPCompiledBlockCache cache = new JBBPCompiledBlockCache(32);
+        assertTrue(cache.isEnabled());
+
+        final JBBPCompiledBlock first = cache.compile("int a; byte [a] b;", null);
+        assertSame(first, cache.compile("int a; byte [a] b;", null));
+        assertNotSame(first, cache.compile("int a; byte [a] c;", null));
+        assertEquals(1L, cache.getHitCount());
+        assertEquals(2L, cache.getMissCount());
+        assertEquals(2, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.getHitCount());
+        assertEquals(0L, cache.getMissCount());
+        assertNotSame(first, cache.compile("int a; byte [a] b;", null));
+    }
+
+    @Test
+    public void testScriptWithCustomProcessorNotCached() throws Exception {
+        final JBBPCompiledBlockCache cache = new JBBPCompiledBlockCache(32);
+        final JBBPCustomFieldTypeProcessor proc = makeProcessor();
+
+        final JBBPCompiledBlock block = cache.compile("some a;", proc);
+        assertNotSame(block, cache.compile("some a;", proc));
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.getHitCount());
+        assertEquals(0L, cache.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedBlockRemoved() throws Exception {
+        final JBBPCompiledBlockCache cache = new JBBPCompiledBlockCache(16);
+        for (int i = 0; i < 1000; i++) {
+            cache.compile("byte [" + (i + 1) + "] a;", null);
+        }
+        assertTrue(cache.size() <= 16);
+
+        final JBBPCompiledBlock hot = cache.compile("int hot;", null);
+        for (int i = 0; i < 1000; i++) {
+            cache.compile("byte [" + (i + 1) + "] a;", null);
+            assertSame(hot, cache.compile("int hot;", null));
+        }
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        final JBBPCompiledBlockCache zero = new JBBPCompiledBlockCache(0);
+        assertFalse(zero.isEnabled());
+        zero.setEnabled(true);
+        assertFalse(zero.isEnabled());
+        assertNotSame(zero.compile("int a;", null), zero.compile("int a;", null));
+        assertEquals(0, zero.size());
+
+        final JBBPCompiledBlockCache cache = new JBBPCompiledBlockCache(10);
+        cache.compile("int a;", null);
+        cache.setEnabled(false);
+        assertEquals(0, cache.size());
+        assertNotSame(cache.compile("int a;", null), cache.compile("int a;", null));
+        assertEquals(0L, cache.getMissCount());
+    }
+
+    @Test
+    public void testParserUsesGlobalCache() throws Exception {
+        final String script = "int cachedTestField; ubyte [cachedTestField] data;";
+        assertSame(JBBPParser.prepare(script).getCompiledBlock(), JBBPParser.prepare(script, JBBPBitOrder.MSB0).getCompiledBlock());
+        assertNotSame(JBBPParser.prepare(script).getCompiledBlock(), JBBPParser.prepare(script, JBBPParser.FLAG_DO_NOT_USE_COMPILED_BLOCK_CACHE).getCompiledBlock());
+    }
+}
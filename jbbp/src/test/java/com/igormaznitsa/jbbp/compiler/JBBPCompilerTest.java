@@ -560,4 +560,22 @@ public class JBBPCompilerTest {
         assertArrayEquals(new byte[]{JBBPCompiler.CODE_RESET_COUNTER}, JBBPCompiler.compile("reset$$;").getCompiledData());
     }
 
+    @Test
+    public void testCompile_FixedRecordSize() throws Exception {
+        assertEquals(0, JBBPCompiler.compile("reset$$;").getFixedRecordSize());
+        assertEquals(19, JBBPCompiler.compile("bool a; byte b; ubyte c; short d; ushort e; int f; long g;").getFixedRecordSize());
+        assertEquals(3, JBBPCompiler.compile("bit:4 a; bit:4 b; skip:2;").getFixedRecordSize());
+        assertEquals(25, JBBPCompiler.compile("int [2] a; s [3] { short b; bit:4 [2] c; } reset$$; i { long d; }").getFixedRecordSize());
+        assertEquals(4000000, JBBPCompiler.compile("a [1000] { b [1000] { int c; } }").getFixedRecordSize());
+
+        assertEquals(-1, JBBPCompiler.compile("bit:3 a;").getFixedRecordSize());
+        assertEquals(-1, JBBPCompiler.compile("byte a; align:4; int b;").getFixedRecordSize());
+        assertEquals(-1, JBBPCompiler.compile("byte [_] a;").getFixedRecordSize());
+        assertEquals(-1, JBBPCompiler.compile("s [_] { byte a; }").getFixedRecordSize());
+        assertEquals(-1, JBBPCompiler.compile("byte len; byte [len] a;").getFixedRecordSize());
+        assertEquals(-1, JBBPCompiler.compile("byte len; skip:(len);").getFixedRecordSize());
+        assertEquals(-1, JBBPCompiler.compile("var a;").getFixedRecordSize());
+        assertEquals(-1, JBBPCompiler.compile("a [1000000] { b [1000000] { int c; } }").getFixedRecordSize());
+    }
+
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler.bytecode;
+
+import com.igormaznitsa.jbbp.JBBPCustomFieldTypeProcessor;
+import com.igormaznitsa.jbbp.JBBPExternalValueProvider;
+import com.igormaznitsa.jbbp.JBBPNamedNumericFieldMap;
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.JBBPVarFieldProcessor;
+import com.igormaznitsa.jbbp.compiler.JBBPCompiledBlock;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.compiler.tokenizer.JBBPFieldTypeParameterContainer;
+import com.igormaznitsa.jbbp.exceptions.JBBPParsingException;
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.io.JBBPByteOrder;
+import com.igormaznitsa.jbbp.model.*;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static com.igormaznitsa.jbbp.TestUtils.assertFieldTreeEquals;
+import static org.junit.Assert.*;
+
+public class JBBPBytecodeParserTest {
+
+    private static final Random RND = new Random(12345);
+
+    private static byte[] makeRandomData(final int length) {
+        final byte[] result = new byte[length];
+        RND.nextBytes(result);
+        return result;
+    }
+
+    private static JBBPBytecodeParser assertCompiled(final JBBPParser parser) {
+        final JBBPBytecodeParser result = JBBPBytecodeParser.compile(parser);
+        assertTrue(result.isBytecodeGenerated());
+        assertSame(parser, result.getParser());
+        return result;
+    }
+
+    private static void assertSameResult(final JBBPParser parser, final byte[] data) throws Exception {
+        final JBBPBytecodeParser compiled = assertCompiled(parser);
+        final JBBPFieldStruct expected = parser.parse(data);
+        assertFieldTreeEquals(expected, compiled.parse(data));
+        assertFieldTreeEquals(expected, compiled.parse(new ByteArrayInputStream(data)));
+        assertFieldTreeEquals(expected, compiled.parse(ByteBuffer.wrap(data)));
+    }
+
+    @Test
+    public void testPrimitives() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("bool a; byte b; ubyte c; short d; ushort e; int f; long g; <short h; <ushort i; <int j; <long k;");
+        for (int i = 0; i < 100; i++) {
+            assertSameResult(parser, makeRandomData(41));
+        }
+    }
+
+    @Test
+    public void testPrimitives_MSB0() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("bool a; byte b; ubyte c; short d; ushort e; int f; long g; bit:3 h; bit:5 [2] i;", JBBPBitOrder.MSB0);
+        assertSameResult(parser, makeRandomData(32));
+    }
+
+    @Test
+    public void testArraysAndBits() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("bit:1 a; bit:3 b; bit:4 [3] c; align; bool [3] d; byte [2] e; ubyte [3] f; short [2] g; ushort [2] h; <int [2] i; long [1] j; <long [2] k; byte [_] rest;");
+        for (int i = 0; i < 50; i++) {
+            assertSameResult(parser, makeRandomData(80 + RND.nextInt(20)));
+        }
+    }
+
+    @Test
+    public void testWholeStreamArrays() throws Exception {
+        assertSameResult(JBBPParser.prepare("bit:2 [_] a;"), makeRandomData(7));
+        assertSameResult(JBBPParser.prepare("bool [_] a;"), makeRandomData(7));
+        assertSameResult(JBBPParser.prepare("ubyte [_] a;"), makeRandomData(7));
+        assertSameResult(JBBPParser.prepare("ushort [_] a;"), makeRandomData(8));
+        assertSameResult(JBBPParser.prepare("<int [_] a;"), makeRandomData(16));
+        assertSameResult(JBBPParser.prepare("long [_] a;"), makeRandomData(24));
+    }
+
+    @Test
+    public void testExpressions() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("ubyte len; bit:((len&7)+1) bits; align; byte [len/8] data; skip:(len%3); ushort [$$] counter; reset$$; byte [$$+1] after; int [(len&3)*2] ints; bit:((len&7)+1) [2] bitarr;");
+        for (int i = 0; i < 100; i++) {
+            assertSameResult(parser, makeRandomData(512));
+        }
+    }
+
+    @Test
+    public void testStructures() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("byte len; header { int id; inner { bit:4 a; bit:4 b; } } items [len&3] { ubyte n; byte [n&7] data; sub [2] { short s; } } byte [4]; tail [_] { byte v; }");
+        for (int i = 0; i < 100; i++) {
+            assertSameResult(parser, makeRandomData(100 + RND.nextInt(8) * 2));
+        }
+    }
+
+    @Test
+    public void testAnonymousFieldsAndStructures() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("int; { byte a; short; } [2] { bit:3; bit:5 b; } byte [2];");
+        assertSameResult(parser, makeRandomData(12));
+    }
+
+    @Test
+    public void testSkipRemainingFieldsIfEOF() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("int a; s { short b; byte [2] c; } long d;", JBBPParser.FLAG_SKIP_REMAINING_FIELDS_IF_EOF);
+        for (int length = 0; length < 17; length++) {
+            final byte[] data = makeRandomData(length);
+            final JBBPFieldStruct expected;
+            try {
+                expected = parser.parse(data);
+            } catch (JBBPParsingException ex) {
+                try {
+                    assertCompiled(parser).parse(data);
+                    fail("Must throw exception for " + length);
+                } catch (JBBPParsingException ex2) {
+                    assertEquals(ex.getClass(), ex2.getClass());
+                    assertEquals(ex.getMessage(), ex2.getMessage());
+                }
+                continue;
+            }
+            assertFieldTreeEquals(expected, assertCompiled(parser).parse(data));
+        }
+    }
+
+    @Test
+    public void testErrorWrapping() throws Exception {
+        final JBBPBytecodeParser parser = assertCompiled(JBBPParser.prepare("byte a; s { int b; }"));
+        try {
+            parser.parse(new byte[]{1, 2});
+            fail("Must throw parsing exception");
+        } catch (JBBPParsingException ex) {
+            assertEquals("Can't parse field 's.b' for IOException", ex.getMessage());
+            assertTrue(ex.getCause() instanceof EOFException);
+        }
+
+        try {
+            assertCompiled(JBBPParser.prepare("byte; int;")).parse(new byte[]{1, 2});
+            fail("Must throw EOF");
+        } catch (EOFException ex) {
+            // expected
+        }
+
+        try {
+            assertCompiled(JBBPParser.prepare("byte a; byte [a] b;")).parse(new byte[]{(byte) 0xFF});
+            fail("Must throw exception for negative array length");
+        } catch (JBBPParsingException ex) {
+            assertTrue(ex.getMessage().startsWith("Detected negative calculated array length"));
+        }
+    }
+
+    @Test
+    public void testExternalValues() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("byte [$first] a; int [$second] b;");
+        final JBBPExternalValueProvider provider = new JBBPExternalValueProvider() {
+            @Override
+            public int provideArraySize(final String fieldName, final JBBPNamedNumericFieldMap numericFieldMap, final JBBPCompiledBlock compiledBlock) {
+                return fieldName.equals("first") ? 3 : 2;
+            }
+        };
+        final byte[] data = makeRandomData(11);
+        assertFieldTreeEquals(parser.parse(data, null, provider), assertCompiled(parser).parse(data, null, provider));
+    }
+
+    @Test
+    public void testVarFields() throws Exception {
+        final JBBPVarFieldProcessor processor = new JBBPVarFieldProcessor() {
+            @Override
+            public JBBPAbstractArrayField<? extends JBBPAbstractField> readVarArray(final JBBPBitInputStream inStream, final int arraySize, final JBBPNamedFieldInfo fieldName, final int extraValue, final JBBPByteOrder byteOrder, final JBBPNamedNumericFieldMap numericFieldMap) throws IOException {
+                return new JBBPFieldArrayByte(fieldName, inStream.readByteArray(arraySize < 0 ? extraValue : arraySize));
+            }
+
+            @Override
+            public JBBPAbstractField readVarField(final JBBPBitInputStream inStream, final JBBPNamedFieldInfo fieldName, final int extraValue, final JBBPByteOrder byteOrder, final JBBPNamedNumericFieldMap numericFieldMap) throws IOException {
+                return new JBBPFieldInt(fieldName, inStream.readInt(byteOrder) + extraValue + numericFieldMap.findFieldForNameAndType("a", JBBPFieldByte.class).getAsInt());
+            }
+        };
+
+        final JBBPParser parser = JBBPParser.prepare("byte a; var:3 b; <var c; var [a&3] d; var:2 [_] e;");
+        final byte[] data = makeRandomData(20);
+        data[0] = 2;
+        assertFieldTreeEquals(parser.parse(data, processor, null), assertCompiled(parser).parse(data, processor, null));
+
+        try {
+            assertCompiled(parser).parse(data);
+            fail("Must throw NPE for missing var field processor");
+        } catch (NullPointerException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCustomFields() throws Exception {
+        final JBBPCustomFieldTypeProcessor processor = new JBBPCustomFieldTypeProcessor() {
+            @Override
+            public String[] getCustomFieldTypes() {
+                return new String[]{"some"};
+            }
+
+            @Override
+            public boolean isAllowed(final JBBPFieldTypeParameterContainer fieldType, final String fieldName, final int extraData, final boolean isArray) {
+                return true;
+            }
+
+            @Override
+            public JBBPAbstractField readCustomFieldType(final JBBPBitInputStream in, final JBBPBitOrder bitOrder, final int parserFlags, final JBBPFieldTypeParameterContainer customTypeFieldInfo, final JBBPNamedFieldInfo fieldName, final int extraData, final boolean readWholeStream, final int arrayLength) throws IOException {
+                if (arrayLength < 0 && !readWholeStream) {
+                    return new JBBPFieldShort(fieldName, (short) (in.readUnsignedShort(customTypeFieldInfo.getByteOrder()) + extraData));
+                } else {
+                    return new JBBPFieldArrayByte(fieldName, in.readByteArray(readWholeStream ? -1 : arrayLength));
+                }
+            }
+        };
+
+        final JBBPParser parser = JBBPParser.prepare("some:4 a; <some b; some [a&3] c; some [_] d;", processor);
+        for (int i = 0; i < 20; i++) {
+            assertSameResult(parser, makeRandomData(16));
+        }
+    }
+
+    @Test
+    public void testDisabledByProperty() throws Exception {
+        System.setProperty("jbbp.parser.bytecode.disabled", "true");
+        try {
+            final JBBPParser parser = JBBPParser.prepare("int a;");
+            final JBBPBytecodeParser compiled = JBBPBytecodeParser.compile(parser);
+            assertFalse(compiled.isBytecodeGenerated());
+            assertEquals(0x01020304, compiled.parse(new byte[]{1, 2, 3, 4}).findFieldForType(JBBPFieldInt.class).getAsInt());
+        } finally {
+            System.clearProperty("jbbp.parser.bytecode.disabled");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.compiler.conversion;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.testaux.AbstractJBBPToJava6ConverterTest;
+import com.igormaznitsa.jbbp.utils.TargetSources;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static com.igormaznitsa.jbbp.TestUtils.getField;
+import static org.junit.Assert.*;
+
+/**
+ * Test reading writing with classes generated for byte buffers, results are compared with the parser.
+ */
+public class JBBPToJava8BufferConverterReadWriteTest extends AbstractJBBPToJava6ConverterTest {
+
+    private static Object invoke(final Object instance, final String name, final Class<?> type, final Object arg, final int offset) throws Exception {
+        try {
+            return instance.getClass().getMethod(name, type, int.class).invoke(instance, arg, offset);
+        } catch (InvocationTargetException ex) {
+            throw (Exception) ex.getCause();
+        }
+    }
+
+    private String makeSources(final JBBPParser parser) {
+        return JBBPToJava8BufferConverter.makeBuilder(parser).setMainClassName(CLASS_NAME).setMainClassPackage(PACKAGE_NAME).build().convert();
+    }
+
+    private Object makeInstance(final String sources) throws Exception {
+        final String fullClassName = PACKAGE_NAME + '.' + CLASS_NAME;
+        return saveAndCompile(new JavaClassContent(fullClassName, sources)).loadClass(fullClassName).newInstance();
+    }
+
+    private Object assertSameAsParser(final JBBPParser parser, final byte[] data) throws Exception {
+        final JBBPFieldStruct parsed = parser.parse(data);
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        parser.write(parsed, expected);
+
+        final Object instance = makeInstance(makeSources(parser));
+
+        final byte[] source = new byte[data.length + 7];
+        System.arraycopy(data, 0, source, 3, data.length);
+        final int readEnd = (Integer) invoke(instance, "read", ByteBuffer.class, ByteBuffer.wrap(source, 0, data.length + 3), 3);
+        assertTrue(readEnd > 3 && readEnd <= data.length + 3);
+
+        final byte[] written = new byte[expected.size() + 10];
+        final int writeEnd = (Integer) invoke(instance, "write", byte[].class, written, 5);
+        assertEquals(expected.size() + 5, writeEnd);
+        assertArrayEquals(expected.toByteArray(), Arrays.copyOfRange(written, 5, writeEnd));
+        return instance;
+    }
+
+    private byte[] makeRandomArray(final int length) {
+        final byte[] result = new byte[length];
+        RND.nextBytes(result);
+        return result;
+    }
+
+    @Test
+    public void testAlignedPrimitives() throws Exception {
+        final Object instance = assertSameAsParser(JBBPParser.prepare("byte a; ubyte b; short c; ushort d; int e; long f; bool g; <short h; <ushort i; <int j; <long k;"), makeRandomArray(64));
+        assertEquals(Character.class, getField(instance, "b", Object.class).getClass());
+        assertEquals(Long.class, getField(instance, "k", Object.class).getClass());
+    }
+
+    @Test
+    public void testAlignedArrays() throws Exception {
+        assertSameAsParser(JBBPParser.prepare("bool [3] a; byte [4] b; <ubyte [4] c; short [2] d; <ushort [2] e; int [3] f; <int [3] g; long [2] h; <long [1] i; byte [_] tail;"), makeRandomArray(128));
+    }
+
+    @Test
+    public void testWholeStreamArrays() throws Exception {
+        assertSameAsParser(JBBPParser.prepare("int [_] a;"), makeRandomArray(40));
+        assertSameAsParser(JBBPParser.prepare("<long [_] a;"), makeRandomArray(40));
+        assertSameAsParser(JBBPParser.prepare("bit:4 [_] a;"), makeRandomArray(21));
+    }
+
+    @Test
+    public void testBitFieldsAndUnalignedPrimitives() throws Exception {
+        final byte[] data = makeRandomArray(32);
+        data[data.length - 1] = 0;
+        final JBBPParser parser = JBBPParser.prepare("bit:3 a; bit:5 b; int c; bit:4 [3] d; ushort e; <int f; bit:1 g; bool h; byte [2] i; bit:7 j;");
+        final Object instance = assertSameAsParser(parser, data);
+        final JBBPFieldStruct parsed = parser.parse(data);
+        assertEquals(parsed.findFieldForNameAndType("c", com.igormaznitsa.jbbp.model.JBBPFieldInt.class).getAsInt(), ((Integer) getField(instance, "c", Object.class)).intValue());
+        assertEquals(parsed.findFieldForNameAndType("f", com.igormaznitsa.jbbp.model.JBBPFieldInt.class).getAsInt(), ((Integer) getField(instance, "f", Object.class)).intValue());
+    }
+
+    @Test
+    public void testExpressionsAndActions() throws Exception {
+        final byte[] data = makeRandomArray(256);
+        data[0] = 3;
+        data[1] = 5;
+        assertSameAsParser(JBBPParser.prepare("ubyte len; bit:4 flags; align:4; int [len] values; skip:(len); ushort [flags] words; bit:3 x; align; reset$$; byte a; align:3; <int [$$+1] b;"), data);
+    }
+
+    @Test
+    public void testStructures() throws Exception {
+        final byte[] data = makeRandomArray(128);
+        data[0] = 2;
+        assertSameAsParser(JBBPParser.prepare("ubyte num; header { int id; bit:2 kind; } items [num] { bit:3 a; ushort b; } rest [2] { int c; ins { <long d; } } bit:5 z;"), data);
+        assertSameAsParser(JBBPParser.prepare("records [_] { ubyte a; bit:4 b; bit:4 c; }"), makeRandomArray(30));
+    }
+
+    @Test
+    public void testMsb0Parser() throws Exception {
+        assertSameAsParser(JBBPParser.prepare("bit:3 a; bit:5 b; byte c; int [2] d; <long e; bool f;", JBBPBitOrder.MSB0), makeRandomArray(48));
+    }
+
+    @Test
+    public void testByteBufferWithOffset() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("<int a; bit:4 b; short c;");
+        final Object instance = makeInstance(makeSources(parser));
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(2, (byte) 0x01).put(3, (byte) 0x02).put(4, (byte) 0x03).put(5, (byte) 0x04).put(6, (byte) 0xA5).put(7, (byte) 0xBC).put(8, (byte) 0xDE);
+        assertEquals(9, ((Integer) invoke(instance, "read", ByteBuffer.class, buffer, 2)).intValue());
+        assertEquals(0, buffer.position());
+        assertEquals(0x04030201, ((Integer) getField(instance, "a", Object.class)).intValue());
+        assertEquals(5, ((Byte) getField(instance, "b", Object.class)).intValue());
+        assertEquals((short) 0xCAEB, ((Short) getField(instance, "c", Object.class)).shortValue());
+
+        final ByteBuffer out = ByteBuffer.allocate(16);
+        assertEquals(11, ((Integer) invoke(instance, "write", ByteBuffer.class, out, 4)).intValue());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(buffer.get(i + 2), out.get(i + 4));
+        }
+        assertEquals(0x0E, out.get(10));
+    }
+
+    @Test
+    public void testGeneratedCodeUsesAlignedAccessOnlyForAlignedFields() throws Exception {
+        final String sources = makeSources(JBBPParser.prepare("int a; bit:4 b; int c; bit:4 d; int e; items [_] { bit:1 f; int g; }"));
+        assertTrue(sources.contains("this.a = In.readAlignedInt(JBBPByteOrder.BIG_ENDIAN);"));
+        assertTrue(sources.contains("this.c = In.readInt(JBBPByteOrder.BIG_ENDIAN);"));
+        assertTrue(sources.contains("this.e = In.readAlignedInt(JBBPByteOrder.BIG_ENDIAN);"));
+        assertTrue(sources.contains("this.g = In.readInt(JBBPByteOrder.BIG_ENDIAN);"));
+        assertFalse(sources.contains("JBBPBitInputStream"));
+    }
+
+    @Test
+    public void testConvertToSrc() throws Exception {
+        final String sources = JBBPParser.prepare("byte a;").convertToSrc(TargetSources.JAVA_1_8, PACKAGE_NAME + '.' + CLASS_NAME).get(0).getResult().get(PACKAGE_NAME.replace('.', '/') + '/' + CLASS_NAME + ".java");
+        final Object instance = makeInstance(sources);
+        invoke(instance, "read", byte[].class, new byte[]{0, 42}, 1);
+        assertEquals(42, ((Byte) getField(instance, "a", Object.class)).intValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVarFieldIsNotSupported() {
+        makeSources(JBBPParser.prepare("byte a; var b;"));
+    }
+
+    @Test(expected = java.io.EOFException.class)
+    public void testEofForNotEnoughData() throws Exception {
+        final Object instance = makeInstance(makeSources(JBBPParser.prepare("int a; long b;")));
+        invoke(instance, "read", byte[].class, new byte[10], 0);
+    }
+}
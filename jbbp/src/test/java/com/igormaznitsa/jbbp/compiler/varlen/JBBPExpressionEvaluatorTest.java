@@ -28,6 +28,9 @@ import com.igormaznitsa.jbbp.utils.JBBPUtils;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -532,4 +535,39 @@ public class JBBPExpressionEvaluatorTest {
         assertEquals(123 * (value - 45 / 3) * 3, expr.eval(inStream, 0, compiledBlock, map));
     }
 
+    @Test
+    public void testExpression_ConstantParts() {
+        final JBBPNamedNumericFieldMap map = new JBBPNamedNumericFieldMap();
+        final List<JBBPNamedFieldInfo> list = new ArrayList<JBBPNamedFieldInfo>();
+        final JBBPNamedFieldInfo len = new JBBPNamedFieldInfo("len", "len", 0);
+        list.add(len);
+        final byte[] compiled = new byte[]{JBBPCompiler.CODE_INT};
+        final JBBPCompiledBlock compiledBlock = JBBPCompiledBlock.prepare().setCompiledData(compiled).setSource("none").setNamedFieldData(list).build();
+
+        final JBBPExpressionEvaluator expr = new JBBPExpressionEvaluator("(len - (2 + 2)) / -(1 + 1) * ~(3 << 2)", list, compiled);
+        for (int i = -100; i < 100; i++) {
+            map.putField(new JBBPFieldInt(len, i));
+            assertEquals((i - (2 + 2)) / -(1 + 1) * ~(3 << 2), expr.eval(null, 0, compiledBlock, map));
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testExpression_ConstantDivisionByZero_ErrorDuringEvaluation() {
+        final JBBPExpressionEvaluator expr = new JBBPExpressionEvaluator("12 / (3 - 3)", null, null);
+        expr.eval(null, 0, null, null);
+    }
+
+    @Test
+    public void testExpression_SerializedEvaluator() throws Exception {
+        final JBBPExpressionEvaluator expr = new JBBPExpressionEvaluator("(1 + 2) * 3 >> 1", null, null);
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(buffer);
+        out.writeObject(expr);
+        out.close();
+
+        final JBBPExpressionEvaluator restored = (JBBPExpressionEvaluator) new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray())).readObject();
+        assertEquals((1 + 2) * 3 >> 1, restored.eval(null, 0, null, null));
+    }
+
 }
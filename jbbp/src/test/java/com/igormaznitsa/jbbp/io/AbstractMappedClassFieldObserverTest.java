@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import com.igormaznitsa.jbbp.mapper.Bin;
+import com.igormaznitsa.jbbp.mapper.BinType;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AbstractMappedClassFieldObserverTest {
+
+    @Bin
+    private static class Inner {
+        @Bin(outOrder = 1)
+        byte a = 1;
+    }
+
+    @Bin
+    private static class Outer {
+        @Bin(outOrder = 1)
+        int b = 2;
+        @Bin(outOrder = 2)
+        Inner inner = new Inner();
+        @Bin(outOrder = 3, type = BinType.STRUCT_ARRAY)
+        Inner[] inners = new Inner[]{new Inner(), new Inner()};
+    }
+
+    private static class ValueCollector extends AbstractMappedClassFieldObserver {
+        final List<Long> values = new ArrayList<Long>();
+
+        @Override
+        protected void onFieldByte(final Object obj, final Field field, final Bin annotation, final boolean signed, final int value) {
+            this.values.add((long) value);
+        }
+
+        @Override
+        protected void onFieldInt(final Object obj, final Field field, final Bin annotation, final int value) {
+            this.values.add((long) value);
+        }
+    }
+
+    @Test
+    public void testProcessObject_NoOverriddenMethods() {
+        final ValueCollector collector = new ValueCollector();
+        collector.processObject(new Outer(), null, null);
+        assertEquals("[2, 1, 1, 1]", collector.values.toString());
+    }
+
+    @Test
+    public void testProcessObject_OverriddenProcessObjectField() {
+        final List<String> processed = new ArrayList<String>();
+        final ValueCollector collector = new ValueCollector() {
+            @Override
+            protected void processObjectField(final Object obj, final Field field, final Bin annotation, final Object customFieldProcessor) {
+                processed.add(field.getName());
+                super.processObjectField(obj, field, annotation, customFieldProcessor);
+            }
+        };
+        collector.processObject(new Outer(), null, null);
+        assertEquals("[b, inner, a, inners, a, a]", processed.toString());
+        assertEquals("[2, 1, 1, 1]", collector.values.toString());
+    }
+
+    @Test
+    public void testProcessObject_OverriddenProcessObject() {
+        final List<Object> processed = new ArrayList<Object>();
+        final ValueCollector collector = new ValueCollector() {
+            @Override
+            protected void processObject(final Object obj, final Field field, final Object customFieldProcessor) {
+                processed.add(field == null ? null : field.getName());
+                super.processObject(obj, field, customFieldProcessor);
+            }
+        };
+        collector.processObject(new Outer(), null, null);
+        assertEquals("[null, inner, inners, inners]", processed.toString());
+        assertEquals("[2, 1, 1, 1]", collector.values.toString());
+    }
+
+    @Bin
+    private static class BoxedFloats {
+        @Bin(outOrder = 1, type = BinType.INT)
+        Double a = 5.0E9d;
+        @Bin(outOrder = 2, type = BinType.BYTE)
+        Float b = 300.7f;
+        @Bin(outOrder = 3, type = BinType.INT_ARRAY)
+        Double[] c = new Double[]{-5.0E9d, 12.9d};
+    }
+
+    @Test
+    public void testProcessObject_BoxedFloatingPointValuesConvertedPerWidth() {
+        final ValueCollector collector = new ValueCollector();
+        collector.processObject(new BoxedFloats(), null, null);
+        assertEquals("[" + Integer.MAX_VALUE + ", " + (byte) 300 + ", " + Integer.MIN_VALUE + ", 12]", collector.values.toString());
+    }
+}
@@ -21,6 +21,7 @@ import org.junit.Test;
 import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Random;
 
 import static org.junit.Assert.*;
@@ -427,6 +428,89 @@ public class JBBPBitInputStreamTest {
         assertEquals(-1, in.read());
     }
 
+    @Test
+    public void testReadBitsLong_SameAsBitByBit() throws Exception {
+        final Random rnd = new Random(777L);
+        final byte[] data = new byte[4096];
+        rnd.nextBytes(data);
+
+        for (final JBBPBitOrder order : JBBPBitOrder.values()) {
+            final JBBPBitInputStream in = new JBBPBitInputStream(new ByteArrayInputStream(data), order);
+            final JBBPBitInputStream etalon = new JBBPBitInputStream(new ByteArrayInputStream(data), order);
+
+            int bitsLeft = data.length * 8;
+            while (bitsLeft > 64) {
+                final int bits = rnd.nextInt(64) + 1;
+                long expected = 0L;
+                for (int i = 0; i < bits; i++) {
+                    expected |= (long) etalon.readBits(JBBPBitNumber.BITS_1) << i;
+                }
+                assertEquals(expected, in.readBitsLong(bits));
+                assertEquals(etalon.getCounter(), in.getCounter());
+                assertEquals(etalon.getBufferedBitsNumber(), in.getBufferedBitsNumber());
+                bitsLeft -= bits;
+            }
+        }
+    }
+
+    @Test
+    public void testReadBitsLong() throws Exception {
+        final JBBPBitInputStream in = asInputStream(0x21, 0x43, 0x65, 0x87, 0xA9, 0xCB, 0xED, 0x0F, 0xFF);
+        assertEquals(0x1L, in.readBitsLong(4));
+        assertEquals(0xF0FEDCBA98765432L, in.readBitsLong(64));
+        assertEquals(8, in.getCounter());
+        assertEquals(0xFL, in.readBitsLong(4));
+        assertEquals(9, in.getCounter());
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testReadBitsLong_ErrorForEOF() throws Exception {
+        final JBBPBitInputStream in = asInputStream(1, 2, 3);
+        try {
+            in.readBitsLong(25);
+            fail("Must throw EOF");
+        } catch (EOFException ex) {
+            assertEquals(3, in.getCounter());
+        }
+    }
+
+    @Test
+    public void testReadBitsLong_ErrorForWrongArgument() throws Exception {
+        final JBBPBitInputStream in = asInputStream(1, 2, 3);
+        for (final int bits : new int[]{-1, 0, 65}) {
+            try {
+                in.readBitsLong(bits);
+                fail("Must throw IAE");
+            } catch (IllegalArgumentException ex) {
+                assertEquals(0, in.getCounter());
+            }
+        }
+    }
+
+    @Test
+    public void testReadBitsArray_SameAsItemByItem() throws Exception {
+        final Random rnd = new Random(555L);
+        final byte[] data = new byte[1024];
+        rnd.nextBytes(data);
+
+        for (int bits = 1; bits < 8; bits++) {
+            final JBBPBitNumber bitNumber = JBBPBitNumber.decode(bits);
+            final int items = (data.length * 8 - 3) / bits;
+
+            final JBBPBitInputStream in = new JBBPBitInputStream(new ByteArrayInputStream(data));
+            final JBBPBitInputStream etalon = new JBBPBitInputStream(new ByteArrayInputStream(data));
+            in.readBits(JBBPBitNumber.BITS_3);
+            etalon.readBits(JBBPBitNumber.BITS_3);
+
+            final byte[] array = in.readBitsArray(items, bitNumber);
+            for (int i = 0; i < items; i++) {
+                assertEquals("Bits " + bits + ", item " + i, etalon.readBits(bitNumber), array[i] & 0xFF);
+            }
+            assertEquals(etalon.getCounter(), in.getCounter());
+        }
+    }
+
     @Test
     public void testReadBits_ExceptionForWrongArgument() throws Exception {
         final JBBPBitInputStream inLe = new JBBPBitInputStream(new ByteArrayInputStream(JBBPUtils.str2bin(TEST_BYTES, JBBPBitOrder.LSB0)));
@@ -1007,4 +1091,140 @@ public class JBBPBitInputStreamTest {
         assertEquals(2, in.getCounter());
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testBufferedMode_ErrorForZeroBufferSize() throws Exception {
+        new JBBPBitInputStream(new ByteArrayInputStream(new byte[1]), JBBPBitOrder.LSB0, 0);
+    }
+
+    @Test
+    public void testBufferedMode_ReadPrimitives() throws Exception {
+        final byte[] data = new byte[1021];
+        new Random(1234L).nextBytes(data);
+
+        for (final JBBPBitOrder order : JBBPBitOrder.values()) {
+            for (final int bufferSize : new int[]{1, 3, 7, 16, JBBPBitInputStream.DEFAULT_BUFFER_SIZE}) {
+                final JBBPBitInputStream etalon = new JBBPBitInputStream(new ByteArrayInputStream(data), order);
+                final JBBPBitInputStream buffered = new JBBPBitInputStream(new ByteArrayInputStream(data), order, bufferSize);
+                assertTrue(buffered.isBuffered());
+                assertFalse(buffered.markSupported());
+
+                int step = 0;
+                while (etalon.getCounter() < data.length - 16) {
+                    switch (step++ % 7) {
+                        case 0:
+                            assertEquals(etalon.readUnsignedShort(JBBPByteOrder.BIG_ENDIAN), buffered.readUnsignedShort(JBBPByteOrder.BIG_ENDIAN));
+                            break;
+                        case 1:
+                            assertEquals(etalon.readInt(JBBPByteOrder.LITTLE_ENDIAN), buffered.readInt(JBBPByteOrder.LITTLE_ENDIAN));
+                            break;
+                        case 2:
+                            assertEquals(etalon.readLong(JBBPByteOrder.BIG_ENDIAN), buffered.readLong(JBBPByteOrder.BIG_ENDIAN));
+                            break;
+                        case 3:
+                            assertEquals(etalon.readBits(JBBPBitNumber.BITS_3), buffered.readBits(JBBPBitNumber.BITS_3));
+                            break;
+                        case 4:
+                            assertEquals(etalon.readInt(JBBPByteOrder.BIG_ENDIAN), buffered.readInt(JBBPByteOrder.BIG_ENDIAN));
+                            break;
+                        case 5:
+                            etalon.alignByte();
+                            buffered.alignByte();
+                            assertEquals(etalon.readLong(JBBPByteOrder.LITTLE_ENDIAN), buffered.readLong(JBBPByteOrder.LITTLE_ENDIAN));
+                            break;
+                        default:
+                            assertEquals(etalon.read(), buffered.read());
+                            break;
+                    }
+                    assertEquals(etalon.getCounter(), buffered.getCounter());
+                }
+                assertArrayEquals(etalon.readByteArray(-1), buffered.readByteArray(-1));
+                assertEquals(etalon.getCounter(), buffered.getCounter());
+                assertEquals(-1, buffered.read());
+            }
+        }
+    }
+
+    @Test
+    public void testBufferedMode_ReadArrays() throws Exception {
+        final byte[] data = new byte[4096];
+        new Random(4321L).nextBytes(data);
+
+        final JBBPBitInputStream in = new JBBPBitInputStream(new ByteArrayInputStream(data), JBBPBitOrder.LSB0, 64);
+        final byte[] first = in.readByteArray(10);
+        final int[] ints = in.readIntArray(100, JBBPByteOrder.BIG_ENDIAN);
+        final byte[] block = in.readByteArray(1006);
+        final long[] longs = in.readLongArray(-1, JBBPByteOrder.LITTLE_ENDIAN);
+        assertEquals(data.length, in.getCounter());
+
+        final JBBPBitInputStream etalon = new JBBPBitInputStream(new ByteArrayInputStream(data));
+        assertArrayEquals(etalon.readByteArray(10), first);
+        assertArrayEquals(etalon.readIntArray(100, JBBPByteOrder.BIG_ENDIAN), ints);
+        assertArrayEquals(etalon.readByteArray(1006), block);
+        assertArrayEquals(etalon.readLongArray(-1, JBBPByteOrder.LITTLE_ENDIAN), longs);
+    }
+
+    @Test
+    public void testBufferedMode_Skip() throws Exception {
+        final byte[] data = new byte[300];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        final JBBPBitInputStream in = new JBBPBitInputStream(new ByteArrayInputStream(data), JBBPBitOrder.LSB0, 16);
+        assertEquals(0, in.skip(-5L));
+        assertEquals(0, in.read());
+        assertEquals(15, in.available() - 284);
+        assertEquals(100L, in.skip(100L));
+        assertEquals(101, in.read());
+        assertEquals(102, in.getCounter());
+        assertEquals(198L, in.skip(1000L));
+        assertEquals(-1, in.read());
+        assertEquals(300, in.getCounter());
+    }
+
+    @Test(expected = IOException.class)
+    public void testBufferedMode_ResetNotSupported() throws Exception {
+        final JBBPBitInputStream in = new JBBPBitInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3}), JBBPBitOrder.LSB0, 16);
+        in.mark(10);
+        in.read();
+        in.reset();
+    }
+
+    @Test
+    public void testByteBufferSource_ReadPrimitivesAndMarkReset() throws Exception {
+        final byte[] data = new byte[515];
+        new Random(777L).nextBytes(data);
+
+        for (final JBBPBitOrder order : JBBPBitOrder.values()) {
+            final ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+            direct.put(data).flip();
+
+            final JBBPBitInputStream etalon = new JBBPBitInputStream(new ByteArrayInputStream(data), order);
+            final JBBPBitInputStream in = JBBPBitInputStream.fromBuffer(direct.asReadOnlyBuffer(), order);
+            assertTrue(in.markSupported());
+            assertEquals(data.length, in.available());
+
+            assertEquals(etalon.readBits(JBBPBitNumber.BITS_5), in.readBits(JBBPBitNumber.BITS_5));
+            assertEquals(etalon.readInt(JBBPByteOrder.BIG_ENDIAN), in.readInt(JBBPByteOrder.BIG_ENDIAN));
+            etalon.alignByte();
+            in.alignByte();
+
+            in.mark(100);
+            final long markedValue = in.readLong(JBBPByteOrder.LITTLE_ENDIAN);
+            in.reset();
+            assertEquals(markedValue, in.readLong(JBBPByteOrder.LITTLE_ENDIAN));
+            assertEquals(etalon.readLong(JBBPByteOrder.LITTLE_ENDIAN), markedValue);
+
+            assertEquals(etalon.readUnsignedShort(JBBPByteOrder.LITTLE_ENDIAN), in.readUnsignedShort(JBBPByteOrder.LITTLE_ENDIAN));
+            assertEquals(10L, in.skip(10L));
+            assertEquals(10L, etalon.skip(10L));
+            assertArrayEquals(etalon.readByteArray(-1), in.readByteArray(-1));
+            assertEquals(etalon.getCounter(), in.getCounter());
+            assertEquals(-1, in.read());
+            assertEquals(0L, in.skip(5L));
+            assertEquals(0, in.available());
+            in.close();
+            assertEquals(0, direct.position());
+        }
+    }
+
 }
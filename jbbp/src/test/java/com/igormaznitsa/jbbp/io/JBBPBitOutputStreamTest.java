@@ -439,4 +439,110 @@ public class JBBPBitOutputStreamTest {
         }
     }
 
+    private static void writeRandomData(final JBBPBitOutputStream out, final long seed) throws IOException {
+        final Random rnd = new Random(seed);
+        for (int i = 0; i < 2000; i++) {
+            switch (rnd.nextInt(8)) {
+                case 0:
+                    out.write(rnd.nextInt());
+                    break;
+                case 1:
+                    out.writeBits(rnd.nextInt(), JBBPBitNumber.decode(rnd.nextInt(8) + 1));
+                    break;
+                case 2:
+                    out.writeShort(rnd.nextInt(), rnd.nextBoolean() ? JBBPByteOrder.BIG_ENDIAN : JBBPByteOrder.LITTLE_ENDIAN);
+                    break;
+                case 3:
+                    out.writeInt(rnd.nextInt(), rnd.nextBoolean() ? JBBPByteOrder.BIG_ENDIAN : JBBPByteOrder.LITTLE_ENDIAN);
+                    break;
+                case 4:
+                    out.writeLong(rnd.nextLong(), rnd.nextBoolean() ? JBBPByteOrder.BIG_ENDIAN : JBBPByteOrder.LITTLE_ENDIAN);
+                    break;
+                case 5: {
+                    final byte[] array = new byte[rnd.nextInt(100)];
+                    rnd.nextBytes(array);
+                    out.write(array);
+                }
+                break;
+                case 6:
+                    out.align(rnd.nextInt(40));
+                    break;
+                default: {
+                    final byte[] array = new byte[rnd.nextInt(20)];
+                    rnd.nextBytes(array);
+                    out.writeBytes(array, -1, rnd.nextBoolean() ? JBBPByteOrder.BIG_ENDIAN : JBBPByteOrder.LITTLE_ENDIAN);
+                }
+                break;
+            }
+        }
+    }
+
+    @Test
+    public void testBuffered_SameResultAsUnbuffered() throws Exception {
+        for (final JBBPBitOrder order : JBBPBitOrder.values()) {
+            for (final int bufferSize : new int[]{1, 3, 8, 64, JBBPBitOutputStream.DEFAULT_BUFFER_SIZE}) {
+                final ByteArrayOutputStream etalonBuffer = new ByteArrayOutputStream();
+                final JBBPBitOutputStream etalon = new JBBPBitOutputStream(etalonBuffer, order);
+                assertFalse(etalon.isBuffered());
+                writeRandomData(etalon, 12345L);
+                final long etalonCounter = etalon.getCounter();
+                etalon.close();
+
+                final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                final JBBPBitOutputStream buffered = new JBBPBitOutputStream(buffer, order, bufferSize);
+                assertTrue(buffered.isBuffered());
+                writeRandomData(buffered, 12345L);
+                assertEquals(etalonCounter, buffered.getCounter());
+                buffered.close();
+
+                assertArrayEquals("Order " + order + ", buffer " + bufferSize, etalonBuffer.toByteArray(), buffer.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    public void testBuffered_DataPassedByBlocks() throws Exception {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final JBBPBitOutputStream out = new JBBPBitOutputStream(buffer, JBBPBitOrder.LSB0, 4);
+
+        out.writeShort(0x0102, JBBPByteOrder.BIG_ENDIAN);
+        out.write(3);
+        assertEquals(3, out.getCounter());
+        assertEquals(0, buffer.size());
+
+        out.writeInt(0x04050607, JBBPByteOrder.BIG_ENDIAN);
+        assertEquals(3, buffer.size());
+
+        out.align(9);
+        assertEquals(9, out.getCounter());
+
+        out.flush();
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 0, 0}, buffer.toByteArray());
+    }
+
+    @Test
+    public void testBuffered_LargeArrayWrittenDirectly() throws Exception {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final JBBPBitOutputStream out = new JBBPBitOutputStream(buffer, JBBPBitOrder.LSB0, 16);
+
+        final byte[] array = new byte[100];
+        new Random(1L).nextBytes(array);
+
+        out.write(0xFF);
+        out.write(array);
+        assertEquals(101, buffer.size());
+        out.close();
+
+        final byte[] written = buffer.toByteArray();
+        assertEquals((byte) 0xFF, written[0]);
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(array[i], written[i + 1]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuffered_ErrorForZeroBufferSize() {
+        new JBBPBitOutputStream(new ByteArrayOutputStream(), JBBPBitOrder.LSB0, 0);
+    }
+
 }
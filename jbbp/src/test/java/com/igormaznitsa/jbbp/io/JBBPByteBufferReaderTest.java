@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class JBBPByteBufferReaderTest {
+
+    private static final byte[] DATA = new byte[]{(byte) 0x01, (byte) 0x23, (byte) 0x45, (byte) 0x67, (byte) 0x89, (byte) 0xAB, (byte) 0xCD, (byte) 0xEF, (byte) 0x10, (byte) 0x32, (byte) 0x54, (byte) 0x76, (byte) 0x98, (byte) 0xBA, (byte) 0xDC};
+
+    private static JBBPByteBufferReader asReader(final JBBPBitOrder order, final ByteOrder bufferOrder) {
+        final byte[] array = new byte[DATA.length + 2];
+        System.arraycopy(DATA, 0, array, 2, DATA.length);
+        return new JBBPByteBufferReader(ByteBuffer.wrap(array).order(bufferOrder), 2, order);
+    }
+
+    private static JBBPBitInputStream asStream(final JBBPBitOrder order) {
+        return new JBBPBitInputStream(new ByteArrayInputStream(DATA), order);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_WrongOffset() {
+        new JBBPByteBufferReader(ByteBuffer.allocate(4), 5);
+    }
+
+    @Test
+    public void testAlignedReads() throws Exception {
+        for (final ByteOrder bufferOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            final JBBPByteBufferReader reader = asReader(JBBPBitOrder.LSB0, bufferOrder);
+            assertEquals(0x01, reader.readAlignedByte());
+            assertEquals(0x2345, reader.readAlignedUnsignedShort(JBBPByteOrder.BIG_ENDIAN));
+            assertEquals(0xCDAB8967, reader.readAlignedInt(JBBPByteOrder.LITTLE_ENDIAN));
+            assertEquals(0xEF1032547698BADCL, reader.readAlignedLong(JBBPByteOrder.BIG_ENDIAN));
+            assertEquals(17, reader.getPosition());
+            assertEquals(15L, reader.getCounter());
+            assertFalse(reader.hasAvailableData());
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void testAlignedReads_EOF() throws Exception {
+        final JBBPByteBufferReader reader = asReader(JBBPBitOrder.LSB0, ByteOrder.BIG_ENDIAN);
+        reader.skip(12);
+        reader.readAlignedInt(JBBPByteOrder.BIG_ENDIAN);
+    }
+
+    @Test
+    public void testSameAsBitInputStream() throws Exception {
+        final Random rnd = new Random(9876);
+        for (final JBBPBitOrder order : JBBPBitOrder.values()) {
+            for (int i = 0; i < 200; i++) {
+                final JBBPByteBufferReader reader = asReader(order, ByteOrder.BIG_ENDIAN);
+                final JBBPBitInputStream stream = asStream(order);
+                try {
+                    while (true) {
+                        switch (rnd.nextInt(7)) {
+                            case 0: {
+                                final JBBPBitNumber bits = JBBPBitNumber.decode(rnd.nextInt(8) + 1);
+                                assertEquals(stream.readBitField(bits), reader.readBitField(bits));
+                            }
+                            break;
+                            case 1:
+                                assertEquals(stream.readByte(), reader.readByte());
+                                break;
+                            case 2:
+                                assertEquals(stream.readUnsignedShort(JBBPByteOrder.LITTLE_ENDIAN), reader.readUnsignedShort(JBBPByteOrder.LITTLE_ENDIAN));
+                                break;
+                            case 3:
+                                assertEquals(stream.readInt(JBBPByteOrder.BIG_ENDIAN), reader.readInt(JBBPByteOrder.BIG_ENDIAN));
+                                break;
+                            case 4: {
+                                final JBBPBitNumber bits = JBBPBitNumber.decode(rnd.nextInt(8) + 1);
+                                assertArrayEquals(stream.readBitsArray(3, bits), reader.readBitsArray(3, bits));
+                            }
+                            break;
+                            case 5: {
+                                stream.align(3);
+                                reader.align(3);
+                            }
+                            break;
+                            default: {
+                                assertArrayEquals(stream.readByteArray(2, JBBPByteOrder.LITTLE_ENDIAN), reader.readByteArray(2, JBBPByteOrder.LITTLE_ENDIAN));
+                            }
+                            break;
+                        }
+                        assertEquals(stream.getCounter(), reader.getCounter());
+                        assertEquals(stream.getBufferedBitsNumber(), reader.getBufferedBitsNumber());
+                    }
+                } catch (EOFException ex) {
+                    // expected end of data
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWholeDataArrays() throws Exception {
+        final JBBPBitInputStream stream = asStream(JBBPBitOrder.LSB0);
+        final JBBPByteBufferReader reader = asReader(JBBPBitOrder.LSB0, ByteOrder.BIG_ENDIAN);
+        stream.skip(3);
+        reader.skip(3);
+        assertArrayEquals(stream.readIntArray(-1, JBBPByteOrder.LITTLE_ENDIAN), reader.readIntArray(-1, JBBPByteOrder.LITTLE_ENDIAN));
+        assertArrayEquals(asStream(JBBPBitOrder.MSB0).readBitsArray(-1, JBBPBitNumber.BITS_3), asReader(JBBPBitOrder.MSB0, ByteOrder.BIG_ENDIAN).readBitsArray(-1, JBBPBitNumber.BITS_3));
+        assertArrayEquals(asStream(JBBPBitOrder.LSB0).readByteArray(-1, JBBPByteOrder.LITTLE_ENDIAN), asReader(JBBPBitOrder.LSB0, ByteOrder.BIG_ENDIAN).readByteArray(-1, JBBPByteOrder.LITTLE_ENDIAN));
+    }
+
+    @Test
+    public void testResetCounter() throws Exception {
+        final JBBPByteBufferReader reader = asReader(JBBPBitOrder.LSB0, ByteOrder.BIG_ENDIAN);
+        reader.readBitField(JBBPBitNumber.BITS_3);
+        reader.readByte();
+        assertEquals(1L, reader.getCounter());
+        reader.resetCounter();
+        assertEquals(0L, reader.getCounter());
+        assertEquals(0, reader.getBufferedBitsNumber());
+        assertEquals(0x45, reader.readAlignedByte());
+        assertEquals(1L, reader.getCounter());
+    }
+}
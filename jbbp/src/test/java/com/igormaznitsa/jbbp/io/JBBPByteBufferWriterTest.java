@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.io;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class JBBPByteBufferWriterTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_WrongOffset() {
+        new JBBPByteBufferWriter(ByteBuffer.allocate(4), -1);
+    }
+
+    @Test
+    public void testAlignedWrites() throws Exception {
+        for (final ByteOrder bufferOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            final byte[] array = new byte[17];
+            final JBBPByteBufferWriter writer = new JBBPByteBufferWriter(ByteBuffer.wrap(array).order(bufferOrder), 2);
+            writer.writeAlignedByte(0x01);
+            writer.writeAlignedShort(0x2345, JBBPByteOrder.BIG_ENDIAN);
+            writer.writeAlignedInt(0xCDAB8967, JBBPByteOrder.LITTLE_ENDIAN);
+            writer.writeAlignedLong(0xEF1032547698BADCL, JBBPByteOrder.BIG_ENDIAN);
+            assertEquals(17, writer.getPosition());
+            assertEquals(15L, writer.getCounter());
+            assertArrayEquals(new byte[]{0, 0, 0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xAB, (byte) 0xCD, (byte) 0xEF, 0x10, 0x32, 0x54, 0x76, (byte) 0x98, (byte) 0xBA, (byte) 0xDC}, array);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOverflow() throws Exception {
+        final JBBPByteBufferWriter writer = new JBBPByteBufferWriter(ByteBuffer.allocate(6), 3);
+        writer.writeAlignedInt(1, JBBPByteOrder.BIG_ENDIAN);
+    }
+
+    @Test
+    public void testSameAsBitOutputStream() throws Exception {
+        final Random rnd = new Random(1234);
+        for (final JBBPBitOrder order : JBBPBitOrder.values()) {
+            for (int i = 0; i < 200; i++) {
+                final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+                final JBBPBitOutputStream stream = new JBBPBitOutputStream(bout, order);
+                final byte[] array = new byte[1024];
+                final JBBPByteBufferWriter writer = new JBBPByteBufferWriter(ByteBuffer.wrap(array), 1, order);
+
+                for (int j = 0; j < 20; j++) {
+                    switch (rnd.nextInt(7)) {
+                        case 0: {
+                            final JBBPBitNumber bits = JBBPBitNumber.decode(rnd.nextInt(8) + 1);
+                            final int value = rnd.nextInt();
+                            stream.writeBits(value, bits);
+                            writer.writeBits(value, bits);
+                        }
+                        break;
+                        case 1: {
+                            final int value = rnd.nextInt();
+                            stream.write(value);
+                            writer.write(value);
+                        }
+                        break;
+                        case 2: {
+                            final int value = rnd.nextInt();
+                            stream.writeShort(value, JBBPByteOrder.LITTLE_ENDIAN);
+                            writer.writeShort(value, JBBPByteOrder.LITTLE_ENDIAN);
+                        }
+                        break;
+                        case 3: {
+                            final long value = rnd.nextLong();
+                            stream.writeLong(value, JBBPByteOrder.BIG_ENDIAN);
+                            writer.writeLong(value, JBBPByteOrder.BIG_ENDIAN);
+                        }
+                        break;
+                        case 4: {
+                            final int[] value = new int[]{rnd.nextInt(), rnd.nextInt()};
+                            for (final int v : value) {
+                                stream.writeInt(v, JBBPByteOrder.LITTLE_ENDIAN);
+                            }
+                            writer.writeIntArray(value, -1, JBBPByteOrder.LITTLE_ENDIAN);
+                        }
+                        break;
+                        case 5: {
+                            stream.align(3);
+                            writer.align(3);
+                        }
+                        break;
+                        default: {
+                            final byte[] value = new byte[]{(byte) rnd.nextInt(), (byte) rnd.nextInt(), (byte) rnd.nextInt()};
+                            stream.writeBytes(value, -1, JBBPByteOrder.LITTLE_ENDIAN);
+                            writer.writeBytes(value, -1, JBBPByteOrder.LITTLE_ENDIAN);
+                        }
+                        break;
+                    }
+                    assertEquals(stream.getCounter(), writer.getCounter());
+                }
+
+                stream.close();
+                writer.flush();
+                final byte[] expected = bout.toByteArray();
+                assertEquals(expected.length + 1, writer.getPosition());
+                assertArrayEquals(expected, Arrays.copyOfRange(array, 1, writer.getPosition()));
+            }
+        }
+    }
+
+    @Test
+    public void testBitsAndReset() throws Exception {
+        final byte[] array = new byte[4];
+        final JBBPByteBufferWriter writer = new JBBPByteBufferWriter(ByteBuffer.wrap(array), 0);
+        writer.writeBits(5, JBBPBitNumber.BITS_3);
+        assertEquals(3, writer.getBufferedBitsNumber());
+        writer.writeBits(1, JBBPBitNumber.BITS_5);
+        assertEquals(0, writer.getBufferedBitsNumber());
+        writer.writeBits(7, JBBPBitNumber.BITS_4);
+        writer.resetCounter();
+        assertEquals(0, writer.getBufferedBitsNumber());
+        assertEquals(0L, writer.getCounter());
+        writer.writeZeroBytes(1);
+        writer.write(0xFF);
+        assertArrayEquals(new byte[]{0x0D, 0, (byte) 0xFF, 0}, array);
+    }
+}
@@ -27,6 +27,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.igormaznitsa.jbbp.io.JBBPOut.BeginBin;
 import static org.junit.Assert.*;
@@ -49,6 +53,104 @@ public class JBBPOutTest {
         assertArrayEquals(new byte[]{(byte) 0x4b, (byte) 0x20}, buffer2.toByteArray());
     }
 
+    @Test
+    public void testBeginBin_ByteArray() throws Exception {
+        final byte[] array = new byte[6];
+        final JBBPOut out = BeginBin(array, 1, 4, JBBPByteOrder.LITTLE_ENDIAN, JBBPBitOrder.LSB0);
+        assertNull(out.Short(0x0102).Byte(3).End());
+        assertEquals(3, out.getByteCounter());
+        assertArrayEquals(new byte[]{0, 2, 1, 3, 0, 0}, array);
+
+        out.Reset().Int(0x04050607);
+        assertEquals(4, out.getByteCounter());
+        assertArrayEquals(new byte[]{0, 7, 6, 5, 4, 0}, array);
+    }
+
+    @Test
+    public void testBeginBin_ByteArray_ErrorForOverflow() throws Exception {
+        final JBBPOut out = BeginBin(new byte[3]);
+        out.Byte(1, 2, 3);
+        try {
+            out.Byte(4);
+            fail("Must throw IOException");
+        } catch (IOException ex) {
+            assertEquals(3, out.getByteCounter());
+        }
+    }
+
+    @Test
+    public void testBeginBin_ByteBuffer() throws Exception {
+        for (final ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(16), ByteBuffer.allocateDirect(16)}) {
+            buffer.position(2);
+            final JBBPOut out = BeginBin(buffer, JBBPByteOrder.BIG_ENDIAN, JBBPBitOrder.MSB0);
+
+            for (int i = 0; i < 3; i++) {
+                out.Reset().Byte(1).ByteOrder(JBBPByteOrder.LITTLE_ENDIAN).Short(0x0203).Bit(1).End();
+                assertEquals(6, buffer.position());
+
+                buffer.flip();
+                buffer.position(2);
+                final byte[] written = new byte[buffer.remaining()];
+                buffer.get(written);
+                assertArrayEquals(new byte[]{(byte) 0x80, (byte) 0xC0, 0x40, (byte) 0x80}, written);
+                buffer.limit(buffer.capacity());
+            }
+        }
+    }
+
+    @Test
+    public void testBeginBin_OutputStream_NotBufferedByDefault() throws Exception {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final JBBPOut out = BeginBin(new DataOutputStream(target));
+        out.Byte(1, 2).Int(0x03040506);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, target.toByteArray());
+        assertNull(out.End());
+    }
+
+    @Test
+    public void testBeginBin_OutputStream_Buffered() throws Exception {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final JBBPOut out = BeginBin(new DataOutputStream(target), JBBPByteOrder.BIG_ENDIAN, JBBPBitOrder.LSB0, 4);
+        out.Byte(1, 2);
+        assertEquals(0, target.size());
+        out.Int(0x03040506);
+        assertArrayEquals(new byte[]{1, 2}, target.toByteArray());
+        out.Flush();
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, target.toByteArray());
+        out.Byte(7);
+        assertNull(out.End());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7}, target.toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBeginBin_OutputStream_ErrorForZeroBufferSize() throws Exception {
+        BeginBin(new ByteArrayOutputStream(), JBBPByteOrder.BIG_ENDIAN, JBBPBitOrder.LSB0, 0);
+    }
+
+    @Test
+    public void testReset_ByteArrayOutputStream() throws Exception {
+        final JBBPOut out = BeginBin();
+        assertArrayEquals(new byte[]{1, 2}, out.Byte(1, 2).End().toByteArray());
+        assertArrayEquals(new byte[]{3}, out.Reset().Byte(3).End().toByteArray());
+        assertEquals(1, out.getByteCounter());
+    }
+
+    @Test
+    public void testReset_BufferedOutputStream_DropsNotFlushedData() throws Exception {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final JBBPOut out = BeginBin(new DataOutputStream(target), JBBPByteOrder.BIG_ENDIAN, JBBPBitOrder.LSB0, 16);
+        out.Byte(1, 2, 3).Bit(1);
+        assertEquals(0, target.size());
+
+        out.Reset().Byte(4).End();
+        assertArrayEquals(new byte[]{4}, target.toByteArray());
+        assertEquals(1, out.getByteCounter());
+
+        out.Reset().Byte(5).Flush();
+        out.Reset().Byte(6).End();
+        assertArrayEquals(new byte[]{4, 5, 6}, target.toByteArray());
+    }
+
     @Test
     public void testSkip() throws Exception {
         assertArrayEquals(new byte[]{(byte) 0x01, (byte) 0xFF}, BeginBin().Bit(1).Skip(0).Byte(0xFF).End().toByteArray());
@@ -1216,6 +1318,70 @@ public class JBBPOutTest {
         }).End().toByteArray());
     }
 
+    @Test
+    public void testBin_ConcurrentWritingOfTheSameClass() throws Exception {
+        final int threads = 32;
+        final int iterations = 500;
+
+        final byte[] etalon = BeginBin().Bin(new TestWithStaticField((byte) 1, (byte) 2, (byte) 3)).End().toByteArray();
+
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final AtomicInteger errors = new AtomicInteger();
+        final Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int j = 0; j < iterations; j++) {
+                            final JBBPOut out = BeginBin();
+                            if (j % 100 == 0) {
+                                out.resetInsideClassCache();
+                            }
+                            if (!Arrays.equals(etalon, out.Bin(new TestWithStaticField((byte) 1, (byte) 2, (byte) 3)).End().toByteArray())) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            workers[i].start();
+        }
+
+        startLatch.countDown();
+        for (final Thread t : workers) {
+            t.join();
+        }
+
+        assertEquals(0, errors.get());
+    }
+
+    @Test
+    public void testBin_WrapperTypesAndPrimitiveArrays() throws Exception {
+        class Test {
+            @Bin(outOrder = 1, type = BinType.BYTE)
+            Integer a;
+            @Bin(outOrder = 2, type = BinType.SHORT)
+            Long b;
+            @Bin(outOrder = 3, type = BinType.BYTE_ARRAY)
+            int[] c;
+            @Bin(outOrder = 4, type = BinType.SHORT_ARRAY)
+            char[] d;
+
+            Test(Integer a, Long b, int[] c, char[] d) {
+                this.a = a;
+                this.b = b;
+                this.c = c;
+                this.d = d;
+            }
+        }
+
+        assertArrayEquals(new byte[]{1, 0x02, 0x03, 4, 5, 0x00, 0x41, 0x00, 0x42}, BeginBin().Bin(new Test(1, 0x0203L, new int[]{4, 5}, new char[]{'A', 'B'})).End().toByteArray());
+    }
+
     @Bin
     private static class TestWithStaticField {
         static int some = 111;
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.mapper;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.*;
+
+public class FieldAccessorTest {
+
+    private static FieldAccessor[] makeAccessors(final String fieldName) throws Exception {
+        final Field field = Fields.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return new FieldAccessor[]{new ReflectionFieldAccessor(field), new UnsafeFieldAccessor(field), MappedFieldRecord.makeAccessor(field)};
+    }
+
+    @Test
+    public void testPrimitives() throws Exception {
+        for (final FieldAccessor a : makeAccessors("z")) {
+            final Fields f = new Fields();
+            a.setBoolean(f, true);
+            assertTrue(f.z);
+            assertEquals(Boolean.TRUE, a.get(f));
+        }
+        for (final FieldAccessor a : makeAccessors("b")) {
+            final Fields f = new Fields();
+            a.setByte(f, (byte) -3);
+            assertEquals(-3, f.b);
+        }
+        for (final FieldAccessor a : makeAccessors("c")) {
+            final Fields f = new Fields();
+            a.setChar(f, 'x');
+            assertEquals('x', f.c);
+            assertEquals('x', a.get(f));
+        }
+        for (final FieldAccessor a : makeAccessors("s")) {
+            final Fields f = new Fields();
+            a.setShort(f, (short) 12345);
+            assertEquals(12345, f.s);
+        }
+        for (final FieldAccessor a : makeAccessors("i")) {
+            final Fields f = new Fields();
+            a.setInt(f, 0xCAFEBABE);
+            assertEquals(0xCAFEBABE, f.i);
+            a.set(f, 77);
+            assertEquals(77, f.i);
+        }
+        for (final FieldAccessor a : makeAccessors("l")) {
+            final Fields f = new Fields();
+            a.setLong(f, 0x1122334455667788L);
+            assertEquals(0x1122334455667788L, f.l);
+            assertEquals(0x1122334455667788L, a.get(f));
+        }
+        for (final FieldAccessor a : makeAccessors("fl")) {
+            final Fields f = new Fields();
+            a.setFloat(f, 1.25f);
+            assertEquals(1.25f, f.fl, 0.0f);
+        }
+        for (final FieldAccessor a : makeAccessors("d")) {
+            final Fields f = new Fields();
+            a.setDouble(f, -2.5d);
+            assertEquals(-2.5d, f.d, 0.0d);
+            assertEquals(-2.5d, a.get(f));
+        }
+        for (final FieldAccessor a : makeAccessors("vol")) {
+            final Fields f = new Fields();
+            a.setInt(f, 42);
+            assertEquals(42, f.vol);
+        }
+    }
+
+    @Test
+    public void testObjects() throws Exception {
+        for (final FieldAccessor a : makeAccessors("array")) {
+            final Fields f = new Fields();
+            final int[] value = new int[]{1, 2, 3};
+            a.set(f, value);
+            assertSame(value, f.array);
+            assertSame(value, a.get(f));
+            a.set(f, null);
+            assertNull(f.array);
+            try {
+                a.set(f, "wrong");
+                fail("Must throw IAE");
+            } catch (IllegalArgumentException ex) {
+                assertNull(f.array);
+            }
+            try {
+                a.set("wrong", value);
+                fail("Must throw IAE");
+            } catch (IllegalArgumentException ex) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongPrimitiveType() throws Exception {
+        new UnsafeFieldAccessor(Fields.class.getDeclaredField("b")).setInt(new Fields(), 1);
+    }
+
+    private static class Fields {
+        boolean z;
+        byte b;
+        char c;
+        short s;
+        int i;
+        long l;
+        float fl;
+        double d;
+        volatile int vol;
+        int[] array;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.jbbp.mapper;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.exceptions.JBBPMapperException;
+import com.igormaznitsa.jbbp.io.JBBPBitOrder;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.Assert.*;
+
+public class JBBPDirectMapperTest {
+
+    private static final byte[] DATA = new byte[]{
+            (byte) 0xA5, 1, (byte) 0xFF, 0, 3, (byte) 0x80, 0, 0, 0, 1, 2, 3, 4, 5, 6, 7, 8,
+            2, 10, 20, 30, 40, 50, 60, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+    private static final String SCRIPT = "bit:4 b4; bit:4 b4x; bool flag; ubyte ub; short sh; int i; long l; ubyte len; s [len] { byte a; byte b; } inner { ushort us; } byte [_] tail;";
+
+    @Test
+    public void testParseInto_SameResultAsParseAndMap() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare(SCRIPT);
+
+        final Mapped direct = parser.parseInto(DATA, Mapped.class);
+        final Mapped mapped = parser.parse(DATA).mapTo(Mapped.class);
+
+        assertEquals(mapped.b4, direct.b4);
+        assertEquals(mapped.flag, direct.flag);
+        assertEquals(mapped.ub, direct.ub);
+        assertEquals(mapped.sh, direct.sh);
+        assertEquals(mapped.i, direct.i);
+        assertEquals(mapped.l, direct.l);
+        assertEquals(2, direct.s.length);
+        for (int i = 0; i < direct.s.length; i++) {
+            assertEquals(mapped.s[i].a, direct.s[i].a);
+            assertEquals(mapped.s[i].b, direct.s[i].b);
+        }
+        assertEquals(mapped.inner.us, direct.inner.us);
+        assertArrayEquals(mapped.tail, direct.tail);
+
+        assertEquals(5, direct.b4);
+        assertEquals(255, direct.ub);
+        assertEquals(0x0003, direct.sh);
+        assertEquals(0x0102030405060708L, direct.l);
+        assertEquals(10, direct.s[0].a);
+        assertEquals(40, direct.s[1].b);
+        assertEquals((char) 0x323C, direct.inner.us);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9}, direct.tail);
+    }
+
+    @Test
+    public void testParseInto_Instance_ReusesNestedObjectsAndArrays() throws Exception {
+        final Mapped instance = new Mapped();
+        final Inner inner = new Inner();
+        final Item[] items = new Item[]{new Item(), null};
+        final Item first = items[0];
+        instance.inner = inner;
+        instance.s = items;
+
+        assertSame(instance, JBBPParser.prepare(SCRIPT).parseInto(new ByteArrayInputStream(DATA), instance));
+        assertSame(inner, instance.inner);
+        assertSame(items, instance.s);
+        assertSame(first, instance.s[0]);
+        assertEquals(10, first.a);
+        assertEquals(40, instance.s[1].b);
+    }
+
+    @Test(expected = JBBPMapperException.class)
+    public void testParseInto_ErrorForDifferentArraySize() throws Exception {
+        final Mapped instance = new Mapped();
+        instance.s = new Item[3];
+        JBBPParser.prepare(SCRIPT).parseInto(new ByteArrayInputStream(DATA), instance);
+    }
+
+    @Test
+    public void testParseInto_WholeStreamStructArray() throws Exception {
+        final WholeStream result = JBBPParser.prepare("byte a; items [_] { byte a; byte b; }").parseInto(new byte[]{9, 1, 2, 3, 4, 5, 6}, WholeStream.class);
+        assertEquals(9, result.a);
+        assertEquals(3, result.items.length);
+        assertEquals(5, result.items[2].a);
+        assertEquals(6, result.items[2].b);
+    }
+
+    @Test
+    public void testParseInto_ExpressionArrayAndMissingValue() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("ubyte len; int [len*2] values;");
+        final byte[] data = new byte[]{1, 0, 0, 0, 1, 0, 0, 0, 2};
+
+        try {
+            parser.parseInto(data, WithMissing.class);
+            fail("Must throw JBBPMapperException");
+        } catch (JBBPMapperException ex) {
+            assertEquals("missing", ex.getMappingClassField().getName());
+        }
+
+        final WithMissing result = parser.parseInto(new ByteArrayInputStream(data), WithMissing.class, null, null, null, JBBPMapper.FLAG_IGNORE_MISSING_VALUES);
+        assertArrayEquals(new int[]{1, 2}, result.values);
+        assertEquals(0, result.missing);
+    }
+
+    @Test
+    public void testParseInto_FallbackForPathAndBitOrder() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("header { byte [2] id; } ubyte v; some { inner { int x; } }");
+        final byte[] data = new byte[]{'H', 'I', 1, 0, 0, 0, 7};
+
+        final WithPath direct = parser.parseInto(data, WithPath.class);
+        final WithPath mapped = parser.parse(data).mapTo(WithPath.class);
+
+        assertEquals("HI", direct.header.id);
+        assertEquals(mapped.v, direct.v);
+        assertEquals((byte) 0x80, direct.v);
+        assertEquals(7, direct.x);
+        assertEquals(mapped.x, direct.x);
+    }
+
+    @Test
+    public void testParseInto_StructMappedToPrimitiveField() throws Exception {
+        try {
+            JBBPParser.prepare("inner { byte a; }").parseInto(new byte[]{1}, StructToPrimitive.class);
+            fail("Must throw JBBPMapperException");
+        } catch (JBBPMapperException ex) {
+            assertEquals("inner", ex.getMappingClassField().getName());
+        }
+    }
+
+    @Test
+    public void testParseInto_MSB0Parser() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("bit:4 b4; bit:4 b4x; byte [_] tail;", JBBPBitOrder.MSB0);
+        final byte[] data = new byte[]{(byte) 0x35, 1, 2};
+        final JBBPFieldStruct root = parser.parse(data);
+        final Mapped direct = parser.parseInto(new ByteArrayInputStream(data), new Mapped(), null, null, null, JBBPMapper.FLAG_IGNORE_MISSING_VALUES);
+        assertEquals(root.findFieldForNameAndType("b4", com.igormaznitsa.jbbp.model.JBBPFieldBit.class).getAsInt(), direct.b4);
+    }
+
+    public static class Item {
+        @Bin
+        byte a;
+        @Bin
+        byte b;
+    }
+
+    public static class Inner {
+        @Bin(type = BinType.USHORT)
+        char us;
+    }
+
+    public static class Mapped {
+        @Bin(outBitNumber = com.igormaznitsa.jbbp.io.JBBPBitNumber.BITS_4)
+        int b4;
+        @Bin
+        boolean flag;
+        @Bin(type = BinType.UBYTE)
+        int ub;
+        @Bin
+        short sh;
+        @Bin
+        int i;
+        @Bin
+        long l;
+        @Bin
+        Item[] s;
+        @Bin
+        Inner inner;
+        @Bin
+        byte[] tail;
+    }
+
+    public static class WholeStream {
+        @Bin
+        byte a;
+        @Bin
+        Item[] items;
+    }
+
+    public static class WithMissing {
+        @Bin
+        int[] values;
+        @Bin
+        int missing;
+    }
+
+    public static class Header {
+        @Bin(type = BinType.BYTE_ARRAY)
+        String id;
+    }
+
+    public static class WithPath {
+        @Bin
+        Header header;
+        @Bin(type = BinType.UBYTE, bitOrder = JBBPBitOrder.MSB0)
+        byte v;
+        @Bin(path = "some.inner.x")
+        int x;
+    }
+
+    public static class StructToPrimitive {
+        @Bin(type = BinType.STRUCT)
+        int inner;
+    }
+}
@@ -848,6 +848,35 @@ public class JBBPMapperTest {
         assertEquals(0, parsed.b);
     }
 
+    @Test
+    public void testMap_CachedMappingFieldsForInheritedClass() throws Exception {
+        final JBBPParser parser = JBBPParser.prepare("byte a; int b; ubyte [2] c;");
+        final byte[] data = new byte[]{1, 2, 3, 4, 5, 6, 7};
+
+        for (int i = 0; i < 3; i++) {
+            final MappedChild first = parser.parse(data).mapTo(MappedChild.class);
+            assertEquals(1, first.a);
+            assertEquals(0x02030405, first.b);
+            assertArrayEquals(new byte[]{6, 7}, first.c);
+            if (i == 1) {
+                JBBPMapper.clearMappingCache();
+            }
+        }
+    }
+
+    @Bin
+    private static class MappedParent {
+        byte a;
+        transient int ignored;
+    }
+
+    private static class MappedChild extends MappedParent {
+        @Bin
+        int b;
+        @Bin(type = BinType.UBYTE_ARRAY)
+        byte[] c;
+    }
+
     @Bin
     private static class MappedWithStaticField {
         static int ignored = 111;
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.jbbp.model;
+
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.compiler.JBBPNamedFieldInfo;
+import com.igormaznitsa.jbbp.exceptions.JBBPFinderException;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class JBBPFieldPathTest {
+
+    @Test
+    public void testCompile() {
+        final JBBPFieldPath path = JBBPFieldPath.compile(" Struct1.Field ");
+        assertEquals(" Struct1.Field ", path.getPath());
+        assertEquals("struct1.field", path.toString());
+        assertEquals(2, path.size());
+        assertEquals("struct1", path.getName(0));
+        assertEquals("field", path.getName(1));
+        assertEquals(JBBPFieldPath.compile("struct1.field"), path);
+        assertEquals(JBBPFieldPath.compile("struct1.field").hashCode(), path.hashCode());
+    }
+
+    @Test
+    public void testCompile_ForCompiledBlock_NotFound() {
+        final JBBPParser parser = JBBPParser.prepare("byte a; s { int b; }");
+        assertEquals(2, JBBPFieldPath.compile(parser.getCompiledBlock(), "s.b").size());
+        try {
+            JBBPFieldPath.compile(parser.getCompiledBlock(), "s.c");
+            fail("Must throw JBBPFinderException");
+        } catch (JBBPFinderException ex) {
+            assertEquals("s.c", ex.getNameOrPath());
+        }
+        try {
+            JBBPFieldPath.compile(parser.getCompiledBlock(), "q.b");
+            fail("Must throw JBBPFinderException");
+        } catch (JBBPFinderException ex) {
+            assertEquals("q.b", ex.getNameOrPath());
+        }
+    }
+
+    @Test
+    public void testFindInParsedRecords() throws IOException {
+        final JBBPParser parser = JBBPParser.prepare("byte a; s { int b; long c; inner { ubyte d; } } short e;");
+        final JBBPFieldPath pathD = JBBPFieldPath.compile(parser.getCompiledBlock(), "s.inner.d");
+        final JBBPFieldPath pathE = JBBPFieldPath.compile(parser.getCompiledBlock(), "e");
+        final JBBPFieldPath pathUnknown = JBBPFieldPath.compile("s.unknown");
+
+        for (int i = 0; i < 3; i++) {
+            final byte[] data = new byte[16];
+            data[13] = (byte) (0xF0 + i);
+            data[15] = (byte) i;
+            final JBBPFieldStruct parsed = parser.parse(data);
+            assertEquals(0xF0 + i, parsed.findFieldForCompiledPathAndType(pathD, JBBPFieldUByte.class).getAsInt());
+            assertEquals(i, parsed.findFieldForCompiledPathAndType(pathE, JBBPFieldShort.class).getAsInt());
+            assertNull(parsed.findFieldForCompiledPathAndType(pathE, JBBPFieldInt.class));
+            assertNull(parsed.findFieldForCompiledPath(pathUnknown));
+        }
+    }
+
+    @Test
+    public void testFindInStructFromOtherParser() throws IOException {
+        final JBBPFieldPath path = JBBPFieldPath.compile(JBBPParser.prepare("byte a; s { int b; }").getCompiledBlock(), "s.b");
+        final JBBPFieldStruct parsed = JBBPParser.prepare("s { int b; } byte a;").parse(new byte[] {0, 0, 0, 7, 1});
+        assertEquals(7, parsed.findFieldForCompiledPathAndType(path, JBBPFieldInt.class).getAsInt());
+    }
+
+    @Test
+    public void testFindFirstOfDuplicatedNames() {
+        final JBBPFieldStruct inner1 = new JBBPFieldStruct(new JBBPNamedFieldInfo("s.x", "x", 0), new JBBPAbstractField[] {new JBBPFieldByte(new JBBPNamedFieldInfo("s.x.b", "b", 0), (byte) 1)});
+        final JBBPFieldStruct inner2 = new JBBPFieldStruct(new JBBPNamedFieldInfo("s.x", "x", 0), new JBBPAbstractField[] {new JBBPFieldByte(new JBBPNamedFieldInfo("s.x.b", "b", 0), (byte) 2)});
+        final JBBPFieldStruct struct = new JBBPFieldStruct(new JBBPNamedFieldInfo("s", "s", 0), new JBBPAbstractField[] {inner1, inner2});
+
+        final JBBPFieldPath path = JBBPFieldPath.compile("s.x.b");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, struct.findFieldForCompiledPathAndType(path, JBBPFieldByte.class).getAsInt());
+            assertEquals(1, struct.findFieldForPathAndType("s.x.b", JBBPFieldByte.class).getAsInt());
+        }
+        assertEquals(2, inner2.findFieldForCompiledPathAndType(JBBPFieldPath.compile("x.b"), JBBPFieldByte.class).getAsInt());
+    }
+
+    @Test(expected = JBBPFinderException.class)
+    public void testFieldAsPathNode() throws IOException {
+        final JBBPFieldStruct parsed = JBBPParser.prepare("byte a; s { int b; }").parse(new byte[5]);
+        parsed.findFieldForCompiledPath(JBBPFieldPath.compile("a.b"));
+    }
+}
@@ -227,4 +227,44 @@ public class JBBPFieldStructTest {
         byte c;
     }
 
+    @Test
+    public void testFindInStructWithFieldIndex() {
+        final JBBPAbstractField[] fields = new JBBPAbstractField[12];
+        for (int i = 0; i < fields.length; i++) {
+            final JBBPNamedFieldInfo name = i == 3 ? null : new JBBPNamedFieldInfo("struct.field" + i, "field" + i, i);
+            fields[i] = i % 3 == 0 ? new JBBPFieldInt(name, i) : new JBBPFieldByte(name, (byte) i);
+        }
+        fields[11] = new JBBPFieldLong(new JBBPNamedFieldInfo("struct.field11", "field11", 11), 11L);
+        fields[10] = new JBBPFieldStruct(new JBBPNamedFieldInfo("struct.field10", "field10", 10), new JBBPAbstractField[] {new JBBPFieldShort(new JBBPNamedFieldInfo("struct.field10.a", "a", 100), (short) 100)});
+
+        final JBBPFieldStruct struct = new JBBPFieldStruct(new JBBPNamedFieldInfo("struct", "struct", 0), fields);
+
+        for (int pass = 0; pass < 2; pass++) {
+            assertSame(fields[5], struct.findFieldForName("FIELD5"));
+            assertNull(struct.findFieldForName("field3"));
+            assertNull(struct.findFieldForName("unknown"));
+            assertTrue(struct.nameExists("field9"));
+            assertFalse(struct.nameExists("field12"));
+
+            assertSame(fields[9], struct.findFieldForNameAndType("field9", JBBPFieldInt.class));
+            assertNull(struct.findFieldForNameAndType("field9", JBBPFieldByte.class));
+
+            assertSame(fields[1], struct.findFirstFieldForType(JBBPFieldByte.class));
+            assertSame(fields[8], struct.findLastFieldForType(JBBPFieldByte.class));
+            assertSame(fields[0], struct.findFirstFieldForType(JBBPAbstractField.class));
+            assertSame(fields[11], struct.findLastFieldForType(JBBPAbstractField.class));
+            assertSame(fields[11], struct.findFieldForType(JBBPFieldLong.class));
+            assertNull(struct.findFieldForType(JBBPFieldBoolean.class));
+            assertNull(struct.findLastFieldForType(JBBPFieldBoolean.class));
+            try {
+                struct.findFieldForType(JBBPFieldInt.class);
+                fail("Must throw JBBPTooManyFieldsFoundException");
+            } catch (JBBPTooManyFieldsFoundException ex) {
+                assertEquals(4, ex.getNumberOfFoundInstances());
+            }
+
+            assertEquals(100, struct.findFieldForPathAndType("struct.field10.a", JBBPFieldShort.class).getAsInt());
+            assertEquals(100, struct.findFieldForCompiledPathAndType(JBBPFieldPath.compile("struct.field10.a"), JBBPFieldShort.class).getAsInt());
+        }
+    }
 }